@@ -0,0 +1,84 @@
+package org.heigit.ors.api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "ors.admission")
+public class AdmissionProperties {
+    private boolean enabled;
+    private long heavyCost = 1000;
+    private RequestClassProperties light = new RequestClassProperties(64, 256, 10000);
+    private RequestClassProperties heavy = new RequestClassProperties(4, 16, 30000);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getHeavyCost() {
+        return heavyCost;
+    }
+
+    public void setHeavyCost(long heavyCost) {
+        this.heavyCost = heavyCost;
+    }
+
+    public RequestClassProperties getLight() {
+        return light;
+    }
+
+    public void setLight(RequestClassProperties light) {
+        this.light = light;
+    }
+
+    public RequestClassProperties getHeavy() {
+        return heavy;
+    }
+
+    public void setHeavy(RequestClassProperties heavy) {
+        this.heavy = heavy;
+    }
+
+    public static class RequestClassProperties {
+        private int concurrency;
+        private int queueSize;
+        private long timeout;
+
+        public RequestClassProperties() {
+        }
+
+        public RequestClassProperties(int concurrency, int queueSize, long timeout) {
+            this.concurrency = concurrency;
+            this.queueSize = queueSize;
+            this.timeout = timeout;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.codehaus.commons.nullanalysis.NotNull;
 import org.heigit.ors.api.converters.APIRequestProfileConverter;
 import org.heigit.ors.api.converters.APIRequestSingleCoordinateConverter;
+import org.heigit.ors.api.converters.GeoJSONSerializerInstantiator;
 import org.heigit.ors.api.util.AppConfigMigration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -77,8 +78,10 @@ public class ApiConfig implements WebMvcConfigurer {
     }
 
     @Bean
-    public ObjectMapper objectMapper() {
+    public ObjectMapper objectMapper(EndpointsProperties endpointsProperties) {
         ObjectMapper mapper = new ObjectMapper();
+        if (endpointsProperties.getDefaults() != null)
+            mapper.setHandlerInstantiator(new GeoJSONSerializerInstantiator(endpointsProperties.getDefaults().getCoordinatePrecision()));
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
         mapper.registerModule(new JtsModule());
         mapper.registerModule(new JavaTimeModule());
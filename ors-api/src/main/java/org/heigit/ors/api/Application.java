@@ -2,12 +2,14 @@ package org.heigit.ors.api;
 
 import jakarta.servlet.ServletContextListener;
 import org.apache.log4j.Logger;
+import org.heigit.ors.api.servlet.filters.RoutingProfilesLeaseFilter;
 import org.heigit.ors.api.servlet.listeners.ORSInitContextListener;
 import org.heigit.ors.api.util.AppInfo;
 import org.heigit.ors.routing.RoutingProfileManagerStatus;
 import org.heigit.ors.util.StringUtility;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.boot.web.servlet.ServletComponentScan;
 import org.springframework.boot.web.servlet.ServletListenerRegistrationBean;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
@@ -34,9 +36,17 @@ public class Application extends SpringBootServletInitializer {
     }
 
     @Bean("ORSInitContextListenerBean")
-    public ServletListenerRegistrationBean<ServletContextListener> createORSInitContextListenerBean(EngineProperties engineProperties) {
+    public ServletListenerRegistrationBean<ServletContextListener> createORSInitContextListenerBean(EngineProperties engineProperties, EndpointsProperties endpointsProperties) {
         ServletListenerRegistrationBean<ServletContextListener> bean = new ServletListenerRegistrationBean<>();
-        bean.setListener(new ORSInitContextListener(engineProperties));
+        bean.setListener(new ORSInitContextListener(engineProperties, endpointsProperties));
+        return bean;
+    }
+
+    @Bean("RoutingProfilesLeaseFilterBean")
+    public FilterRegistrationBean<RoutingProfilesLeaseFilter> createRoutingProfilesLeaseFilterBean() {
+        FilterRegistrationBean<RoutingProfilesLeaseFilter> bean = new FilterRegistrationBean<>();
+        bean.setFilter(new RoutingProfilesLeaseFilter());
+        bean.addUrlPatterns("/*");
         return bean;
     }
 }
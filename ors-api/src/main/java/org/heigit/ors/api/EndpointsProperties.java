@@ -1,5 +1,6 @@
 package org.heigit.ors.api;
 
+import org.heigit.ors.api.converters.GeoJSONGeometrySerializer;
 import org.heigit.ors.routing.RoutingProfileType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -70,6 +71,7 @@ public class EndpointsProperties {
 
     public static class EndpointDefaultProperties {
         private String attribution;
+        private int coordinatePrecision = GeoJSONGeometrySerializer.DEFAULT_COORDINATE_PRECISION;
 
         public String getAttribution() {
             return attribution;
@@ -78,6 +80,14 @@ public class EndpointsProperties {
         public void setAttribution(String attribution) {
             this.attribution = attribution;
         }
+
+        public int getCoordinatePrecision() {
+            return coordinatePrecision;
+        }
+
+        public void setCoordinatePrecision(int coordinatePrecision) {
+            this.coordinatePrecision = coordinatePrecision;
+        }
     }
 
     public static class EndpointRoutingProperties {
@@ -445,6 +455,9 @@ public class EndpointsProperties {
     public static class EndpointSnapProperties {
         private boolean enabled;
         private String attribution;
+        private int maximumBulkLocations = 10000000;
+        private int bulkBatchSize = 50000;
+        private int bulkThreads = 4;
 
         public boolean isEnabled() {
             return enabled;
@@ -462,5 +475,28 @@ public class EndpointsProperties {
             this.attribution = attribution;
         }
 
+        public int getMaximumBulkLocations() {
+            return maximumBulkLocations;
+        }
+
+        public void setMaximumBulkLocations(int maximumBulkLocations) {
+            this.maximumBulkLocations = maximumBulkLocations;
+        }
+
+        public int getBulkBatchSize() {
+            return bulkBatchSize;
+        }
+
+        public void setBulkBatchSize(int bulkBatchSize) {
+            this.bulkBatchSize = bulkBatchSize;
+        }
+
+        public int getBulkThreads() {
+            return bulkThreads;
+        }
+
+        public void setBulkThreads(int bulkThreads) {
+            this.bulkThreads = bulkThreads;
+        }
     }
 }
@@ -23,6 +23,12 @@ public class EngineProperties {
     private String sourceFile;
     private String graphsRootPath;
     private ElevationProperties elevation;
+    private WarmUpProperties warmup = new WarmUpProperties();
+    private ReloadProperties reload = new ReloadProperties();
+    private int segmentThreads;
+    private int segmentParallelism = 4;
+    private int matrixThreads;
+    private int matrixParallelism = 4;
     private ProfileProperties profileDefault;
     private Map<String, ProfileProperties> profiles;
 
@@ -66,6 +72,54 @@ public class EngineProperties {
         this.elevation = elevation;
     }
 
+    public WarmUpProperties getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(WarmUpProperties warmup) {
+        this.warmup = warmup;
+    }
+
+    public ReloadProperties getReload() {
+        return reload;
+    }
+
+    public void setReload(ReloadProperties reload) {
+        this.reload = reload;
+    }
+
+    public int getSegmentThreads() {
+        return segmentThreads;
+    }
+
+    public void setSegmentThreads(int segmentThreads) {
+        this.segmentThreads = segmentThreads;
+    }
+
+    public int getSegmentParallelism() {
+        return segmentParallelism;
+    }
+
+    public void setSegmentParallelism(int segmentParallelism) {
+        this.segmentParallelism = segmentParallelism;
+    }
+
+    public int getMatrixThreads() {
+        return matrixThreads;
+    }
+
+    public void setMatrixThreads(int matrixThreads) {
+        this.matrixThreads = matrixThreads;
+    }
+
+    public int getMatrixParallelism() {
+        return matrixParallelism;
+    }
+
+    public void setMatrixParallelism(int matrixParallelism) {
+        this.matrixParallelism = matrixParallelism;
+    }
+
     public ProfileProperties getProfileDefault() {
         return profileDefault;
     }
@@ -114,8 +168,12 @@ public class EngineProperties {
                 convertedProfile.setMaximumSnappingRadius(profile.maximumSnappingRadius != null ? profile.maximumSnappingRadius : profileDefault.getMaximumSnappingRadius());
                 convertedProfile.setLocationIndexResolution(profile.locationIndexResolution != null ? profile.locationIndexResolution : profileDefault.getLocationIndexResolution());
                 convertedProfile.setLocationIndexSearchIterations(profile.locationIndexSearchIterations != null ? profile.locationIndexSearchIterations : profileDefault.getLocationIndexSearchIterations());
+                convertedProfile.setSnappingCacheSize(profile.snappingCacheSize != null ? profile.snappingCacheSize : profileDefault.getSnappingCacheSize());
+                convertedProfile.setResultCacheSize(profile.resultCacheSize != null ? profile.resultCacheSize : profileDefault.getResultCacheSize());
                 convertedProfile.setEnforceTurnCosts(profile.forceTurnCosts != null ? profile.forceTurnCosts : profileDefault.getForceTurnCosts());
                 convertedProfile.setGtfsFile(profile.gtfsFile != null ? profile.gtfsFile : profile.getGtfsFile());
+                convertedProfile.setGtfsRealtimeFile(profile.getGtfsRealtimeFile());
+                convertedProfile.setGtfsRealtimeReloadInterval(profile.gtfsRealtimeReloadInterval != null ? profile.gtfsRealtimeReloadInterval : profileDefault.getGtfsRealtimeReloadInterval());
                 convertedProfile.setMaximumVisitedNodesPT(profile.maximumVisitedNodes != null ? profile.maximumVisitedNodes : profileDefault.getMaximumVisitedNodes());
                 if (profile.elevation != null && profile.elevation || profileDefault.isElevation()) {
                     convertedProfile.setElevationProvider(elevation.getProvider());
@@ -198,6 +256,66 @@ public class EngineProperties {
         }
     }
 
+    public static class WarmUpProperties {
+        private boolean prefetch;
+        private int routes;
+        private int matrices;
+        private int isochrones;
+
+        public boolean isPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(boolean prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        public int getRoutes() {
+            return routes;
+        }
+
+        public void setRoutes(int routes) {
+            this.routes = routes;
+        }
+
+        public int getMatrices() {
+            return matrices;
+        }
+
+        public void setMatrices(int matrices) {
+            this.matrices = matrices;
+        }
+
+        public int getIsochrones() {
+            return isochrones;
+        }
+
+        public void setIsochrones(int isochrones) {
+            this.isochrones = isochrones;
+        }
+    }
+
+    public static class ReloadProperties {
+        private String path;
+        private int interval = 60;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getInterval() {
+            return interval;
+        }
+
+        public void setInterval(int interval) {
+            this.interval = interval;
+        }
+    }
+
     public static class ProfileProperties {
         private String profile;
         private Boolean enabled;
@@ -227,8 +345,12 @@ public class EngineProperties {
         private Integer encoderFlagsSize;
         private Integer locationIndexResolution = 500;
         private Integer locationIndexSearchIterations = 4;
+        private Integer snappingCacheSize;
+        private Integer resultCacheSize;
         private Boolean forceTurnCosts;
         private String gtfsFile;
+        private String gtfsRealtimeFile;
+        private Integer gtfsRealtimeReloadInterval;
 
         public String getProfile() {
             return profile;
@@ -460,6 +582,22 @@ public class EngineProperties {
             this.locationIndexSearchIterations = locationIndexSearchIterations;
         }
 
+        public int getSnappingCacheSize() {
+            return snappingCacheSize != null ? snappingCacheSize : 0;
+        }
+
+        public void setSnappingCacheSize(Integer snappingCacheSize) {
+            this.snappingCacheSize = snappingCacheSize;
+        }
+
+        public int getResultCacheSize() {
+            return resultCacheSize != null ? resultCacheSize : 0;
+        }
+
+        public void setResultCacheSize(Integer resultCacheSize) {
+            this.resultCacheSize = resultCacheSize;
+        }
+
         public boolean getForceTurnCosts() {
             return forceTurnCosts != null && forceTurnCosts;
         }
@@ -476,6 +614,22 @@ public class EngineProperties {
             this.gtfsFile = gtfsFile;
         }
 
+        public String getGtfsRealtimeFile() {
+            return gtfsRealtimeFile != null ? gtfsRealtimeFile : "";
+        }
+
+        public void setGtfsRealtimeFile(String gtfsRealtimeFile) {
+            this.gtfsRealtimeFile = gtfsRealtimeFile;
+        }
+
+        public int getGtfsRealtimeReloadInterval() {
+            return gtfsRealtimeReloadInterval != null ? gtfsRealtimeReloadInterval : 60;
+        }
+
+        public void setGtfsRealtimeReloadInterval(Integer gtfsRealtimeReloadInterval) {
+            this.gtfsRealtimeReloadInterval = gtfsRealtimeReloadInterval;
+        }
+
 //        For later use when refactoring RoutingManagerConfiguration
 //        public static class PreparationProperties {
 //            private int minNetworkSize;
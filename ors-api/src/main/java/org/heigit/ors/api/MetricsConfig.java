@@ -0,0 +1,49 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.heigit.ors.api.converters.TimedHttpMessageConverter;
+import org.heigit.ors.util.MetricsUtility;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Hands the Micrometer registry of the application to the engine and times the serialisation of responses if
+ * metrics are enabled in the ors config. The recorded meters are exposed on the Prometheus actuator endpoint.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    private final MetricsProperties metricsProperties;
+    private final MeterRegistry meterRegistry;
+
+    public MetricsConfig(MetricsProperties metricsProperties, MeterRegistry meterRegistry) {
+        this.metricsProperties = metricsProperties;
+        this.meterRegistry = meterRegistry;
+        if (metricsProperties.isEnabled())
+            MetricsUtility.setRegistry(meterRegistry);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (!metricsProperties.isEnabled())
+            return;
+        converters.replaceAll(converter -> new TimedHttpMessageConverter(converter, meterRegistry));
+    }
+}
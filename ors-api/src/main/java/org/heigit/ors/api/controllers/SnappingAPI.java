@@ -25,6 +25,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.heigit.ors.api.EndpointsProperties;
 import org.heigit.ors.api.SystemMessageProperties;
@@ -45,6 +46,8 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @Tag(name = "Snapping Service", description = "Snap coordinates to the graph edges.")
 @RequestMapping("/v2/snap")
@@ -166,6 +169,32 @@ public class SnappingAPI {
         return new GeoJSONSnappingResponse(result, request, systemMessageProperties, endpointsProperties);
     }
 
+    @PostMapping(value = "/{profile}/csv")
+    @Operation(
+            description = """
+                    Snaps a large batch of locations streamed as CSV body with one `longitude,latitude` pair per line
+                    and an optional header line. The locations are snapped in batches sorted along a space-filling
+                    curve and streamed back as CSV in input order, with the header `lon,lat,snapped_distance` and
+                    empty fields for locations that cannot be snapped within the search radius. Errors after
+                    the first batch has been streamed end the response with a line `error,<code>,"<message>"`.
+                    """,
+            summary = "Snapping Service CSV"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "CSV Response.",
+            content = {@Content(
+                    mediaType = "text/csv"
+            )
+            })
+    public void getCsvSnapping(
+            @Parameter(description = "Specifies the profile.", required = true, example = "driving-car") @PathVariable APIEnums.Profile profile,
+            @Parameter(description = "Maximum radius in meters around given coordinates to search for graph edges.", required = true, example = "300") @RequestParam(SnappingApiRequest.PARAM_MAXIMUM_SEARCH_RADIUS) double radius,
+            HttpServletRequest request, HttpServletResponse response) throws StatusCodeException, IOException {
+        response.setContentType("text/csv;charset=UTF-8");
+        snappingService.snapCsv(profile, radius, request.getInputStream(), response.getOutputStream());
+    }
+
     @ExceptionHandler(MissingServletRequestParameterException.class)
     public ResponseEntity<Object> handleMissingParams(final MissingServletRequestParameterException e) {
         return errorHandler.handleStatusCodeException(new MissingParameterException(SnappingErrorCodes.MISSING_PARAMETER, e.getParameterName()));
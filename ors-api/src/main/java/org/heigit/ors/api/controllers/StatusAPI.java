@@ -19,13 +19,16 @@ import com.graphhopper.storage.StorableProperties;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import org.heigit.ors.api.EndpointsProperties;
+import org.heigit.ors.api.services.AdmissionService;
 import org.heigit.ors.api.util.AppConfigMigration;
 import org.heigit.ors.api.util.AppInfo;
 import org.heigit.ors.localization.LocalizationManager;
+import org.heigit.ors.routing.ResultCache;
 import org.heigit.ors.routing.RoutingProfile;
 import org.heigit.ors.routing.RoutingProfileManager;
 import org.heigit.ors.routing.RoutingProfileManagerStatus;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
+import org.heigit.ors.snapping.SnapCache;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -45,9 +48,11 @@ import java.util.List;
 @RequestMapping("/v2/status")
 public class StatusAPI {
     private final EndpointsProperties endpointsProperties;
+    private final AdmissionService admissionService;
 
-    public StatusAPI(EndpointsProperties endpointsProperties) {
+    public StatusAPI(EndpointsProperties endpointsProperties, AdmissionService admissionService) {
         this.endpointsProperties = AppConfigMigration.overrideEndpointsProperties(endpointsProperties);
+        this.admissionService = admissionService;
     }
 
     @GetMapping
@@ -75,6 +80,8 @@ public class StatusAPI {
                     list.add("snap");
                 jInfo.put("services", list);
                 jInfo.put("languages", LocalizationManager.getInstance().getLanguages());
+                if (profileManager.getGraphVersion() != null)
+                    jInfo.put("graph_version", profileManager.getGraphVersion().getFileName().toString());
 
                 org.json.JSONObject jProfiles = new org.json.JSONObject(true);
                 int i = 1;
@@ -106,6 +113,26 @@ public class StatusAPI {
                     if (jProfileLimits.length() > 0)
                         jProfileProps.put("limits", jProfileLimits);
 
+                    SnapCache snapCache = rp.getGraphhopper().getSnapCache();
+                    if (snapCache != null) {
+                        org.json.JSONObject jSnapCache = new org.json.JSONObject(true);
+                        jSnapCache.put("size", snapCache.size());
+                        jSnapCache.put("maximum_size", snapCache.getMaximumSize());
+                        jSnapCache.put("hits", snapCache.getHits());
+                        jSnapCache.put("misses", snapCache.getMisses());
+                        jProfileProps.put("snapping_cache", jSnapCache);
+                    }
+
+                    ResultCache resultCache = rp.getGraphhopper().getResultCache();
+                    if (resultCache != null) {
+                        org.json.JSONObject jResultCache = new org.json.JSONObject(true);
+                        jResultCache.put("size", resultCache.size());
+                        jResultCache.put("maximum_size", resultCache.getMaximumSize());
+                        jResultCache.put("hits", resultCache.getHits());
+                        jResultCache.put("misses", resultCache.getMisses());
+                        jProfileProps.put("result_cache", jResultCache);
+                    }
+
                     jProfiles.put("profile " + i, jProfileProps);
 
                     i++;
@@ -113,6 +140,20 @@ public class StatusAPI {
 
                 jInfo.put("profiles", jProfiles);
             }
+
+            if (admissionService.isEnabled()) {
+                org.json.JSONObject jAdmission = new org.json.JSONObject(true);
+                for (AdmissionService.RequestQueue queue : admissionService.getQueues()) {
+                    org.json.JSONObject jQueue = new org.json.JSONObject(true);
+                    jQueue.put("active", queue.getActive());
+                    jQueue.put("concurrency", queue.getConcurrency());
+                    jQueue.put("queued", queue.getQueued());
+                    jQueue.put("queue_size", queue.getQueueSize());
+                    jQueue.put("rejected", queue.getRejected());
+                    jAdmission.put(queue.getName(), jQueue);
+                }
+                jInfo.put("admission", jAdmission);
+            }
         }
 
         String jsonResponse = constructResponse(request, jInfo);
@@ -0,0 +1,193 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.converters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.geotools.geometry.jts.coordinatesequence.CoordinateSequences;
+import org.heigit.ors.util.FormatUtility;
+import org.locationtech.jts.geom.*;
+
+import java.io.IOException;
+
+/**
+ * Writes JTS geometries as GeoJSON geometry objects straight to the generator, without creating intermediate JSON
+ * objects or boxed numbers. Only the x and y ordinates are written, rounded to the coordinate precision of the serializer.
+ * Polygon rings are written with the exterior ring counterclockwise and holes clockwise.
+ */
+public class GeoJSONGeometrySerializer extends StdSerializer<Geometry> {
+    public static final int DEFAULT_COORDINATE_PRECISION = 6;
+    private static final int MAXIMUM_COORDINATE_PRECISION = 10;
+    private static final int ELEVATION_PRECISION = 1;
+    private static final long[] POWERS_OF_TEN = new long[MAXIMUM_COORDINATE_PRECISION + 1];
+    // numbers whose scaled value exceeds this are written by Jackson
+    private static final double MAXIMUM_SCALED_VALUE = 1e17;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private final int coordinatePrecision;
+
+    public GeoJSONGeometrySerializer() {
+        this(DEFAULT_COORDINATE_PRECISION);
+    }
+
+    /**
+     * @param coordinatePrecision number of decimal places of the coordinates, limited to 0 to 10
+     */
+    public GeoJSONGeometrySerializer(int coordinatePrecision) {
+        super(Geometry.class);
+        this.coordinatePrecision = limitCoordinatePrecision(coordinatePrecision);
+    }
+
+    static int limitCoordinatePrecision(int precision) {
+        return Math.max(0, Math.min(precision, MAXIMUM_COORDINATE_PRECISION));
+    }
+
+    public int getCoordinatePrecision() {
+        return coordinatePrecision;
+    }
+
+    @Override
+    public void serialize(Geometry geometry, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        NumberWriter numbers = new NumberWriter(jsonGenerator, coordinatePrecision);
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeStringField("type", geometry.getGeometryType());
+        jsonGenerator.writeFieldName("coordinates");
+        if (geometry instanceof Point point) {
+            writeCoordinate(numbers, point.getCoordinate(), false);
+        } else if (geometry instanceof Polygon polygon) {
+            writePolygon(numbers, polygon);
+        } else if (geometry instanceof MultiPolygon multiPolygon) {
+            jsonGenerator.writeStartArray();
+            for (int i = 0; i < multiPolygon.getNumGeometries(); i++)
+                writePolygon(numbers, (Polygon) multiPolygon.getGeometryN(i));
+            jsonGenerator.writeEndArray();
+        } else if (geometry instanceof LineString lineString) {
+            writeCoordinates(numbers, lineString.getCoordinateSequence(), false);
+        } else {
+            throw new IllegalArgumentException("Unsupported geometry type " + geometry.getGeometryType());
+        }
+        jsonGenerator.writeEndObject();
+    }
+
+    private static void writePolygon(NumberWriter numbers, Polygon polygon) throws IOException {
+        numbers.generator.writeStartArray();
+        LineString shell = polygon.getExteriorRing();
+        writeCoordinates(numbers, shell.getCoordinateSequence(), shell.getNumPoints() > 1 && !CoordinateSequences.isCCW(shell.getCoordinateSequence()));
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            LineString ring = polygon.getInteriorRingN(i);
+            writeCoordinates(numbers, ring.getCoordinateSequence(), ring.getNumPoints() > 1 && CoordinateSequences.isCCW(ring.getCoordinateSequence()));
+        }
+        numbers.generator.writeEndArray();
+    }
+
+    private static void writeCoordinates(NumberWriter numbers, CoordinateSequence sequence, boolean reverse) throws IOException {
+        numbers.generator.writeStartArray();
+        int size = sequence.size();
+        for (int i = 0; i < size; i++) {
+            int index = reverse ? size - i - 1 : i;
+            numbers.generator.writeStartArray();
+            numbers.write(sequence.getX(index), numbers.precision);
+            numbers.write(sequence.getY(index), numbers.precision);
+            numbers.generator.writeEndArray();
+        }
+        numbers.generator.writeEndArray();
+    }
+
+    /**
+     * Write the coordinates of a line, including the elevation of coordinates which have one.
+     */
+    static void writeCoordinates(JsonGenerator jsonGenerator, Coordinate[] coordinates, int coordinatePrecision) throws IOException {
+        NumberWriter numbers = new NumberWriter(jsonGenerator, coordinatePrecision);
+        jsonGenerator.writeStartArray();
+        for (Coordinate coordinate : coordinates)
+            writeCoordinate(numbers, coordinate, true);
+        jsonGenerator.writeEndArray();
+    }
+
+    private static void writeCoordinate(NumberWriter numbers, Coordinate coordinate, boolean includeElevation) throws IOException {
+        numbers.generator.writeStartArray();
+        numbers.write(coordinate.x, numbers.precision);
+        numbers.write(coordinate.y, numbers.precision);
+        if (includeElevation && !Double.isNaN(coordinate.getZ()))
+            numbers.write(coordinate.getZ(), ELEVATION_PRECISION);
+        numbers.generator.writeEndArray();
+    }
+
+    /**
+     * Formats rounded numbers into a reused buffer. The digits are the same as those of the rounded double, without
+     * switching to scientific notation for small values. Like Jackson writes doubles, negative values which round to
+     * zero keep their sign and are written as -0.0.
+     */
+    static final class NumberWriter {
+        private final JsonGenerator generator;
+        private final int precision;
+        private final char[] buffer = new char[32];
+
+        NumberWriter(JsonGenerator generator, int precision) {
+            this.generator = generator;
+            this.precision = precision;
+        }
+
+        void write(double value, int decimals) throws IOException {
+            double scaledValue = value * POWERS_OF_TEN[decimals];
+            if (!(Math.abs(scaledValue) < MAXIMUM_SCALED_VALUE)) {
+                generator.writeNumber(FormatUtility.roundToDecimals(value, decimals));
+                return;
+            }
+            int length = format(Math.round(scaledValue), Math.copySign(1.0, value) < 0, decimals, buffer);
+            generator.writeNumber(buffer, buffer.length - length, length);
+        }
+
+        /**
+         * Write the decimal representation of scaled / 10^decimals right-aligned into the buffer.
+         *
+         * @param negative whether the value was negative, which is not known from scaled if it was rounded to zero
+         * @return the number of characters written
+         */
+        static int format(long scaled, boolean negative, int decimals, char[] buffer) {
+            int pos = buffer.length;
+            long remaining = Math.abs(scaled);
+            // trailing zeros of the fraction are dropped, but at least one fraction digit is kept like in Double.toString
+            int fractionDigits = decimals;
+            while (fractionDigits > 1 && remaining % 10 == 0) {
+                remaining /= 10;
+                fractionDigits--;
+            }
+            if (fractionDigits == 0) {
+                buffer[--pos] = '0';
+            } else {
+                for (int i = 0; i < fractionDigits; i++) {
+                    buffer[--pos] = (char) ('0' + remaining % 10);
+                    remaining /= 10;
+                }
+            }
+            buffer[--pos] = '.';
+            do {
+                buffer[--pos] = (char) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining > 0);
+            if (negative)
+                buffer[--pos] = '-';
+            return buffer.length - pos;
+        }
+    }
+}
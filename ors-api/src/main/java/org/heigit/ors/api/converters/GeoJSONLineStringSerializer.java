@@ -0,0 +1,54 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.converters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.io.IOException;
+
+/**
+ * Writes the coordinates of a route as a GeoJSON LineString geometry straight to the generator. Elevations are
+ * written for coordinates which have one.
+ *
+ * @see GeoJSONGeometrySerializer
+ */
+public class GeoJSONLineStringSerializer extends StdSerializer<Coordinate[]> {
+    private final int coordinatePrecision;
+
+    public GeoJSONLineStringSerializer() {
+        this(GeoJSONGeometrySerializer.DEFAULT_COORDINATE_PRECISION);
+    }
+
+    /**
+     * @param coordinatePrecision number of decimal places of the coordinates, limited to 0 to 10
+     */
+    public GeoJSONLineStringSerializer(int coordinatePrecision) {
+        super(Coordinate[].class);
+        this.coordinatePrecision = GeoJSONGeometrySerializer.limitCoordinatePrecision(coordinatePrecision);
+    }
+
+    @Override
+    public void serialize(Coordinate[] coordinates, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeStringField("type", "LineString");
+        jsonGenerator.writeFieldName("coordinates");
+        GeoJSONGeometrySerializer.writeCoordinates(jsonGenerator, coordinates, coordinatePrecision);
+        jsonGenerator.writeEndObject();
+    }
+}
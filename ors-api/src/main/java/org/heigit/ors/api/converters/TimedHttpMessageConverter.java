@@ -0,0 +1,123 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.converters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delegating message converter recording the time spent on writing response bodies, tagged by response class and
+ * media type.
+ */
+public class TimedHttpMessageConverter implements GenericHttpMessageConverter<Object> {
+    private static final String METRIC_NAME = "ors.response.serialization";
+
+    private final HttpMessageConverter<Object> delegate;
+    private final GenericHttpMessageConverter<Object> genericDelegate;
+    private final MeterRegistry meterRegistry;
+
+    @SuppressWarnings("unchecked")
+    public TimedHttpMessageConverter(HttpMessageConverter<?> delegate, MeterRegistry meterRegistry) {
+        this.delegate = (HttpMessageConverter<Object>) delegate;
+        this.genericDelegate = delegate instanceof GenericHttpMessageConverter<?> generic ? (GenericHttpMessageConverter<Object>) generic : null;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return delegate.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        if (genericDelegate != null)
+            return genericDelegate.canRead(type, contextClass, mediaType);
+        return type instanceof Class<?> clazz && delegate.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return delegate.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (genericDelegate != null)
+            return genericDelegate.canWrite(type, clazz, mediaType);
+        return delegate.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return delegate.getSupportedMediaTypes();
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return delegate.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        return delegate.read((Class<Object>) clazz, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        if (genericDelegate != null)
+            return genericDelegate.read(type, contextClass, inputMessage);
+        return delegate.read((Class<Object>) type, inputMessage);
+    }
+
+    @Override
+    public void write(Object t, MediaType contentType, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        long startTime = System.nanoTime();
+        delegate.write(t, contentType, outputMessage);
+        record(t, contentType, startTime);
+    }
+
+    @Override
+    public void write(Object t, Type type, MediaType contentType, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        long startTime = System.nanoTime();
+        if (genericDelegate != null)
+            genericDelegate.write(t, type, contentType, outputMessage);
+        else
+            delegate.write(t, contentType, outputMessage);
+        record(t, contentType, startTime);
+    }
+
+    private void record(Object t, MediaType contentType, long startTime) {
+        Timer.builder(METRIC_NAME)
+                .tag("response", t.getClass().getSimpleName())
+                .tag("media_type", contentType == null ? "none" : contentType.getType() + "/" + contentType.getSubtype())
+                .register(meterRegistry)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+}
@@ -48,6 +48,7 @@ public class IsochronesRequest extends APIRequest {
     public static final String PARAM_RANGE_UNITS = "units";
     public static final String PARAM_AREA_UNITS = "area_units";
     public static final String PARAM_INTERSECTIONS = "intersections";
+    public static final String PARAM_INTERSECTIONS_MODE = "intersections_mode";
     public static final String PARAM_ATTRIBUTES = "attributes";
     public static final String PARAM_INTERVAL = "interval";
     public static final String PARAM_SMOOTHING = "smoothing";
@@ -135,6 +136,22 @@ public class IsochronesRequest extends APIRequest {
     @JsonIgnore
     private boolean hasIntersections = false;
 
+    @Schema(name = PARAM_INTERSECTIONS_MODE,
+            description = """
+                    Specifies how intersecting polygons are computed. `pairwise` returns the intersection of each pair of \
+                    isochrones of different locations. `overlay` returns every area covered by isochrones of several \
+                    locations once, referencing all isochrones which cover it.\
+                    """,
+            extensions = {@Extension(name = "validWhen", properties = {
+                    @ExtensionProperty(name = "ref", value = "intersections"),
+                    @ExtensionProperty(name = "value", value = "true")}
+            )},
+            defaultValue = "pairwise")
+    @JsonProperty(value = PARAM_INTERSECTIONS_MODE)
+    private IsochronesRequestEnums.IntersectionsMode intersectionsMode;
+    @JsonIgnore
+    private boolean hasIntersectionsMode = false;
+
     @Schema(name = PARAM_ATTRIBUTES, description = "List of isochrones attributes",
             example = "[\"area\"]")
     @JsonProperty(PARAM_ATTRIBUTES)
@@ -247,6 +264,19 @@ public class IsochronesRequest extends APIRequest {
         return hasIntersections;
     }
 
+    public IsochronesRequestEnums.IntersectionsMode getIntersectionsMode() {
+        return intersectionsMode;
+    }
+
+    public void setIntersectionsMode(IsochronesRequestEnums.IntersectionsMode intersectionsMode) {
+        this.intersectionsMode = intersectionsMode;
+        hasIntersectionsMode = true;
+    }
+
+    public boolean hasIntersectionsMode() {
+        return hasIntersectionsMode;
+    }
+
     public APIEnums.Units getRangeUnit() {
         return rangeUnit;
     }
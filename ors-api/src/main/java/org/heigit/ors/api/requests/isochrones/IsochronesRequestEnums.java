@@ -89,6 +89,32 @@ public class IsochronesRequestEnums {
         }
     }
 
+    public enum IntersectionsMode {
+        PAIRWISE("pairwise"),
+        OVERLAY("overlay");
+
+        private final String value;
+
+        IntersectionsMode(String value) {
+            this.value = value;
+        }
+
+        @JsonCreator
+        public static IntersectionsMode forValue(String v) throws ParameterValueException {
+            for (IntersectionsMode enumItem : IntersectionsMode.values()) {
+                if (enumItem.value.equals(v))
+                    return enumItem;
+            }
+            throw new ParameterValueException(INVALID_PARAMETER_VALUE, "intersections_mode", v);
+        }
+
+        @Override
+        @JsonValue
+        public String toString() {
+            return value;
+        }
+    }
+
     public enum CalculationMethod {
         GRID("grid"),
         CONCAVE_BALLS("concaveballs"),
@@ -28,6 +28,7 @@ import org.heigit.ors.exceptions.ParameterValueException;
 import org.heigit.ors.matrix.MatrixErrorCodes;
 import org.heigit.ors.routing.APIEnums;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +45,7 @@ public class MatrixRequest extends APIRequest {
     public static final String PARAM_UNITS = "units";
     public static final String PARAM_OPTIMIZED = "optimized";
     public static final String PARAM_OPTIONS = "options";
+    public static final String PARAM_DEPARTURE = "departure";
 
     @Schema(name = PARAM_LOCATIONS, description = "List of comma separated lists of `longitude,latitude` coordinates in WGS 84 (EPSG:4326)",
             example = "[[9.70093, 48.477473], [9.207916, 49.153868], [37.573242, 55.801281], [115.663757, 38.106467]]",
@@ -106,6 +108,16 @@ public class MatrixRequest extends APIRequest {
     @JsonIgnore
     private boolean hasOptimized = false;
 
+    @Schema(name = PARAM_DEPARTURE, description = """
+            Departure date and time provided in local time zone. The durations are computed with the speeds expected \
+            at that time, e.g. from traffic data. Only available for profiles with a core graph.\
+            """,
+            example = "2020-01-31T12:45:00")
+    @JsonProperty(PARAM_DEPARTURE)
+    private LocalDateTime departure;
+    @JsonIgnore
+    private boolean hasDeparture = false;
+
     @Schema(name = PARAM_OPTIONS,
             description = "For advanced options formatted as json object. For structure refer to the [these examples](https://GIScience.github.io/openrouteservice/documentation/routing-options/Examples.html).",
             example = "{\"avoid_borders\":\"controlled\"}",
@@ -235,6 +247,19 @@ public class MatrixRequest extends APIRequest {
         return hasOptimized;
     }
 
+    public LocalDateTime getDeparture() {
+        return departure;
+    }
+
+    public void setDeparture(LocalDateTime departure) {
+        this.departure = departure;
+        hasDeparture = true;
+    }
+
+    public boolean hasDeparture() {
+        return hasDeparture;
+    }
+
     public void setMatrixOptions(MatrixRequestOptions matrixOptions) {
         this.matrixOptions = matrixOptions;
     }
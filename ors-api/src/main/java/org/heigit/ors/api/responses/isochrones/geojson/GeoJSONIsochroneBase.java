@@ -17,11 +17,11 @@ package org.heigit.ors.api.responses.isochrones.geojson;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.swagger.v3.oas.annotations.media.Schema;
-import org.heigit.ors.geojson.GeometryJSON;
+import org.heigit.ors.api.converters.GeoJSONGeometrySerializer;
 import org.json.simple.JSONObject;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.Polygon;
 
 public abstract class GeoJSONIsochroneBase {
     @JsonProperty("type")
@@ -32,11 +32,8 @@ public abstract class GeoJSONIsochroneBase {
 
     @Schema(implementation = JSONObject.class)
     @JsonProperty("geometry")
-    public JSONObject getGeometry() {
-        JSONObject geoJson = new JSONObject();
-        geoJson.put("type", "Polygon");
-        Polygon isoPoly = (Polygon) getIsochroneGeometry();
-        geoJson.put("coordinates", GeometryJSON.toJSON(isoPoly));
-        return geoJson;
+    @JsonSerialize(using = GeoJSONGeometrySerializer.class)
+    public Geometry getGeometry() {
+        return getIsochroneGeometry();
     }
 }
@@ -22,6 +22,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import org.heigit.ors.api.EndpointsProperties;
 import org.heigit.ors.api.SystemMessageProperties;
 import org.heigit.ors.api.requests.isochrones.IsochronesRequest;
+import org.heigit.ors.api.requests.isochrones.IsochronesRequestEnums;
 import org.heigit.ors.api.responses.common.boundingbox.BoundingBoxFactory;
 import org.heigit.ors.api.responses.isochrones.IsochronesResponse;
 import org.heigit.ors.api.responses.isochrones.IsochronesResponseInfo;
@@ -57,7 +58,8 @@ public class GeoJSONIsochronesResponse extends IsochronesResponse {
         }
 
         if (request.hasIntersections() && request.getIntersections()) {
-            List<IsochronesIntersection> isoIntersections = IsochroneUtility.computeIntersections(isoMaps);
+            boolean overlay = request.hasIntersectionsMode() && request.getIntersectionsMode() == IsochronesRequestEnums.IntersectionsMode.OVERLAY;
+            List<IsochronesIntersection> isoIntersections = IsochroneUtility.computeIntersections(isoMaps, overlay);
             if (isoIntersections != null && !isoIntersections.isEmpty()) {
                 for (IsochronesIntersection isoIntersection : isoIntersections) {
                     this.isochroneResults.add(new GeoJSONIsochronesIntersection(isoIntersection, request));
@@ -17,14 +17,16 @@ package org.heigit.ors.api.responses.routing.geojson;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.swagger.v3.oas.annotations.media.Schema;
+import org.heigit.ors.api.converters.GeoJSONLineStringSerializer;
 import org.heigit.ors.api.requests.routing.RouteRequest;
 import org.heigit.ors.api.responses.routing.json.JSONBasedIndividualRouteResponse;
 import org.heigit.ors.api.responses.routing.json.JSONSegment;
 import org.heigit.ors.exceptions.StatusCodeException;
-import org.heigit.ors.geojson.GeometryJSON;
 import org.heigit.ors.routing.RouteResult;
 import org.json.simple.JSONObject;
+import org.locationtech.jts.geom.Coordinate;
 
 import java.util.List;
 import java.util.Map;
@@ -47,12 +49,9 @@ public class GeoJSONIndividualRouteResponse extends JSONBasedIndividualRouteResp
 
     @Schema(implementation = JSONObject.class, description = "The geometry of the route. For GeoJSON route responses this is a JSON LineString.")
     @JsonProperty("geometry")
-    public JSONObject getGeometry() {
-        JSONObject geoJson = new JSONObject();
-        geoJson.put("type", "LineString");
-        geoJson.put("coordinates", GeometryJSON.toJSON(this.routeCoordinates, includeElevation));
-
-        return geoJson;
+    @JsonSerialize(using = GeoJSONLineStringSerializer.class)
+    public Coordinate[] getGeometry() {
+        return this.routeCoordinates;
     }
 
     public GeoJSONSummary getProperties() {
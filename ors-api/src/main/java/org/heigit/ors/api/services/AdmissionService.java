@@ -0,0 +1,238 @@
+/*
+ * This file is part of Openrouteservice.
+ *
+ * Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ * of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this library;
+ * if not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.heigit.ors.api.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.heigit.ors.api.AdmissionProperties;
+import org.heigit.ors.api.MetricsProperties;
+import org.heigit.ors.common.StatusCode;
+import org.heigit.ors.common.TravelRangeType;
+import org.heigit.ors.common.TravellerInfo;
+import org.heigit.ors.exceptions.StatusCodeException;
+import org.heigit.ors.isochrones.IsochroneRequest;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.routing.RouteSearchParameters;
+import org.heigit.ors.routing.RoutingRequest;
+import org.heigit.ors.util.MetricsUtility;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of route, matrix, isochrone and bulk snapping requests computed at the same time, so that a burst of expensive
+ * requests can not occupy all servlet threads.
+ * <p>
+ * The cost of a request is estimated from its converted engine request. Requests with a cost of at least
+ * {@code heavy_cost} are admitted through the heavy class, all others through the light class. Each class computes a
+ * limited number of requests concurrently and lets a bounded number of further requests wait for at most its timeout.
+ * Requests which find the queue full or time out are rejected with status 503 right away.
+ */
+@Service
+public class AdmissionService {
+    public static final String CLASS_LIGHT = "light";
+    public static final String CLASS_HEAVY = "heavy";
+    // flexible requests fall back from contraction hierarchies to considerably slower algorithms
+    static final int FALLBACK_FACTOR = 10;
+
+    private static final Permit UNLIMITED = new Permit(null);
+
+    private final boolean enabled;
+    private final long heavyCost;
+    private final RequestQueue light;
+    private final RequestQueue heavy;
+
+    public AdmissionService(AdmissionProperties admissionProperties, MetricsProperties metricsProperties, MeterRegistry meterRegistry) {
+        enabled = admissionProperties.isEnabled();
+        heavyCost = admissionProperties.getHeavyCost();
+        light = new RequestQueue(CLASS_LIGHT, admissionProperties.getLight());
+        heavy = new RequestQueue(CLASS_HEAVY, admissionProperties.getHeavy());
+        if (enabled && metricsProperties.isEnabled() && meterRegistry != null) {
+            for (RequestQueue queue : getQueues()) {
+                Gauge.builder("ors.admission.active", queue, RequestQueue::getActive).tag("class", queue.getName()).register(meterRegistry);
+                Gauge.builder("ors.admission.queued", queue, RequestQueue::getQueued).tag("class", queue.getName()).register(meterRegistry);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<RequestQueue> getQueues() {
+        return List.of(light, heavy);
+    }
+
+    /**
+     * Wait until a request of the given cost may be computed.
+     *
+     * @param cost      estimated cost of the request
+     * @param errorCode error code of the endpoint reported on rejection
+     * @return the permit to be closed once the request has been computed
+     * @throws StatusCodeException with status 503 if the request is rejected
+     */
+    public Permit admit(long cost, int errorCode) throws StatusCodeException {
+        if (!enabled)
+            return UNLIMITED;
+        RequestQueue queue = cost >= heavyCost ? heavy : light;
+        queue.acquire(errorCode);
+        return new Permit(queue);
+    }
+
+    /**
+     * Wait until a request which is always treated as heavy may be computed, e.g. a streamed request whose size is not
+     * known in advance.
+     *
+     * @param errorCode error code of the endpoint reported on rejection
+     * @return the permit to be closed once the request has been computed
+     * @throws StatusCodeException with status 503 if the request is rejected
+     */
+    public Permit admitHeavy(int errorCode) throws StatusCodeException {
+        return admit(heavyCost, errorCode);
+    }
+
+    /**
+     * @return the number of route segments, multiplied by {@link #FALLBACK_FACTOR} if the weights are not prepared
+     */
+    public static long estimateRouteCost(RoutingRequest request) {
+        long cost = Math.max(1, request.getCoordinates().length - 1);
+        RouteSearchParameters searchParameters = request.getSearchParameters();
+        if (searchParameters.requiresDynamicPreprocessedWeights() || searchParameters.requiresFullyDynamicWeights())
+            cost *= FALLBACK_FACTOR;
+        return cost;
+    }
+
+    /**
+     * @return the number of matrix cells, multiplied by {@link #FALLBACK_FACTOR} for flexible matrices
+     */
+    public static long estimateMatrixCost(MatrixRequest request) {
+        long cost = (long) request.getSources().length * request.getDestinations().length;
+        if (request.getFlexibleMode())
+            cost *= FALLBACK_FACTOR;
+        return cost;
+    }
+
+    /**
+     * @return the sum of the squared maximum ranges of all locations in minutes or kilometres, as the explored area
+     * grows with the square of the range
+     */
+    public static long estimateIsochronesCost(IsochroneRequest request) {
+        double cost = 0;
+        for (TravellerInfo traveller : request.getTravellers()) {
+            double range = traveller.getMaximumRange() / (traveller.getRangeType() == TravelRangeType.TIME ? 60 : 1000);
+            cost += range * range;
+        }
+        return Math.max(1, (long) Math.ceil(cost));
+    }
+
+    public static final class Permit implements AutoCloseable {
+        private RequestQueue queue;
+
+        private Permit(RequestQueue queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void close() {
+            if (queue != null) {
+                queue.release();
+                queue = null;
+            }
+        }
+    }
+
+    public static final class RequestQueue {
+        private final String name;
+        private final int concurrency;
+        private final int queueSize;
+        private final long timeout;
+        private final Semaphore permits;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong rejected = new AtomicLong();
+
+        RequestQueue(String name, AdmissionProperties.RequestClassProperties properties) {
+            this.name = name;
+            this.concurrency = Math.max(1, properties.getConcurrency());
+            this.queueSize = Math.max(0, properties.getQueueSize());
+            this.timeout = Math.max(0, properties.getTimeout());
+            this.permits = new Semaphore(concurrency, true);
+        }
+
+        private void acquire(int errorCode) throws StatusCodeException {
+            // only skip the queue if nobody is waiting in it
+            if (queued.get() == 0 && permits.tryAcquire()) {
+                active.incrementAndGet();
+                return;
+            }
+            if (queued.incrementAndGet() > queueSize) {
+                queued.decrementAndGet();
+                throw reject(errorCode);
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!acquired)
+                throw reject(errorCode);
+            active.incrementAndGet();
+        }
+
+        private void release() {
+            active.decrementAndGet();
+            permits.release();
+        }
+
+        private StatusCodeException reject(int errorCode) {
+            rejected.incrementAndGet();
+            MetricsUtility.increment("ors.admission.rejected", "class", name);
+            return new StatusCodeException(StatusCode.SERVICE_UNAVAILABLE, errorCode, "The server is too busy to compute further %s requests, please try again later.".formatted(name));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public int getActive() {
+            return active.get();
+        }
+
+        public int getQueued() {
+            return queued.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+    }
+}
@@ -1,5 +1,18 @@
 package org.heigit.ors.api.services;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.heigit.ors.api.EndpointsProperties;
 import org.heigit.ors.api.requests.common.APIRequest;
 import org.heigit.ors.api.requests.common.RequestOptions;
@@ -27,10 +40,21 @@ import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Polygon;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 public class ApiService {
+    // serialises only the request parameters in a stable order
+    private static final ObjectMapper CACHE_KEY_MAPPER = JsonMapper.builder()
+            .visibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .addModule(new JavaTimeModule())
+            .build();
+    private static final double CACHE_KEY_PRECISION = 1e6;
 
     protected EndpointsProperties endpointsProperties;
 
@@ -42,6 +66,51 @@ public class ApiService {
         return 0d;
     }
 
+    /**
+     * Create the canonical form of a request under which its results are cached. It consists of the endpoint, profile
+     * and response type and of all request parameters except the id, sorted by name and with numbers rounded to six
+     * decimal places, so that requests differing only in the order of parameters or in coordinate noise share results.
+     *
+     * @return the key or null if no profile caches results or the request can not be serialised
+     */
+    static String createCacheKey(String endpoint, APIRequest request, Object responseType) {
+        if (!RoutingProfileManager.getInstance().isResultCacheEnabled())
+            return null;
+        try {
+            JsonNode parameters = CACHE_KEY_MAPPER.valueToTree(request);
+            if (parameters instanceof ObjectNode objectNode)
+                objectNode.remove(APIRequest.PARAM_ID);
+            roundNumbers(parameters);
+            return endpoint + "|" + request.getProfile() + "|" + responseType + "|" + CACHE_KEY_MAPPER.writeValueAsString(parameters);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static void roundNumbers(JsonNode node) {
+        if (node instanceof ObjectNode objectNode) {
+            Iterator<Map.Entry<String, JsonNode>> fields = objectNode.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getValue().isFloatingPointNumber())
+                    field.setValue(round(field.getValue()));
+                else
+                    roundNumbers(field.getValue());
+            }
+        } else if (node instanceof ArrayNode arrayNode) {
+            for (int i = 0; i < arrayNode.size(); i++) {
+                if (arrayNode.get(i).isFloatingPointNumber())
+                    arrayNode.set(i, round(arrayNode.get(i)));
+                else
+                    roundNumbers(arrayNode.get(i));
+            }
+        }
+    }
+
+    private static JsonNode round(JsonNode number) {
+        return DoubleNode.valueOf(Math.round(number.doubleValue() * CACHE_KEY_PRECISION) / CACHE_KEY_PRECISION);
+    }
+
     public static String[] convertAPIEnumListToStrings(Enum[] valuesIn) {
         String[] attributes = new String[valuesIn.length];
 
@@ -37,14 +37,17 @@ import static org.heigit.ors.common.TravelRangeType.DISTANCE;
 
 @Service
 public class IsochronesService extends ApiService {
+    private final AdmissionService admissionService;
 
     @Autowired
-    public IsochronesService(EndpointsProperties endpointsProperties) {
+    public IsochronesService(EndpointsProperties endpointsProperties, AdmissionService admissionService) {
         this.endpointsProperties = endpointsProperties;
+        this.admissionService = admissionService;
     }
 
     public void generateIsochronesFromRequest(IsochronesRequest isochronesRequest) throws Exception {
         isochronesRequest.setIsochroneRequest(convertIsochroneRequest(isochronesRequest));
+        isochronesRequest.getIsochroneRequest().setCacheKey(createCacheKey("isochrones", isochronesRequest, isochronesRequest.getResponseType()));
         // request object is built, now check if ors config allows all settings
         List<TravellerInfo> travellers = isochronesRequest.getIsochroneRequest().getTravellers();
 
@@ -54,12 +57,13 @@ public class IsochronesService extends ApiService {
         if (!travellers.isEmpty()) {
             isochronesRequest.setIsoMaps(new IsochroneMapCollection());
 
-            for (int i = 0; i < travellers.size(); ++i) {
-                IsochroneSearchParameters searchParams = isochronesRequest.getIsochroneRequest().getSearchParameters(i);
-                IsochroneMap isochroneMap = RoutingProfileManager.getInstance().buildIsochrone(searchParams);
-                isochronesRequest.getIsoMaps().add(isochroneMap);
+            try (AdmissionService.Permit permit = admissionService.admit(AdmissionService.estimateIsochronesCost(isochronesRequest.getIsochroneRequest()), IsochronesErrorCodes.UNKNOWN)) {
+                for (int i = 0; i < travellers.size(); ++i) {
+                    IsochroneSearchParameters searchParams = isochronesRequest.getIsochroneRequest().getSearchParameters(i);
+                    IsochroneMap isochroneMap = RoutingProfileManager.getInstance().buildIsochrone(searchParams);
+                    isochronesRequest.getIsoMaps().add(isochroneMap);
+                }
             }
-
         }
     }
 
@@ -26,16 +26,19 @@ import static org.heigit.ors.api.requests.matrix.MatrixRequest.isFlexibleMode;
 
 @Service
 public class MatrixService extends ApiService {
+    private final AdmissionService admissionService;
 
     @Autowired
-    public MatrixService(EndpointsProperties endpointsProperties) {
+    public MatrixService(EndpointsProperties endpointsProperties, AdmissionService admissionService) {
         this.endpointsProperties = endpointsProperties;
+        this.admissionService = admissionService;
     }
 
     public MatrixResult generateMatrixFromRequest(MatrixRequest matrixRequest) throws StatusCodeException {
         org.heigit.ors.matrix.MatrixRequest coreRequest = this.convertMatrixRequest(matrixRequest);
+        coreRequest.setCacheKey(createCacheKey("matrix", matrixRequest, matrixRequest.getResponseType()));
 
-        try {
+        try (AdmissionService.Permit permit = admissionService.admit(AdmissionService.estimateMatrixCost(coreRequest), MatrixErrorCodes.UNKNOWN)) {
             return RoutingProfileManager.getInstance().computeMatrix(coreRequest);
         } catch (StatusCodeException e) {
             throw e;
@@ -81,6 +84,11 @@ public class MatrixService extends ApiService {
         MatrixSearchParameters params = new MatrixSearchParameters();
         if (matrixRequest.hasMatrixOptions())
             coreRequest.setFlexibleMode(processMatrixRequestOptions(matrixRequest, params));
+        if (matrixRequest.hasDeparture()) {
+            // departure times are only supported by the time-dependent core matrix
+            coreRequest.setDeparture(matrixRequest.getDeparture());
+            coreRequest.setFlexibleMode(true);
+        }
         coreRequest.setSearchParameters(params);
         return coreRequest;
     }
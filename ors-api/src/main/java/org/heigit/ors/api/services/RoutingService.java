@@ -19,10 +19,12 @@ import java.util.stream.Stream;
 
 @Service
 public class RoutingService extends ApiService {
+    private final AdmissionService admissionService;
 
     @Autowired
-    public RoutingService(EndpointsProperties endpointsProperties) {
+    public RoutingService(EndpointsProperties endpointsProperties, AdmissionService admissionService) {
         this.endpointsProperties = endpointsProperties;
+        this.admissionService = admissionService;
     }
 
     @Override
@@ -37,8 +39,9 @@ public class RoutingService extends ApiService {
 
     public RouteResult[] generateRouteFromRequest(RouteRequest request) throws StatusCodeException {
         RoutingRequest routingRequest = this.convertRouteRequest(request);
+        routingRequest.setCacheKey(createCacheKey("routes", request, request.getResponseType()));
 
-        try {
+        try (AdmissionService.Permit permit = admissionService.admit(AdmissionService.estimateRouteCost(routingRequest), RoutingErrorCodes.UNKNOWN)) {
             return RoutingProfileManager.getInstance().computeRoute(routingRequest);
         } catch (StatusCodeException e) {
             throw e;
@@ -1,34 +1,60 @@
 package org.heigit.ors.api.services;
 
 import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.ev.Subnetwork;
 import com.graphhopper.routing.util.AccessFilter;
+import com.graphhopper.routing.util.DefaultSnapFilter;
+import com.graphhopper.routing.util.EdgeFilter;
 import com.graphhopper.routing.util.FlagEncoder;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.util.PMap;
+import org.heigit.ors.api.EndpointsProperties;
 import org.heigit.ors.api.requests.snapping.SnappingApiRequest;
 import org.heigit.ors.common.StatusCode;
+import org.heigit.ors.exceptions.MissingParameterException;
+import org.heigit.ors.exceptions.ParameterOutOfRangeException;
 import org.heigit.ors.exceptions.ParameterValueException;
 import org.heigit.ors.exceptions.PointNotFoundException;
 import org.heigit.ors.exceptions.StatusCodeException;
 import org.heigit.ors.matrix.MatrixSearchContext;
 import org.heigit.ors.matrix.MatrixSearchContextBuilder;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.heigit.ors.routing.APIEnums;
 import org.heigit.ors.routing.RoutingProfile;
 import org.heigit.ors.routing.RoutingProfileManager;
 import org.heigit.ors.routing.RoutingProfileType;
 import org.heigit.ors.routing.WeightingMethod;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
 import org.heigit.ors.routing.graphhopper.extensions.ORSWeightingFactory;
+import org.heigit.ors.snapping.BulkSnapper;
 import org.heigit.ors.snapping.SnappingErrorCodes;
 import org.heigit.ors.snapping.SnappingRequest;
 import org.heigit.ors.snapping.SnappingResult;
+import org.heigit.ors.util.BoundedWorkerPool;
 import org.heigit.ors.util.ProfileTools;
 import org.locationtech.jts.geom.Coordinate;
 import org.springframework.stereotype.Service;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class SnappingService extends ApiService {
+    private static final String CSV_HEADER = "lon,lat,snapped_distance\n";
+
+    private final AdmissionService admissionService;
+    private final BoundedWorkerPool bulkWorkerPool;
+
+    public SnappingService(EndpointsProperties endpointsProperties, AdmissionService admissionService) {
+        this.endpointsProperties = endpointsProperties;
+        this.admissionService = admissionService;
+        int bulkThreads = Math.max(1, endpointsProperties.getSnap().getBulkThreads());
+        // the calling request thread takes part in snapping, so the pool only needs the remaining threads
+        this.bulkWorkerPool = new BoundedWorkerPool("ors-snap-worker", bulkThreads - 1, bulkThreads);
+    }
 
     public SnappingResult generateSnappingFromRequest(SnappingApiRequest snappingApiRequest) throws StatusCodeException {
         SnappingRequest snappingRequest = this.convertSnappingRequest(snappingApiRequest);
@@ -84,18 +110,189 @@ public class SnappingService extends ApiService {
     public SnappingResult computeResult(SnappingRequest snappingRequest, GraphHopper gh) throws Exception {
         String encoderName = RoutingProfileType.getEncoderName(snappingRequest.getProfileType());
         FlagEncoder flagEncoder = gh.getEncodingManager().getEncoder(encoderName);
-        PMap hintsMap = new PMap();
-        int weightingMethod = WeightingMethod.RECOMMENDED; // Only needed to create the profile string
-        ProfileTools.setWeightingMethod(hintsMap, weightingMethod, snappingRequest.getProfileType(), false);
-        ProfileTools.setWeighting(hintsMap, weightingMethod, snappingRequest.getProfileType(), false);
+        PMap hintsMap = createHintsMap(snappingRequest.getProfileType());
         String profileName = ProfileTools.makeProfileName(encoderName, hintsMap.getString("weighting", ""), false);
         GraphHopperStorage ghStorage = gh.getGraphHopperStorage();
         String graphDate = ghStorage.getProperties().get("datareader.import.date");
 
         // TODO: replace usage of matrix search context by snapping-specific class
         MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(ghStorage, gh.getLocationIndex(), AccessFilter.allEdges(flagEncoder.getAccessEnc()), true);
+        if (gh instanceof ORSGraphHopper orsGraphHopper)
+            builder.setSnapCache(orsGraphHopper.getSnapCache());
         Weighting weighting = new ORSWeightingFactory(ghStorage, gh.getEncodingManager()).createWeighting(gh.getProfile(profileName), hintsMap, false);
         MatrixSearchContext mtxSearchCntx = builder.create(ghStorage.getBaseGraph(), null, weighting, profileName, snappingRequest.getLocations(), snappingRequest.getLocations(), snappingRequest.getMaximumSearchRadius());
         return new SnappingResult(mtxSearchCntx.getSources().getLocations(), graphDate);
     }
+
+    private static PMap createHintsMap(int profileType) {
+        PMap hintsMap = new PMap();
+        int weightingMethod = WeightingMethod.RECOMMENDED; // Only needed to create the profile string
+        ProfileTools.setWeightingMethod(hintsMap, weightingMethod, profileType, false);
+        ProfileTools.setWeighting(hintsMap, weightingMethod, profileType, false);
+        return hintsMap;
+    }
+
+    /**
+     * Snap a CSV stream of {@code lon,lat} lines and write the snapped locations as CSV in the same order.
+     * <p>
+     * The input is read and snapped in batches of {@code bulk_batch_size} lines, so that neither the input nor the
+     * output has to be held in memory as a whole. A header line is skipped. The output starts with the header
+     * {@code lon,lat,snapped_distance} followed by one line per input location, with empty fields for locations which
+     * could not be snapped within the search radius. Errors in the first batch are reported before anything is
+     * written. As the status has already been sent with the first batch, later errors end the output with the line
+     * {@code error,<code>,"<message>"} instead of further locations. Bulk snapping is admitted through the heavy class
+     * of the {@link AdmissionService}, since the number of locations is not known in advance.
+     *
+     * @param profile             the profile whose graph the locations are snapped to
+     * @param maximumSearchRadius maximum distance between a location and the snapped location in meters
+     * @param in                  the CSV body
+     * @param out                 the stream the CSV result is written to
+     */
+    public void snapCsv(APIEnums.Profile profile, double maximumSearchRadius, InputStream in, OutputStream out) throws StatusCodeException, IOException {
+        int profileType;
+        try {
+            profileType = convertRouteProfileType(profile);
+        } catch (Exception e) {
+            throw new ParameterValueException(SnappingErrorCodes.INVALID_PARAMETER_VALUE, SnappingApiRequest.PARAM_PROFILE);
+        }
+        BulkSnapper snapper;
+        try {
+            RoutingProfile rp = RoutingProfileManager.getInstance().getProfiles().getRouteProfile(profileType);
+            snapper = createBulkSnapper(rp.getGraphhopper(), profileType, maximumSearchRadius);
+        } catch (Exception e) {
+            throw new StatusCodeException(StatusCode.INTERNAL_SERVER_ERROR, SnappingErrorCodes.UNKNOWN);
+        }
+
+        try (AdmissionService.Permit permit = admissionService.admitHeavy(SnappingErrorCodes.UNKNOWN)) {
+            snapCsv(snapper, in, out);
+        }
+    }
+
+    private void snapCsv(BulkSnapper snapper, InputStream in, OutputStream out) throws StatusCodeException, IOException {
+        EndpointsProperties.EndpointSnapProperties snapProperties = endpointsProperties.getSnap();
+        int batchSize = Math.max(1, snapProperties.getBulkBatchSize());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        List<Coordinate> batch = new ArrayList<>(Math.min(batchSize, 65536));
+        int lineNumber = 0;
+        long locationCount = 0;
+        long writtenCount = 0;
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                Coordinate coord = parseCsvLocation(text, ++lineNumber);
+                if (coord == null)
+                    continue;
+                if (++locationCount > snapProperties.getMaximumBulkLocations())
+                    throw new ParameterOutOfRangeException(SnappingErrorCodes.PARAMETER_VALUE_EXCEEDS_MAXIMUM, SnappingApiRequest.PARAM_LOCATIONS, Long.toString(locationCount), Integer.toString(snapProperties.getMaximumBulkLocations()));
+                batch.add(coord);
+                if (batch.size() == batchSize) {
+                    writeBatch(snapper, batch, writtenCount == 0, writer);
+                    writtenCount += batch.size();
+                    batch.clear();
+                }
+            }
+            if (locationCount == 0)
+                throw new MissingParameterException(SnappingErrorCodes.MISSING_PARAMETER, SnappingApiRequest.PARAM_LOCATIONS);
+            if (!batch.isEmpty())
+                writeBatch(snapper, batch, writtenCount == 0, writer);
+        } catch (StatusCodeException e) {
+            if (writtenCount == 0)
+                throw e;
+            // the response has been committed with status 200, so the error can only be reported in the output
+            StringBuilder line = new StringBuilder(64);
+            appendCsvError(line, e);
+            writer.append(line);
+            writer.flush();
+        }
+    }
+
+    private void writeBatch(BulkSnapper snapper, List<Coordinate> batch, boolean firstBatch, Writer writer) throws StatusCodeException, IOException {
+        ResolvedLocation[] locations = snapBatch(snapper, batch.toArray(new Coordinate[0]));
+        if (firstBatch)
+            writer.write(CSV_HEADER);
+        StringBuilder line = new StringBuilder(64);
+        for (ResolvedLocation location : locations) {
+            line.setLength(0);
+            appendCsvLocation(line, location);
+            writer.append(line);
+        }
+        writer.flush();
+    }
+
+    private BulkSnapper createBulkSnapper(GraphHopper gh, int profileType, double maximumSearchRadius) {
+        String encoderName = RoutingProfileType.getEncoderName(profileType);
+        PMap hintsMap = createHintsMap(profileType);
+        String profileName = ProfileTools.makeProfileName(encoderName, hintsMap.getString("weighting", ""), false);
+        Weighting weighting = new ORSWeightingFactory(gh.getGraphHopperStorage(), gh.getEncodingManager()).createWeighting(gh.getProfile(profileName), hintsMap, false);
+        // the same filter as used for snapping by the matrix search context
+        EdgeFilter snapFilter = new DefaultSnapFilter(weighting, gh.getEncodingManager().getBooleanEncodedValue(Subnetwork.key(profileName)));
+        return new BulkSnapper(gh.getLocationIndex(), snapFilter, maximumSearchRadius);
+    }
+
+    private ResolvedLocation[] snapBatch(BulkSnapper snapper, Coordinate[] coords) throws StatusCodeException {
+        try {
+            return snapper.snap(coords, bulkWorkerPool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StatusCodeException(StatusCode.SERVICE_UNAVAILABLE, SnappingErrorCodes.UNKNOWN, "Snapping has been interrupted.");
+        } catch (Exception e) {
+            throw new StatusCodeException(StatusCode.INTERNAL_SERVER_ERROR, SnappingErrorCodes.UNKNOWN);
+        }
+    }
+
+    /**
+     * @return the location of a CSV line, or null for blank lines and a header in the first line
+     */
+    static Coordinate parseCsvLocation(String line, int lineNumber) throws ParameterValueException {
+        int separator = line.indexOf(',');
+        if (separator < 0) {
+            if (line.isBlank())
+                return null;
+            throw new ParameterValueException(SnappingErrorCodes.INVALID_PARAMETER_FORMAT, SnappingApiRequest.PARAM_LOCATIONS, "line " + lineNumber);
+        }
+        int end = line.indexOf(',', separator + 1);
+        try {
+            double lon = Double.parseDouble(line.substring(0, separator).trim());
+            double lat = Double.parseDouble(line.substring(separator + 1, end < 0 ? line.length() : end).trim());
+            return new Coordinate(lon, lat);
+        } catch (NumberFormatException e) {
+            if (lineNumber == 1)
+                return null;
+            throw new ParameterValueException(SnappingErrorCodes.INVALID_PARAMETER_FORMAT, SnappingApiRequest.PARAM_LOCATIONS, "line " + lineNumber);
+        }
+    }
+
+    static void appendCsvLocation(StringBuilder sb, ResolvedLocation location) {
+        if (location != null) {
+            appendFixed(sb, location.getCoordinate().x, 6);
+            sb.append(',');
+            appendFixed(sb, location.getCoordinate().y, 6);
+            sb.append(',');
+            appendFixed(sb, location.getSnappedDistance(), 2);
+        } else {
+            sb.append(",,");
+        }
+        sb.append('\n');
+    }
+
+    static void appendCsvError(StringBuilder sb, StatusCodeException e) {
+        String message = e.getMessage() != null ? e.getMessage() : "";
+        sb.append("error,").append(e.getInternalCode()).append(",\"").append(message.replace("\"", "\"\"")).append("\"\n");
+    }
+
+    // faster than String.format for millions of values and never falls back to scientific notation
+    private static void appendFixed(StringBuilder sb, double value, int decimals) {
+        long scale = decimals == 6 ? 1000000L : (long) Math.pow(10, decimals);
+        long scaled = Math.round(value * scale);
+        if (scaled < 0) {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        sb.append(scaled / scale).append('.');
+        String fraction = Long.toString(scaled % scale);
+        for (int i = fraction.length(); i < decimals; i++)
+            sb.append('0');
+        sb.append(fraction);
+    }
 }
@@ -0,0 +1,44 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.api.servlet.filters;
+
+import jakarta.servlet.*;
+import org.heigit.ors.routing.RoutingProfileManager;
+import org.heigit.ors.routing.RoutingProfileManagerStatus;
+
+import java.io.IOException;
+
+/**
+ * Leases the active routing profiles for the whole processing of a request, including streamed responses, so that
+ * a graph reload only closes the previous profiles after all requests using them have finished. The lease is bound to
+ * the request thread, so that the request only uses profiles of the leased collection even if a reload activates new
+ * profiles meanwhile.
+ */
+public class RoutingProfilesLeaseFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!RoutingProfileManagerStatus.isReady()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        RoutingProfileManager manager = RoutingProfileManager.getInstance();
+        manager.acquireProfiles();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            manager.releaseProfiles();
+        }
+    }
+}
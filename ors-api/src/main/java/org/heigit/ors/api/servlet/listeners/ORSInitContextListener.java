@@ -24,6 +24,7 @@ import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import org.apache.juli.logging.LogFactory;
 import org.apache.log4j.Logger;
+import org.heigit.ors.api.EndpointsProperties;
 import org.heigit.ors.api.EngineProperties;
 import org.heigit.ors.api.util.AppInfo;
 import org.heigit.ors.config.EngineConfig;
@@ -33,15 +34,19 @@ import org.heigit.ors.routing.RoutingProfileManagerStatus;
 import org.heigit.ors.util.FormatUtility;
 import org.heigit.ors.util.StringUtility;
 
+import java.util.Map;
+
 import static org.heigit.ors.api.ORSEnvironmentPostProcessor.ORS_CONFIG_LOCATION_ENV;
 import static org.heigit.ors.api.ORSEnvironmentPostProcessor.ORS_CONFIG_LOCATION_PROPERTY;
 
 public class ORSInitContextListener implements ServletContextListener {
     private static final Logger LOGGER = Logger.getLogger(ORSInitContextListener.class);
     private final EngineProperties engineProperties;
+    private final EndpointsProperties endpointsProperties;
 
-    public ORSInitContextListener(EngineProperties engineProperties) {
+    public ORSInitContextListener(EngineProperties engineProperties, EndpointsProperties endpointsProperties) {
         this.engineProperties = engineProperties;
+        this.endpointsProperties = endpointsProperties;
     }
 
     @Override
@@ -61,6 +66,16 @@ public class ORSInitContextListener implements ServletContextListener {
             .setSourceFile(engineProperties.getSourceFile())
             .setGraphsRootPath(engineProperties.getGraphsRootPath())
             .setProfiles(engineProperties.getConvertedProfiles())
+            .setWarmUpPrefetch(engineProperties.getWarmup().isPrefetch())
+            .setWarmUpRoutes(engineProperties.getWarmup().getRoutes())
+            .setWarmUpMatrices(engineProperties.getWarmup().getMatrices())
+            .setWarmUpIsochrones(engineProperties.getWarmup().getIsochrones())
+            .setReloadPath(engineProperties.getReload().getPath())
+            .setReloadInterval(engineProperties.getReload().getInterval())
+            .setSegmentThreads(engineProperties.getSegmentThreads())
+            .setSegmentParallelism(engineProperties.getSegmentParallelism())
+            .setMatrixThreads(engineProperties.getMatrixThreads())
+            .setMatrixParallelism(engineProperties.getMatrixParallelism())
             .buildWithAppConfigOverride();
         Runnable runnable = () -> {
             try {
@@ -73,6 +88,29 @@ public class ORSInitContextListener implements ServletContextListener {
         Thread thread = new Thread(runnable);
         thread.setName("ORS-Init");
         thread.start();
+
+        if (!engineProperties.isPreparationMode()) {
+            // providers may have to convert their data first, which should not delay the first isochrone request
+            Thread statisticsThread = new Thread(this::initStatisticsProviders);
+            statisticsThread.setName("ORS-Init-Statistics");
+            statisticsThread.start();
+        }
+    }
+
+    private void initStatisticsProviders() {
+        Map<String, EndpointsProperties.EndpointIsochroneProperties.StatisticsProviderProperties> providers = endpointsProperties.getIsochrone().getStatisticsProviders();
+        if (providers == null)
+            return;
+        for (EndpointsProperties.EndpointIsochroneProperties.StatisticsProviderProperties provider : providers.values()) {
+            // providers without mapped properties are never used by requests
+            if (provider.getPropertyMapping() == null || provider.getPropertyMapping().isEmpty())
+                continue;
+            try {
+                StatisticsProviderFactory.getProvider(provider.getProviderName(), provider.getProviderParameters());
+            } catch (Exception e) {
+                LOGGER.warn("Unable to initialize statistics provider '%s', retrying on the next request: %s".formatted(provider.getProviderName(), e.getMessage()));
+            }
+        }
     }
 
     @Override
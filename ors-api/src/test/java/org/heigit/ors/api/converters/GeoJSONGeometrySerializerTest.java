@@ -0,0 +1,96 @@
+package org.heigit.ors.api.converters;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.heigit.ors.util.FormatUtility;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeoJSONGeometrySerializerTest {
+    private final GeometryFactory factory = new GeometryFactory();
+
+    private record Feature(
+            @JsonProperty("geometry") @JsonSerialize(using = GeoJSONGeometrySerializer.class) Geometry geometry,
+            @JsonProperty("line") @JsonSerialize(using = GeoJSONLineStringSerializer.class) Coordinate[] line) {
+    }
+
+    @Test
+    void testNumbersMatchRoundedDoubles() {
+        char[] buffer = new char[32];
+        double[] values = {0, 8.0, -0.5, 8.6814954, 49.41461, -179.9999996, 0.0000004, 0.0005, 123.1000001};
+        for (double value : values) {
+            double rounded = FormatUtility.roundToDecimals(value, 6);
+            int length = GeoJSONGeometrySerializer.NumberWriter.format(Math.round(value * 1e6), value < 0, 6, buffer);
+            String formatted = new String(buffer, buffer.length - length, length);
+            assertEquals(rounded, Double.parseDouble(formatted), 0);
+            if (Math.abs(rounded) >= 1e-3 || rounded == 0)
+                assertEquals(Double.toString(rounded), formatted);
+        }
+    }
+
+    @Test
+    void testPolygonIsWrittenCounterclockwise() throws IOException {
+        Geometry clockwise = factory.createPolygon(new Coordinate[]{
+                new Coordinate(0, 0), new Coordinate(0, 1.0000004), new Coordinate(1, 1), new Coordinate(0, 0)});
+        assertEquals("{\"type\":\"Polygon\",\"coordinates\":[[[0.0,0.0],[1.0,1.0],[0.0,1.0],[0.0,0.0]]]}", serialize(clockwise));
+    }
+
+    @Test
+    void testNegativeValuesRoundedToZeroKeepSign() throws IOException {
+        Geometry point = factory.createPoint(new Coordinate(-0.0000001, 0.0000001));
+        assertEquals("{\"type\":\"Point\",\"coordinates\":[-0.0,0.0]}", serialize(point, 6));
+        assertEquals("{\"type\":\"Point\",\"coordinates\":[-0.0,-8.0]}", serialize(factory.createPoint(new Coordinate(-0.0, -8)), 6));
+    }
+
+    @Test
+    void testCoordinatePrecision() throws IOException {
+        Geometry point = factory.createPoint(new Coordinate(8.681495, -49.41461));
+        assertEquals("{\"type\":\"Point\",\"coordinates\":[8.68,-49.41]}", serialize(point, 2));
+        assertEquals("{\"type\":\"Point\",\"coordinates\":[8.681495,-49.41461]}", serialize(point, 6));
+    }
+
+    @Test
+    void testCoordinatePrecisionOfObjectMapper() throws IOException {
+        Feature feature = new Feature(factory.createPoint(new Coordinate(8.681495, 49.41461)), new Coordinate[]{new Coordinate(8.681495, 49.41461)});
+        ObjectMapper precise = new ObjectMapper();
+        ObjectMapper rounded = new ObjectMapper();
+        rounded.setHandlerInstantiator(new GeoJSONSerializerInstantiator(2));
+
+        assertEquals("{\"geometry\":{\"type\":\"Point\",\"coordinates\":[8.68,49.41]},\"line\":{\"type\":\"LineString\",\"coordinates\":[[8.68,49.41]]}}",
+                rounded.writeValueAsString(feature));
+        assertEquals("{\"geometry\":{\"type\":\"Point\",\"coordinates\":[8.681495,49.41461]},\"line\":{\"type\":\"LineString\",\"coordinates\":[[8.681495,49.41461]]}}",
+                precise.writeValueAsString(feature));
+    }
+
+    @Test
+    void testLineStringWithElevation() throws IOException {
+        Coordinate[] coordinates = {new Coordinate(8.681495, 49.41461, 112.36), new Coordinate(8.687872, 49.420318, 113.04)};
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            new GeoJSONLineStringSerializer().serialize(coordinates, generator, null);
+        }
+        assertEquals("{\"type\":\"LineString\",\"coordinates\":[[8.681495,49.41461,112.4],[8.687872,49.420318,113.0]]}", writer.toString());
+    }
+
+    private String serialize(Geometry geometry) throws IOException {
+        return serialize(geometry, GeoJSONGeometrySerializer.DEFAULT_COORDINATE_PRECISION);
+    }
+
+    private String serialize(Geometry geometry, int coordinatePrecision) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+            new GeoJSONGeometrySerializer(coordinatePrecision).serialize(geometry, generator, null);
+        }
+        return writer.toString();
+    }
+}
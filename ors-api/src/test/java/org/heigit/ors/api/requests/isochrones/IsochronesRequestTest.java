@@ -117,6 +117,16 @@ class IsochronesRequestTest {
         assertTrue(request.getIntersections());
     }
 
+    @Test
+    void setIntersectionsModeTest() throws ParameterValueException {
+        IsochronesRequest request = new IsochronesRequest();
+        assertFalse(request.hasIntersectionsMode());
+        request.setIntersectionsMode(IsochronesRequestEnums.IntersectionsMode.forValue("overlay"));
+        assertTrue(request.hasIntersectionsMode());
+        assertEquals(IsochronesRequestEnums.IntersectionsMode.OVERLAY, request.getIntersectionsMode());
+        assertThrows(ParameterValueException.class, () -> IsochronesRequestEnums.IntersectionsMode.forValue("union"));
+    }
+
     @Test
     void setRangeUnitsTest() throws ParameterValueException {
         IsochronesRequest request = new IsochronesRequest();
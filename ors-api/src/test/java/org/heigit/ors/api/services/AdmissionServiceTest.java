@@ -0,0 +1,84 @@
+package org.heigit.ors.api.services;
+
+import org.heigit.ors.api.AdmissionProperties;
+import org.heigit.ors.api.MetricsProperties;
+import org.heigit.ors.common.StatusCode;
+import org.heigit.ors.exceptions.StatusCodeException;
+import org.heigit.ors.matrix.MatrixErrorCodes;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionServiceTest {
+
+    @Test
+    void testDisabledAdmitsEverything() throws StatusCodeException {
+        AdmissionService admissionService = createService(false, 0, 0);
+
+        for (int i = 0; i < 10; i++)
+            admissionService.admit(1_000_000, MatrixErrorCodes.UNKNOWN);
+        assertEquals(0, admissionService.getQueues().get(1).getActive());
+    }
+
+    @Test
+    void testHeavyRequestRejectedWhenQueueIsFull() throws StatusCodeException {
+        AdmissionService admissionService = createService(true, 0, 0);
+        AdmissionService.RequestQueue heavy = admissionService.getQueues().get(1);
+
+        try (AdmissionService.Permit permit = admissionService.admit(5000, MatrixErrorCodes.UNKNOWN)) {
+            assertEquals(1, heavy.getActive());
+            StatusCodeException e = assertThrows(StatusCodeException.class, () -> admissionService.admit(5000, MatrixErrorCodes.UNKNOWN));
+            assertEquals(StatusCode.SERVICE_UNAVAILABLE, e.getStatusCode());
+            assertEquals(MatrixErrorCodes.UNKNOWN, e.getInternalCode());
+
+            // light requests are admitted independently of heavy ones
+            admissionService.admit(10, MatrixErrorCodes.UNKNOWN).close();
+        }
+        assertEquals(0, heavy.getActive());
+        assertEquals(1, heavy.getRejected());
+        admissionService.admit(5000, MatrixErrorCodes.UNKNOWN).close();
+    }
+
+    @Test
+    void testAdmitHeavyUsesHeavyClass() throws StatusCodeException {
+        AdmissionService admissionService = createService(true, 0, 0);
+
+        try (AdmissionService.Permit permit = admissionService.admitHeavy(MatrixErrorCodes.UNKNOWN)) {
+            assertEquals(1, admissionService.getQueues().get(1).getActive());
+            assertEquals(0, admissionService.getQueues().get(0).getActive());
+        }
+    }
+
+    @Test
+    void testQueuedRequestRejectedAfterTimeout() throws StatusCodeException {
+        AdmissionService admissionService = createService(true, 1, 50);
+
+        try (AdmissionService.Permit permit = admissionService.admit(5000, MatrixErrorCodes.UNKNOWN)) {
+            long start = System.currentTimeMillis();
+            assertThrows(StatusCodeException.class, () -> admissionService.admit(5000, MatrixErrorCodes.UNKNOWN));
+            assertTrue(System.currentTimeMillis() - start >= 40);
+        }
+        assertEquals(0, admissionService.getQueues().get(1).getQueued());
+    }
+
+    @Test
+    void testEstimateMatrixCost() {
+        MatrixRequest request = new MatrixRequest(2000, 100000, -1);
+        request.setSources(new Coordinate[4]);
+        request.setDestinations(new Coordinate[5]);
+        assertEquals(20, AdmissionService.estimateMatrixCost(request));
+
+        request.setFlexibleMode(true);
+        assertEquals(20L * AdmissionService.FALLBACK_FACTOR, AdmissionService.estimateMatrixCost(request));
+    }
+
+    private static AdmissionService createService(boolean enabled, int heavyQueueSize, long heavyTimeout) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setEnabled(enabled);
+        properties.setHeavyCost(1000);
+        properties.setHeavy(new AdmissionProperties.RequestClassProperties(1, heavyQueueSize, heavyTimeout));
+        return new AdmissionService(properties, new MetricsProperties(), null);
+    }
+}
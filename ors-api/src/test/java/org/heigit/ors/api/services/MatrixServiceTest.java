@@ -19,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -138,6 +139,17 @@ class MatrixServiceTest {
         assertEquals(3, matrixRequest.getMetrics());
     }
 
+    @Test
+    void convertMatrixRequestDepartureTest() throws StatusCodeException {
+        org.heigit.ors.api.requests.matrix.MatrixRequest springMatrixRequest = new org.heigit.ors.api.requests.matrix.MatrixRequest(bareCoordinates, endpointsProperties);
+        springMatrixRequest.setProfile(APIEnums.Profile.DRIVING_CAR);
+        springMatrixRequest.setDeparture(LocalDateTime.of(2020, 1, 31, 8, 15));
+        MatrixRequest matrixRequest = matrixService.convertMatrixRequest(springMatrixRequest);
+        assertTrue(matrixRequest.hasDeparture());
+        assertEquals(LocalDateTime.of(2020, 1, 31, 8, 15), matrixRequest.getDeparture());
+        assertTrue(matrixRequest.getFlexibleMode());
+    }
+
     @Test
     void invalidLocationsTest() {
         org.heigit.ors.api.requests.matrix.MatrixRequest springMatrixRequest = new org.heigit.ors.api.requests.matrix.MatrixRequest(new ArrayList<>());
@@ -0,0 +1,39 @@
+package org.heigit.ors.api.services;
+
+import org.heigit.ors.common.StatusCode;
+import org.heigit.ors.exceptions.ParameterValueException;
+import org.heigit.ors.exceptions.StatusCodeException;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnappingServiceTest {
+
+    @Test
+    void testParseCsvLocation() throws ParameterValueException {
+        assertNull(SnappingService.parseCsvLocation("lon,lat", 1));
+        assertNull(SnappingService.parseCsvLocation("  ", 2));
+        assertEquals(new Coordinate(8.681495, 49.41461), SnappingService.parseCsvLocation("8.681495, 49.41461", 2));
+        // additional columns are ignored
+        assertEquals(new Coordinate(8.5, 49.5), SnappingService.parseCsvLocation("8.5,49.5,address 1", 3));
+        assertThrows(ParameterValueException.class, () -> SnappingService.parseCsvLocation("lon,lat", 4));
+        assertThrows(ParameterValueException.class, () -> SnappingService.parseCsvLocation("8.5;49.5", 5));
+    }
+
+    @Test
+    void testAppendCsvLocation() {
+        StringBuilder sb = new StringBuilder();
+        SnappingService.appendCsvLocation(sb, new ResolvedLocation(new Coordinate(-0.0001234567, 49.41461), null, 12.346));
+        SnappingService.appendCsvLocation(sb, null);
+        assertEquals("-0.000123,49.414610,12.35\n,,\n", sb.toString());
+    }
+
+    @Test
+    void testAppendCsvError() {
+        StringBuilder sb = new StringBuilder();
+        SnappingService.appendCsvError(sb, new StatusCodeException(StatusCode.BAD_REQUEST, 8003, "Parameter 'locations' has incorrect format: line \"12\""));
+        assertEquals("error,8003,\"Parameter 'locations' has incorrect format: line \"\"12\"\"\"\n", sb.toString());
+    }
+}
@@ -0,0 +1,114 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.benchmarks;
+
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.NodeAccess;
+import com.typesafe.config.ConfigFactory;
+import org.heigit.ors.config.EngineConfig;
+import org.heigit.ors.routing.RoutingProfile;
+import org.heigit.ors.routing.RoutingProfileManager;
+import org.heigit.ors.routing.RoutingProfileManagerStatus;
+import org.heigit.ors.routing.RoutingProfileType;
+import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds the driving-car graph of the bundled test OSM file once per JVM and shares it between the benchmarks.
+ * <p>
+ * The graph is prepared with CH, core (including core landmarks), LM and fast isochrones, so that every algorithm
+ * under test is available. It is written to {@code target/graphs} and reused by subsequent benchmark forks. The
+ * locations of the OSM file and the graph can be changed with the system properties {@code ors.benchmarks.source}
+ * and {@code ors.benchmarks.graphs}.
+ */
+public final class BenchmarkGraph {
+    public static final int PROFILE_TYPE = RoutingProfileType.DRIVING_CAR;
+    public static final String ENCODER_NAME = "car";
+    public static final String WEIGHTING = "fastest";
+
+    private static final String DEFAULT_SOURCE_FILE = "../ors-engine/src/test/files/preprocessed_osm_data.pbf";
+    private static final String DEFAULT_GRAPHS_PATH = "target/graphs";
+
+    private static RoutingProfile profile;
+
+    private BenchmarkGraph() {
+    }
+
+    public static synchronized RoutingProfile getProfile() {
+        if (profile == null) {
+            String graphsPath = System.getProperty("ors.benchmarks.graphs", DEFAULT_GRAPHS_PATH);
+            EngineConfig config = EngineConfig.EngineConfigBuilder.init()
+                    .setSourceFile(System.getProperty("ors.benchmarks.source", DEFAULT_SOURCE_FILE))
+                    .setGraphsRootPath(graphsPath)
+                    .setProfiles(new RouteProfileConfiguration[]{createProfileConfiguration(graphsPath)})
+                    .build();
+            new RoutingProfileManager(config);
+            if (RoutingProfileManagerStatus.hasFailed())
+                throw new IllegalStateException("Unable to build the benchmark graph, see the log for details.");
+            profile = RoutingProfileManager.getInstance().getProfiles().getRouteProfile(PROFILE_TYPE);
+        }
+        return profile;
+    }
+
+    /**
+     * @return the coordinates of count random graph nodes, reproducible for a given seed
+     */
+    public static Coordinate[] randomLocations(int count, long seed) {
+        Graph graph = getProfile().getGraphhopper().getGraphHopperStorage().getBaseGraph();
+        NodeAccess nodeAccess = graph.getNodeAccess();
+        Random random = new Random(seed);
+        Coordinate[] locations = new Coordinate[count];
+        for (int i = 0; i < count; i++) {
+            int node = random.nextInt(graph.getNodes());
+            locations[i] = new Coordinate(nodeAccess.getLon(node), nodeAccess.getLat(node));
+        }
+        return locations;
+    }
+
+    private static RouteProfileConfiguration createProfileConfiguration(String graphsPath) {
+        RouteProfileConfiguration rpc = new RouteProfileConfiguration();
+        rpc.setName(ENCODER_NAME);
+        rpc.setEnabled(true);
+        rpc.setProfiles(RoutingProfileType.getName(PROFILE_TYPE));
+        rpc.setGraphPath(Paths.get(graphsPath, ENCODER_NAME).toString());
+        rpc.setEncoderOptions("turn_costs=true");
+        rpc.setMaximumSnappingRadius(1000);
+
+        Map<String, Map<String, String>> extStorages = new HashMap<>();
+        extStorages.put("WayCategory", new HashMap<>());
+        extStorages.put("WaySurfaceType", new HashMap<>());
+        extStorages.put("Tollways", new HashMap<>());
+        rpc.setExtStorages(extStorages);
+
+        rpc.setPreparationOpts(ConfigFactory.parseString("""
+                methods {
+                    ch { enabled = true, threads = 1, weightings = "%1$s" }
+                    lm { enabled = true, threads = 1, weightings = "%1$s", landmarks = 4 }
+                    core { enabled = true, threads = 1, weightings = "%1$s", landmarks = 4, lmsets = "allow_all" }
+                }
+                """.formatted(WEIGHTING)));
+        rpc.setIsochronePreparationOpts(ConfigFactory.parseString("""
+                enabled = true
+                threads = 1
+                weightings = "%s"
+                maxcellnodes = 100
+                """.formatted(WEIGHTING)));
+        return rpc;
+    }
+}
@@ -0,0 +1,84 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.benchmarks;
+
+import com.graphhopper.routing.util.AllEdgesIterator;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.util.PathProcessor;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.FetchMode;
+import com.graphhopper.util.PMap;
+import com.graphhopper.util.PointList;
+import org.heigit.ors.routing.RouteExtraInfo;
+import org.heigit.ors.routing.RouteExtraInfoFlag;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+import org.heigit.ors.routing.pathprocessors.ExtraInfoProcessor;
+import org.heigit.ors.routing.pathprocessors.ORSPathProcessorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ExtraInfoProcessor} when all edges of the graph are fed through a single processor, the way
+ * the edges of a route are processed before the route result is built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtraInfoProcessorBenchmark {
+    @Param({"waycategory", "waycategory|surface|waytype|tollways"})
+    public String extraInfo;
+
+    private final ORSPathProcessorFactory processorFactory = new ORSPathProcessorFactory();
+    private GraphHopperStorage graphHopperStorage;
+    private FlagEncoder encoder;
+    private PMap opts;
+    private EdgeIteratorState[] edges;
+    private PointList[] geometries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ORSGraphHopper graphHopper = BenchmarkGraph.getProfile().getGraphhopper();
+        graphHopperStorage = graphHopper.getGraphHopperStorage();
+        encoder = graphHopper.getEncodingManager().getEncoder(BenchmarkGraph.ENCODER_NAME);
+
+        opts = new PMap();
+        opts.putObject("routing_extra_info", RouteExtraInfoFlag.getFromString(extraInfo));
+        opts.putObject("routing_profile_type", BenchmarkGraph.PROFILE_TYPE);
+
+        // detach the edges and fetch their geometries up front so that only the processor is measured
+        AllEdgesIterator iterator = graphHopperStorage.getAllEdges();
+        edges = new EdgeIteratorState[iterator.length()];
+        geometries = new PointList[iterator.length()];
+        int i = 0;
+        while (iterator.next()) {
+            edges[i] = iterator.detach(false);
+            geometries[i] = iterator.fetchWayGeometry(FetchMode.ALL);
+            i++;
+        }
+    }
+
+    @Benchmark
+    public List<RouteExtraInfo> processEdges() {
+        PathProcessor processor = processorFactory.createPathProcessor(opts, encoder, graphHopperStorage);
+        for (int i = 0; i < edges.length; i++)
+            processor.processPathEdge(edges[i], geometries[i]);
+        return ((ExtraInfoProcessor) processor).getExtras();
+    }
+}
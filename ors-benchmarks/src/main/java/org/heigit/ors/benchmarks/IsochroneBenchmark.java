@@ -0,0 +1,64 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.benchmarks;
+
+import org.heigit.ors.common.TravelRangeType;
+import org.heigit.ors.isochrones.IsochroneMap;
+import org.heigit.ors.isochrones.IsochroneSearchParameters;
+import org.heigit.ors.routing.RouteSearchParameters;
+import org.heigit.ors.routing.RoutingProfile;
+import org.locationtech.jts.geom.Coordinate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time isochrones around random graph nodes built with the {@code FastIsochroneMapBuilder} on the prepared cell
+ * partition and with the {@code ConcaveBallsIsochroneMapBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IsochroneBenchmark {
+    private static final int NUMBER_OF_LOCATIONS = 16;
+    private static final double[] RANGES = {150, 300};
+
+    @Param({"FastIsochrone", "ConcaveBalls"})
+    public String calcMethod;
+
+    private RoutingProfile profile;
+    private Coordinate[] locations;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        profile = BenchmarkGraph.getProfile();
+        locations = BenchmarkGraph.randomLocations(NUMBER_OF_LOCATIONS, 4);
+    }
+
+    @Benchmark
+    public IsochroneMap isochrone() throws Exception {
+        index = (index + 1) % NUMBER_OF_LOCATIONS;
+        RouteSearchParameters routeParameters = new RouteSearchParameters();
+        routeParameters.setProfileType(BenchmarkGraph.PROFILE_TYPE);
+        IsochroneSearchParameters parameters = new IsochroneSearchParameters(0, locations[index], RANGES.clone());
+        parameters.setRangeType(TravelRangeType.TIME);
+        parameters.setCalcMethod(calcMethod);
+        parameters.setRouteParameters(routeParameters);
+        return profile.buildIsochrone(parameters);
+    }
+}
@@ -0,0 +1,70 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.benchmarks;
+
+import com.graphhopper.routing.weighting.Weighting;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.MatrixSearchParameters;
+import org.heigit.ors.routing.RoutingProfile;
+import org.heigit.ors.routing.WeightingMethod;
+import org.locationtech.jts.geom.Coordinate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Square duration and distance matrices of several sizes computed with RPHAST on the CH graph, with the core matrix
+ * algorithm and with the Dijkstra fallback of {@link RoutingProfile#computeMatrix}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatrixBenchmark {
+    @Param({"5", "25", "100"})
+    public int size;
+
+    @Param({"rphast", "core", "dijkstra"})
+    public String algorithm;
+
+    private RoutingProfile profile;
+    private Coordinate[] locations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        profile = BenchmarkGraph.getProfile();
+        locations = BenchmarkGraph.randomLocations(size, 3);
+    }
+
+    @Benchmark
+    public MatrixResult matrix() throws Exception {
+        MatrixRequest req = new MatrixRequest(profile.getConfiguration().getMaximumSnappingRadius(), Integer.MAX_VALUE, Weighting.INFINITE_U_TURN_COSTS);
+        req.setProfileType(BenchmarkGraph.PROFILE_TYPE);
+        req.setWeightingMethod(WeightingMethod.FASTEST);
+        req.setMetrics(MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE);
+        req.setSources(locations);
+        req.setDestinations(locations);
+        // RoutingProfile selects RPHAST for static requests, core for flexible requests with dynamic speeds and
+        // Dijkstra for any other flexible request
+        MatrixSearchParameters searchParameters = new MatrixSearchParameters();
+        searchParameters.setDynamicSpeeds("core".equals(algorithm));
+        req.setSearchParameters(searchParameters);
+        req.setFlexibleMode(!"rphast".equals(algorithm));
+        return profile.computeMatrix(req);
+    }
+}
@@ -0,0 +1,79 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.benchmarks;
+
+import com.graphhopper.GHRequest;
+import com.graphhopper.GHResponse;
+import com.graphhopper.util.PMap;
+import com.graphhopper.util.Parameters;
+import org.heigit.ors.routing.WeightingMethod;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+import org.heigit.ors.util.ProfileTools;
+import org.locationtech.jts.geom.Coordinate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-to-point routes between random graph nodes with the speed-up techniques used by the routing endpoint:
+ * CH, {@code CoreDijkstra} and {@code CoreALT} on the core graph and ALT on the full graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteBenchmark {
+    private static final int NUMBER_OF_ROUTES = 64;
+
+    @Param({"ch", "core_dijkstra", "core_alt", "alt"})
+    public String algorithm;
+
+    private ORSGraphHopper graphHopper;
+    private Coordinate[] starts;
+    private Coordinate[] destinations;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graphHopper = BenchmarkGraph.getProfile().getGraphhopper();
+        starts = BenchmarkGraph.randomLocations(NUMBER_OF_ROUTES, 1);
+        destinations = BenchmarkGraph.randomLocations(NUMBER_OF_ROUTES, 2);
+    }
+
+    @Benchmark
+    public GHResponse route() {
+        index = (index + 1) % NUMBER_OF_ROUTES;
+        return graphHopper.route(createRequest(starts[index], destinations[index]));
+    }
+
+    private GHRequest createRequest(Coordinate start, Coordinate destination) {
+        GHRequest req = new GHRequest(start.y, start.x, destination.y, destination.x);
+        req.setEncoderName(BenchmarkGraph.ENCODER_NAME);
+        req.setAdditionalHints(new PMap());
+        ProfileTools.setWeightingMethod(req.getHints(), WeightingMethod.FASTEST, BenchmarkGraph.PROFILE_TYPE, false);
+        ProfileTools.setWeighting(req.getHints(), WeightingMethod.FASTEST, BenchmarkGraph.PROFILE_TYPE, false);
+
+        boolean useCH = "ch".equals(algorithm);
+        boolean useCore = algorithm.startsWith("core");
+        req.getHints().putObject(ProfileTools.KEY_CH_DISABLE, !useCH);
+        req.getHints().putObject(ProfileTools.KEY_CORE_DISABLE, !useCore);
+        req.getHints().putObject(ProfileTools.KEY_LM_DISABLE, !"alt".equals(algorithm));
+        // CH graphs are prepared without turn costs, core and landmarks with turn costs
+        req.setProfile(ProfileTools.makeProfileName(BenchmarkGraph.ENCODER_NAME, BenchmarkGraph.WEIGHTING, !useCH));
+        req.setAlgorithm(useCH || "core_dijkstra".equals(algorithm) ? Parameters.Algorithms.DIJKSTRA_BI : Parameters.Algorithms.ASTAR_BI);
+        return req;
+    }
+}
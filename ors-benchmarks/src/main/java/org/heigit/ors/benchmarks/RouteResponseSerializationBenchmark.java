@@ -0,0 +1,112 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.Marshaller;
+import org.heigit.ors.api.AdmissionProperties;
+import org.heigit.ors.api.ApiConfig;
+import org.heigit.ors.api.EndpointsProperties;
+import org.heigit.ors.api.MetricsProperties;
+import org.heigit.ors.api.SystemMessageProperties;
+import org.heigit.ors.api.requests.routing.RouteRequest;
+import org.heigit.ors.api.responses.routing.geojson.GeoJSONRouteResponse;
+import org.heigit.ors.api.responses.routing.gpx.GPXRouteResponse;
+import org.heigit.ors.api.responses.routing.json.JSONRouteResponse;
+import org.heigit.ors.api.services.AdmissionService;
+import org.heigit.ors.api.services.RoutingService;
+import org.heigit.ors.routing.APIEnums;
+import org.heigit.ors.routing.RouteResult;
+import org.heigit.ors.routing.RoutingProfileManager;
+import org.locationtech.jts.geom.Coordinate;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a route result with instructions and extra info into the JSON, GeoJSON and GPX responses of the
+ * directions endpoint and their serialisation, using the object mapper and JAXB binding of the API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteResponseSerializationBenchmark {
+    private static final int MAX_ROUTE_ATTEMPTS = 20;
+
+    @Param({"json", "geojson", "gpx"})
+    public String responseType;
+
+    private final ObjectMapper objectMapper = new ApiConfig().objectMapper();
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(1 << 16);
+    private Marshaller marshaller;
+    private EndpointsProperties endpointsProperties;
+    private SystemMessageProperties systemMessageProperties;
+    private RouteRequest request;
+    private RouteResult[] routeResults;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkGraph.getProfile();
+        marshaller = JAXBContext.newInstance(GPXRouteResponse.class).createMarshaller();
+
+        endpointsProperties = new EndpointsProperties();
+        EndpointsProperties.EndpointRoutingProperties routingProperties = new EndpointsProperties.EndpointRoutingProperties();
+        routingProperties.setAttribution("openrouteservice.org | OpenStreetMap contributors");
+        routingProperties.setGpxName("ORSRouting");
+        routingProperties.setGpxDescription("This is a directions instructions file as GPX, generated from openrouteservice");
+        routingProperties.setGpxBaseUrl("https://openrouteservice.org/");
+        routingProperties.setGpxSupportMail("support@openrouteservice.org");
+        routingProperties.setGpxAuthor("openrouteservice");
+        routingProperties.setGpxContentLicence("LGPL 3.0");
+        endpointsProperties.setRouting(routingProperties);
+        systemMessageProperties = new SystemMessageProperties();
+        systemMessageProperties.setMessages(new ArrayList<>());
+
+        // random nodes are not necessarily connected, so take the first pair which yields a route
+        Coordinate[] starts = BenchmarkGraph.randomLocations(MAX_ROUTE_ATTEMPTS, 5);
+        Coordinate[] destinations = BenchmarkGraph.randomLocations(MAX_ROUTE_ATTEMPTS, 6);
+        RoutingService routingService = new RoutingService(endpointsProperties, new AdmissionService(new AdmissionProperties(), new MetricsProperties(), null));
+        for (int i = 0; i < MAX_ROUTE_ATTEMPTS && routeResults == null; i++) {
+            request = new RouteRequest(starts[i], destinations[i]);
+            request.setProfile(APIEnums.Profile.DRIVING_CAR);
+            request.setResponseType(APIEnums.RouteResponseType.forValue(responseType));
+            request.setExtraInfo(new APIEnums.ExtraInfo[]{APIEnums.ExtraInfo.WAY_CATEGORY, APIEnums.ExtraInfo.SURFACE,
+                    APIEnums.ExtraInfo.WAY_TYPE, APIEnums.ExtraInfo.TOLLWAYS});
+            try {
+                routeResults = RoutingProfileManager.getInstance().computeRoute(routingService.convertRouteRequest(request));
+            } catch (Exception e) {
+                // try the next pair of locations
+            }
+        }
+        if (routeResults == null)
+            throw new IllegalStateException("Unable to compute a route for the serialisation benchmark.");
+    }
+
+    @Benchmark
+    public int serialize() throws Exception {
+        outputStream.reset();
+        switch (responseType) {
+            case "json" -> objectMapper.writeValue(outputStream, new JSONRouteResponse(routeResults, request, systemMessageProperties, endpointsProperties));
+            case "geojson" -> objectMapper.writeValue(outputStream, new GeoJSONRouteResponse(routeResults, request, systemMessageProperties, endpointsProperties));
+            default -> marshaller.marshal(new GPXRouteResponse(routeResults, request, systemMessageProperties, endpointsProperties), outputStream);
+        }
+        return outputStream.size();
+    }
+}
@@ -0,0 +1,147 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.benchmarks;
+
+import com.graphhopper.reader.ReaderElement;
+import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.reader.osm.OSMInputFile;
+import org.heigit.ors.routing.AvoidFeatureFlags;
+import org.heigit.ors.routing.graphhopper.extensions.SurfaceType;
+import org.heigit.ors.routing.graphhopper.extensions.TollwayType;
+import org.heigit.ors.routing.graphhopper.extensions.WayType;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.WayTags;
+import org.heigit.ors.routing.graphhopper.extensions.storages.builders.TollwaysGraphStorageBuilder;
+import org.heigit.ors.routing.graphhopper.extensions.storages.builders.WayCategoryGraphStorageBuilder;
+import org.heigit.ors.routing.graphhopper.extensions.storages.builders.WaySurfaceTypeGraphStorageBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the way tag processing of the WayCategory, WaySurfaceType and Tollways storage builders on all ways of
+ * the bundled test OSM file.
+ * <p>
+ * {@link #compiledMatchers()} runs the builders, which intern the tags of each way once and match them with compiled
+ * {@link org.heigit.ors.routing.graphhopper.extensions.reader.tags.TagMatcher}s. {@link #stringLookups()} runs the
+ * previous implementation of the builders, which looked up and compared the tags as strings, as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagMatchingBenchmark {
+    private static final String DEFAULT_SOURCE_FILE = "../ors-engine/src/test/files/preprocessed_osm_data.pbf";
+    private static final Set<String> FERRIES = Set.of("shuttle_train", "ferry");
+    private static final List<String> TOLL_TAGS = List.of("toll", "toll:hgv", "toll:N1", "toll:N2", "toll:N3", "toll:motorcar");
+
+    private final WayCategoryGraphStorageBuilder wayCategoryBuilder = new WayCategoryGraphStorageBuilder();
+    private final WaySurfaceTypeGraphStorageBuilder waySurfaceTypeBuilder = new WaySurfaceTypeGraphStorageBuilder();
+    private final TollwaysGraphStorageBuilder tollwaysBuilder = new TollwaysGraphStorageBuilder();
+    private ReaderWay[] ways;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<ReaderWay> readWays = new ArrayList<>();
+        File file = new File(System.getProperty("ors.benchmarks.source", DEFAULT_SOURCE_FILE));
+        try (OSMInputFile input = new OSMInputFile(file).setWorkerThreads(1).open()) {
+            ReaderElement element;
+            while ((element = input.getNext()) != null) {
+                if (element.isType(ReaderElement.WAY))
+                    readWays.add((ReaderWay) element);
+            }
+        }
+        ways = readWays.toArray(new ReaderWay[0]);
+    }
+
+    @Benchmark
+    public int compiledMatchers() {
+        int ways = 0;
+        for (ReaderWay way : this.ways) {
+            // interned once per way like in the graph process context
+            WayTags.refresh(way);
+            wayCategoryBuilder.processWay(way);
+            waySurfaceTypeBuilder.processWay(way);
+            tollwaysBuilder.processWay(way);
+            ways++;
+        }
+        return ways;
+    }
+
+    @Benchmark
+    public int stringLookups() {
+        int result = 0;
+        for (ReaderWay way : ways)
+            result += getWayCategory(way) + getWaySurfaceType(way) + getTollways(way);
+        return result;
+    }
+
+    private static int getWayCategory(ReaderWay way) {
+        int wayType = 0;
+        boolean isFerryRoute = way.hasTag("route", FERRIES);
+        if (way.hasTag("highway") || isFerryRoute) {
+            for (Map.Entry<String, Object> tag : way.getTags().entrySet()) {
+                String key = tag.getKey();
+                String value = tag.getValue().toString();
+                if (key.equals("highway")) {
+                    if (value.equals("motorway") || value.equals("motorway_link"))
+                        wayType |= AvoidFeatureFlags.HIGHWAYS;
+                    else if (value.equals("steps"))
+                        wayType |= AvoidFeatureFlags.STEPS;
+                } else if (value.equals("yes") && key.startsWith("toll")) {
+                    wayType |= AvoidFeatureFlags.TOLLWAYS;
+                } else if (key.equals("route") && isFerryRoute) {
+                    wayType |= AvoidFeatureFlags.FERRIES;
+                } else if ("ford".equals(key) && value.equals("yes")) {
+                    wayType |= AvoidFeatureFlags.FORDS;
+                }
+            }
+        }
+        return wayType;
+    }
+
+    private static int getWaySurfaceType(ReaderWay way) {
+        int wayType;
+        if (way.hasTag("route", FERRIES))
+            wayType = WayType.FERRY;
+        else if (way.hasTag("highway"))
+            wayType = WayType.getFromString(way.getTag("highway"));
+        else
+            return 0;
+        int surfaceType = way.hasTag("surface") ? SurfaceType.getFromString(way.getTag("surface")) : SurfaceType.UNKNOWN;
+        return wayType << 8 | surfaceType;
+    }
+
+    private static int getTollways(ReaderWay way) {
+        int tollways = TollwayType.NONE;
+        int[] flags = {TollwayType.GENERAL, TollwayType.HGV, TollwayType.N1, TollwayType.N2, TollwayType.N3, TollwayType.MOTORCAR};
+        for (int i = 0; i < TOLL_TAGS.size(); i++) {
+            String key = TOLL_TAGS.get(i);
+            if (way.hasTag(key)) {
+                String value = way.getTag(key);
+                if ("yes".equals(value))
+                    tollways |= flags[i];
+                else if ("no".equals(value))
+                    tollways &= ~flags[i];
+            }
+        }
+        return tollways;
+    }
+}
@@ -15,6 +15,7 @@ package org.heigit.ors.common;
 
 public class ServiceRequest {
     private String id;
+    private String cacheKey;
 
     public String getId() {
         return id;
@@ -23,4 +24,15 @@ public class ServiceRequest {
     public void setId(String id) {
         this.id = id;
     }
+
+    /**
+     * @return canonical form of the request used to look up cached results, or null if they must not be cached
+     */
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
 }
@@ -14,6 +14,16 @@ public class EngineConfig {
     private final String graphsRootPath;
     private final boolean elevationPreprocessed;
     private final RouteProfileConfiguration[] profiles;
+    private final boolean warmUpPrefetch;
+    private final int warmUpRoutes;
+    private final int warmUpMatrices;
+    private final int warmUpIsochrones;
+    private final int segmentThreads;
+    private final int segmentParallelism;
+    private final int matrixThreads;
+    private final int matrixParallelism;
+    private final String reloadPath;
+    private final int reloadInterval;
 
     public int getInitializationThreads() {
         return initializationThreads;
@@ -39,6 +49,46 @@ public class EngineConfig {
         return profiles;
     }
 
+    public boolean isWarmUpPrefetch() {
+        return warmUpPrefetch;
+    }
+
+    public int getWarmUpRoutes() {
+        return warmUpRoutes;
+    }
+
+    public int getWarmUpMatrices() {
+        return warmUpMatrices;
+    }
+
+    public int getWarmUpIsochrones() {
+        return warmUpIsochrones;
+    }
+
+    public int getSegmentThreads() {
+        return segmentThreads;
+    }
+
+    public int getSegmentParallelism() {
+        return segmentParallelism;
+    }
+
+    public int getMatrixThreads() {
+        return matrixThreads;
+    }
+
+    public int getMatrixParallelism() {
+        return matrixParallelism;
+    }
+
+    public String getReloadPath() {
+        return reloadPath;
+    }
+
+    public int getReloadInterval() {
+        return reloadInterval;
+    }
+
     public EngineConfig(EngineConfigBuilder builder) {
         this.initializationThreads = builder.initializationThreads;
         this.preparationMode = builder.preparationMode;
@@ -46,6 +96,16 @@ public class EngineConfig {
         this.elevationPreprocessed = builder.elevationPreprocessed;
         this.graphsRootPath = builder.graphsRootPath;
         this.profiles = builder.profiles;
+        this.warmUpPrefetch = builder.warmUpPrefetch;
+        this.warmUpRoutes = builder.warmUpRoutes;
+        this.warmUpMatrices = builder.warmUpMatrices;
+        this.warmUpIsochrones = builder.warmUpIsochrones;
+        this.segmentThreads = builder.segmentThreads;
+        this.segmentParallelism = builder.segmentParallelism;
+        this.matrixThreads = builder.matrixThreads;
+        this.matrixParallelism = builder.matrixParallelism;
+        this.reloadPath = builder.reloadPath;
+        this.reloadInterval = builder.reloadInterval;
     }
 
 
@@ -57,6 +117,16 @@ public class EngineConfig {
         private String graphsRootPath;
         private boolean elevationPreprocessed;
         private RouteProfileConfiguration[] profiles;
+        private boolean warmUpPrefetch;
+        private int warmUpRoutes;
+        private int warmUpMatrices;
+        private int warmUpIsochrones;
+        private int segmentThreads;
+        private int segmentParallelism = 4;
+        private int matrixThreads;
+        private int matrixParallelism = 4;
+        private String reloadPath;
+        private int reloadInterval = 60;
 
         public static EngineConfigBuilder init() {
             return new EngineConfigBuilder();
@@ -93,6 +163,56 @@ public class EngineConfig {
             return this;
         }
 
+        public EngineConfigBuilder setWarmUpPrefetch(boolean warmUpPrefetch) {
+            this.warmUpPrefetch = warmUpPrefetch;
+            return this;
+        }
+
+        public EngineConfigBuilder setWarmUpRoutes(int warmUpRoutes) {
+            this.warmUpRoutes = warmUpRoutes;
+            return this;
+        }
+
+        public EngineConfigBuilder setWarmUpMatrices(int warmUpMatrices) {
+            this.warmUpMatrices = warmUpMatrices;
+            return this;
+        }
+
+        public EngineConfigBuilder setWarmUpIsochrones(int warmUpIsochrones) {
+            this.warmUpIsochrones = warmUpIsochrones;
+            return this;
+        }
+
+        public EngineConfigBuilder setSegmentThreads(int segmentThreads) {
+            this.segmentThreads = segmentThreads;
+            return this;
+        }
+
+        public EngineConfigBuilder setSegmentParallelism(int segmentParallelism) {
+            this.segmentParallelism = segmentParallelism;
+            return this;
+        }
+
+        public EngineConfigBuilder setMatrixThreads(int matrixThreads) {
+            this.matrixThreads = matrixThreads;
+            return this;
+        }
+
+        public EngineConfigBuilder setMatrixParallelism(int matrixParallelism) {
+            this.matrixParallelism = matrixParallelism;
+            return this;
+        }
+
+        public EngineConfigBuilder setReloadPath(String reloadPath) {
+            this.reloadPath = reloadPath;
+            return this;
+        }
+
+        public EngineConfigBuilder setReloadInterval(int reloadInterval) {
+            this.reloadInterval = reloadInterval;
+            return this;
+        }
+
         public EngineConfig build() {
             return new EngineConfig(this);
         }
@@ -118,6 +238,46 @@ public class EngineConfig {
             if (value != null)
                 elevationPreprocessed = "true".equalsIgnoreCase(value);
 
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "warmup.prefetch");
+            if (value != null)
+                warmUpPrefetch = "true".equalsIgnoreCase(value);
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "warmup.routes");
+            if (value != null)
+                warmUpRoutes = Integer.parseInt(value);
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "warmup.matrices");
+            if (value != null)
+                warmUpMatrices = Integer.parseInt(value);
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "warmup.isochrones");
+            if (value != null)
+                warmUpIsochrones = Integer.parseInt(value);
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "segment_threads");
+            if (value != null)
+                segmentThreads = Integer.parseInt(value);
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "segment_parallelism");
+            if (value != null)
+                segmentParallelism = Integer.parseInt(value);
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "matrix_threads");
+            if (value != null)
+                matrixThreads = Integer.parseInt(value);
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "matrix_parallelism");
+            if (value != null)
+                matrixParallelism = Integer.parseInt(value);
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "reload.path");
+            if (value != null)
+                reloadPath = value;
+
+            value = deprecatedAppConfig.getServiceParameter(SERVICE_NAME_ROUTING, "reload.interval");
+            if (value != null)
+                reloadInterval = Integer.parseInt(value);
+
             Map<String, Object> defaultParams = deprecatedAppConfig.getServiceParametersMap(SERVICE_NAME_ROUTING, "profiles.default_params", true);
             if (defaultParams != null && defaultParams.containsKey("graphs_root_path"))
                 graphsRootPath = StringUtility.trim(defaultParams.get("graphs_root_path").toString(), '"');
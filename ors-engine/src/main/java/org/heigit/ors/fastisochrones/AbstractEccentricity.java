@@ -32,30 +32,52 @@ public abstract class AbstractEccentricity {
     public abstract void calcEccentricities(Weighting weighting, EdgeFilter additionalEdgeFilter, FlagEncoder flagEncoder);
 
     public EccentricityStorage getEccentricityStorage(Weighting weighting) {
+        return getEccentricityStorage(weighting, false);
+    }
+
+    public EccentricityStorage getEccentricityStorage(Weighting weighting, boolean reverse) {
         if (eccentricityStorages.isEmpty())
             return null;
         for (EccentricityStorage ecc : eccentricityStorages) {
-            if (ecc.hasWeighting(weighting))
+            if (ecc.hasWeighting(weighting) && ecc.isReverse() == reverse)
                 return ecc;
         }
         return null;
     }
 
     public BorderNodeDistanceStorage getBorderNodeDistanceStorage(Weighting weighting) {
+        return getBorderNodeDistanceStorage(weighting, false);
+    }
+
+    public BorderNodeDistanceStorage getBorderNodeDistanceStorage(Weighting weighting, boolean reverse) {
         if (borderNodeDistanceStorages.isEmpty())
             return null;
         for (BorderNodeDistanceStorage bnds : borderNodeDistanceStorages) {
-            if (bnds.hasWeighting(weighting))
+            if (bnds.hasWeighting(weighting) && bnds.isReverse() == reverse)
                 return bnds;
         }
         return null;
     }
 
     public boolean loadExisting(Weighting weighting) {
-        EccentricityStorage eccentricityStorage = new EccentricityStorage(ghStorage.getDirectory(), weighting, isochroneNodeStorage, ghStorage.getBaseGraph().getNodes());
-        eccentricityStorages.add(eccentricityStorage);
+        boolean loaded = loadExisting(weighting, false);
+        //Graphs prepared without the data for reverse isochrones only support the forward direction
+        if (!loadExisting(weighting, true) && loaded) {
+            eccentricityStorages.remove(getEccentricityStorage(weighting, true));
+            borderNodeDistanceStorages.remove(getBorderNodeDistanceStorage(weighting, true));
+        }
+        return loaded;
+    }
 
-        BorderNodeDistanceStorage borderNodeDistanceStorage = new BorderNodeDistanceStorage(ghStorage.getDirectory(), weighting, isochroneNodeStorage, ghStorage.getBaseGraph().getNodes());
+    private boolean loadExisting(Weighting weighting, boolean reverse) {
+        EccentricityStorage eccentricityStorage;
+        BorderNodeDistanceStorage borderNodeDistanceStorage;
+        // the directory is shared with preparations which may run concurrently
+        synchronized (ghStorage.getDirectory()) {
+            eccentricityStorage = new EccentricityStorage(ghStorage.getDirectory(), weighting, isochroneNodeStorage, ghStorage.getBaseGraph().getNodes(), reverse);
+            borderNodeDistanceStorage = new BorderNodeDistanceStorage(ghStorage.getDirectory(), weighting, isochroneNodeStorage, ghStorage.getBaseGraph().getNodes(), reverse);
+        }
+        eccentricityStorages.add(eccentricityStorage);
         borderNodeDistanceStorages.add(borderNodeDistanceStorage);
         borderNodeDistanceStorage.loadExisting();
 
@@ -63,6 +85,10 @@ public abstract class AbstractEccentricity {
     }
 
     public boolean isAvailable(Weighting weighting) {
-        return getEccentricityStorage(weighting) != null;
+        return isAvailable(weighting, false);
+    }
+
+    public boolean isAvailable(Weighting weighting, boolean reverse) {
+        return getEccentricityStorage(weighting, reverse) != null;
     }
 }
@@ -51,6 +51,7 @@ public abstract class AbstractIsochroneAlgorithm {
     int visitedCountBorderNodesPhase;
     int visitedCountActiveCellPhase;
     double isochroneLimit;
+    protected boolean reverseDirection = false;
     private boolean alreadyRun;
 
     protected AbstractIsochroneAlgorithm(Graph graph,
@@ -79,6 +80,14 @@ public abstract class AbstractIsochroneAlgorithm {
 
     protected abstract void initCollections(int size);
 
+    /**
+     * Calculate the nodes from which the start can be reached within the limit instead of the nodes reachable from the
+     * start. Requires the eccentricity and border node distance storages of the reverse direction.
+     */
+    public void setReverseDirection(boolean reverseDirection) {
+        this.reverseDirection = reverseDirection;
+    }
+
     public void init(int from, double isochroneLimit) {
         init(from, from, isochroneLimit);
     }
@@ -22,7 +22,10 @@ import com.graphhopper.coll.GHIntObjectHashMap;
 import com.graphhopper.routing.AbstractRoutingAlgorithm;
 import com.graphhopper.routing.Path;
 import com.graphhopper.routing.SPTEntry;
+import com.graphhopper.routing.ev.BooleanEncodedValue;
 import com.graphhopper.routing.querygraph.EdgeIteratorStateHelper;
+import com.graphhopper.routing.util.AccessFilter;
+import com.graphhopper.routing.util.EdgeFilter;
 import com.graphhopper.routing.util.TraversalMode;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.Graph;
@@ -73,6 +76,18 @@ public abstract class AbstractIsochroneDijkstra extends AbstractRoutingAlgorithm
         fromHeap.add(nEdge);
     }
 
+    /**
+     * Search along the incoming instead of the outgoing edges, resulting in the weights of paths towards the start.
+     */
+    public void setReverseDirection(boolean reverseDirection) {
+        this.reverseDirection = reverseDirection;
+    }
+
+    protected EdgeFilter createAccessFilter() {
+        BooleanEncodedValue accessEnc = weighting.getFlagEncoder().getAccessEnc();
+        return reverseDirection ? AccessFilter.inEdges(accessEnc) : AccessFilter.outEdges(accessEnc);
+    }
+
     public IntObjectMap<SPTEntry> getFromMap() {
         return fromMap;
     }
@@ -1,5 +1,6 @@
 package org.heigit.ors.fastisochrones;
 
+import com.carrotsearch.hppc.DoubleArrayList;
 import com.carrotsearch.hppc.IntHashSet;
 import com.carrotsearch.hppc.IntObjectHashMap;
 import com.carrotsearch.hppc.IntObjectMap;
@@ -22,9 +23,15 @@ import org.locationtech.jts.index.quadtree.Quadtree;
 import org.opensphere.geometry.algorithm.ConcaveHullOpenSphere;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters.getMaxCellNodesNumber;
+import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters.getMaxThreadCount;
 import static org.heigit.ors.fastisochrones.partitioning.FastIsochroneParameters.isSupercellsEnabled;
 
 /**
@@ -85,29 +92,36 @@ public class Contour {
      * Calculates Contours of base cells and (if enabled) supercells and stores the data in cellStorage
      */
     public void calculateContour() {
-        handleBaseCells();
-        cellStorage.flush();
-        IntObjectMap<IntHashSet> superCells = handleSuperCells();
-        cellStorage.storeContourPointerMap();
-        if (isSupercellsEnabled())
-            cellStorage.storeSuperCells(superCells);
-        cellStorage.setContourPrepared(true);
-        cellStorage.flush();
+        ExecutorService threadPool = Executors.newFixedThreadPool(Math.min(getMaxThreadCount(), Runtime.getRuntime().availableProcessors()));
+        try {
+            handleBaseCells(threadPool);
+            cellStorage.flush();
+            IntObjectMap<IntHashSet> superCells = handleSuperCells(threadPool);
+            cellStorage.storeContourPointerMap();
+            if (isSupercellsEnabled())
+                cellStorage.storeSuperCells(superCells);
+            cellStorage.setContourPrepared(true);
+            cellStorage.flush();
+        } finally {
+            threadPool.shutdownNow();
+        }
     }
 
     /**
      * Create contour for each base cell and store it
      */
-    private void handleBaseCells() {
-        for (IntCursor cellId : isochroneNodeStorage.getCellIds()) {
-            List<Coordinate> coordinates = createCoordinates(cellId.value);
-            LineString ring = createContour(coordinates, cellStorage.getNodesOfCell(cellId.value).size() < 1000);
-            if (ring == null || ring.getNumPoints() < 2) {
-                cellStorage.setCellContourOrder(cellId.value, new ArrayList<>(), new ArrayList<>());
-                continue;
-            }
-            expandAndSaveContour(cellId.value, ring);
+    private void handleBaseCells(ExecutorService threadPool) {
+        int[] cellIds = isochroneNodeStorage.getCellIds().toArray();
+        Arrays.sort(cellIds);
+        List<Callable<CellContour>> tasks = new ArrayList<>(cellIds.length);
+        for (int cellId : cellIds) {
+            tasks.add(() -> {
+                List<Coordinate> coordinates = createCoordinates(cellId);
+                LineString ring = createContour(coordinates, cellStorage.getNodesOfCell(cellId).size() < 1000);
+                return expandContour(cellId, ring);
+            });
         }
+        storeContours(threadPool, tasks);
     }
 
     /**
@@ -119,7 +133,7 @@ public class Contour {
      *
      * @return Mapping of supercell Id -> Set of subcell ids
      */
-    private IntObjectMap<IntHashSet> handleSuperCells() {
+    private IntObjectMap<IntHashSet> handleSuperCells(ExecutorService threadPool) {
         IntObjectMap<IntHashSet> superCells = new IntObjectHashMap<>();
         if (isSupercellsEnabled()) {
             superCells = identifySuperCells(isochroneNodeStorage.getCellIds(), SUPER_CELL_HIERARCHY_LEVEL, true);
@@ -129,20 +143,73 @@ public class Contour {
             superCellsToBaseCells.putAll(superCells);
             superCells.putAll(superSuperCells);
 
-            //Calculate the concave hull for all super cells and super super cells
-            for (IntObjectCursor<IntHashSet> superCell : superCellsToBaseCells) {
-                List<Coordinate> superCellCoordinates = createSuperCellCoordinates(superCell.value);
-                LineString ring = createContour(superCellCoordinates, false);
-                if (ring == null || ring.getNumPoints() < 2) {
-                    cellStorage.setCellContourOrder(superCell.key, new ArrayList<>(), new ArrayList<>());
-                    continue;
-                }
-                expandAndSaveContour(superCell.key, ring);
+            //Calculate the concave hull for all super cells and super super cells.
+            //They only depend on the already stored base cell contours, so they can be computed independently of each other
+            int[] superCellIds = superCellsToBaseCells.keys().toArray();
+            Arrays.sort(superCellIds);
+            List<Callable<CellContour>> tasks = new ArrayList<>(superCellIds.length);
+            for (int superCellId : superCellIds) {
+                IntHashSet baseCells = superCellsToBaseCells.get(superCellId);
+                tasks.add(() -> {
+                    List<Coordinate> superCellCoordinates = createSuperCellCoordinates(baseCells);
+                    LineString ring = createContour(superCellCoordinates, false);
+                    return expandContour(superCellId, ring);
+                });
             }
+            storeContours(threadPool, tasks);
         }
         return superCells;
     }
 
+    /**
+     * Compute the contours of the given tasks on the thread pool and write them to the cell storage.
+     * The space for all contours is reserved in one go in the order of the tasks, which keeps the storage layout
+     * independent of the order in which the threads finish. Afterwards each contour is written into its own region.
+     *
+     * @param threadPool the pool to run the contour calculations on
+     * @param tasks      contour calculations, one per cell
+     */
+    private void storeContours(ExecutorService threadPool, List<Callable<CellContour>> tasks) {
+        CellContour[] contours = new CellContour[tasks.size()];
+        try {
+            List<Future<CellContour>> futures = threadPool.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++)
+                contours[i] = futures.get(i).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        int[] cellIds = new int[contours.length];
+        int[] contourSizes = new int[contours.length];
+        for (int i = 0; i < contours.length; i++) {
+            cellIds[i] = contours[i].cellId;
+            contourSizes[i] = contours[i].latitudes.length;
+        }
+        long[] pointers = cellStorage.reserveCellContours(cellIds, contourSizes);
+
+        List<Callable<Void>> writeTasks = new ArrayList<>(contours.length);
+        for (int i = 0; i < contours.length; i++) {
+            CellContour contour = contours[i];
+            long pointer = pointers[i];
+            writeTasks.add(() -> {
+                cellStorage.setCellContourOrder(pointer, contour.latitudes, contour.longitudes);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : threadPool.invokeAll(writeTasks))
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     /**
      * From the superCells Map get all the base cells for each super super cell
      *
@@ -416,11 +483,14 @@ public class Contour {
      * If these long edges were not split, it would lead to "holes" in the edge that can be misinterpreted when building the overall isochrone from multiple contours
      *
      * @param cellId cellId of the contour
-     * @param ring   LineString representing the contour in order
+     * @param ring   LineString representing the contour in order, may be null if no contour could be built
+     * @return the expanded contour of the cell
      */
-    private void expandAndSaveContour(int cellId, LineString ring) {
-        List<Double> hullLatitudes = new ArrayList<>(ring.getNumPoints());
-        List<Double> hullLongitudes = new ArrayList<>(ring.getNumPoints());
+    private CellContour expandContour(int cellId, LineString ring) {
+        if (ring == null || ring.getNumPoints() < 2)
+            return new CellContour(cellId, new double[0], new double[0]);
+        DoubleArrayList hullLatitudes = new DoubleArrayList(ring.getNumPoints());
+        DoubleArrayList hullLongitudes = new DoubleArrayList(ring.getNumPoints());
         for (int i = 0; i < ring.getNumPoints(); i++) {
             // Add coordinates to storage, but make sure there are enough on long edges by splitting
             hullLatitudes.add(ring.getPointN(i).getY());
@@ -435,7 +505,7 @@ public class Contour {
                         MAX_EDGE_LENGTH);
             }
         }
-        cellStorage.setCellContourOrder(cellId, hullLatitudes, hullLongitudes);
+        return new CellContour(cellId, hullLatitudes.toArray(), hullLongitudes.toArray());
     }
 
     public Contour setGhStorage(GraphHopperStorage ghStorage) {
@@ -453,7 +523,7 @@ public class Contour {
      * @param minlim     limit above which the edge will be split (in meters)
      * @param maxlim     limit above which the edge will NOT be split anymore (in meters)
      */
-    private void splitEdge(Point point0, Point point1, List<Double> latitudes, List<Double> longitudes, double minlim, double maxlim) {
+    private void splitEdge(Point point0, Point point1, DoubleArrayList latitudes, DoubleArrayList longitudes, double minlim, double maxlim) {
         double lat0 = point0.getY();
         double lon0 = point0.getX();
         double lat1 = point1.getY();
@@ -509,4 +579,16 @@ public class Contour {
             existingCoordinates.add(new Coordinate(lon0 - BUFFER_SIZE, lat0 - BUFFER_SIZE));
         }
     }
+
+    private static final class CellContour {
+        private final int cellId;
+        private final double[] latitudes;
+        private final double[] longitudes;
+
+        private CellContour(int cellId, double[] latitudes, double[] longitudes) {
+            this.cellId = cellId;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+        }
+    }
 }
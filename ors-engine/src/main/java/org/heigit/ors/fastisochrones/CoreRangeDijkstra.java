@@ -18,7 +18,6 @@
 package org.heigit.ors.fastisochrones;
 
 import com.graphhopper.routing.SPTEntry;
-import com.graphhopper.routing.util.AccessFilter;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.util.EdgeExplorer;
@@ -55,7 +54,7 @@ public class CoreRangeDijkstra extends AbstractIsochroneDijkstra {
     }
 
     protected void runAlgo() {
-        EdgeExplorer explorer = graph.createEdgeExplorer(AccessFilter.outEdges(weighting.getFlagEncoder().getAccessEnc()));
+        EdgeExplorer explorer = graph.createEdgeExplorer(createAccessFilter());
         while (true) {
             visitedNodes++;
             if (isMaxVisitedNodesExceeded() || finished())
@@ -52,11 +52,30 @@ public class Eccentricity extends AbstractEccentricity {
         this.cellStorage = cellStorage;
     }
 
+    /**
+     * Calculates the eccentricities of all border nodes for paths starting at the border nodes as well as for paths
+     * ending at them, which are needed for isochrones in reverse direction.
+     */
     public void calcEccentricities(Weighting weighting, EdgeFilter additionalEdgeFilter, FlagEncoder flagEncoder) {
         if (eccentricityStorages == null) {
             eccentricityStorages = new ArrayList<>();
         }
-        EccentricityStorage eccentricityStorage = getEccentricityStorage(weighting);
+        IntObjectHashMap<IntHashSet> relevantNodesSets = new IntObjectHashMap<>(isochroneNodeStorage.getCellIds().size());
+        for (IntCursor cellId : isochroneNodeStorage.getCellIds()) {
+            relevantNodesSets.put(cellId.value, getRelevantContourNodes(cellId.value, cellStorage, isochroneNodeStorage));
+        }
+        calcEccentricities(weighting, additionalEdgeFilter, flagEncoder, relevantNodesSets, false);
+        calcEccentricities(weighting, additionalEdgeFilter, flagEncoder, relevantNodesSets, true);
+    }
+
+    private void calcEccentricities(Weighting weighting, EdgeFilter additionalEdgeFilter, FlagEncoder flagEncoder, IntObjectHashMap<IntHashSet> relevantNodesSets, boolean reverse) {
+        EccentricityStorage eccentricityStorage = getEccentricityStorage(weighting, reverse);
+        if (eccentricityStorage == null) {
+            synchronized (ghStorage.getDirectory()) {
+                eccentricityStorage = new EccentricityStorage(ghStorage.getDirectory(), weighting, isochroneNodeStorage, ghStorage.getBaseGraph().getNodes(), reverse);
+            }
+            eccentricityStorages.add(eccentricityStorage);
+        }
         Graph graph = ghStorage.getBaseGraph();
         if (!eccentricityStorage.loadExisting())
             eccentricityStorage.init();
@@ -64,12 +83,8 @@ public class Eccentricity extends AbstractEccentricity {
 
         ExecutorCompletionService<String> completionService = new ExecutorCompletionService<>(threadPool);
 
-        EdgeFilter defaultEdgeFilter = AccessFilter.outEdges(flagEncoder.getAccessEnc());
-
-        IntObjectHashMap<IntHashSet> relevantNodesSets = new IntObjectHashMap<>(isochroneNodeStorage.getCellIds().size());
-        for (IntCursor cellId : isochroneNodeStorage.getCellIds()) {
-            relevantNodesSets.put(cellId.value, getRelevantContourNodes(cellId.value, cellStorage, isochroneNodeStorage));
-        }
+        EdgeFilter defaultEdgeFilter = reverse ? AccessFilter.inEdges(flagEncoder.getAccessEnc()) : AccessFilter.outEdges(flagEncoder.getAccessEnc());
+        final EccentricityStorage storage = eccentricityStorage;
 
         //Calculate the eccentricity via RangeDijkstra
         int borderNodeCount = 0;
@@ -86,6 +101,7 @@ public class Eccentricity extends AbstractEccentricity {
                 edgeFilterSequence.add(fixedCellEdgeFilter);
                 edgeFilterSequence.add(additionalEdgeFilter);
                 RangeDijkstra rangeDijkstra = new RangeDijkstra(graph, weighting);
+                rangeDijkstra.setReverseDirection(reverse);
                 rangeDijkstra.setMaxVisitedNodes(getMaxCellNodesNumber() * ECCENTRICITY_DIJKSTRA_LIMIT_FACTOR);
                 rangeDijkstra.setEdgeFilter(edgeFilterSequence);
                 rangeDijkstra.setCellNodes(cellStorage.getNodesOfCell(isochroneNodeStorage.getCellId(node)));
@@ -95,6 +111,7 @@ public class Eccentricity extends AbstractEccentricity {
                 //Sometimes nodes in a cell cannot be found, but we do not want to search the entire graph each time, so we limit the Dijkstra
                 if (((double) rangeDijkstra.getFoundCellNodeSize()) / cellNodeCount < ACCEPTED_FULLY_REACHABLE_PERCENTAGE) {
                     rangeDijkstra = new RangeDijkstra(graph, weighting);
+                    rangeDijkstra.setReverseDirection(reverse);
                     rangeDijkstra.setMaxVisitedNodes(getMaxCellNodesNumber() * ECCENTRICITY_DIJKSTRA_LIMIT_FACTOR);
                     rangeDijkstra.setEdgeFilter(edgeFilterSequence);
                     rangeDijkstra.setCellNodes(cellStorage.getNodesOfCell(isochroneNodeStorage.getCellId(node)));
@@ -106,9 +123,9 @@ public class Eccentricity extends AbstractEccentricity {
 
                 //TODO Maybe implement a logic smarter than having some high percentage for acceptedFullyReachable
                 boolean isFullyReachable = ((double) rangeDijkstra.getFoundCellNodeSize()) / cellNodeCount >= ACCEPTED_FULLY_REACHABLE_PERCENTAGE;
-                eccentricityStorage.setFullyReachable(node, isFullyReachable);
+                storage.setFullyReachable(node, isFullyReachable);
 
-                eccentricityStorage.setEccentricity(node, eccentricity);
+                storage.setEccentricity(node, eccentricity);
             }, String.valueOf(node));
         }
 
@@ -127,13 +144,16 @@ public class Eccentricity extends AbstractEccentricity {
         eccentricityStorage.flush();
     }
 
+    /**
+     * Calculates the distances between all pairs of border nodes of a cell. They are stored once per border node for
+     * paths starting at it and once for paths ending at it, the latter being needed for isochrones in reverse direction.
+     */
     public void calcBorderNodeDistances(Weighting weighting, EdgeFilter additionalEdgeFilter, FlagEncoder flagEncoder) {
         if (borderNodeDistanceStorages == null) {
             borderNodeDistanceStorages = new ArrayList<>();
         }
-        BorderNodeDistanceStorage borderNodeDistanceStorage = getBorderNodeDistanceStorage(weighting);
-        if (!borderNodeDistanceStorage.loadExisting())
-            borderNodeDistanceStorage.init();
+        BorderNodeDistanceStorage borderNodeDistanceStorage = initBorderNodeDistanceStorage(weighting, false);
+        BorderNodeDistanceStorage reverseBorderNodeDistanceStorage = initBorderNodeDistanceStorage(weighting, true);
 
         ExecutorService threadPool = java.util.concurrent.Executors.newFixedThreadPool(Math.min(getMaxThreadCount(), Runtime.getRuntime().availableProcessors()));
         ExecutorCompletionService<String> completionService = new ExecutorCompletionService<>(threadPool);
@@ -142,7 +162,7 @@ public class Eccentricity extends AbstractEccentricity {
         for (IntCursor cellId : isochroneNodeStorage.getCellIds()) {
             final int currentCellId = cellId.value;
             cellCount++;
-            completionService.submit(() -> calculateBorderNodeDistances(borderNodeDistanceStorage, additionalEdgeFilter, currentCellId, weighting, flagEncoder), String.valueOf(currentCellId));
+            completionService.submit(() -> calculateBorderNodeDistances(borderNodeDistanceStorage, reverseBorderNodeDistanceStorage, additionalEdgeFilter, currentCellId, weighting, flagEncoder), String.valueOf(currentCellId));
         }
 
         threadPool.shutdown();
@@ -157,17 +177,35 @@ public class Eccentricity extends AbstractEccentricity {
         }
         borderNodeDistanceStorage.storeBorderNodeToPointerMap();
         borderNodeDistanceStorage.flush();
+        reverseBorderNodeDistanceStorage.storeBorderNodeToPointerMap();
+        reverseBorderNodeDistanceStorage.flush();
+    }
+
+    private BorderNodeDistanceStorage initBorderNodeDistanceStorage(Weighting weighting, boolean reverse) {
+        BorderNodeDistanceStorage borderNodeDistanceStorage = getBorderNodeDistanceStorage(weighting, reverse);
+        if (borderNodeDistanceStorage == null) {
+            synchronized (ghStorage.getDirectory()) {
+                borderNodeDistanceStorage = new BorderNodeDistanceStorage(ghStorage.getDirectory(), weighting, isochroneNodeStorage, ghStorage.getBaseGraph().getNodes(), reverse);
+            }
+            borderNodeDistanceStorages.add(borderNodeDistanceStorage);
+        }
+        if (!borderNodeDistanceStorage.loadExisting())
+            borderNodeDistanceStorage.init();
+        return borderNodeDistanceStorage;
     }
 
-    private void calculateBorderNodeDistances(BorderNodeDistanceStorage borderNodeDistanceStorage, EdgeFilter additionalEdgeFilter, int cellId, Weighting weighting, FlagEncoder flagEncoder) {
+    private void calculateBorderNodeDistances(BorderNodeDistanceStorage borderNodeDistanceStorage, BorderNodeDistanceStorage reverseBorderNodeDistanceStorage, EdgeFilter additionalEdgeFilter, int cellId, Weighting weighting, FlagEncoder flagEncoder) {
         int[] cellBorderNodes = getBorderNodesOfCell(cellId, cellStorage, isochroneNodeStorage).toArray();
         EdgeFilterSequence edgeFilterSequence = new EdgeFilterSequence();
         EdgeFilter defaultEdgeFilter = AccessFilter.outEdges(flagEncoder.getAccessEnc());
         edgeFilterSequence.add(defaultEdgeFilter);
         edgeFilterSequence.add(additionalEdgeFilter);
         Graph graph = ghStorage.getBaseGraph();
+        //Distances from the i-th to the j-th border node, transposed afterwards for the reverse direction
+        double[][] cellDistances = new double[cellBorderNodes.length][cellBorderNodes.length];
 
-        for (int borderNode : cellBorderNodes) {
+        for (int source = 0; source < cellBorderNodes.length; source++) {
+            int borderNode = cellBorderNodes[source];
             DijkstraOneToManyAlgorithm algorithm = new DijkstraOneToManyAlgorithm(graph, weighting, TraversalMode.NODE_BASED);
             algorithm.setEdgeFilter(edgeFilterSequence);
             algorithm.prepare(new int[]{borderNode}, cellBorderNodes);
@@ -186,10 +224,25 @@ public class Eccentricity extends AbstractEccentricity {
                     distances[index] = 0;
                 } else
                     distances[index] = targets[i].weight;
+                cellDistances[source][i] = distances[index];
                 index++;
             }
             borderNodeDistanceStorage.storeBorderNodeDistanceSet(borderNode, new BorderNodeDistanceSet(ids, distances));
         }
+
+        for (int target = 0; target < cellBorderNodes.length; target++) {
+            int[] ids = new int[cellBorderNodes.length - 1];
+            double[] distances = new double[cellBorderNodes.length - 1];
+            int index = 0;
+            for (int source = 0; source < cellBorderNodes.length; source++) {
+                if (source == target)
+                    continue;
+                ids[index] = cellBorderNodes[source];
+                distances[index] = cellDistances[source][target];
+                index++;
+            }
+            reverseBorderNodeDistanceStorage.storeBorderNodeDistanceSet(cellBorderNodes[target], new BorderNodeDistanceSet(ids, distances));
+        }
     }
 
     private IntHashSet getBorderNodesOfCell(int cellId, CellStorage cellStorage, IsochroneNodeStorage isochroneNodeStorage) {
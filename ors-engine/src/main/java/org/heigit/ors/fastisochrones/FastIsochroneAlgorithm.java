@@ -86,6 +86,7 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
                         graph.getNodes())
         );
         coreRangeDijkstra.setEdgeFilter(edgeFilterSequence);
+        coreRangeDijkstra.setReverseDirection(reverseDirection);
         coreRangeDijkstra.setIsochroneLimit(isochroneLimit);
         coreRangeDijkstra.initFrom(from);
         coreRangeDijkstra.runAlgo();
@@ -134,6 +135,7 @@ public class FastIsochroneAlgorithm extends AbstractIsochroneAlgorithm {
         activeCellMaps.put(isochroneNodeStorage.getCellId(fromNonVirtual), startCellMap);
         for (Map.Entry<Integer, Map<Integer, Double>> entry : upAndCoreGraphDistMap.entrySet()) {
             ActiveCellDijkstra activeCellDijkstra = new ActiveCellDijkstra(graph, weighting, isochroneNodeStorage, entry.getKey());
+            activeCellDijkstra.setReverseDirection(reverseDirection);
             activeCellDijkstra.setIsochroneLimit(isochroneLimit);
             //Add all the start points with their respective already visited weight
             for (int nodeId : entry.getValue().keySet()) {
@@ -98,7 +98,10 @@ public class FastIsochroneFactory {
             getPartition().prepare();
             setIsochroneNodeStorage(getPartition().getIsochroneNodeStorage());
             setCellStorage(getPartition().getCellStorage());
-            properties.put(FastIsochrone.PREPARE + "date." + name, Helper.createFormatter().format(new Date()));
+            // the core preparation may write to the properties at the same time
+            synchronized (properties) {
+                properties.put(FastIsochrone.PREPARE + "date." + name, Helper.createFormatter().format(new Date()));
+            }
         }, name);
 
         threadPool.shutdown();
@@ -165,28 +165,50 @@ public class CellStorage implements Storable<CellStorage> {
     }
 
     /**
-     * Sets cell contour order.
+     * Reserves the storage for the contours of several cells at once.
+     * Each contour is assigned its own region in the order given, so the regions can afterwards be filled concurrently
+     * by {@link #setCellContourOrder(long, double[], double[])} without further synchronization.
      *
-     * @param cellId     the cell id
+     * @param cellIds      the cell ids
+     * @param contourSizes the number of contour points of each cell
+     * @return the pointers to the reserved region of each cell
+     */
+    public synchronized long[] reserveCellContours(int[] cellIds, int[] contourSizes) {
+        if (cellIds.length != contourSizes.length)
+            throw new IllegalStateException("cellIds and contourSizes must be same size");
+        long[] pointers = new long[cellIds.length];
+        long requiredBytes = 0;
+        for (int contourSize : contourSizes)
+            requiredBytes += (long) 2 * byteCount * (contourSize + 1);
+        cells.ensureCapacity(cellContourPointer + requiredBytes);
+        for (int i = 0; i < cellIds.length; i++) {
+            pointers[i] = cellContourPointer;
+            cellIdToContourPointerMap.put(cellIds[i], cellContourPointer);
+            cellContourPointer = cellContourPointer + (long) 2 * byteCount * (contourSizes[i] + 1);
+        }
+        return pointers;
+    }
+
+    /**
+     * Writes a cell contour into a region previously reserved by {@link #reserveCellContours(int[], int[])}.
+     *
+     * @param pointer    the pointer to the reserved region
      * @param latitudes  the latitudes
      * @param longitudes the longitudes
      */
-    public void setCellContourOrder(int cellId, List<Double> latitudes, List<Double> longitudes) {
-        if (latitudes.size() != longitudes.size())
+    public void setCellContourOrder(long pointer, double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length)
             throw new IllegalStateException("lat and lon must be same size");
-        cellIdToContourPointerMap.put(cellId, cellContourPointer);
-        cells.ensureCapacity(cellContourPointer + (long) 8 * (latitudes.size() + 1));
-        for (int i = 0; i < latitudes.size(); i++) {
-            cells.setInt(cellContourPointer, Helper.degreeToInt(latitudes.get(i)));
-            cellContourPointer = cellContourPointer + (long) byteCount;
-            cells.setInt(cellContourPointer, Helper.degreeToInt(longitudes.get(i)));
-            cellContourPointer = cellContourPointer + (long) byteCount;
+        for (int i = 0; i < latitudes.length; i++) {
+            cells.setInt(pointer, Helper.degreeToInt(latitudes[i]));
+            pointer = pointer + (long) byteCount;
+            cells.setInt(pointer, Helper.degreeToInt(longitudes[i]));
+            pointer = pointer + (long) byteCount;
         }
         //Add a trailing int max value so we know when to stop
-        cells.setInt(cellContourPointer, Integer.MAX_VALUE);
-        cellContourPointer = cellContourPointer + (long) byteCount;
-        cells.setInt(cellContourPointer, Integer.MAX_VALUE);
-        cellContourPointer = cellContourPointer + (long) byteCount;
+        cells.setInt(pointer, Integer.MAX_VALUE);
+        pointer = pointer + (long) byteCount;
+        cells.setInt(pointer, Integer.MAX_VALUE);
     }
 
     /**
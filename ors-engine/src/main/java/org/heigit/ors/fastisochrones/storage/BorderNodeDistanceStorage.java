@@ -48,12 +48,21 @@ public class BorderNodeDistanceStorage implements Storable<BorderNodeDistanceSto
     private final IsochroneNodeStorage isochroneNodeStorage;
     private IntLongHashMap borderNodeToPointerMap;
     private final Weighting weighting;
+    private final boolean reverse;
 
     public BorderNodeDistanceStorage(Directory dir, Weighting weighting, IsochroneNodeStorage isochroneNodeStorage, int nodeCount) {
+        this(dir, weighting, isochroneNodeStorage, nodeCount, false);
+    }
+
+    /**
+     * @param reverse whether the stored distances are the ones from the adjacent border nodes to the border node
+     */
+    public BorderNodeDistanceStorage(Directory dir, Weighting weighting, IsochroneNodeStorage isochroneNodeStorage, int nodeCount, boolean reverse) {
         final String name = FileUtility.weightingToFileName(weighting);
         this.isochroneNodeStorage = isochroneNodeStorage;
-        borderNodes = dir.find("bordernodes_" + name);
+        borderNodes = dir.find((reverse ? "bordernodes_reverse_" : "bordernodes_") + name);
         this.weighting = weighting;
+        this.reverse = reverse;
         byteCount = 12; //adj bordernode id (int 4B) and distance (double 8B)
         this.nodeCount = nodeCount;
     }
@@ -182,6 +191,10 @@ public class BorderNodeDistanceStorage implements Storable<BorderNodeDistanceSto
         return weighting;
     }
 
+    public boolean isReverse() {
+        return reverse;
+    }
+
     public boolean hasWeighting(Weighting weighting) {
         return getWeighting().getName() != null
                 && getWeighting().getName().equals(weighting.getName())
@@ -41,6 +41,7 @@ public class EccentricityStorage implements Storable<EccentricityStorage> {
     private final int eccentricityPosition;
     private final int nodeCount;
     private final Weighting weighting;
+    private final boolean reverse;
     private final IsochroneNodeStorage isochroneNodeStorage;
     private int borderNodeIndexOffset;
     private int borderNodePointer;
@@ -55,11 +56,24 @@ public class EccentricityStorage implements Storable<EccentricityStorage> {
      * @param isochroneNodeStorage the isochrone node storage
      */
     public EccentricityStorage(Directory dir, Weighting weighting, IsochroneNodeStorage isochroneNodeStorage, int nodeCount) {
+        this(dir, weighting, isochroneNodeStorage, nodeCount, false);
+    }
+
+    /**
+     * Instantiates a new Eccentricity storage.
+     *
+     * @param dir                  the dir
+     * @param weighting            the weighting
+     * @param isochroneNodeStorage the isochrone node storage
+     * @param reverse              whether the eccentricities are the maximum weights of paths towards the border nodes
+     */
+    public EccentricityStorage(Directory dir, Weighting weighting, IsochroneNodeStorage isochroneNodeStorage, int nodeCount, boolean reverse) {
         //A map of nodeId to pointer is stored in the first block.
         //The second block stores 2 values for each pointer, full reachability and eccentricity
         final String name = FileUtility.weightingToFileName(weighting);
-        eccentricities = dir.find("eccentricities_" + name);
+        eccentricities = dir.find((reverse ? "eccentricities_reverse_" : "eccentricities_") + name);
         this.weighting = weighting;
+        this.reverse = reverse;
         this.isochroneNodeStorage = isochroneNodeStorage;
         this.nodeCount = nodeCount;
         //  2 ints per node, first is fully reachable, second is eccentricity
@@ -219,6 +233,10 @@ public class EccentricityStorage implements Storable<EccentricityStorage> {
         return weighting;
     }
 
+    public boolean isReverse() {
+        return reverse;
+    }
+
     public boolean hasWeighting(Weighting weighting) {
         return getWeighting().getName() != null
                 && getWeighting().getName().equals(weighting.getName())
@@ -36,6 +36,7 @@ import org.heigit.ors.routing.algorithms.TDDijkstraCostCondition;
 import org.heigit.ors.routing.graphhopper.extensions.AccessibilityMap;
 import org.heigit.ors.routing.graphhopper.extensions.ORSEdgeFilterFactory;
 import org.heigit.ors.routing.traffic.TrafficSpeedCalculator;
+import org.heigit.ors.snapping.SnapCache;
 import org.heigit.ors.util.ProfileTools;
 import org.locationtech.jts.geom.Coordinate;
 
@@ -58,7 +59,8 @@ public class GraphEdgeMapFinder {
         EdgeFilter edgeFilter = edgeFilterFactory.createEdgeFilter(searchCntx.getProperties(), encoder, graph, defaultSnapFilter);
 
         Coordinate loc = parameters.getLocation();
-        Snap res = gh.getLocationIndex().findClosest(loc.y, loc.x, edgeFilter);
+        String snapFilterKey = SnapCache.createFilterKey(profileName, weighting.getName(), searchCntx.getProperties());
+        Snap res = SnapCache.findClosest(gh, loc.y, loc.x, edgeFilter, snapFilterKey);
         List<Snap> snaps = new ArrayList<>(1);
         snaps.add(res);
         QueryGraph queryGraph = QueryGraph.create(graph, snaps);
@@ -18,7 +18,9 @@ import org.heigit.ors.isochrones.builders.IsochroneMapBuilder;
 import org.heigit.ors.isochrones.builders.concaveballs.ConcaveBallsIsochroneMapBuilder;
 import org.heigit.ors.isochrones.builders.fast.FastIsochroneMapBuilder;
 import org.heigit.ors.routing.RouteSearchContext;
+import org.heigit.ors.routing.RoutingProfileType;
 import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+import org.heigit.ors.util.MetricsUtility;
 
 public class IsochroneMapBuilderFactory {
     private final RouteSearchContext searchContext;
@@ -31,17 +33,25 @@ public class IsochroneMapBuilderFactory {
     public IsochroneMap buildMap(IsochroneSearchParameters parameters) throws Exception {
         IsochroneMapBuilder isochroneBuilder = createIsochroneMapBuilder(parameters);
 
+        long startTime = MetricsUtility.startTime();
         isochroneBuilder.initialize(searchContext);
-        return isochroneBuilder.compute(parameters);
+        IsochroneMap result = isochroneBuilder.compute(parameters);
+        if (MetricsUtility.isEnabled()) {
+            String algorithm = isochroneBuilder instanceof FastIsochroneMapBuilder ? "fast" : "concaveballs";
+            String[] tags = {MetricsUtility.TAG_PROFILE, RoutingProfileType.getName(parameters.getRouteParameters().getProfileType()), MetricsUtility.TAG_ALGORITHM, algorithm};
+            MetricsUtility.recordTime("ors.isochrones.compute", startTime, tags);
+            MetricsUtility.recordValue("ors.isochrones.count", result.getIsochronesCount(), tags);
+        }
+        return result;
     }
 
     private IsochroneMapBuilder createIsochroneMapBuilder(IsochroneSearchParameters parameters) throws IllegalArgumentException {
         IsochroneMapBuilder isochroneBuilder;
         String method = parameters.getCalcMethod();
-        boolean canUseFastIsochrones = !(parameters.getRouteParameters().requiresDynamicPreprocessedWeights() || parameters.getRouteParameters().requiresFullyDynamicWeights() || parameters.getReverseDirection());
+        boolean canUseFastIsochrones = !(parameters.getRouteParameters().requiresDynamicPreprocessedWeights() || parameters.getRouteParameters().requiresFullyDynamicWeights());
         if (Helper.isEmpty(method) || "FastIsochrone".equalsIgnoreCase(method) || "Default".equalsIgnoreCase(method)) {
             if (canUseFastIsochrones &&
-                    ((ORSGraphHopper) searchContext.getGraphHopper()).isFastIsochroneAvailable(searchContext, parameters.getRangeType()))
+                    ((ORSGraphHopper) searchContext.getGraphHopper()).isFastIsochroneAvailable(searchContext, parameters.getRangeType(), Boolean.TRUE.equals(parameters.getReverseDirection())))
                 isochroneBuilder = new FastIsochroneMapBuilder();
             else
                 isochroneBuilder = new ConcaveBallsIsochroneMapBuilder();
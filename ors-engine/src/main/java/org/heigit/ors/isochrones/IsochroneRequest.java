@@ -150,6 +150,8 @@ public class IsochroneRequest extends ServiceRequest {
             parameters.setReverseDirection(true);
         parameters.setSmoothingFactor(smoothingFactor);
         parameters.setStatsProviders(statsProviders);
+        if (getCacheKey() != null)
+            parameters.setCacheKey(getCacheKey() + "|traveller=" + travellerIndex);
         return parameters;
     }
 
@@ -33,6 +33,7 @@ public class IsochroneSearchParameters {
     private String units;
     private String areaUnits;
     private Map<String, StatisticsProviderConfiguration> statsProviders;
+    private String cacheKey;
 
     public boolean hasAttribute(String attr) {
         if (attributes == null || attr == null)
@@ -161,4 +162,16 @@ public class IsochroneSearchParameters {
     public void setStatsProviders(Map<String, StatisticsProviderConfiguration> statsProviders) {
         this.statsProviders = statsProviders;
     }
+
+    /**
+     * @return canonical form of the request for this traveller used to look up cached results, or null if they must
+     * not be cached
+     */
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
 }
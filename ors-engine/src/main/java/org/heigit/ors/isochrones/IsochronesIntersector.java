@@ -0,0 +1,176 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones;
+
+import org.heigit.ors.common.Pair;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.operation.polygonize.Polygonizer;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the intersections between the isochrones of different locations.
+ * <p>
+ * All isochrones are put into an {@link STRtree} over their envelopes, so only isochrones with overlapping envelopes
+ * are compared, and the geometry of an isochrone is prepared once for all of its candidates.
+ * <p>
+ * {@link #computePairwise()} intersects every isochrone with every isochrone of the following locations.
+ * {@link #computeOverlay()} instead nodes the outlines of all isochrones once and returns the faces of the resulting
+ * arrangement which are covered by isochrones of at least two locations, each with all the isochrones covering it.
+ */
+public class IsochronesIntersector {
+    private final List<Contour> contours = new ArrayList<>();
+    private final STRtree index = new STRtree();
+
+    private static final class Contour {
+        private final int id;
+        private final int mapIndex;
+        private final int isoIndex;
+        private final Geometry geometry;
+        private PreparedGeometry preparedGeometry;
+
+        private Contour(int id, int mapIndex, int isoIndex, Geometry geometry) {
+            this.id = id;
+            this.mapIndex = mapIndex;
+            this.isoIndex = isoIndex;
+            this.geometry = geometry;
+        }
+
+        private PreparedGeometry getPreparedGeometry() {
+            if (preparedGeometry == null)
+                preparedGeometry = PreparedGeometryFactory.prepare(geometry);
+            return preparedGeometry;
+        }
+
+        private Pair<Integer, Integer> getRef() {
+            return new Pair<>(mapIndex, isoIndex);
+        }
+    }
+
+    public IsochronesIntersector(IsochroneMapCollection isochroneMaps) {
+        int im = 0;
+        for (IsochroneMap isoMap : isochroneMaps.getIsochroneMaps()) {
+            int ii = 0;
+            for (Isochrone isoLine : isoMap.getIsochrones()) {
+                Geometry geometry = isoLine.getGeometry();
+                if (geometry != null && !geometry.isEmpty()) {
+                    Contour contour = new Contour(contours.size(), im, ii, geometry);
+                    contours.add(contour);
+                    index.insert(isoLine.getEnvelope(), contour);
+                }
+                ii++;
+            }
+            im++;
+        }
+        index.build();
+    }
+
+    /**
+     * @return the non-empty intersection of every pair of isochrones of different locations, ordered by the indices
+     * of the first and then of the second isochrone
+     */
+    public List<IsochronesIntersection> computePairwise() {
+        List<IsochronesIntersection> result = new ArrayList<>();
+        for (Contour contour : contours) {
+            for (Contour other : getCandidates(contour)) {
+                if (other.mapIndex <= contour.mapIndex || !contour.getPreparedGeometry().intersects(other.geometry))
+                    continue;
+                Geometry geomIntersection = contour.geometry.intersection(other.geometry);
+                if (!geomIntersection.isEmpty()) {
+                    IsochronesIntersection isoIntersection = new IsochronesIntersection(geomIntersection);
+                    isoIntersection.addContourRefs(contour.getRef());
+                    isoIntersection.addContourRefs(other.getRef());
+                    result.add(isoIntersection);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the areas covered by isochrones of at least two locations, split so that each area is covered by the
+     * same isochrones everywhere and referencing all of them
+     */
+    public List<IsochronesIntersection> computeOverlay() {
+        List<IsochronesIntersection> result = new ArrayList<>();
+        List<Geometry> outlines = new ArrayList<>();
+        for (Contour contour : contours) {
+            if (hasOverlap(contour))
+                outlines.add(contour.geometry.getBoundary());
+        }
+        if (outlines.isEmpty())
+            return result;
+
+        Polygonizer polygonizer = new Polygonizer();
+        polygonizer.add(UnaryUnionOp.union(outlines));
+        Map<BitSet, List<Geometry>> faces = new LinkedHashMap<>();
+        for (Object face : polygonizer.getPolygons()) {
+            BitSet covering = getCoveringContours(((Polygon) face).getInteriorPoint());
+            if (covering != null)
+                faces.computeIfAbsent(covering, k -> new ArrayList<>()).add((Polygon) face);
+        }
+        for (Map.Entry<BitSet, List<Geometry>> entry : faces.entrySet()) {
+            IsochronesIntersection isoIntersection = new IsochronesIntersection(UnaryUnionOp.union(entry.getValue()));
+            entry.getKey().stream().forEach(id -> isoIntersection.addContourRefs(contours.get(id).getRef()));
+            result.add(isoIntersection);
+        }
+        return result;
+    }
+
+    private boolean hasOverlap(Contour contour) {
+        for (Contour other : getCandidates(contour)) {
+            if (other.mapIndex != contour.mapIndex && contour.getPreparedGeometry().intersects(other.geometry))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the ids of the isochrones containing the point, or null if they do not belong to at least two locations
+     */
+    private BitSet getCoveringContours(Point point) {
+        BitSet covering = new BitSet(contours.size());
+        int firstMapIndex = -1;
+        boolean multipleMaps = false;
+        for (Object item : index.query(point.getEnvelopeInternal())) {
+            Contour contour = (Contour) item;
+            if (!contour.getPreparedGeometry().contains(point))
+                continue;
+            covering.set(contour.id);
+            if (firstMapIndex == -1)
+                firstMapIndex = contour.mapIndex;
+            else if (contour.mapIndex != firstMapIndex)
+                multipleMaps = true;
+        }
+        return multipleMaps ? covering : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Contour> getCandidates(Contour contour) {
+        List<Contour> candidates = new ArrayList<>((List<Contour>) index.query(contour.geometry.getEnvelopeInternal()));
+        candidates.sort(Comparator.comparingInt(c -> c.id));
+        return candidates;
+    }
+}
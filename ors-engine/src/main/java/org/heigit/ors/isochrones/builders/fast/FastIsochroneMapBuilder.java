@@ -55,6 +55,7 @@ import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSeque
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.FootFlagEncoder;
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.ORSAbstractFlagEncoder;
 import org.heigit.ors.routing.graphhopper.extensions.flagencoders.WheelchairFlagEncoder;
+import org.heigit.ors.snapping.SnapCache;
 import org.heigit.ors.util.DebugUtility;
 import org.heigit.ors.util.GeomUtility;
 import org.locationtech.jts.geom.*;
@@ -148,7 +149,8 @@ public class FastIsochroneMapBuilder implements IsochroneMapBuilder {
 
         ORSEdgeFilterFactory edgeFilterFactory = new ORSEdgeFilterFactory();
         EdgeFilterSequence edgeFilterSequence = getEdgeFilterSequence(edgeFilterFactory, defaultSnapFilter);
-        Snap res = searchcontext.getGraphHopper().getLocationIndex().findClosest(loc.y, loc.x, edgeFilterSequence);
+        String snapFilterKey = SnapCache.createFilterKey(profileName, weighting.getName() + "|noferries", searchcontext.getProperties());
+        Snap res = SnapCache.findClosest(gh, loc.y, loc.x, edgeFilterSequence, snapFilterKey);
         List<Snap> snaps = new ArrayList<>(1);
         snaps.add(res);
         //Needed to get the cell of the start point (preprocessed information, so no info on virtual nodes)
@@ -165,6 +167,7 @@ public class FastIsochroneMapBuilder implements IsochroneMapBuilder {
         if (!(searchcontext.getGraphHopper() instanceof ORSGraphHopper))
             throw new IllegalStateException("Unable to run fast isochrones without ORSGraphhopper");
 
+        boolean reverseDirection = Boolean.TRUE.equals(parameters.getReverseDirection());
         int nRanges = parameters.getRanges().length;
         IsochroneMap isochroneMap = null;
 
@@ -175,9 +178,10 @@ public class FastIsochroneMapBuilder implements IsochroneMapBuilder {
                     TraversalMode.NODE_BASED,
                     cellStorage,
                     isochroneNodeStorage,
-                    ((ORSGraphHopper) searchcontext.getGraphHopper()).getEccentricity().getEccentricityStorage(weighting),
-                    ((ORSGraphHopper) searchcontext.getGraphHopper()).getEccentricity().getBorderNodeDistanceStorage(weighting),
+                    ((ORSGraphHopper) searchcontext.getGraphHopper()).getEccentricity().getEccentricityStorage(weighting, reverseDirection),
+                    ((ORSGraphHopper) searchcontext.getGraphHopper()).getEccentricity().getBorderNodeDistanceStorage(weighting, reverseDirection),
                     edgeFilterSequence);
+            fastIsochroneAlgorithm.setReverseDirection(reverseDirection);
             //Account for snapping distance
             double isolimit = parameters.getRanges()[i] - weighting.getMinWeight(res.getQueryDistance());
             if (isolimit <= 0)
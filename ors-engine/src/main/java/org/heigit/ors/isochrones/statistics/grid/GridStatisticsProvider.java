@@ -0,0 +1,86 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.statistics.grid;
+
+import com.graphhopper.util.Helper;
+import org.apache.log4j.Logger;
+import org.heigit.ors.exceptions.InternalServerException;
+import org.heigit.ors.isochrones.Isochrone;
+import org.heigit.ors.isochrones.IsochronesErrorCodes;
+import org.heigit.ors.isochrones.statistics.StatisticsProvider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Computes the population within isochrones from a local {@link PopulationGrid} instead of a database.
+ * <p>
+ * The grid is read from an ESRI ASCII grid given by 'source_file', which is converted into a summed-area table file
+ * next to it when the provider is initialized, which the service does at startup. The table is reused as long as it is
+ * newer than the source file. The corner coordinates may be given for the corner or the centre of the lower left cell,
+ * independently of each other.
+ */
+public class GridStatisticsProvider implements StatisticsProvider {
+    private static final Logger LOGGER = Logger.getLogger(GridStatisticsProvider.class.getName());
+
+    private static final String PROPERTY_TOTAL_POP = "total_pop";
+
+    private PopulationGrid grid;
+
+    @Override
+    public void init(Map<String, Object> parameters) throws Exception {
+        String value = (String) parameters.get("source_file");
+        if (Helper.isEmpty(value))
+            throw new InternalServerException(IsochronesErrorCodes.UNKNOWN, "'source_file' parameter can not be null or empty.");
+        Path source = Paths.get(value);
+        value = (String) parameters.get("grid_file");
+        Path gridFile = Helper.isEmpty(value) ? source.resolveSibling(source.getFileName() + ".sat") : Paths.get(value);
+
+        if (!Files.exists(gridFile) || (Files.exists(source) && Files.getLastModifiedTime(gridFile).compareTo(Files.getLastModifiedTime(source)) < 0)) {
+            long start = System.currentTimeMillis();
+            PopulationGrid.convertAsciiGrid(source, gridFile);
+            LOGGER.info("Converted population grid '%s' to '%s' in %d ms.".formatted(source, gridFile, System.currentTimeMillis() - start));
+        }
+        grid = PopulationGrid.open(gridFile);
+        LOGGER.info("Loaded population grid '%s' with %d x %d cells.".formatted(gridFile, grid.getCols(), grid.getRows()));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (grid != null) {
+            grid.close();
+            grid = null;
+        }
+    }
+
+    /**
+     * Only total_pop is supported, the values of other properties are 0.
+     */
+    @Override
+    public double[] getStatistics(Isochrone isochrone, String[] properties) throws Exception {
+        double[] res = new double[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            if (PROPERTY_TOTAL_POP.equals(properties[i]))
+                res[i] = Math.round(grid.sum(isochrone.getGeometry()));
+        }
+        return res;
+    }
+
+    @Override
+    public String getName() {
+        return "grid";
+    }
+}
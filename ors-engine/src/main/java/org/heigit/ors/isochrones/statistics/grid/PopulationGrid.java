@@ -0,0 +1,289 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.isochrones.statistics.grid;
+
+import org.locationtech.jts.geom.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A grid of population counts in WGS 84, stored as a memory-mapped summed-area table.
+ * <p>
+ * The table holds for every grid corner the sum of all cells north-west of it, so the sum of any rectangle of cells
+ * takes four lookups. A polygon is rasterised row by row: the cells whose centres lie inside the polygon form spans
+ * between the crossings of the row centre line with the polygon rings. Consecutive rows with the same spans are merged
+ * into rectangles, so the interior of a polygon costs a few lookups regardless of its size.
+ * <p>
+ * The table is created from an ESRI ASCII grid, which can be exported from a GeoTIFF with common GIS tools.
+ */
+public class PopulationGrid implements Closeable {
+    private static final int MAGIC = 0x4f525350; // "ORSP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+
+    private final int rows;
+    private final int cols;
+    private final double west;
+    private final double north;
+    private final double cellSize;
+    private final int rowsPerBuffer;
+    private final DoubleBuffer[] buffers;
+    private final FileChannel channel;
+
+    private PopulationGrid(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION)
+            throw new IOException("Not a population grid file of version " + VERSION + ".");
+        rows = header.getInt();
+        cols = header.getInt();
+        west = header.getDouble();
+        north = header.getDouble();
+        cellSize = header.getDouble();
+
+        // a mapped buffer is limited to 2 GB, so the table is mapped in chunks of whole rows
+        long rowBytes = (long) (cols + 1) * Double.BYTES;
+        rowsPerBuffer = (int) Math.max(1, Integer.MAX_VALUE / rowBytes);
+        int nBuffers = (rows + 1 + rowsPerBuffer - 1) / rowsPerBuffer;
+        buffers = new DoubleBuffer[nBuffers];
+        for (int i = 0; i < nBuffers; i++) {
+            int bufferRows = Math.min(rowsPerBuffer, rows + 1 - i * rowsPerBuffer);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + i * rowsPerBuffer * rowBytes, bufferRows * rowBytes);
+            buffers[i] = mapped.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+    }
+
+    public static PopulationGrid open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new PopulationGrid(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Converts an ESRI ASCII grid in WGS 84 into a summed-area table file. No data values count as zero.
+     */
+    public static void convertAsciiGrid(Path source, Path target) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (BufferedReader reader = Files.newBufferedReader(source);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            StreamTokenizer tokenizer = createTokenizer(reader);
+            int nCols = 0;
+            int nRows = 0;
+            double xll = Double.NaN;
+            double yll = Double.NaN;
+            double size = Double.NaN;
+            double noData = Double.NaN;
+            // each corner coordinate may be given for the centre of the lower left cell instead
+            boolean xCenter = false;
+            boolean yCenter = false;
+            // the header lines are pairs of a key and a number, the cell values follow the last of them
+            while (tokenizer.nextToken() == StreamTokenizer.TT_WORD && Character.isLetter(tokenizer.sval.charAt(0))) {
+                String key = tokenizer.sval.toLowerCase(Locale.ROOT);
+                double value = nextNumber(tokenizer);
+                switch (key) {
+                    case "ncols" -> nCols = (int) value;
+                    case "nrows" -> nRows = (int) value;
+                    case "xllcorner" -> xll = value;
+                    case "xllcenter" -> {
+                        xll = value;
+                        xCenter = true;
+                    }
+                    case "yllcorner" -> yll = value;
+                    case "yllcenter" -> {
+                        yll = value;
+                        yCenter = true;
+                    }
+                    case "cellsize" -> size = value;
+                    case "nodata_value" -> noData = value;
+                    default -> throw new IOException("Unknown ASCII grid header '" + key + "'.");
+                }
+            }
+            if (nCols <= 0 || nRows <= 0 || Double.isNaN(xll) || Double.isNaN(yll) || Double.isNaN(size))
+                throw new IOException("Incomplete ASCII grid header in " + source + ".");
+            if (xCenter)
+                xll -= size / 2;
+            if (yCenter)
+                yll -= size / 2;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(nRows).putInt(nCols).putDouble(xll).putDouble(yll + nRows * size).putDouble(size);
+            header.flip();
+            out.write(header, 0);
+            out.position(HEADER_BYTES);
+
+            double[] sums = new double[nCols + 1];
+            ByteBuffer row = ByteBuffer.allocate(sums.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            writeRow(out, row, sums);
+            for (int r = 0; r < nRows; r++) {
+                double rowSum = 0;
+                for (int c = 0; c < nCols; c++) {
+                    if (r > 0 || c > 0)
+                        tokenizer.nextToken();
+                    if (tokenizer.ttype != StreamTokenizer.TT_WORD)
+                        throw new IOException("ASCII grid " + source + " ends before row " + r + ".");
+                    double value = Double.parseDouble(tokenizer.sval);
+                    if (value != noData && value > 0)
+                        rowSum += value;
+                    sums[c + 1] += rowSum;
+                }
+                writeRow(out, row, sums);
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static StreamTokenizer createTokenizer(Reader reader) {
+        StreamTokenizer tokenizer = new StreamTokenizer(reader);
+        // numbers are parsed as words to support exponents
+        tokenizer.resetSyntax();
+        tokenizer.wordChars(33, 255);
+        tokenizer.whitespaceChars(0, 32);
+        return tokenizer;
+    }
+
+    private static double nextNumber(StreamTokenizer tokenizer) throws IOException {
+        if (tokenizer.nextToken() != StreamTokenizer.TT_WORD)
+            throw new IOException("Unexpected end of ASCII grid header.");
+        return Double.parseDouble(tokenizer.sval);
+    }
+
+    private static void writeRow(FileChannel out, ByteBuffer row, double[] sums) throws IOException {
+        row.clear();
+        row.asDoubleBuffer().put(sums);
+        while (row.hasRemaining())
+            out.write(row);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return the sum of the cells above row and left of col
+     */
+    private double getCornerSum(int row, int col) {
+        return buffers[row / rowsPerBuffer].get((row % rowsPerBuffer) * (cols + 1) + col);
+    }
+
+    /**
+     * @return the sum of the cells in rows [row0, row1) and columns [col0, col1)
+     */
+    double sumRectangle(int row0, int row1, int col0, int col1) {
+        return getCornerSum(row1, col1) - getCornerSum(row0, col1) - getCornerSum(row1, col0) + getCornerSum(row0, col0);
+    }
+
+    /**
+     * Sums the cells whose centres lie within the polygons of the given geometry.
+     */
+    public double sum(Geometry geometry) {
+        Envelope envelope = geometry.getEnvelopeInternal();
+        int rowStart = Math.max(0, (int) Math.floor((north - envelope.getMaxY()) / cellSize));
+        int rowEnd = Math.min(rows, (int) Math.ceil((north - envelope.getMinY()) / cellSize));
+        if (rowStart >= rowEnd)
+            return 0;
+
+        Coordinate[][] rings = getRings(geometry);
+        double[] crossings = new double[16];
+        int[] spans = new int[0];
+        int nSpans = 0;
+        int[] runSpans = new int[0];
+        int nRunSpans = 0;
+        int runStart = rowStart;
+        double sum = 0;
+        for (int row = rowStart; row <= rowEnd; row++) {
+            if (row < rowEnd) {
+                double y = north - (row + 0.5) * cellSize;
+                int nCrossings = 0;
+                for (Coordinate[] ring : rings) {
+                    for (int i = 1; i < ring.length; i++) {
+                        Coordinate p = ring[i - 1];
+                        Coordinate q = ring[i];
+                        if ((p.y <= y) != (q.y <= y)) {
+                            if (nCrossings == crossings.length)
+                                crossings = Arrays.copyOf(crossings, nCrossings * 2);
+                            crossings[nCrossings++] = p.x + (y - p.y) * (q.x - p.x) / (q.y - p.y);
+                        }
+                    }
+                }
+                Arrays.sort(crossings, 0, nCrossings);
+                if (spans.length < nCrossings)
+                    spans = new int[nCrossings];
+                nSpans = 0;
+                // even-odd rule: the polygon interior lies between every other pair of crossings
+                for (int i = 0; i + 1 < nCrossings; i += 2) {
+                    int col0 = Math.max(0, (int) Math.ceil((crossings[i] - west) / cellSize - 0.5));
+                    int col1 = Math.min(cols, (int) Math.ceil((crossings[i + 1] - west) / cellSize - 0.5));
+                    if (col0 < col1) {
+                        spans[nSpans++] = col0;
+                        spans[nSpans++] = col1;
+                    }
+                }
+                if (row > rowStart && Arrays.equals(spans, 0, nSpans, runSpans, 0, nRunSpans))
+                    continue;
+            }
+            for (int i = 0; i < nRunSpans; i += 2)
+                sum += sumRectangle(runStart, row, runSpans[i], runSpans[i + 1]);
+            if (row < rowEnd) {
+                runSpans = Arrays.copyOf(spans, nSpans);
+                nRunSpans = nSpans;
+                runStart = row;
+            }
+        }
+        return sum;
+    }
+
+    private static Coordinate[][] getRings(Geometry geometry) {
+        int nRings = 0;
+        for (int i = 0; i < geometry.getNumGeometries(); i++) {
+            if (geometry.getGeometryN(i) instanceof Polygon polygon)
+                nRings += 1 + polygon.getNumInteriorRing();
+        }
+        Coordinate[][] rings = new Coordinate[nRings][];
+        int n = 0;
+        for (int i = 0; i < geometry.getNumGeometries(); i++) {
+            if (geometry.getGeometryN(i) instanceof Polygon polygon) {
+                rings[n++] = polygon.getExteriorRing().getCoordinates();
+                for (int j = 0; j < polygon.getNumInteriorRing(); j++)
+                    rings[n++] = polygon.getInteriorRingN(j).getCoordinates();
+            }
+        }
+        return rings;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
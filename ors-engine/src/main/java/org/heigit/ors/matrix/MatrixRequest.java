@@ -18,6 +18,8 @@ import org.heigit.ors.common.DistanceUnit;
 import org.heigit.ors.common.ServiceRequest;
 import org.locationtech.jts.geom.Coordinate;
 
+import java.time.LocalDateTime;
+
 public class MatrixRequest extends ServiceRequest {
     private int profileType = -1;
     private Coordinate[] sources;
@@ -32,6 +34,7 @@ public class MatrixRequest extends ServiceRequest {
     private double maximumSearchRadius;
     private int maximumVisitedNodes;
     private boolean hasInfiniteUTurnCosts;
+    private LocalDateTime departure;
 
     public MatrixRequest(double maximumSearchRadius, int maximumVisitedNodes, double uTurnCost) {
         this.maximumSearchRadius = maximumSearchRadius;
@@ -150,4 +153,16 @@ public class MatrixRequest extends ServiceRequest {
     public void setInfiniteUTurnCosts(boolean hasInfiniteUTurnCosts) {
         this.hasInfiniteUTurnCosts = hasInfiniteUTurnCosts;
     }
+
+    public LocalDateTime getDeparture() {
+        return departure;
+    }
+
+    public void setDeparture(LocalDateTime departure) {
+        this.departure = departure;
+    }
+
+    public boolean hasDeparture() {
+        return departure != null;
+    }
 }
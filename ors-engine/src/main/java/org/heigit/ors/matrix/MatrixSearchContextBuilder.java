@@ -27,6 +27,9 @@ import com.graphhopper.storage.index.Snap;
 import com.graphhopper.util.shapes.BBox;
 import com.graphhopper.util.shapes.GHPoint3D;
 import org.heigit.ors.exceptions.PointNotFoundException;
+import org.heigit.ors.snapping.SnapCache;
+import org.heigit.ors.snapping.SpatialOrder;
+import org.heigit.ors.util.MetricsUtility;
 import org.locationtech.jts.geom.Coordinate;
 
 import java.util.*;
@@ -38,6 +41,7 @@ public class MatrixSearchContextBuilder {
     private Map<Coordinate, LocationEntry> locationCache;
     private final GraphHopperStorage graphHopperStorage;
     private Weighting weighting;
+    private SnapCache snapCache;
 
     public MatrixSearchContextBuilder(GraphHopperStorage graphHopperStorage, LocationIndex index, EdgeFilter edgeFilter, boolean resolveNames) {
         locIndex = index;
@@ -46,6 +50,17 @@ public class MatrixSearchContextBuilder {
         this.graphHopperStorage = graphHopperStorage;
     }
 
+    /**
+     * Set a cache that is used to look up snaps of previous requests before querying the location index.
+     *
+     * @param snapCache the snap cache of the graph, may be null
+     * @return this builder
+     */
+    public MatrixSearchContextBuilder setSnapCache(SnapCache snapCache) {
+        this.snapCache = snapCache;
+        return this;
+    }
+
     public MatrixSearchContext create(Graph graph, RoutingCHGraph chGraph, Weighting weighting, String profileName, Coordinate[] sources, Coordinate[] destinations, double maxSearchRadius) throws Exception {
         if (locationCache == null)
             locationCache = new HashMap<>();
@@ -57,8 +72,13 @@ public class MatrixSearchContextBuilder {
 
         List<Snap> snaps = new ArrayList<>(sources.length + destinations.length);
 
+        long startTime = MetricsUtility.startTime();
         resolveLocations(profileName, sources, snaps, maxSearchRadius);
         resolveLocations(profileName, destinations, snaps, maxSearchRadius);
+        if (MetricsUtility.isEnabled()) {
+            MetricsUtility.recordTime("ors.snapping.resolve", startTime, MetricsUtility.TAG_PROFILE, profileName);
+            MetricsUtility.recordValue("ors.snapping.locations", locationCache.size(), MetricsUtility.TAG_PROFILE, profileName);
+        }
 
         QueryGraph queryGraph = QueryGraph.create(graph, snaps);
         RoutingCHGraph routingCHGraph = null;
@@ -119,11 +139,18 @@ public class MatrixSearchContextBuilder {
         return idsArray;
     }
 
+    /**
+     * Snap all coordinates which have not been resolved yet. The lookups are done in the order of a space-filling curve
+     * so that consecutive lookups hit neighbouring parts of the location index.
+     */
     private void resolveLocations(String profileName, Coordinate[] coords, List<Snap> queryResults, double maxSearchRadius) {
-        for (Coordinate p : coords) {
+        EdgeFilter snapFilter = getSnapFilter(profileName);
+        String snapFilterKey = getSnapFilterKey(profileName);
+        for (int i : SpatialOrder.hilbertOrder(coords)) {
+            Coordinate p = coords[i];
             LocationEntry ld = locationCache.get(p);
             if (ld == null) {
-                Snap qr = locIndex.findClosest(p.y, p.x, getSnapFilter(profileName));
+                Snap qr = snapCache != null ? snapCache.findClosest(locIndex, p.y, p.x, snapFilter, snapFilterKey) : locIndex.findClosest(p.y, p.x, snapFilter);
 
                 ld = new LocationEntry();
                 ld.snap = qr;
@@ -150,6 +177,13 @@ public class MatrixSearchContextBuilder {
         return defaultSnapFilter;
     }
 
+    /**
+     * Identifier of the filter returned by {@link #getSnapFilter(String)}, used to share cached snaps between requests.
+     */
+    protected String getSnapFilterKey(String profileName) {
+        return SnapCache.createFilterKey(profileName, weighting.getName(), null);
+    }
+
 
     private MatrixLocations createLocations(Coordinate[] coords) throws Exception {
         MatrixLocations mlRes = new MatrixLocations(coords.length);
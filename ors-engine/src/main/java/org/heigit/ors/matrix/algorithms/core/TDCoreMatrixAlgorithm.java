@@ -0,0 +1,157 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.matrix.algorithms.core;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.RoutingCHGraph;
+import org.heigit.ors.common.DistanceUnit;
+import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
+import org.heigit.ors.exceptions.StatusCodeException;
+import org.heigit.ors.matrix.*;
+import org.heigit.ors.matrix.algorithms.AbstractContractedMatrixAlgorithm;
+import org.heigit.ors.routing.algorithms.SubGraph;
+import org.heigit.ors.routing.graphhopper.extensions.util.GraphUtils;
+import org.heigit.ors.util.BoundedWorkerPool;
+import org.heigit.ors.util.DistanceUnitUtil;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Matrix algorithm for a given departure time on a core graph with time-dependent speeds, e.g. from traffic data.
+ * <p>
+ * The target graph is built once for all sources, then every source is searched on its own with a
+ * {@link TDCoreMatrixSearch}, so the arrival times at the targets only depend on the departure time of their source.
+ * The sources are distributed over the workers of a {@link BoundedWorkerPool} if one is given, otherwise they are
+ * searched one after the other. The maximum number of visited nodes applies to the whole matrix.
+ */
+public class TDCoreMatrixAlgorithm extends AbstractContractedMatrixAlgorithm {
+    private final BoundedWorkerPool workerPool;
+    private final Supplier<Weighting> weightingFactory;
+    private final Supplier<EdgeFilter> edgeFilterFactory;
+    private final long departureTime;
+    private DistanceUnit distanceUnit;
+    private int nodeCount;
+
+    /**
+     * @param workerPool        pool to search the sources on, or null to search them in the calling thread
+     * @param weightingFactory  creates the time-dependent weighting of a worker
+     * @param edgeFilterFactory creates the edge filter of a worker, may return null
+     * @param departureTime     departure at the sources in milliseconds since the epoch
+     */
+    public TDCoreMatrixAlgorithm(BoundedWorkerPool workerPool, Supplier<Weighting> weightingFactory, Supplier<EdgeFilter> edgeFilterFactory, long departureTime) {
+        this.workerPool = workerPool;
+        this.weightingFactory = weightingFactory;
+        this.edgeFilterFactory = edgeFilterFactory;
+        this.departureTime = departureTime;
+    }
+
+    @Override
+    public void init(MatrixRequest req, GraphHopper gh, RoutingCHGraph chGraph, FlagEncoder encoder, Weighting weighting) {
+        super.init(req, gh, chGraph, encoder, weighting);
+        distanceUnit = req.getUnits();
+        nodeCount = GraphUtils.getBaseGraph(chGraph).getNodes();
+    }
+
+    @Override
+    public MatrixResult compute(MatrixLocations srcData, MatrixLocations dstData, int metrics) throws Exception {
+        MatrixResult mtxResult = new MatrixResult(srcData.getLocations(), dstData.getLocations());
+
+        boolean calcTime = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION);
+        boolean calcDistance = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE);
+        boolean calcWeight = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT);
+        int tableSize = srcData.size() * dstData.size();
+        float[] times = calcTime ? new float[tableSize] : null;
+        float[] distances = calcDistance ? new float[tableSize] : null;
+        float[] weights = calcWeight ? new float[tableSize] : null;
+
+        if (!srcData.hasValidNodes() || !dstData.hasValidNodes()) {
+            setEmptyValues(0, tableSize, times, distances, weights);
+        } else {
+            int[] targetNodes = dstData.getNodeIds();
+            IntHashSet targets = new IntHashSet(targetNodes.length);
+            for (int node : targetNodes) {
+                if (node >= 0)
+                    targets.add(node);
+            }
+            SubGraph targetGraph = new TargetGraphBuilder().prepareTargetGraph(targetNodes, chGraph, encoder, false, nodeCount).getTargetGraph();
+            AtomicInteger visitedNodes = new AtomicInteger();
+
+            Supplier<TDCoreMatrixSearch> searchFactory = () -> new TDCoreMatrixSearch(chGraph, weightingFactory.get(),
+                    edgeFilterFactory.get(), targetGraph, nodeCount, calcDistance);
+            BoundedWorkerPool.Task<TDCoreMatrixSearch> task = (search, srcIndex) -> {
+                int offset = srcIndex * targetNodes.length;
+                int sourceId = srcData.getNodeId(srcIndex);
+                if (sourceId == -1) {
+                    setEmptyValues(offset, targetNodes.length, times, distances, weights);
+                    return;
+                }
+                int remainingNodes = maxVisitedNodes - visitedNodes.get();
+                if (remainingNodes < 0)
+                    throw new MaxVisitedNodesExceededException();
+                search.search(sourceId, departureTime, targets, remainingNodes);
+                visitedNodes.addAndGet(search.getVisitedNodes());
+                setValues(search, offset, targetNodes, times, distances, weights);
+            };
+
+            if (workerPool != null) {
+                workerPool.run(srcData.size(), searchFactory, task);
+            } else {
+                TDCoreMatrixSearch search = searchFactory.get();
+                for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++)
+                    task.compute(search, srcIndex);
+            }
+        }
+
+        if (calcTime)
+            mtxResult.setTable(MatrixMetricsType.DURATION, times);
+        if (calcDistance)
+            mtxResult.setTable(MatrixMetricsType.DISTANCE, distances);
+        if (calcWeight)
+            mtxResult.setTable(MatrixMetricsType.WEIGHT, weights);
+
+        return mtxResult;
+    }
+
+    private void setValues(TDCoreMatrixSearch search, int offset, int[] targetNodes, float[] times, float[] distances, float[] weights) throws StatusCodeException {
+        for (int i = 0; i < targetNodes.length; i++) {
+            TDCoreMatrixSearch.Entry entry = targetNodes[i] >= 0 ? search.getTargetEntry(targetNodes[i]) : null;
+            if (entry == null) {
+                setEmptyValues(offset + i, 1, times, distances, weights);
+                continue;
+            }
+            if (times != null)
+                times[offset + i] = (float) ((entry.time - departureTime) / 1000.0);
+            if (distances != null)
+                distances[offset + i] = (float) (distanceUnit == DistanceUnit.METERS ? entry.distance : DistanceUnitUtil.convert(entry.distance, DistanceUnit.METERS, distanceUnit));
+            if (weights != null)
+                weights[offset + i] = (float) entry.weight;
+        }
+    }
+
+    private static void setEmptyValues(int offset, int count, float[] times, float[] distances, float[] weights) {
+        for (int i = offset; i < offset + count; i++) {
+            if (times != null)
+                times[i] = -1;
+            if (distances != null)
+                distances[i] = -1;
+            if (weights != null)
+                weights[i] = -1;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.matrix.algorithms.core;
+
+import com.carrotsearch.hppc.IntDoubleHashMap;
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntObjectMap;
+import com.graphhopper.coll.GHIntObjectHashMap;
+import com.graphhopper.coll.GHLongObjectHashMap;
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.RoutingCHEdgeExplorer;
+import com.graphhopper.storage.RoutingCHEdgeIterator;
+import com.graphhopper.storage.RoutingCHEdgeIteratorState;
+import com.graphhopper.storage.RoutingCHGraph;
+import com.graphhopper.util.EdgeIterator;
+import com.graphhopper.util.EdgeIteratorState;
+import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
+import org.heigit.ors.routing.algorithms.SubGraph;
+import org.heigit.ors.routing.graphhopper.extensions.core.CoreMatrixFilter;
+
+import java.util.PriorityQueue;
+
+import static org.heigit.ors.matrix.util.GraphUtils.isCoreNode;
+
+/**
+ * Time-dependent one-to-many search of a single source on a core graph.
+ * <p>
+ * Outside the core the search goes upwards with the prepared weights, inside the core the edges are weighted at the
+ * time they are entered like in the {@link org.heigit.ors.routing.graphhopper.extensions.core.TDCoreDijkstra}, and
+ * from the core exit points the targets are reached through the downward edges of the target graph. Time and distance
+ * are accumulated during the search, the time including the time of the turns. With turn costs, core nodes are settled
+ * once per incoming edge, and a core edge is weighted at the time it is entered after the turn onto it.
+ * <p>
+ * An instance is reused for consecutive sources. It is not thread-safe; every thread needs its own instance with its
+ * own weighting and edge filter.
+ */
+class TDCoreMatrixSearch {
+    private final RoutingCHGraph chGraph;
+    private final Graph graph;
+    private final Weighting weighting;
+    private final RoutingCHEdgeExplorer outExplorer;
+    private final RoutingCHEdgeExplorer targetGraphExplorer;
+    private final CoreMatrixFilter upwardFilter;
+    private final CoreMatrixFilter coreFilter;
+    private final int nodeCount;
+    private final boolean edgeBased;
+    private final boolean calcDistance;
+    private final IntDoubleHashMap shortcutDistances = new IntDoubleHashMap();
+    private final GHLongObjectHashMap<Entry> entries;
+    private final IntObjectMap<Entry> settledTargets;
+    private final PriorityQueue<Entry> heap;
+    private int visitedNodes;
+
+    static final class Entry implements Comparable<Entry> {
+        final int node;
+        final int incEdge;
+        final double weight;
+        final long time;
+        final double distance;
+
+        Entry(int node, int incEdge, double weight, long time, double distance) {
+            this.node = node;
+            this.incEdge = incEdge;
+            this.weight = weight;
+            this.time = time;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Double.compare(weight, other.weight);
+        }
+    }
+
+    TDCoreMatrixSearch(RoutingCHGraph chGraph, Weighting weighting, EdgeFilter restrictions, SubGraph targetGraph, int nodeCount, boolean calcDistance) {
+        this.chGraph = chGraph;
+        this.graph = chGraph.getBaseGraph();
+        this.weighting = weighting;
+        this.nodeCount = nodeCount;
+        this.edgeBased = chGraph.getWeighting().hasTurnCosts();
+        this.calcDistance = calcDistance;
+        outExplorer = chGraph.createOutEdgeExplorer();
+        targetGraphExplorer = targetGraph.createExplorer();
+        upwardFilter = new CoreMatrixFilter(chGraph);
+        coreFilter = new CoreMatrixFilter(chGraph);
+        coreFilter.setInCore(true);
+        if (restrictions != null) {
+            upwardFilter.addRestrictionFilter(restrictions);
+            coreFilter.addRestrictionFilter(restrictions);
+        }
+        int initialSize = Math.min(Math.max(200, nodeCount / 10), 2000);
+        entries = new GHLongObjectHashMap<>(initialSize);
+        settledTargets = new GHIntObjectHashMap<>();
+        heap = new PriorityQueue<>(initialSize);
+    }
+
+    /**
+     * Search from the source until all targets are settled.
+     *
+     * @param source          node to start from
+     * @param departureTime   departure at the source in milliseconds since the epoch
+     * @param targets         distinct target nodes
+     * @param maxVisitedNodes maximum number of nodes this search may settle
+     */
+    void search(int source, long departureTime, IntHashSet targets, int maxVisitedNodes) {
+        entries.clear();
+        settledTargets.clear();
+        heap.clear();
+        visitedNodes = 0;
+
+        Entry current = new Entry(source, EdgeIterator.NO_EDGE, 0, departureTime, 0);
+        entries.put(getTraversalKey(source, EdgeIterator.NO_EDGE), current);
+        while (true) {
+            if (targets.contains(current.node) && !settledTargets.containsKey(current.node)) {
+                settledTargets.put(current.node, current);
+                if (settledTargets.size() == targets.size())
+                    return;
+            }
+            if (++visitedNodes > maxVisitedNodes)
+                throw new MaxVisitedNodesExceededException();
+
+            if (isCoreNode(chGraph, current.node, nodeCount, nodeCount))
+                relax(current, outExplorer.setBaseNode(current.node), coreFilter, true);
+            else
+                relax(current, outExplorer.setBaseNode(current.node), upwardFilter, false);
+            relaxDownwards(current, targetGraphExplorer.setBaseNode(current.node));
+
+            do {
+                current = heap.poll();
+                if (current == null)
+                    return;
+            } while (entries.get(getTraversalKey(current.node, current.incEdge)) != current);
+        }
+    }
+
+    private void relax(Entry current, RoutingCHEdgeIterator iter, CoreMatrixFilter filter, boolean inCore) {
+        while (iter.next()) {
+            if (!filter.accept(iter))
+                continue;
+            double turnWeight = calcTurnWeight(current, iter);
+            if (Double.isInfinite(turnWeight))
+                continue;
+            long turnTime = calcTurnTime(current, iter);
+            double weight;
+            long time;
+            double distance;
+            if (inCore && !iter.isShortcut()) {
+                // the edge is entered after the turn
+                long enterTime = current.time + turnTime;
+                EdgeIteratorState edge = graph.getEdgeIteratorState(iter.getOrigEdge(), iter.getAdjNode());
+                weight = weighting.calcEdgeWeight(edge, false, enterTime);
+                time = weighting.calcEdgeMillis(edge, false, enterTime);
+                distance = edge.getDistance();
+            } else {
+                weight = iter.getWeight(false);
+                time = iter.getTime(false);
+                distance = calcDistance ? getDistance(iter) : 0;
+            }
+            update(current, iter, turnWeight + weight, turnTime + time, distance);
+        }
+    }
+
+    private void relaxDownwards(Entry current, RoutingCHEdgeIterator iter) {
+        if (iter == null)
+            return;
+        while (iter.next()) {
+            RoutingCHEdgeIteratorState edgeState = ((SubGraph.EdgeIteratorLinkIterator) iter).getCurrState();
+            // the target nodes themselves are stored without an edge
+            if (edgeState == null)
+                continue;
+            double turnWeight = calcTurnWeight(current, edgeState);
+            if (Double.isInfinite(turnWeight))
+                continue;
+            update(current, edgeState, turnWeight + edgeState.getWeight(false), calcTurnTime(current, edgeState) + edgeState.getTime(false),
+                    calcDistance ? getDistance(edgeState) : 0);
+        }
+    }
+
+    private double calcTurnWeight(Entry current, RoutingCHEdgeIteratorState edgeState) {
+        return chGraph.getTurnWeight(current.incEdge, edgeState.getBaseNode(), edgeState.getOrigEdgeFirst());
+    }
+
+    /**
+     * @return the time of the turn onto the edge, which the turn weight alone does not account for
+     */
+    private long calcTurnTime(Entry current, RoutingCHEdgeIteratorState edgeState) {
+        if (!edgeBased)
+            return 0;
+        return chGraph.getWeighting().calcTurnMillis(current.incEdge, edgeState.getBaseNode(), edgeState.getOrigEdgeFirst());
+    }
+
+    /**
+     * @param edgeWeight weight of the edge including the turn onto it
+     * @param edgeTime   time of the edge including the turn onto it
+     */
+    private void update(Entry current, RoutingCHEdgeIteratorState edgeState, double edgeWeight, long edgeTime, double edgeDistance) {
+        double weight = current.weight + edgeWeight;
+        if (Double.isInfinite(weight))
+            return;
+        int adjNode = edgeState.getAdjNode();
+        int incEdge = edgeState.getOrigEdgeLast();
+        long key = getTraversalKey(adjNode, incEdge);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.weight <= weight)
+            return;
+        // outdated entries stay in the heap and are skipped when they are polled
+        entry = new Entry(adjNode, incEdge, weight, current.time + edgeTime, current.distance + edgeDistance);
+        entries.put(key, entry);
+        heap.add(entry);
+    }
+
+    private long getTraversalKey(int node, int incEdge) {
+        if (edgeBased && incEdge != EdgeIterator.NO_EDGE && isCoreNode(chGraph, node, nodeCount, nodeCount))
+            return ((long) (incEdge + 1) << 32) | node;
+        return node;
+    }
+
+    private double getDistance(RoutingCHEdgeIteratorState edgeState) {
+        if (!edgeState.isShortcut())
+            return graph.getEdgeIteratorState(edgeState.getOrigEdge(), edgeState.getAdjNode()).getDistance();
+
+        int edge = edgeState.getEdge();
+        if (shortcutDistances.containsKey(edge))
+            return shortcutDistances.get(edge);
+        int baseNode = edgeState.getBaseNode();
+        int adjNode = edgeState.getAdjNode();
+        double distance = getSkippedDistance(edgeState.getSkippedEdge1(), baseNode, adjNode)
+                + getSkippedDistance(edgeState.getSkippedEdge2(), baseNode, adjNode);
+        shortcutDistances.put(edge, distance);
+        return distance;
+    }
+
+    private double getSkippedDistance(int skippedEdge, int baseNode, int adjNode) {
+        // a skipped edge connects the contracted node with either end of the shortcut
+        RoutingCHEdgeIteratorState edgeState = chGraph.getEdgeIteratorState(skippedEdge, adjNode);
+        if (edgeState == null)
+            edgeState = chGraph.getEdgeIteratorState(skippedEdge, baseNode);
+        return getDistance(edgeState);
+    }
+
+    /**
+     * @return the best entry of a target reached by the last search, or null if it was not reached
+     */
+    Entry getTargetEntry(int node) {
+        return settledTargets.get(node);
+    }
+
+    int getVisitedNodes() {
+        return visitedNodes;
+    }
+}
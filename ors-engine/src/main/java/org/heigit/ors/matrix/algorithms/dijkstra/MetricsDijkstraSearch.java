@@ -0,0 +1,131 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.matrix.algorithms.dijkstra;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntObjectMap;
+import com.graphhopper.coll.GHIntObjectHashMap;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
+
+import java.util.PriorityQueue;
+
+/**
+ * Node-based one-to-many Dijkstra search which accumulates time and distance together with the weight, so the metrics
+ * of the targets are known when the search finishes and the shortest path trees do not need to be walked back.
+ * <p>
+ * An instance holds the heap and node map of a search and is reused for consecutive sources. It is not thread-safe;
+ * every thread needs its own instance with its own weighting, as some weightings use internal buffers.
+ */
+class MetricsDijkstraSearch {
+    private final Weighting weighting;
+    private final EdgeExplorer explorer;
+    private final boolean calcTime;
+    private final boolean calcDistance;
+    private final IntObjectMap<Entry> nodeEntries;
+    private final PriorityQueue<Entry> heap;
+    private int visitedNodes;
+
+    static final class Entry implements Comparable<Entry> {
+        final int node;
+        final int edge;
+        final double weight;
+        final double time;
+        final double distance;
+
+        Entry(int node, int edge, double weight, double time, double distance) {
+            this.node = node;
+            this.edge = edge;
+            this.weight = weight;
+            this.time = time;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Double.compare(weight, other.weight);
+        }
+    }
+
+    MetricsDijkstraSearch(Weighting weighting, EdgeExplorer explorer, boolean calcTime, boolean calcDistance, int initialSize) {
+        this.weighting = weighting;
+        this.explorer = explorer;
+        this.calcTime = calcTime;
+        this.calcDistance = calcDistance;
+        nodeEntries = new GHIntObjectHashMap<>(initialSize);
+        heap = new PriorityQueue<>(initialSize);
+    }
+
+    /**
+     * Search from the source until all targets are settled.
+     *
+     * @param source          node to start from
+     * @param targets         distinct target nodes
+     * @param maxVisitedNodes maximum number of nodes this search may settle
+     * @return false if some targets can not be reached
+     */
+    boolean search(int source, IntHashSet targets, int maxVisitedNodes) {
+        nodeEntries.clear();
+        heap.clear();
+        visitedNodes = 0;
+
+        Entry current = new Entry(source, EdgeIterator.NO_EDGE, 0, 0, 0);
+        nodeEntries.put(source, current);
+        int remainingTargets = targets.size() - (targets.contains(source) ? 1 : 0);
+        while (remainingTargets > 0) {
+            if (++visitedNodes > maxVisitedNodes)
+                throw new MaxVisitedNodesExceededException();
+
+            EdgeIterator iter = explorer.setBaseNode(current.node);
+            while (iter.next()) {
+                double weight = current.weight + weighting.calcEdgeWeight(iter, false, current.edge);
+                if (Double.isInfinite(weight))
+                    continue;
+                int adjNode = iter.getAdjNode();
+                Entry entry = nodeEntries.get(adjNode);
+                if (entry != null && entry.weight <= weight)
+                    continue;
+                double time = calcTime ? current.time + weighting.calcEdgeMillis(iter, false, EdgeIterator.NO_EDGE) / 1000.0 : 0;
+                double distance = calcDistance ? current.distance + iter.getDistance() : 0;
+                // outdated entries stay in the heap and are skipped when they are polled
+                entry = new Entry(adjNode, iter.getEdge(), weight, time, distance);
+                nodeEntries.put(adjNode, entry);
+                heap.add(entry);
+            }
+
+            do {
+                current = heap.poll();
+                if (current == null)
+                    return false;
+            } while (nodeEntries.get(current.node) != current);
+
+            if (targets.contains(current.node))
+                remainingTargets--;
+        }
+        return true;
+    }
+
+    /**
+     * @return the entry of a node reached by the last search, or null if it was not reached
+     */
+    Entry getEntry(int node) {
+        return nodeEntries.get(node);
+    }
+
+    int getVisitedNodes() {
+        return visitedNodes;
+    }
+}
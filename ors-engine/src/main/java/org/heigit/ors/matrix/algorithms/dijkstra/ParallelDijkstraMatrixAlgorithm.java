@@ -0,0 +1,146 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.matrix.algorithms.dijkstra;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.util.AccessFilter;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import org.heigit.ors.common.DistanceUnit;
+import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
+import org.heigit.ors.exceptions.StatusCodeException;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.algorithms.AbstractMatrixAlgorithm;
+import org.heigit.ors.util.BoundedWorkerPool;
+import org.heigit.ors.util.DistanceUnitUtil;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Variant of the {@link DijkstraMatrixAlgorithm} for larger flexible matrices.
+ * <p>
+ * Time and distance are accumulated during the search instead of walking back the shortest path tree of every target,
+ * and the sources are distributed over the workers of a {@link BoundedWorkerPool}. Each worker has its own search state
+ * and weighting. The maximum number of visited nodes applies to the whole matrix like in the sequential algorithm.
+ */
+public class ParallelDijkstraMatrixAlgorithm extends AbstractMatrixAlgorithm {
+    private final BoundedWorkerPool workerPool;
+    private final Supplier<Weighting> weightingFactory;
+    private DistanceUnit distanceUnit;
+
+    /**
+     * @param workerPool       pool to search the sources on
+     * @param weightingFactory creates the weighting of a worker, which must be equal to the one passed to init
+     */
+    public ParallelDijkstraMatrixAlgorithm(BoundedWorkerPool workerPool, Supplier<Weighting> weightingFactory) {
+        this.workerPool = workerPool;
+        this.weightingFactory = weightingFactory;
+    }
+
+    @Override
+    public void init(MatrixRequest req, GraphHopper gh, Graph graph, FlagEncoder encoder, Weighting weighting) {
+        weighting = graph.wrapWeighting(weighting);
+        super.init(req, gh, graph, encoder, weighting);
+        distanceUnit = req.getUnits();
+    }
+
+    @Override
+    public MatrixResult compute(MatrixLocations srcData, MatrixLocations dstData, int metrics) throws Exception {
+        MatrixResult mtxResult = new MatrixResult(srcData.getLocations(), dstData.getLocations());
+
+        boolean calcTime = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DURATION);
+        boolean calcDistance = MatrixMetricsType.isSet(metrics, MatrixMetricsType.DISTANCE);
+        boolean calcWeight = MatrixMetricsType.isSet(metrics, MatrixMetricsType.WEIGHT);
+        int tableSize = srcData.size() * dstData.size();
+        float[] times = calcTime ? new float[tableSize] : null;
+        float[] distances = calcDistance ? new float[tableSize] : null;
+        float[] weights = calcWeight ? new float[tableSize] : null;
+
+        if (!srcData.hasValidNodes() || !dstData.hasValidNodes()) {
+            for (int srcIndex = 0; srcIndex < srcData.size(); srcIndex++)
+                setEmptyValues(srcIndex * dstData.size(), dstData.size(), times, distances, weights);
+        } else {
+            int[] targetNodes = dstData.getNodeIds();
+            IntHashSet targets = new IntHashSet(targetNodes.length);
+            for (int node : targetNodes) {
+                if (node >= 0)
+                    targets.add(node);
+            }
+            AtomicInteger visitedNodes = new AtomicInteger();
+            int initialSize = Math.min(Math.max(200, graph.getNodes() / 10), 2000);
+
+            workerPool.run(srcData.size(),
+                    () -> new MetricsDijkstraSearch(graph.wrapWeighting(weightingFactory.get()),
+                            graph.createEdgeExplorer(AccessFilter.outEdges(encoder.getAccessEnc())), calcTime, calcDistance, initialSize),
+                    (search, srcIndex) -> {
+                        int offset = srcIndex * targetNodes.length;
+                        int sourceId = srcData.getNodeId(srcIndex);
+                        if (sourceId == -1) {
+                            setEmptyValues(offset, targetNodes.length, times, distances, weights);
+                            return;
+                        }
+                        int remainingNodes = maxVisitedNodes - visitedNodes.get();
+                        if (remainingNodes < 0)
+                            throw new MaxVisitedNodesExceededException();
+                        boolean found = search.search(sourceId, targets, remainingNodes);
+                        visitedNodes.addAndGet(search.getVisitedNodes());
+                        if (!found)
+                            throw new Exception("Some target nodes could not be found.");
+                        setValues(search, offset, targetNodes, times, distances, weights);
+                    });
+        }
+
+        if (calcTime)
+            mtxResult.setTable(MatrixMetricsType.DURATION, times);
+        if (calcDistance)
+            mtxResult.setTable(MatrixMetricsType.DISTANCE, distances);
+        if (calcWeight)
+            mtxResult.setTable(MatrixMetricsType.WEIGHT, weights);
+
+        return mtxResult;
+    }
+
+    private void setValues(MetricsDijkstraSearch search, int offset, int[] targetNodes, float[] times, float[] distances, float[] weights) throws StatusCodeException {
+        for (int i = 0; i < targetNodes.length; i++) {
+            MetricsDijkstraSearch.Entry entry = targetNodes[i] >= 0 ? search.getEntry(targetNodes[i]) : null;
+            if (entry == null) {
+                setEmptyValues(offset + i, 1, times, distances, weights);
+                continue;
+            }
+            if (times != null)
+                times[offset + i] = (float) entry.time;
+            if (distances != null)
+                distances[offset + i] = (float) (distanceUnit == DistanceUnit.METERS ? entry.distance : DistanceUnitUtil.convert(entry.distance, DistanceUnit.METERS, distanceUnit));
+            if (weights != null)
+                weights[offset + i] = (float) entry.weight;
+        }
+    }
+
+    private static void setEmptyValues(int offset, int count, float[] times, float[] distances, float[] weights) {
+        for (int i = offset; i < offset + count; i++) {
+            if (times != null)
+                times[i] = -1;
+            if (distances != null)
+                distances[i] = -1;
+            if (weights != null)
+                weights[i] = -1;
+        }
+    }
+}
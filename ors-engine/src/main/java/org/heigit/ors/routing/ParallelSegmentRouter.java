@@ -0,0 +1,55 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing;
+
+import com.graphhopper.GHResponse;
+import org.heigit.ors.util.BoundedWorkerPool;
+
+/**
+ * Computes the independent segments of a route with multiple way points concurrently on a {@link BoundedWorkerPool}.
+ * <p>
+ * Workers take the segments in ascending order. After a segment failed no further segments are started and the
+ * failure of the lowest segment is thrown, which is the failure a sequential computation would have run into first.
+ */
+public class ParallelSegmentRouter {
+    @FunctionalInterface
+    public interface SegmentTask {
+        GHResponse compute(int segment) throws Exception;
+    }
+
+    private final BoundedWorkerPool workerPool;
+
+    public ParallelSegmentRouter(int threads, int maxParallelism) {
+        this.workerPool = new BoundedWorkerPool("ors-segment-router", threads, maxParallelism);
+    }
+
+    public int getMaxParallelism() {
+        return workerPool.getMaxParallelism();
+    }
+
+    /**
+     * Computes the segments 1 to nSegments.
+     *
+     * @return the responses in the order of the segments, the response of segment i at index i - 1
+     */
+    public GHResponse[] route(int nSegments, SegmentTask task) throws Exception {
+        GHResponse[] responses = new GHResponse[nSegments];
+        workerPool.run(nSegments, () -> null, (state, index) -> responses[index] = task.compute(index + 1));
+        return responses;
+    }
+
+    public void shutdown() {
+        workerPool.shutdown();
+    }
+}
@@ -0,0 +1,137 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing;
+
+import com.google.transit.realtime.GtfsRealtime;
+import com.graphhopper.gtfs.PtRouter;
+import com.graphhopper.gtfs.PtRouterImpl;
+import org.apache.log4j.Logger;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Holds the public transport router of a profile, which is created once when the profile is loaded and shared by all
+ * requests.
+ * <p>
+ * The router factory computes the transfers of all GTFS feeds when it is created, and the translations are taken from
+ * the GraphHopper instance, so no request has to set them up again. If a GTFS-realtime file is configured, it is
+ * checked periodically and a router including its updates replaces the current one whenever the file was modified.
+ * Requests which are already running finish with the router they started with. A feed which can not be read is
+ * logged and the previous router is kept.
+ * <p>
+ * Cached results are bound to the version of the realtime feed they were computed with, see
+ * {@link #getRealtimeFeedVersion()}, and the result cache of the profile is cleared whenever a new feed is loaded.
+ */
+public class PublicTransportRouter {
+    private static final Logger LOGGER = Logger.getLogger(PublicTransportRouter.class.getName());
+
+    private final Function<GtfsRealtime.FeedMessage, PtRouter> routerFactory;
+    private final Path realtimeFile;
+    private final ResultCache resultCache;
+    private final ScheduledExecutorService reloadExecutor;
+    private volatile PtRouter router;
+    private volatile String realtimeFeedVersion;
+    private FileTime realtimeFileTime;
+
+    /**
+     * @param gh                    the GraphHopper instance with the GTFS storage of the profile
+     * @param realtimeFile          GTFS-realtime file to apply, or null to route on the static schedule only
+     * @param reloadIntervalSeconds interval in which the realtime file is checked for modifications
+     */
+    public PublicTransportRouter(ORSGraphHopper gh, Path realtimeFile, int reloadIntervalSeconds) {
+        this(createRouterFactory(gh), realtimeFile, reloadIntervalSeconds, gh.getResultCache());
+    }
+
+    /**
+     * @param routerFactory creates a router including the updates of a realtime feed, or without any for null
+     * @param resultCache   result cache of the profile which is cleared when a new feed is loaded, or null
+     */
+    PublicTransportRouter(Function<GtfsRealtime.FeedMessage, PtRouter> routerFactory, Path realtimeFile, int reloadIntervalSeconds, ResultCache resultCache) {
+        this.routerFactory = routerFactory;
+        this.realtimeFile = realtimeFile;
+        this.resultCache = resultCache;
+        router = routerFactory.apply(null);
+        if (realtimeFile != null) {
+            reloadRealtimeFeed();
+            reloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ors-pt-realtime");
+                thread.setDaemon(true);
+                return thread;
+            });
+            int interval = Math.max(1, reloadIntervalSeconds);
+            reloadExecutor.scheduleWithFixedDelay(this::reloadRealtimeFeed, interval, interval, TimeUnit.SECONDS);
+        } else {
+            reloadExecutor = null;
+        }
+    }
+
+    private static Function<GtfsRealtime.FeedMessage, PtRouter> createRouterFactory(ORSGraphHopper gh) {
+        PtRouterImpl.Factory factory = new PtRouterImpl.Factory(gh.getConfig(), gh.getTranslationMap(), gh.getGraphHopperStorage(), gh.getLocationIndex(), gh.getGtfsStorage());
+        return feed -> feed == null ? factory.createWithoutRealtimeFeed() : factory.createWith(feed);
+    }
+
+    public PtRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * @return the modification time of the realtime feed the current router includes, or null if it routes on the
+     * static schedule only
+     */
+    public String getRealtimeFeedVersion() {
+        return realtimeFeedVersion;
+    }
+
+    /**
+     * Replace the router by one including the updates of the realtime file if the file was modified since it was
+     * read last. Called by the reload thread only.
+     * <p>
+     * The version is updated after the router, so a result cached under the new version was computed with the new
+     * router. Results of requests which were still running with the previous router are cached under the previous
+     * version and never returned again.
+     */
+    void reloadRealtimeFeed() {
+        try {
+            FileTime fileTime = Files.getLastModifiedTime(realtimeFile);
+            if (fileTime.equals(realtimeFileTime))
+                return;
+            GtfsRealtime.FeedMessage feed;
+            try (InputStream in = Files.newInputStream(realtimeFile)) {
+                feed = GtfsRealtime.FeedMessage.parseFrom(in);
+            }
+            router = routerFactory.apply(feed);
+            realtimeFileTime = fileTime;
+            realtimeFeedVersion = fileTime.toString();
+            if (resultCache != null)
+                resultCache.clear();
+            LOGGER.info("Loaded GTFS-realtime feed '%s' with %d entities.".formatted(realtimeFile, feed.getEntityCount()));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to load GTFS-realtime feed '%s', keeping the previous one: %s".formatted(realtimeFile, e.getMessage()));
+        }
+    }
+
+    public void close() {
+        if (reloadExecutor != null)
+            reloadExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,131 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of route, matrix and isochrone results for a single loaded graph.
+ * <p>
+ * Entries are keyed by a canonical form of the request, which is created by the caller, and by the version of the
+ * data the result was computed on, i.e. the build date of the graph and the version of a GTFS-realtime feed. A lookup
+ * with a different version is a miss whose result replaces the outdated entry, so results of a previous graph or feed
+ * are never returned. Cached results are shared between requests and must not be
+ * modified.
+ * <p>
+ * Like the {@link org.heigit.ors.snapping.SnapCache} it is split into segments with their own LRU order to keep lock
+ * contention low. Concurrent misses of the same key are computed independently.
+ */
+public class ResultCache {
+    private static final int SEGMENT_COUNT = 16;
+
+    private final int maximumSize;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResultCache(int maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("Maximum size of the result cache must be positive");
+        this.maximumSize = maximumSize;
+        int segmentSize = Math.max(1, maximumSize / SEGMENT_COUNT);
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++)
+            segments[i] = new Segment(segmentSize);
+    }
+
+    /**
+     * Return the cached result of a request or compute and cache it.
+     *
+     * @param key         canonical form of the request
+     * @param version     version of the data the result is computed on
+     * @param type        type of the result
+     * @param computation computes the result on a miss; results of failed computations are not cached
+     * @return the cached or computed result
+     */
+    public <T> T get(String key, String version, Class<T> type, Callable<T> computation) throws Exception {
+        Segment segment = segments[(key.hashCode() & Integer.MAX_VALUE) % SEGMENT_COUNT];
+        Entry entry = segment.getEntry(key);
+        if (entry != null && Objects.equals(entry.version, version) && type.isInstance(entry.result)) {
+            hits.increment();
+            return type.cast(entry.result);
+        }
+        misses.increment();
+        T result = computation.call();
+        if (result != null)
+            segment.putEntry(key, new Entry(version, result));
+        return result;
+    }
+
+    public void clear() {
+        for (Segment segment : segments)
+            segment.clearEntries();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.getSize();
+        return size;
+    }
+
+    private record Entry(String version, Object result) {
+    }
+
+    private static class Segment extends LinkedHashMap<String, Entry> {
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maximumSize;
+        }
+
+        synchronized Entry getEntry(String key) {
+            return get(key);
+        }
+
+        synchronized void putEntry(String key, Entry value) {
+            put(key, value);
+        }
+
+        synchronized void clearEntries() {
+            clear();
+        }
+
+        synchronized int getSize() {
+            return size();
+        }
+    }
+}
@@ -319,10 +319,7 @@ public class RouteSearchParameters {
      */
     public boolean requiresFullyDynamicWeights() {
         return hasAvoidAreas()
-                || hasBearings()
-                || hasContinueStraight()
-                || (getProfileParameters() != null && getProfileParameters().hasWeightings())
-                || getAlternativeRoutesCount() > 0;
+                || (getProfileParameters() != null && getProfileParameters().hasWeightings());
     }
 
     // time-dependent stuff
@@ -46,8 +46,11 @@ import org.heigit.ors.isochrones.statistics.StatisticsProvider;
 import org.heigit.ors.isochrones.statistics.StatisticsProviderConfiguration;
 import org.heigit.ors.isochrones.statistics.StatisticsProviderFactory;
 import org.heigit.ors.matrix.*;
+import org.heigit.ors.matrix.algorithms.AbstractMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.core.CoreMatrixAlgorithm;
+import org.heigit.ors.matrix.algorithms.core.TDCoreMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.dijkstra.DijkstraMatrixAlgorithm;
+import org.heigit.ors.matrix.algorithms.dijkstra.ParallelDijkstraMatrixAlgorithm;
 import org.heigit.ors.matrix.algorithms.rphast.RPHASTMatrixAlgorithm;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.graphhopper.extensions.*;
@@ -60,7 +63,10 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.builders.GraphStor
 import org.heigit.ors.routing.graphhopper.extensions.util.ORSParameters;
 import org.heigit.ors.routing.parameters.ProfileParameters;
 import org.heigit.ors.routing.pathprocessors.ORSPathProcessorFactory;
+import org.heigit.ors.snapping.SnapCache;
+import org.heigit.ors.util.BoundedWorkerPool;
 import org.heigit.ors.util.DebugUtility;
+import org.heigit.ors.util.MetricsUtility;
 import org.heigit.ors.util.ProfileTools;
 import org.heigit.ors.util.StringUtility;
 import org.heigit.ors.util.TimeUtility;
@@ -89,6 +95,8 @@ public class RoutingProfile {
     private final Integer[] mRoutePrefs;
     private final RouteProfileConfiguration config;
     private final ORSGraphHopper mGraphHopper;
+    private final PublicTransportRouter ptRouter;
+    private BoundedWorkerPool matrixWorkerPool;
     private Integer mUseCounter;
     private String astarApproximation;
     private Double astarEpsilon;
@@ -98,6 +106,16 @@ public class RoutingProfile {
         mUseCounter = 0;
 
         mGraphHopper = initGraphHopper(engineConfig, rpc, loadCntx);
+        if (rpc.getSnappingCacheSize() > 0)
+            mGraphHopper.setSnapCache(new SnapCache(rpc.getSnappingCacheSize()));
+        if (rpc.getResultCacheSize() > 0)
+            mGraphHopper.setResultCache(new ResultCache(rpc.getResultCacheSize()));
+        if (!engineConfig.isPreparationMode() && !rpc.getGtfsFile().isEmpty()) {
+            Path realtimeFile = rpc.getGtfsRealtimeFile().isEmpty() ? null : Paths.get(rpc.getGtfsRealtimeFile());
+            ptRouter = new PublicTransportRouter(mGraphHopper, realtimeFile, rpc.getGtfsRealtimeReloadInterval());
+        } else {
+            ptRouter = null;
+        }
 
         config = rpc;
 
@@ -274,6 +292,8 @@ public class RoutingProfile {
                 ghConfig.putObject("prepare.min_network_size", opts.getInt("min_network_size"));
             if (opts.hasPath("min_one_way_network_size"))
                 ghConfig.putObject("prepare.min_one_way_network_size", opts.getInt("min_one_way_network_size"));
+            if (opts.hasPath("threads"))
+                ghConfig.putObject("prepare.threads", opts.getInt("threads"));
 
             if (opts.hasPath("methods")) {
                 if (opts.hasPath(ProfileTools.KEY_METHODS_CH)) {
@@ -441,10 +461,34 @@ public class RoutingProfile {
         return mGraphHopper.getGraphHopperStorage().getProperties();
     }
 
+    /**
+     * @return the build date of the loaded graph, which binds cached results to it
+     */
+    public String getGraphDate() {
+        return getGraphProperties().get("datareader.import.date");
+    }
+
+    /**
+     * @return the version of the data results are computed on, which binds cached results to it: the build date of the
+     * graph and the version of the GTFS-realtime feed, if one is loaded
+     */
+    public String getResultVersion() {
+        String realtimeFeedVersion = ptRouter != null ? ptRouter.getRealtimeFeedVersion() : null;
+        return realtimeFeedVersion == null ? getGraphDate() : getGraphDate() + "/" + realtimeFeedVersion;
+    }
+
     public RouteProfileConfiguration getConfiguration() {
         return config;
     }
 
+    /**
+     * Set the pool on which the sources of flexible matrices are searched concurrently, or null to search them one
+     * after another.
+     */
+    public void setMatrixWorkerPool(BoundedWorkerPool matrixWorkerPool) {
+        this.matrixWorkerPool = matrixWorkerPool;
+    }
+
     public Integer[] getPreferences() {
         return mRoutePrefs;
     }
@@ -462,6 +506,12 @@ public class RoutingProfile {
     }
 
     public void close() {
+        if (mGraphHopper.getSnapCache() != null)
+            mGraphHopper.getSnapCache().clear();
+        if (mGraphHopper.getResultCache() != null)
+            mGraphHopper.getResultCache().clear();
+        if (ptRouter != null)
+            ptRouter.close();
         mGraphHopper.close();
     }
 
@@ -590,22 +640,41 @@ public class RoutingProfile {
         ProfileTools.setWeighting(hintsMap, weightingMethod, req.getProfileType(), false);
         String CHProfileName = ProfileTools.makeProfileName(encoderName, hintsMap.getString("weighting", ""), false);
         String CoreProfileName = ProfileTools.makeProfileName(encoderName, hintsMap.getString("weighting", ""), true);
+        if (req.hasDeparture() && !mGraphHopper.isCoreAvailable(CoreProfileName))
+            throw new IncompatibleParameterException(MatrixErrorCodes.INVALID_PARAMETER_VALUE, RouteRequestParameterNames.PARAM_DEPARTURE, req.getDeparture().toString(), "profile", RoutingProfileType.getName(req.getProfileType()));
 
         //TODO Refactoring : probably remove MatrixAlgorithmFactory alltogether as the checks for algorithm choice have to be performed here again. Or combine in a single check nicely
+        long startTime = MetricsUtility.startTime();
         try {
+            MatrixResult result;
+            String algorithm;
+            // Time-dependent core
+            if (req.hasDeparture()) {
+                algorithm = MetricsUtility.ALGORITHM_TD_CORE;
+                result = computeTDCoreMatrix(req, gh, flagEncoder, hintsMap, CoreProfileName);
+            }
             // RPHAST
-            if (!req.getFlexibleMode() && gh.getCHPreparationHandler().isEnabled() && hasCHProfile(CHProfileName)) {
-                return computeRPHASTMatrix(req, gh, flagEncoder, CHProfileName);
+            else if (!req.getFlexibleMode() && gh.getCHPreparationHandler().isEnabled() && hasCHProfile(CHProfileName)) {
+                algorithm = MetricsUtility.ALGORITHM_RPHAST;
+                result = computeRPHASTMatrix(req, gh, flagEncoder, CHProfileName);
             }
             // Core
             else if (req.getSearchParameters().getDynamicSpeeds() && mGraphHopper.isCoreAvailable(CoreProfileName)) {
-                return computeCoreMatrix(req, gh, flagEncoder, hintsMap, CoreProfileName);
+                algorithm = MetricsUtility.ALGORITHM_CORE;
+                result = computeCoreMatrix(req, gh, flagEncoder, hintsMap, CoreProfileName);
             }
             // Dijkstra
             else {
+                algorithm = MetricsUtility.ALGORITHM_DIJKSTRA;
                 // use CHProfileName (w/o turn costs) since Dijkstra is node-based so turn restrictions are not used.
-                return computeDijkstraMatrix(req, gh, flagEncoder, hintsMap, CHProfileName);
+                result = computeDijkstraMatrix(req, gh, flagEncoder, hintsMap, CHProfileName);
             }
+            if (MetricsUtility.isEnabled()) {
+                String[] tags = {MetricsUtility.TAG_PROFILE, RoutingProfileType.getName(req.getProfileType()), MetricsUtility.TAG_ALGORITHM, algorithm};
+                MetricsUtility.recordTime("ors.matrix.compute", startTime, tags);
+                MetricsUtility.recordValue("ors.matrix.cells", (double) req.getSources().length * req.getDestinations().length, tags);
+            }
+            return result;
         } catch (PointNotFoundException e) {
             throw e;
         } catch (MaxVisitedNodesExceededException e) {
@@ -628,6 +697,7 @@ public class RoutingProfile {
     private MatrixResult computeRPHASTMatrix(MatrixRequest req, GraphHopper gh, FlagEncoder flagEncoder, String profileName) throws Exception {
         RoutingCHGraph routingCHGraph = gh.getGraphHopperStorage().getRoutingCHGraph(profileName);
         MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getGraphHopperStorage(), gh.getLocationIndex(), AccessFilter.allEdges(flagEncoder.getAccessEnc()), req.getResolveLocations());
+        builder.setSnapCache(mGraphHopper.getSnapCache());
         MatrixSearchContext mtxSearchCntx = builder.create(routingCHGraph.getBaseGraph(), routingCHGraph, routingCHGraph.getWeighting(), profileName, req.getSources(), req.getDestinations(), req.getMaximumSearchRadius());
 
         RPHASTMatrixAlgorithm algorithm = new RPHASTMatrixAlgorithm();
@@ -648,6 +718,7 @@ public class RoutingProfile {
         EdgeFilter edgeFilter = new ORSEdgeFilterFactory().createEdgeFilter(additionalHints, flagEncoder, gh.getGraphHopperStorage());
 
         MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getGraphHopperStorage(), gh.getLocationIndex(), edgeFilter, req.getResolveLocations());
+        builder.setSnapCache(mGraphHopper.getSnapCache());
         MatrixSearchContext mtxSearchCntx = builder.create(graph.getBaseGraph(), graph, weighting, profileName, req.getSources(), req.getDestinations(), req.getMaximumSearchRadius());
 
         CoreMatrixAlgorithm algorithm = new CoreMatrixAlgorithm();
@@ -655,6 +726,34 @@ public class RoutingProfile {
         return algorithm.compute(mtxSearchCntx.getSources(), mtxSearchCntx.getDestinations(), req.getMetrics());
     }
 
+    /**
+     * Compute a matrix for a departure time based on a core contracted graph, with the core edges weighted at the time they are entered
+     *
+     * @return
+     */
+    private MatrixResult computeTDCoreMatrix(MatrixRequest req, GraphHopper gh, FlagEncoder flagEncoder, PMap hintsMap, String profileName) throws Exception {
+        Instant departure = req.getDeparture().atZone(ZoneId.of("Europe/Berlin")).toInstant();
+        hintsMap.putObject(RouteRequestParameterNames.PARAM_DEPARTURE, departure);
+        ORSWeightingFactory weightingFactory = new ORSWeightingFactory(gh.getGraphHopperStorage(), gh.getEncodingManager());
+        Weighting weighting = weightingFactory.createWeighting(gh.getProfile(profileName), hintsMap, false);
+        RoutingCHGraph graph = ((ORSGraphHopperStorage) gh.getGraphHopperStorage()).getCoreGraph(profileName);
+        RouteSearchContext searchCntx = createSearchContext(req.getSearchParameters());
+        PMap additionalHints = searchCntx.getProperties();
+        EdgeFilter edgeFilter = new ORSEdgeFilterFactory().createEdgeFilter(additionalHints, flagEncoder, gh.getGraphHopperStorage());
+
+        MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getGraphHopperStorage(), gh.getLocationIndex(), edgeFilter, req.getResolveLocations());
+        builder.setSnapCache(mGraphHopper.getSnapCache());
+        MatrixSearchContext mtxSearchCntx = builder.create(graph.getBaseGraph(), graph, weighting, profileName, req.getSources(), req.getDestinations(), req.getMaximumSearchRadius());
+
+        // weightings and edge filters are not thread-safe, so every worker creates its own
+        TDCoreMatrixAlgorithm algorithm = new TDCoreMatrixAlgorithm(matrixWorkerPool,
+                () -> weightingFactory.createWeighting(gh.getProfile(profileName), hintsMap, false),
+                () -> new ORSEdgeFilterFactory().createEdgeFilter(additionalHints, flagEncoder, gh.getGraphHopperStorage()),
+                departure.toEpochMilli());
+        algorithm.init(req, gh, mtxSearchCntx.getRoutingCHGraph(), flagEncoder, weighting);
+        return algorithm.compute(mtxSearchCntx.getSources(), mtxSearchCntx.getDestinations(), req.getMetrics());
+    }
+
     /**
      * Compute a matrix based on the normal graph. Slow, but highly flexible in terms of request parameters.
      *
@@ -670,9 +769,17 @@ public class RoutingProfile {
         Graph graph = gh.getGraphHopperStorage().getBaseGraph();
         Weighting weighting = new ORSWeightingFactory(gh.getGraphHopperStorage(), gh.getEncodingManager()).createWeighting(gh.getProfile(profileName), hintsMap, false);
         MatrixSearchContextBuilder builder = new MatrixSearchContextBuilder(gh.getGraphHopperStorage(), gh.getLocationIndex(), AccessFilter.allEdges(flagEncoder.getAccessEnc()), req.getResolveLocations());
+        builder.setSnapCache(mGraphHopper.getSnapCache());
         MatrixSearchContext mtxSearchCntx = builder.create(graph, null, weighting, profileName, req.getSources(), req.getDestinations(), req.getMaximumSearchRadius());
 
-        DijkstraMatrixAlgorithm algorithm = new DijkstraMatrixAlgorithm();
+        AbstractMatrixAlgorithm algorithm;
+        if (matrixWorkerPool != null) {
+            // weightings are not thread-safe, so every worker creates its own
+            algorithm = new ParallelDijkstraMatrixAlgorithm(matrixWorkerPool,
+                    () -> new ORSWeightingFactory(gh.getGraphHopperStorage(), gh.getEncodingManager()).createWeighting(gh.getProfile(profileName), hintsMap, false));
+        } else {
+            algorithm = new DijkstraMatrixAlgorithm();
+        }
         algorithm.init(req, gh, mtxSearchCntx.getGraph(), flagEncoder, weighting);
         return algorithm.compute(mtxSearchCntx.getSources(), mtxSearchCntx.getDestinations(), req.getMetrics());
     }
@@ -917,16 +1024,16 @@ public class RoutingProfile {
         GHResponse resp;
 
         beginUseGH();
+        long startTime = MetricsUtility.startTime();
 
         try {
             int profileType = searchParams.getProfileType();
             if (profileType == RoutingProfileType.PUBLIC_TRANSPORT) {
                 StopWatch stopWatch = (new StopWatch()).start();
-                PtRouter ptRouter = new PtRouterImpl.Factory(mGraphHopper.getConfig(), new TranslationMap().doImport(), mGraphHopper.getGraphHopperStorage(), mGraphHopper.getLocationIndex(), mGraphHopper.getGtfsStorage())
-                        .createWithoutRealtimeFeed();
                 Request ptRequest = createPTRequest(lat0, lon0, lat1, lon1, searchParams);
-                GHResponse res = ptRouter.route(ptRequest);
+                GHResponse res = ptRouter.getRouter().route(ptRequest);
                 res.addDebugInfo("Request total:" + stopWatch.stop().getSeconds() + "s");
+                MetricsUtility.recordTime("ors.route.compute", startTime, MetricsUtility.TAG_PROFILE, RoutingProfileType.getName(profileType), MetricsUtility.TAG_ALGORITHM, "pt");
                 return res;
             }
             int weightingMethod = searchParams.getWeightingMethod();
@@ -968,7 +1075,9 @@ public class RoutingProfile {
             if (flexibleMode == ProfileTools.KEY_FLEX_STATIC)
                 //Speedup order: useCH, useCore, useALT
                 // TODO Future improvement: profileNameCH is an ugly hack and is required because of the hard-coded turnCost=false for CH
-                setSpeedups(req, true, true, true, searchCntx.profileNameCH());
+                // alternative routes are computed on the core, as the CH search spaces are too narrow for finding them,
+                // and so are routes with headings, which are not supported by the CH solver
+                setSpeedups(req, searchParams.getAlternativeRoutesCount() <= 0 && !hasHeadings(req), true, true, searchCntx.profileNameCH());
 
             if (flexibleMode == ProfileTools.KEY_FLEX_PREPROCESSED) {
                 setSpeedups(req, false, optimized, true, searchCntx.profileNameCH());
@@ -1023,6 +1132,8 @@ public class RoutingProfile {
             if (DebugUtility.isDebug() && directedSegment) {
                 LOGGER.info("skipped segment: " + resp.getHints().getString("skipped_segment", null));
             }
+            if (MetricsUtility.isEnabled() && !directedSegment)
+                recordRouteMetrics(profileType, req, resp, startTime);
             endUseGH();
         } catch (Exception ex) {
             endUseGH();
@@ -1035,6 +1146,23 @@ public class RoutingProfile {
         return resp;
     }
 
+    private void recordRouteMetrics(int profileType, GHRequest req, GHResponse resp, long startTime) {
+        String algorithm;
+        if (!req.getHints().getBool(ProfileTools.KEY_CH_DISABLE, true))
+            algorithm = MetricsUtility.ALGORITHM_CH;
+        else if (!req.getHints().getBool(ProfileTools.KEY_CORE_DISABLE, true))
+            algorithm = MetricsUtility.ALGORITHM_CORE;
+        else if (!req.getHints().getBool(ProfileTools.KEY_LM_DISABLE, true))
+            algorithm = MetricsUtility.ALGORITHM_ALT;
+        else
+            algorithm = req.getAlgorithm();
+        String[] tags = {MetricsUtility.TAG_PROFILE, RoutingProfileType.getName(profileType), MetricsUtility.TAG_ALGORITHM, algorithm};
+        MetricsUtility.recordTime("ors.route.compute", startTime, tags);
+        MetricsUtility.recordValue("ors.route.visited_nodes", resp.getHints().getLong("visited_nodes.sum", 0), tags);
+        if (!resp.hasErrors())
+            MetricsUtility.recordValue("ors.route.points", resp.getBest().getPoints().size(), tags);
+    }
+
     private Request createPTRequest(double lat0, double lon0, double lat1, double lon1, RouteSearchParameters params) throws IncompatibleParameterException {
         List<GHLocation> points = Arrays.asList(new GHPointLocation(new GHPoint(lat0, lon0)), new GHPointLocation(new GHPoint(lat1, lon1)));
 
@@ -1159,6 +1287,10 @@ public class RoutingProfile {
         }
     }
 
+    private static boolean hasHeadings(GHRequest req) {
+        return req.getHeadings().stream().anyMatch(heading -> !Double.isNaN(heading));
+    }
+
     boolean hasTimeDependentSpeed(RouteSearchParameters searchParams, RouteSearchContext searchCntx) {
         FlagEncoder flagEncoder = searchCntx.getEncoder();
         String key = EncodingManager.getKey(flagEncoder, ConditionalEdges.SPEED);
@@ -33,6 +33,9 @@ import org.heigit.ors.routing.pathprocessors.ExtraInfoProcessor;
 import org.heigit.ors.util.*;
 import org.locationtech.jts.geom.Coordinate;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -42,7 +45,19 @@ import java.util.stream.Collectors;
 public class RoutingProfileManager {
     private static final Logger LOGGER = Logger.getLogger(RoutingProfileManager.class.getName());
     public static final String KEY_SKIPPED_EXTRA_INFO = "skipped_extra_info";
-    private RoutingProfilesCollection routingProfiles;
+    // written by GraphHopper into the folder of every built graph
+    private static final String GRAPH_PROPERTIES_FILE = "properties";
+    private volatile RoutingProfilesCollection routingProfiles;
+    private ParallelSegmentRouter segmentRouter;
+    private BoundedWorkerPool matrixWorkerPool;
+    private volatile boolean resultCacheEnabled;
+    private EngineConfig config;
+    private RouteProfileConfiguration[] routeProfileConfigurations;
+    private String[] configuredGraphPaths;
+    private volatile Path graphVersion;
+    private RoutingProfileReloader reloader;
+    // profiles leased by the request processed on the current thread
+    private final ThreadLocal<Lease> lease = new ThreadLocal<>();
     private static RoutingProfileManager instance;
 
     public RoutingProfileManager(EngineConfig config) {
@@ -52,6 +67,22 @@ public class RoutingProfileManager {
         }
     }
 
+    /**
+     * Create a manager serving already loaded profiles, without registering it as the instance.
+     */
+    RoutingProfileManager(EngineConfig config, RoutingProfilesCollection profiles) {
+        setConfiguration(config, config.getProfiles());
+        routingProfiles = profiles;
+    }
+
+    private void setConfiguration(EngineConfig config, RouteProfileConfiguration[] routeProfileConfigurations) {
+        this.config = config;
+        this.routeProfileConfigurations = routeProfileConfigurations;
+        configuredGraphPaths = new String[routeProfileConfigurations.length];
+        for (int i = 0; i < routeProfileConfigurations.length; i++)
+            configuredGraphPaths[i] = routeProfileConfigurations[i].getGraphPath();
+    }
+
     public static synchronized RoutingProfileManager getInstance() {
         if (instance == null) {
             throw new UnsupportedOperationException("RoutingProfileManager has not been initialized!");
@@ -73,31 +104,83 @@ public class RoutingProfileManager {
                 fail("No profiles configured. Exiting.");
                 return;
             }
+            setConfiguration(config, routeProfileConfigurations);
+
+            // start with the latest complete graph version, so that a restart does not fall back to older graphs
+            Path reloadPath = StringUtility.isNullOrEmpty(config.getReloadPath()) ? null : Paths.get(config.getReloadPath());
+            if (reloadPath != null && !config.isPreparationMode()) {
+                graphVersion = RoutingProfileReloader.findLatestVersion(reloadPath);
+                setGraphPaths(graphVersion);
+            }
+
             int initializationThreads = config.getInitializationThreads();
             LOGGER.info("====> Initializing profiles from '%s' (%d threads) ...".formatted(
                     config.getSourceFile(), initializationThreads));
 
             routingProfiles = new RoutingProfilesCollection();
-            int nRouteInstances = routeProfileConfigurations.length;
+            loadProfiles(routingProfiles);
+            resultCacheEnabled = routingProfiles.getUniqueProfiles().stream().anyMatch(rp -> rp.getGraphhopper().getResultCache() != null);
+
+            if (!config.isPreparationMode() && config.getSegmentThreads() > 0) {
+                segmentRouter = new ParallelSegmentRouter(config.getSegmentThreads(), config.getSegmentParallelism());
+                LOGGER.info("Routing segments of multi-waypoint routes with %d threads, at most %d per request.".formatted(
+                        config.getSegmentThreads(), segmentRouter.getMaxParallelism()));
+            }
 
-            RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
-            ExecutorService executor = Executors.newFixedThreadPool(initializationThreads);
-            ExecutorCompletionService<RoutingProfile> compService = new ExecutorCompletionService<>(executor);
+            if (!config.isPreparationMode() && config.getMatrixThreads() > 0) {
+                matrixWorkerPool = new BoundedWorkerPool("ors-matrix-worker", config.getMatrixThreads(), config.getMatrixParallelism());
+                LOGGER.info("Computing flexible matrices with %d threads, at most %d per request.".formatted(
+                        config.getMatrixThreads(), matrixWorkerPool.getMaxParallelism()));
+            }
+
+            prepareProfiles(routingProfiles);
+
+            if (reloadPath != null && !config.isPreparationMode()) {
+                reloader = new RoutingProfileReloader(this, reloadPath, config.getReloadInterval());
+                LOGGER.info("Checking '%s' for new graph versions every %d seconds.".formatted(reloadPath, config.getReloadInterval()));
+            }
 
-            int nTotalTasks = 0;
+            LOGGER.info("Total time: " + TimeUtility.getElapsedTime(startTime, true) + ".");
+            LOGGER.info("========================================================================");
+            RoutingProfileManagerStatus.setReady(true);
+        } catch (ExecutionException ex) {
+            fail("Configured source file: '" + config.getSourceFile() + "' does not appear to be a valid OSM data file! Exiting.");
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception ex) {
+            fail("Failed to initialize RoutingProfileManager instance. " + ex.getMessage());
+            Thread.currentThread().interrupt();
+            return;
+        }
+        RuntimeUtility.clearMemory(LOGGER);
 
-            for (int i = 0; i < nRouteInstances; i++) {
-                RouteProfileConfiguration rpc = routeProfileConfigurations[i];
+        if (LOGGER.isInfoEnabled())
+            routingProfiles.printStatistics(LOGGER);
+    }
+
+    /**
+     * Load all enabled profiles into the collection, using the graph paths the profile configurations currently have.
+     */
+    private void loadProfiles(RoutingProfilesCollection profiles) throws Exception {
+        RoutingProfileLoadContext loadCntx = new RoutingProfileLoadContext();
+        ExecutorService executor = Executors.newFixedThreadPool(config.getInitializationThreads());
+        ExecutorCompletionService<RoutingProfile> compService = new ExecutorCompletionService<>(executor);
+
+        List<Future<RoutingProfile>> futures = new ArrayList<>();
+        boolean loaded = false;
+
+        try {
+            for (RouteProfileConfiguration rpc : routeProfileConfigurations) {
                 if (!rpc.getEnabled())
                     continue;
 
                 if (rpc.getProfilesTypes() != null) {
                     Callable<RoutingProfile> task = new RoutingProfileLoader(config, rpc, loadCntx);
-                    compService.submit(task);
-                    nTotalTasks++;
+                    futures.add(compService.submit(task));
                 }
             }
 
+            int nTotalTasks = futures.size();
             LOGGER.info("%d profile configurations submitted as tasks.".formatted(nTotalTasks));
 
             int nCompletedTasks = 0;
@@ -107,7 +190,7 @@ public class RoutingProfileManager {
                 try {
                     RoutingProfile rp = future.get();
                     nCompletedTasks++;
-                    if (!routingProfiles.add(rp))
+                    if (!profiles.add(rp))
                         LOGGER.warn("Routing profile has already been added.");
                 } catch (ExecutionException e) {
                     LOGGER.error(e);
@@ -117,29 +200,149 @@ public class RoutingProfileManager {
                     Thread.currentThread().interrupt();
                 }
             }
+            loaded = true;
+        } finally {
+            if (loaded)
+                executor.shutdown();
+            else
+                abortLoading(executor, futures, profiles);
+        }
+        loadCntx.releaseElevationProviderCacheAfterAllVehicleProfilesHaveBeenProcessed();
+    }
 
-            executor.shutdown();
-            loadCntx.releaseElevationProviderCacheAfterAllVehicleProfilesHaveBeenProcessed();
-
-            LOGGER.info("Total time: " + TimeUtility.getElapsedTime(startTime, true) + ".");
-            LOGGER.info("========================================================================");
-            RoutingProfileManagerStatus.setReady(true);
-        } catch (ExecutionException ex) {
-            fail("Configured source file: '" + config.getSourceFile() + "' does not appear to be a valid OSM data file! Exiting.");
-            Thread.currentThread().interrupt();
-            return;
-        } catch (Exception ex) {
-            fail("Failed to initialize RoutingProfileManager instance. " + ex.getMessage());
+    /**
+     * Stop the remaining loaders after a profile failed to load, and close the profiles which have been loaded but
+     * not added to the collection. The profiles in the collection are closed by the caller destroying it.
+     */
+    private static void abortLoading(ExecutorService executor, List<Future<RoutingProfile>> futures, RoutingProfilesCollection profiles) {
+        executor.shutdownNow();
+        try {
+            // a loader may ignore the interruption, and the profile it returns has to be closed as well
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES))
+                LOGGER.info("Waiting for the remaining profiles to finish loading ...");
+        } catch (InterruptedException e) {
+            LOGGER.warn("Interrupted while waiting for the remaining profiles, these are not closed.");
             Thread.currentThread().interrupt();
             return;
         }
-        RuntimeUtility.clearMemory(LOGGER);
+        for (Future<RoutingProfile> future : futures) {
+            if (future.isCancelled())
+                continue;
+            try {
+                RoutingProfile rp = future.get();
+                if (!profiles.getUniqueProfiles().contains(rp))
+                    rp.close();
+            } catch (ExecutionException | InterruptedException e) {
+                // failed or interrupted loaders have not returned a profile
+            }
+        }
+    }
 
-        if (LOGGER.isInfoEnabled())
-            routingProfiles.printStatistics(LOGGER);
+    /**
+     * Attach the shared worker pools to freshly loaded profiles and warm them up before they receive requests.
+     */
+    private void prepareProfiles(RoutingProfilesCollection profiles) {
+        if (matrixWorkerPool != null) {
+            for (RoutingProfile rp : profiles.getUniqueProfiles())
+                rp.setMatrixWorkerPool(matrixWorkerPool);
+        }
+
+        RoutingProfileWarmUp warmUp = new RoutingProfileWarmUp(config);
+        if (!config.isPreparationMode() && warmUp.isEnabled()) {
+            long warmUpStartTime = System.currentTimeMillis();
+            LOGGER.info("====> Warming up profiles ...");
+            for (RoutingProfile rp : profiles.getUniqueProfiles())
+                warmUp.warmUp(rp);
+            LOGGER.info("Warm-up time: " + TimeUtility.getElapsedTime(warmUpStartTime, true) + ".");
+        }
+    }
+
+    /**
+     * Load the profiles of a graph version next to the active ones, warm them up and activate them. Requests which
+     * are already running finish on the previous profiles, which are closed once the last of them has finished. While
+     * the new version is loaded, the memory of both versions is needed.
+     *
+     * @param version directory containing the graphs of all profiles, laid out like the graphs root path
+     * @return whether the version has been activated; otherwise the active profiles are kept
+     */
+    public synchronized boolean reload(Path version) {
+        long startTime = System.currentTimeMillis();
+        LOGGER.info("====> Loading graph version '%s' ...".formatted(version));
+        RoutingProfilesCollection profiles = new RoutingProfilesCollection();
+        setGraphPaths(version);
+        List<String> missingGraphs = findMissingGraphs();
+        if (!missingGraphs.isEmpty()) {
+            // loading would import the missing graphs from the OSM file instead
+            LOGGER.error("Graph version '%s' is incomplete, keeping the active profiles. Missing graphs: %s".formatted(
+                    version, String.join(", ", missingGraphs)));
+            setGraphPaths(graphVersion);
+            return false;
+        }
+        try {
+            loadProfiles(profiles);
+            prepareProfiles(profiles);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException)
+                Thread.currentThread().interrupt();
+            LOGGER.error("Unable to load graph version '%s', keeping the active profiles: %s".formatted(version, e.getMessage()));
+            profiles.destroy();
+            setGraphPaths(graphVersion);
+            return false;
+        }
+
+        RoutingProfilesCollection previous = routingProfiles;
+        resultCacheEnabled = profiles.getUniqueProfiles().stream().anyMatch(rp -> rp.getGraphhopper().getResultCache() != null);
+        routingProfiles = profiles;
+        graphVersion = version;
+        // new requests lease the new profiles from here on, so the previous ones only have to drain
+        previous.retire();
+        LOGGER.info("Activated graph version '%s' after %s, %d requests are still running on the previous profiles.".formatted(
+                version, TimeUtility.getElapsedTime(startTime, true), previous.getLeases()));
+        return true;
+    }
+
+    /**
+     * Point the graph paths of the profiles to the given graph version, or back to the configured paths if null.
+     */
+    private void setGraphPaths(Path version) {
+        for (int i = 0; i < routeProfileConfigurations.length; i++) {
+            String graphPath = configuredGraphPaths[i];
+            routeProfileConfigurations[i].setGraphPath(version == null ? graphPath : relocateGraphPath(graphPath, version));
+        }
+    }
+
+    /**
+     * @return the graph paths of the enabled profiles which do not contain a built graph
+     */
+    private List<String> findMissingGraphs() {
+        List<String> missing = new ArrayList<>();
+        for (RouteProfileConfiguration rpc : routeProfileConfigurations) {
+            if (rpc.getEnabled() && rpc.getProfilesTypes() != null
+                    && (rpc.getGraphPath() == null || !Files.isRegularFile(Paths.get(rpc.getGraphPath(), GRAPH_PROPERTIES_FILE))))
+                missing.add(rpc.getGraphPath());
+        }
+        return missing;
+    }
+
+    private String relocateGraphPath(String graphPath, Path version) {
+        if (StringUtility.isNullOrEmpty(config.getGraphsRootPath()) || graphPath == null)
+            return graphPath;
+        Path root = Paths.get(config.getGraphsRootPath()).toAbsolutePath().normalize();
+        Path path = Paths.get(graphPath).toAbsolutePath().normalize();
+        if (!path.startsWith(root)) {
+            LOGGER.warn("Graph path '%s' is outside of the graphs root path and is not taken from graph versions.".formatted(graphPath));
+            return graphPath;
+        }
+        return version.resolve(root.relativize(path)).toString();
     }
 
     public void destroy() {
+        if (reloader != null)
+            reloader.shutdown();
+        if (segmentRouter != null)
+            segmentRouter.shutdown();
+        if (matrixWorkerPool != null)
+            matrixWorkerPool.shutdown();
         routingProfiles.destroy();
     }
 
@@ -150,8 +353,62 @@ public class RoutingProfileManager {
         RoutingProfileManagerStatus.setFailed(true);
     }
 
+    /**
+     * @return the profiles leased by the request processed on the current thread, otherwise the active profiles
+     */
     public RoutingProfilesCollection getProfiles() {
-        return routingProfiles;
+        Lease current = lease.get();
+        return current != null ? current.profiles : routingProfiles;
+    }
+
+    /**
+     * Lease the active profiles for the duration of a request and bind them to the current thread, so that all
+     * profiles the request gets through {@link #getProfiles()} are from the leased collection, and a reload does not
+     * close them before the request has finished. The lease has to be returned through {@link #releaseProfiles()} by
+     * the same thread. A nested lease keeps using the profiles of the outer one.
+     */
+    public RoutingProfilesCollection acquireProfiles() {
+        Lease current = lease.get();
+        if (current != null) {
+            current.depth++;
+            return current.profiles;
+        }
+        while (true) {
+            RoutingProfilesCollection profiles = routingProfiles;
+            if (profiles.acquire()) {
+                lease.set(new Lease(profiles));
+                return profiles;
+            }
+            // retired by a concurrent reload, which has already activated its successor
+        }
+    }
+
+    /**
+     * Return the lease taken by {@link #acquireProfiles()} on the current thread.
+     */
+    public void releaseProfiles() {
+        Lease current = lease.get();
+        if (current == null)
+            throw new IllegalStateException("No routing profiles have been leased on this thread.");
+        if (--current.depth == 0) {
+            lease.remove();
+            current.profiles.release();
+        }
+    }
+
+    /**
+     * @return the directory of the active graph version, or null if the graphs have been loaded from the configured
+     * graph paths
+     */
+    public Path getGraphVersion() {
+        return graphVersion;
+    }
+
+    /**
+     * @return whether any profile caches results, so that it is worth to create the cache keys of requests
+     */
+    public boolean isResultCacheEnabled() {
+        return resultCacheEnabled;
     }
 
     public RouteResult matchTrack(MapMatchingRequest req) throws Exception {
@@ -234,10 +491,20 @@ public class RoutingProfileManager {
         routes.add(gr);
 
         List<RouteExtraInfo> extraInfos = extraInfoProcessor != null ? extraInfoProcessor.getExtras() : null;
-        return new RouteResultBuilder().createRouteResults(routes, req, new List[]{extraInfos});
+        return createRouteResults(routes, req, new List[]{extraInfos}, new ExtraInfoProcessor[]{extraInfoProcessor});
     }
 
     public RouteResult[] computeRoute(RoutingRequest req) throws Exception {
+        if (req.getCacheKey() != null && !isNowDependent(req.getSearchParameters())) {
+            RoutingProfile rp = getRouteProfile(req, false);
+            ResultCache resultCache = rp.getGraphhopper().getResultCache();
+            if (resultCache != null)
+                return resultCache.get(req.getCacheKey(), rp.getResultVersion(), RouteResult[].class, () -> computeUncachedRoute(req));
+        }
+        return computeUncachedRoute(req);
+    }
+
+    private RouteResult[] computeUncachedRoute(RoutingRequest req) throws Exception {
         if (req.getSearchParameters().getRoundTripLength() > 0) {
             return computeRoundTripRoute(req);
         } else {
@@ -245,21 +512,21 @@ public class RoutingProfileManager {
         }
     }
 
+    /**
+     * Public transport routes without a departure or arrival time start at the current time, so their results must
+     * not be reused by later requests.
+     */
+    private static boolean isNowDependent(RouteSearchParameters searchParams) {
+        return searchParams.getProfileType() == RoutingProfileType.PUBLIC_TRANSPORT && !searchParams.isTimeDependent();
+    }
+
     public RouteResult[] computeLinearRoute(RoutingRequest req) throws Exception {
-        List<Integer> skipSegments = req.getSkipSegments();
         List<GHResponse> routes = new ArrayList<>();
 
         RoutingProfile rp = getRouteProfile(req, false);
-        RouteSearchParameters searchParams = req.getSearchParameters();
 
         Coordinate[] coords = req.getCoordinates();
-        Coordinate c0 = coords[0];
-        Coordinate c1;
         int nSegments = coords.length - 1;
-        GHResponse prevResp = null;
-        WayPointBearing[] bearings = (req.getContinueStraight() || searchParams.getBearings() != null) ? new WayPointBearing[2] : null;
-        int profileType = req.getSearchParameters().getProfileType();
-        double[] radiuses = null;
 
         if (req.getSearchParameters().getAlternativeRoutesCount() > 1 && coords.length > 2) {
             throw new InternalServerException(RoutingErrorCodes.INVALID_PARAMETER_VALUE, "Alternative routes algorithm does not support more than two way points.");
@@ -268,133 +535,20 @@ public class RoutingProfileManager {
         int numberOfExpectedExtraInfoProcessors = req.getSearchParameters().getAlternativeRoutesCount() < 0 ? 1 : req.getSearchParameters().getAlternativeRoutesCount();
         ExtraInfoProcessor[] extraInfoProcessors = new ExtraInfoProcessor[numberOfExpectedExtraInfoProcessors];
 
-        for (int i = 1; i <= nSegments; ++i) {
-            c1 = coords[i];
-
-            if (bearings != null) {
-                bearings[0] = null;
-                if (prevResp != null && req.getContinueStraight()) {
-                    bearings[0] = new WayPointBearing(getHeadingDirection(prevResp));
-                }
-
-                if (searchParams.getBearings() != null) {
-                    bearings[0] = searchParams.getBearings()[i - 1];
-                    bearings[1] = (i == nSegments && searchParams.getBearings().length != nSegments + 1) ? new WayPointBearing(Double.NaN) : searchParams.getBearings()[i];
-                }
-            }
-
-            if (searchParams.getMaximumRadiuses() != null) {
-                radiuses = new double[2];
-                radiuses[0] = searchParams.getMaximumRadiuses()[i - 1];
-                radiuses[1] = searchParams.getMaximumRadiuses()[i];
-            } else {
-                try {
-                    int maximumSnappingRadius = routingProfiles.getRouteProfile(profileType).getConfiguration().getMaximumSnappingRadius();
-                    radiuses = new double[2];
-                    radiuses[0] = maximumSnappingRadius;
-                    radiuses[1] = maximumSnappingRadius;
-                } catch (Exception ex) {
-                    // do nothing
-                }
-            }
-
-            GHResponse gr = rp.computeRoute(c0.y, c0.x, c1.y, c1.x, bearings, radiuses, skipSegments.contains(i), searchParams, req.getGeometrySimplify());
-
-            if (gr.hasErrors()) {
-                if (!gr.getErrors().isEmpty()) {
-                    if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.ConnectionNotFoundException) {
-                        Map<String, Object> details = ((ConnectionNotFoundException) gr.getErrors().get(0)).getDetails();
-                        if (!details.isEmpty()) {
-                            int code = RoutingErrorCodes.ROUTE_NOT_FOUND;
-                            if (details.containsKey("entry_not_reached") && details.containsKey("exit_not_reached")) {
-                                code = RoutingErrorCodes.PT_NOT_REACHED;
-                            } else if (details.containsKey("entry_not_reached")) {
-                                code = RoutingErrorCodes.PT_ENTRY_NOT_REACHED;
-                            } else if (details.containsKey("exit_not_reached")) {
-                                code = RoutingErrorCodes.PT_EXIT_NOT_REACHED;
-                            } else if (details.containsKey("combined_not_reached")) {
-                                code = RoutingErrorCodes.PT_ROUTE_NOT_FOUND;
-                            }
-                            throw new RouteNotFoundException(
-                                    code,
-                                    "Unable to find a route between points %d (%s) and %d (%s). %s".formatted(
-                                            i,
-                                            FormatUtility.formatCoordinate(c0),
-                                            i + 1,
-                                            FormatUtility.formatCoordinate(c1),
-                                            details.values().stream().map(Object::toString).collect(Collectors.joining(" "))
-                                    )
-                            );
-                        }
-                        throw new RouteNotFoundException(
-                                RoutingErrorCodes.ROUTE_NOT_FOUND,
-                                "Unable to find a route between points %d (%s) and %d (%s).".formatted(
-                                        i,
-                                        FormatUtility.formatCoordinate(c0),
-                                        i + 1,
-                                        FormatUtility.formatCoordinate(c1)
-                                )
-                        );
-                    } else if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.MaximumNodesExceededException) {
-                        Map<String, Object> details = ((MaximumNodesExceededException) gr.getErrors().get(0)).getDetails();
-                        throw new RouteNotFoundException(
-                                RoutingErrorCodes.PT_MAX_VISITED_NODES_EXCEEDED,
-                                "Unable to find a route between points %d (%s) and %d (%s). Maximum number of nodes exceeded: %s".formatted(
-                                        i,
-                                        FormatUtility.formatCoordinate(c0),
-                                        i + 1,
-                                        FormatUtility.formatCoordinate(c1),
-                                        details.get(MaximumNodesExceededException.NODES_KEY).toString()
-                                )
-                        );
-                    } else if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.PointNotFoundException) {
-                        StringBuilder message = new StringBuilder();
-                        for (Throwable error : gr.getErrors()) {
-                            if (message.length() > 0)
-                                message.append("; ");
-                            if (error instanceof com.graphhopper.util.exceptions.PointNotFoundException pointNotFoundException) {
-                                int pointReference = (i - 1) + pointNotFoundException.getPointIndex();
-
-                                Coordinate pointCoordinate = (pointNotFoundException.getPointIndex() == 0) ? c0 : c1;
-                                double pointRadius = radiuses[pointNotFoundException.getPointIndex()];
-
-                                // -1 is used to indicate the use of internal limits instead of specifying it in the request.
-                                // we should therefore let them know that they are already using the limit.
-                                if (pointRadius == -1) {
-                                    pointRadius = routingProfiles.getRouteProfile(profileType).getConfiguration().getMaximumSnappingRadius();
-                                    message.append("Could not find routable point within the maximum possible radius of %.1f meters of specified coordinate %d: %s.".formatted(
-                                            pointRadius,
-                                            pointReference,
-                                            FormatUtility.formatCoordinate(pointCoordinate)));
-                                } else {
-                                    message.append("Could not find routable point within a radius of %.1f meters of specified coordinate %d: %s.".formatted(
-                                            pointRadius,
-                                            pointReference,
-                                            FormatUtility.formatCoordinate(pointCoordinate)));
-                                }
-
-                            } else {
-                                message.append(error.getMessage());
-                            }
-                        }
-                        throw new PointNotFoundException(message.toString());
-                    } else {
-                        throw new InternalServerException(RoutingErrorCodes.UNKNOWN, gr.getErrors().get(0).getMessage());
-                    }
-                } else {
-                    // If there are no errors stored but there is indication that there are errors, something strange
-                    // has happened, so return that a route could not be found
-                    throw new RouteNotFoundException(
-                            RoutingErrorCodes.ROUTE_NOT_FOUND,
-                            "Unable to find a route between points %d (%s) and %d (%s).".formatted(
-                                    i,
-                                    FormatUtility.formatCoordinate(c0),
-                                    i + 1,
-                                    FormatUtility.formatCoordinate(c1))
-                    );
-                }
+        GHResponse[] responses;
+        // with continue_straight the heading at a way point depends on the route of the previous segment
+        if (segmentRouter != null && nSegments > 1 && !req.getContinueStraight()) {
+            responses = segmentRouter.route(nSegments, i -> computeSegment(rp, req, i, null));
+        } else {
+            responses = new GHResponse[nSegments];
+            GHResponse prevResp = null;
+            for (int i = 1; i <= nSegments; ++i) {
+                prevResp = computeSegment(rp, req, i, prevResp);
+                responses[i - 1] = prevResp;
             }
+        }
 
+        for (GHResponse gr : responses) {
             if (numberOfExpectedExtraInfoProcessors > 1) {
                 int extraInfoProcessorIndex = 0;
                 for (Object o : gr.getReturnObjects()) {
@@ -421,9 +575,7 @@ public class RoutingProfileManager {
                 }
             }
 
-            prevResp = gr;
             routes.add(gr);
-            c0 = c1;
         }
         routes = enrichDirectRoutesTime(routes);
 
@@ -433,7 +585,159 @@ public class RoutingProfileManager {
             extraInfos[i] = e != null ? e.getExtras() : null;
             i++;
         }
-        return new RouteResultBuilder().createRouteResults(routes, req, extraInfos);
+        return createRouteResults(routes, req, extraInfos, extraInfoProcessors);
+    }
+
+    /**
+     * Computes the route between the way points i - 1 and i of the request.
+     *
+     * @param prevResp the route of the previous segment if continue_straight is requested
+     */
+    private GHResponse computeSegment(RoutingProfile rp, RoutingRequest req, int i, GHResponse prevResp) throws Exception {
+        RouteSearchParameters searchParams = req.getSearchParameters();
+        Coordinate[] coords = req.getCoordinates();
+        Coordinate c0 = coords[i - 1];
+        Coordinate c1 = coords[i];
+        int nSegments = coords.length - 1;
+
+        WayPointBearing[] bearings = null;
+        if (req.getContinueStraight() || searchParams.getBearings() != null) {
+            bearings = new WayPointBearing[2];
+            if (prevResp != null && req.getContinueStraight()) {
+                bearings[0] = new WayPointBearing(getHeadingDirection(prevResp));
+            }
+
+            if (searchParams.getBearings() != null) {
+                bearings[0] = searchParams.getBearings()[i - 1];
+                bearings[1] = (i == nSegments && searchParams.getBearings().length != nSegments + 1) ? new WayPointBearing(Double.NaN) : searchParams.getBearings()[i];
+            }
+        }
+
+        double[] radiuses = null;
+        if (searchParams.getMaximumRadiuses() != null) {
+            radiuses = new double[2];
+            radiuses[0] = searchParams.getMaximumRadiuses()[i - 1];
+            radiuses[1] = searchParams.getMaximumRadiuses()[i];
+        } else {
+            // taken from the profile passed in, as segments may be computed on threads which do not hold the lease
+            int maximumSnappingRadius = rp.getConfiguration().getMaximumSnappingRadius();
+            radiuses = new double[2];
+            radiuses[0] = maximumSnappingRadius;
+            radiuses[1] = maximumSnappingRadius;
+        }
+
+        GHResponse gr = rp.computeRoute(c0.y, c0.x, c1.y, c1.x, bearings, radiuses, req.getSkipSegments().contains(i), searchParams, req.getGeometrySimplify());
+
+        if (gr.hasErrors()) {
+            if (!gr.getErrors().isEmpty()) {
+                if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.ConnectionNotFoundException) {
+                    Map<String, Object> details = ((ConnectionNotFoundException) gr.getErrors().get(0)).getDetails();
+                    if (!details.isEmpty()) {
+                        int code = RoutingErrorCodes.ROUTE_NOT_FOUND;
+                        if (details.containsKey("entry_not_reached") && details.containsKey("exit_not_reached")) {
+                            code = RoutingErrorCodes.PT_NOT_REACHED;
+                        } else if (details.containsKey("entry_not_reached")) {
+                            code = RoutingErrorCodes.PT_ENTRY_NOT_REACHED;
+                        } else if (details.containsKey("exit_not_reached")) {
+                            code = RoutingErrorCodes.PT_EXIT_NOT_REACHED;
+                        } else if (details.containsKey("combined_not_reached")) {
+                            code = RoutingErrorCodes.PT_ROUTE_NOT_FOUND;
+                        }
+                        throw new RouteNotFoundException(
+                                code,
+                                "Unable to find a route between points %d (%s) and %d (%s). %s".formatted(
+                                        i,
+                                        FormatUtility.formatCoordinate(c0),
+                                        i + 1,
+                                        FormatUtility.formatCoordinate(c1),
+                                        details.values().stream().map(Object::toString).collect(Collectors.joining(" "))
+                                )
+                        );
+                    }
+                    throw new RouteNotFoundException(
+                            RoutingErrorCodes.ROUTE_NOT_FOUND,
+                            "Unable to find a route between points %d (%s) and %d (%s).".formatted(
+                                    i,
+                                    FormatUtility.formatCoordinate(c0),
+                                    i + 1,
+                                    FormatUtility.formatCoordinate(c1)
+                            )
+                    );
+                } else if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.MaximumNodesExceededException) {
+                    Map<String, Object> details = ((MaximumNodesExceededException) gr.getErrors().get(0)).getDetails();
+                    throw new RouteNotFoundException(
+                            RoutingErrorCodes.PT_MAX_VISITED_NODES_EXCEEDED,
+                            "Unable to find a route between points %d (%s) and %d (%s). Maximum number of nodes exceeded: %s".formatted(
+                                    i,
+                                    FormatUtility.formatCoordinate(c0),
+                                    i + 1,
+                                    FormatUtility.formatCoordinate(c1),
+                                    details.get(MaximumNodesExceededException.NODES_KEY).toString()
+                            )
+                    );
+                } else if (gr.getErrors().get(0) instanceof com.graphhopper.util.exceptions.PointNotFoundException) {
+                    StringBuilder message = new StringBuilder();
+                    for (Throwable error : gr.getErrors()) {
+                        if (message.length() > 0)
+                            message.append("; ");
+                        if (error instanceof com.graphhopper.util.exceptions.PointNotFoundException pointNotFoundException) {
+                            int pointReference = (i - 1) + pointNotFoundException.getPointIndex();
+
+                            Coordinate pointCoordinate = (pointNotFoundException.getPointIndex() == 0) ? c0 : c1;
+                            double pointRadius = radiuses[pointNotFoundException.getPointIndex()];
+
+                            // -1 is used to indicate the use of internal limits instead of specifying it in the request.
+                            // we should therefore let them know that they are already using the limit.
+                            if (pointRadius == -1) {
+                                pointRadius = rp.getConfiguration().getMaximumSnappingRadius();
+                                message.append("Could not find routable point within the maximum possible radius of %.1f meters of specified coordinate %d: %s.".formatted(
+                                        pointRadius,
+                                        pointReference,
+                                        FormatUtility.formatCoordinate(pointCoordinate)));
+                            } else {
+                                message.append("Could not find routable point within a radius of %.1f meters of specified coordinate %d: %s.".formatted(
+                                        pointRadius,
+                                        pointReference,
+                                        FormatUtility.formatCoordinate(pointCoordinate)));
+                            }
+
+                        } else {
+                            message.append(error.getMessage());
+                        }
+                    }
+                    throw new PointNotFoundException(message.toString());
+                } else {
+                    throw new InternalServerException(RoutingErrorCodes.UNKNOWN, gr.getErrors().get(0).getMessage());
+                }
+            } else {
+                // If there are no errors stored but there is indication that there are errors, something strange
+                // has happened, so return that a route could not be found
+                throw new RouteNotFoundException(
+                        RoutingErrorCodes.ROUTE_NOT_FOUND,
+                        "Unable to find a route between points %d (%s) and %d (%s).".formatted(
+                                i,
+                                FormatUtility.formatCoordinate(c0),
+                                i + 1,
+                                FormatUtility.formatCoordinate(c1))
+                );
+            }
+        }
+        return gr;
+    }
+
+    private RouteResult[] createRouteResults(List<GHResponse> routes, RoutingRequest req, List<RouteExtraInfo>[] extraInfos, ExtraInfoProcessor[] extraInfoProcessors) throws Exception {
+        if (!MetricsUtility.isEnabled())
+            return new RouteResultBuilder().createRouteResults(routes, req, extraInfos);
+
+        String[] tags = {MetricsUtility.TAG_PROFILE, RoutingProfileType.getName(req.getSearchParameters().getProfileType())};
+        for (ExtraInfoProcessor e : extraInfoProcessors) {
+            if (e != null)
+                MetricsUtility.recordDuration("ors.route.extra_info", e.getProcessingTime(), tags);
+        }
+        long startTime = MetricsUtility.startTime();
+        RouteResult[] results = new RouteResultBuilder().createRouteResults(routes, req, extraInfos);
+        MetricsUtility.recordTime("ors.route.result_builder", startTime, tags);
+        return results;
     }
 
     /**
@@ -507,10 +811,10 @@ public class RoutingProfileManager {
         boolean dynamicWeights = searchParams.requiresDynamicPreprocessedWeights();
         boolean useAlternativeRoutes = searchParams.getAlternativeRoutesCount() > 1;
 
-        RoutingProfile rp = routingProfiles.getRouteProfile(profileType, !dynamicWeights);
+        RoutingProfile rp = getProfiles().getRouteProfile(profileType, !dynamicWeights);
 
         if (rp == null && !dynamicWeights)
-            rp = routingProfiles.getRouteProfile(profileType, false);
+            rp = getProfiles().getRouteProfile(profileType, false);
 
         if (rp == null)
             throw new InternalServerException(RoutingErrorCodes.UNKNOWN, "Unable to get an appropriate route profile for RoutePreference = " + RoutingProfileType.getName(req.getSearchParameters().getProfileType()));
@@ -585,26 +889,40 @@ public class RoutingProfileManager {
     public IsochroneMap buildIsochrone(IsochroneSearchParameters parameters) throws Exception {
 
         int profileType = parameters.getRouteParameters().getProfileType();
-        RoutingProfile rp = routingProfiles.getRouteProfile(profileType, false);
+        RoutingProfile rp = getProfiles().getRouteProfile(profileType, false);
 
+        ResultCache resultCache = rp.getGraphhopper().getResultCache();
+        if (resultCache != null && parameters.getCacheKey() != null)
+            return resultCache.get(parameters.getCacheKey(), rp.getResultVersion(), IsochroneMap.class, () -> rp.buildIsochrone(parameters));
         return rp.buildIsochrone(parameters);
     }
 
     public MatrixResult computeMatrix(MatrixRequest req) throws Exception {
-        RoutingProfile rp = routingProfiles.getRouteProfile(req.getProfileType(), !req.getFlexibleMode());
+        RoutingProfile rp = getProfiles().getRouteProfile(req.getProfileType(), !req.getFlexibleMode());
 
         if (rp == null)
             throw new InternalServerException(MatrixErrorCodes.UNKNOWN, "Unable to find an appropriate routing profile.");
 
+        ResultCache resultCache = rp.getGraphhopper().getResultCache();
+        if (resultCache != null && req.getCacheKey() != null)
+            return resultCache.get(req.getCacheKey(), rp.getResultVersion(), MatrixResult.class, () -> rp.computeMatrix(req));
         return rp.computeMatrix(req);
     }
 
     public ExportResult computeExport(ExportRequest req) throws Exception {
-        RoutingProfile rp = routingProfiles.getRouteProfile((req.getProfileType()));
+        RoutingProfile rp = getProfiles().getRouteProfile((req.getProfileType()));
 
         if (rp == null)
             throw new InternalServerException(ExportErrorCodes.UNKNOWN, "Unable to find an appropriate routing profile.");
         return rp.computeExport(req);
     }
 
+    private static final class Lease {
+        private final RoutingProfilesCollection profiles;
+        private int depth = 1;
+
+        private Lease(RoutingProfilesCollection profiles) {
+            this.profiles = profiles;
+        }
+    }
 }
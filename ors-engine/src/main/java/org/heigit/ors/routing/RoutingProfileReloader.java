@@ -0,0 +1,102 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches a directory of graph versions and activates new versions without restarting the service.
+ * <p>
+ * Every subdirectory of the reload path is a graph version laid out like the graphs root path, with one folder per
+ * profile. A version is complete once the file {@value #READY_FILE} has been written into it, which the build pipeline
+ * has to do last. Versions are ordered by their names, e.g. dates such as {@code 2023-10-19}. Whenever a complete
+ * version newer than the active one appears, it is loaded by {@link RoutingProfileManager#reload(Path)}. A version
+ * which lacks the graph of an enabled profile is rejected rather than imported. A version which fails to load is not
+ * attempted again.
+ */
+public class RoutingProfileReloader {
+    private static final Logger LOGGER = Logger.getLogger(RoutingProfileReloader.class.getName());
+    public static final String READY_FILE = "ready";
+
+    private final RoutingProfileManager manager;
+    private final Path reloadPath;
+    private final ScheduledExecutorService executor;
+    private Path failedVersion;
+
+    /**
+     * @param manager         the manager whose profiles are replaced
+     * @param reloadPath      directory containing the graph versions
+     * @param intervalSeconds interval in which the directory is checked for new versions
+     */
+    public RoutingProfileReloader(RoutingProfileManager manager, Path reloadPath, int intervalSeconds) {
+        this.manager = manager;
+        this.reloadPath = reloadPath;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ORS-graph-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int interval = Math.max(1, intervalSeconds);
+        executor.scheduleWithFixedDelay(this::checkForNewVersion, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Activate the latest complete version if it is newer than the active one. Called by the reload thread only.
+     */
+    void checkForNewVersion() {
+        try {
+            Path latest = findLatestVersion(reloadPath);
+            if (latest == null || latest.equals(failedVersion) || !isNewer(latest, manager.getGraphVersion()))
+                return;
+            if (!manager.reload(latest))
+                failedVersion = latest;
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to check '%s' for new graph versions: %s".formatted(reloadPath, e.getMessage()));
+        }
+    }
+
+    static boolean isNewer(Path version, Path activeVersion) {
+        return activeVersion == null || version.getFileName().toString().compareTo(activeVersion.getFileName().toString()) > 0;
+    }
+
+    /**
+     * @param reloadPath directory containing the graph versions
+     * @return the complete version with the greatest name, or null if there is none
+     */
+    public static Path findLatestVersion(Path reloadPath) {
+        if (!Files.isDirectory(reloadPath))
+            return null;
+        try (Stream<Path> versions = Files.list(reloadPath)) {
+            return versions.filter(version -> Files.isRegularFile(version.resolve(READY_FILE)))
+                    .max(Comparator.comparing(version -> version.getFileName().toString()))
+                    .orElse(null);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to list graph versions in '%s': %s".formatted(reloadPath, e.getMessage()));
+            return null;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
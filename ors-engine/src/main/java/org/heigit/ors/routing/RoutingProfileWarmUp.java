@@ -0,0 +1,215 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing;
+
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.util.DistanceCalcEarth;
+import org.apache.log4j.Logger;
+import org.heigit.ors.common.TravelRangeType;
+import org.heigit.ors.config.EngineConfig;
+import org.heigit.ors.isochrones.IsochroneSearchParameters;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixSearchParameters;
+import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Warms up a loaded {@link RoutingProfile} before the profiles are reported as ready.
+ * <p>
+ * With memory mapped data access the CH, core, landmark and location index storages are only read from disk when
+ * their pages are first accessed, which slows down the first requests after startup considerably. The prefetch step
+ * maps every file of the graph folder and loads it into the page cache. Afterwards, a configurable number of routes,
+ * matrices and isochrones between random graph nodes is computed in order to get the hot code paths JIT-compiled.
+ */
+public class RoutingProfileWarmUp {
+    private static final Logger LOGGER = Logger.getLogger(RoutingProfileWarmUp.class);
+    private static final long MAX_MAPPED_REGION_SIZE = Integer.MAX_VALUE;
+    private static final int MAX_NODE_PAIR_ATTEMPTS = 10;
+    private static final int MATRIX_SIZE = 5;
+    private static final int MATRIX_MAXIMUM_VISITED_NODES = 100000;
+    private static final double[] ISOCHRONE_RANGES = {600};
+    private static final long RANDOM_SEED = 42;
+
+    private final boolean prefetch;
+    private final int routes;
+    private final int matrices;
+    private final int isochrones;
+
+    public RoutingProfileWarmUp(EngineConfig config) {
+        this.prefetch = config.isWarmUpPrefetch();
+        this.routes = config.getWarmUpRoutes();
+        this.matrices = config.getWarmUpMatrices();
+        this.isochrones = config.getWarmUpIsochrones();
+    }
+
+    public boolean isEnabled() {
+        return prefetch || routes > 0 || matrices > 0 || isochrones > 0;
+    }
+
+    /**
+     * Run the configured warm-up steps for a single profile and log their timings. Failing queries are counted but
+     * do not abort the warm-up, since random locations are not guaranteed to be connected.
+     *
+     * @param rp the loaded routing profile
+     */
+    public void warmUp(RoutingProfile rp) {
+        RouteProfileConfiguration rpc = rp.getConfiguration();
+        Integer[] profileTypes = rpc.getProfilesTypes();
+        int profileType = profileTypes == null || profileTypes.length == 0 ? RoutingProfileType.UNKNOWN : profileTypes[0];
+
+        long prefetchedBytes = 0;
+        long prefetchTime = 0;
+        if (prefetch && rpc.getGraphDataAccess().toUpperCase().contains("MMAP")) {
+            long startTime = System.currentTimeMillis();
+            prefetchedBytes = prefetchFiles(Paths.get(rpc.getGraphPath()));
+            prefetchTime = System.currentTimeMillis() - startTime;
+        }
+
+        int failedQueries = 0;
+        long routesTime = 0;
+        long matricesTime = 0;
+        long isochronesTime = 0;
+        // public transport profiles need schedule specific requests and support neither matrices nor isochrones
+        if (profileType != RoutingProfileType.UNKNOWN && profileType != RoutingProfileType.PUBLIC_TRANSPORT
+                && rp.getGraphhopper().getGraphHopperStorage().getNodes() > 0) {
+            Random random = new Random(RANDOM_SEED);
+            long startTime = System.currentTimeMillis();
+            for (int i = 0; i < routes; i++) {
+                if (!computeRoute(rp, profileType, random))
+                    failedQueries++;
+            }
+            routesTime = System.currentTimeMillis() - startTime;
+
+            startTime = System.currentTimeMillis();
+            for (int i = 0; i < matrices; i++) {
+                if (!computeMatrix(rp, profileType, random))
+                    failedQueries++;
+            }
+            matricesTime = System.currentTimeMillis() - startTime;
+
+            startTime = System.currentTimeMillis();
+            for (int i = 0; i < isochrones; i++) {
+                if (!buildIsochrone(rp, profileType, random))
+                    failedQueries++;
+            }
+            isochronesTime = System.currentTimeMillis() - startTime;
+        }
+
+        LOGGER.info(("Warm-up of profile '%s': prefetched %d MB in %d ms, %d routes in %d ms, %d matrices in %d ms, " +
+                "%d isochrones in %d ms, %d failed queries.").formatted(rpc.getName(), prefetchedBytes / (1024 * 1024),
+                prefetchTime, routes, routesTime, matrices, matricesTime, isochrones, isochronesTime, failedQueries));
+    }
+
+    /**
+     * Load all files below the given folder into the page cache by mapping them and touching every page.
+     *
+     * @param graphPath the graph folder
+     * @return the number of prefetched bytes
+     */
+    static long prefetchFiles(Path graphPath) {
+        long bytes = 0;
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(graphPath)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to list graph files in '%s': %s".formatted(graphPath, e.getMessage()));
+            return bytes;
+        }
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                // MappedByteBuffer.load() advises the OS that the pages will be needed and touches each of them
+                for (long position = 0; position < size; position += MAX_MAPPED_REGION_SIZE) {
+                    channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPED_REGION_SIZE, size - position)).load();
+                }
+                bytes += size;
+            } catch (IOException e) {
+                LOGGER.warn("Unable to prefetch graph file '%s': %s".formatted(file, e.getMessage()));
+            }
+        }
+        return bytes;
+    }
+
+    private boolean computeRoute(RoutingProfile rp, int profileType, Random random) {
+        Graph graph = rp.getGraphhopper().getGraphHopperStorage().getBaseGraph();
+        Double maximumDistance = rp.getConfiguration().getMaximumDistance();
+        Coordinate start = randomNodeCoordinate(graph, random);
+        Coordinate end = randomNodeCoordinate(graph, random);
+        for (int attempt = 1; attempt < MAX_NODE_PAIR_ATTEMPTS && maximumDistance != null && maximumDistance > 0
+                && DistanceCalcEarth.DIST_EARTH.calcDist(start.y, start.x, end.y, end.x) > maximumDistance; attempt++) {
+            end = randomNodeCoordinate(graph, random);
+        }
+        try {
+            RouteSearchParameters searchParams = new RouteSearchParameters();
+            searchParams.setProfileType(profileType);
+            return !rp.computeRoute(start.y, start.x, end.y, end.x, null, null, false, searchParams, false).hasErrors();
+        } catch (Exception e) {
+            LOGGER.debug("Warm-up route failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean computeMatrix(RoutingProfile rp, int profileType, Random random) {
+        Graph graph = rp.getGraphhopper().getGraphHopperStorage().getBaseGraph();
+        Coordinate[] locations = new Coordinate[MATRIX_SIZE];
+        for (int i = 0; i < MATRIX_SIZE; i++)
+            locations[i] = randomNodeCoordinate(graph, random);
+        try {
+            MatrixRequest req = new MatrixRequest(rp.getConfiguration().getMaximumSnappingRadius(), MATRIX_MAXIMUM_VISITED_NODES, Weighting.INFINITE_U_TURN_COSTS);
+            req.setProfileType(profileType);
+            req.setSources(locations);
+            req.setDestinations(locations);
+            req.setSearchParameters(new MatrixSearchParameters());
+            rp.computeMatrix(req);
+            return true;
+        } catch (Exception e) {
+            LOGGER.debug("Warm-up matrix failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean buildIsochrone(RoutingProfile rp, int profileType, Random random) {
+        Graph graph = rp.getGraphhopper().getGraphHopperStorage().getBaseGraph();
+        try {
+            RouteSearchParameters searchParams = new RouteSearchParameters();
+            searchParams.setProfileType(profileType);
+            IsochroneSearchParameters parameters = new IsochroneSearchParameters(0, randomNodeCoordinate(graph, random), ISOCHRONE_RANGES.clone());
+            parameters.setRangeType(TravelRangeType.TIME);
+            parameters.setRouteParameters(searchParams);
+            rp.buildIsochrone(parameters);
+            return true;
+        } catch (Exception e) {
+            LOGGER.debug("Warm-up isochrone failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static Coordinate randomNodeCoordinate(Graph graph, Random random) {
+        NodeAccess nodeAccess = graph.getNodeAccess();
+        int node = random.nextInt(graph.getNodes());
+        return new Coordinate(nodeAccess.getLon(node), nodeAccess.getLat(node));
+    }
+}
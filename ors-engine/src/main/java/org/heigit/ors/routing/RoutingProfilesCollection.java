@@ -19,10 +19,22 @@ import org.heigit.ors.util.RuntimeUtility;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The routing profiles loaded from one version of the graphs.
+ * <p>
+ * Requests lease the collection through {@link #acquire()} and {@link #release()} while they use its profiles. When
+ * the graphs are reloaded, the previous collection is {@link #retire() retired}: it does not hand out new leases and
+ * is closed by whichever thread releases the last lease of the requests still in flight.
+ */
 public class RoutingProfilesCollection {
     private final HashMap<Integer, RoutingProfile> routeProfiles;
     private final ArrayList<RoutingProfile> uniqueProfiles;
+    private final AtomicInteger leases = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean retired;
 
     public RoutingProfilesCollection() {
         routeProfiles = new HashMap<>();
@@ -36,6 +48,51 @@ public class RoutingProfilesCollection {
         routeProfiles.clear();
     }
 
+    /**
+     * Lease the profiles for the duration of a request, which has to be ended by {@link #release()}.
+     *
+     * @return false if the collection has been retired, in which case no lease has been taken
+     */
+    public boolean acquire() {
+        leases.incrementAndGet();
+        if (retired) {
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    public void release() {
+        if (leases.decrementAndGet() == 0 && retired)
+            closeRetired();
+    }
+
+    /**
+     * Stop handing out leases and close the profiles as soon as no request uses them anymore.
+     */
+    public void retire() {
+        retired = true;
+        if (leases.get() == 0)
+            closeRetired();
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @return the number of requests currently using the profiles
+     */
+    public int getLeases() {
+        return leases.get();
+    }
+
+    private void closeRetired() {
+        // both the retiring and the last releasing thread may get here
+        if (closed.compareAndSet(false, true))
+            destroy();
+    }
+
     public List<RoutingProfile> getUniqueProfiles() {
         return uniqueProfiles;
     }
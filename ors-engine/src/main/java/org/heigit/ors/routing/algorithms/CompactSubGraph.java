@@ -0,0 +1,217 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.algorithms;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.graphhopper.storage.RoutingCHEdgeIteratorState;
+import com.graphhopper.storage.RoutingCHGraph;
+import org.heigit.ors.routing.graphhopper.extensions.util.GraphUtils;
+
+/**
+ * Target graph of the downward search of {@link RPHASTAlgorithm} in compressed sparse row layout.
+ * <p>
+ * Nodes and edges are collected while exploring the graph from the targets and stored in primitive lists. {@link #freeze()}
+ * then sorts the nodes in topological order of the downward edges and lays out the edges of every node contiguously,
+ * so that the downward search is a linear scan over the arrays. Edge weights are resolved once while building.
+ * <p>
+ * The downward edges of a CH graph form a DAG, but edges at virtual nodes of a query graph are accepted in both
+ * directions by the level filters. Edges leaving virtual nodes are therefore ignored for the order, which makes virtual
+ * nodes come after their real neighbours, and the search needs to scan a node again if such an edge improves its
+ * weights after it has been passed.
+ */
+public class CompactSubGraph {
+    private final RoutingCHGraph baseGraph;
+    private final int maxNodes;
+    private final IntIntHashMap node2Index;
+    private final IntArrayList nodeList = new IntArrayList();
+    private final IntArrayList edgeFromList = new IntArrayList();
+    private final IntArrayList edgeToList = new IntArrayList();
+    private final IntArrayList edgeIdList = new IntArrayList();
+    private final DoubleArrayList edgeWeightList = new DoubleArrayList();
+
+    private int[] nodes;
+    private int[] edgeOffsets;
+    private int[] edgeIds;
+    private int[] edgeAdjIndices;
+    private double[] edgeWeights;
+
+    public CompactSubGraph(RoutingCHGraph graph) {
+        baseGraph = graph;
+        maxNodes = GraphUtils.getBaseGraph(graph).getNodes();
+        node2Index = new IntIntHashMap(Math.min(Math.max(200, graph.getNodes() / 10), 2000));
+    }
+
+    /**
+     * Returns true/false depending on whether node is already in the graph or not.
+     */
+    public boolean addNode(int node) {
+        if (node2Index.containsKey(node))
+            return false;
+        node2Index.put(node, nodeList.size());
+        nodeList.add(node);
+        return true;
+    }
+
+    /**
+     * Adds the edge of an in-edge iterator at node as downward edge from its adjacent node to node.
+     *
+     * @return true if the adjacent node is new to the graph
+     */
+    public boolean addEdge(int node, RoutingCHEdgeIteratorState iter) {
+        int adjNode = iter.getAdjNode();
+        boolean isNew = addNode(adjNode);
+        addNode(node);
+        edgeFromList.add(node2Index.get(adjNode));
+        edgeToList.add(node2Index.get(node));
+        edgeIdList.add(iter.getEdge());
+        edgeWeightList.add(baseGraph.getEdgeIteratorState(iter.getEdge(), node).getWeight(false));
+        return isNew;
+    }
+
+    public boolean containsNode(int node) {
+        return node2Index.containsKey(node);
+    }
+
+    /**
+     * Builds the arrays of the graph in topological order. No nodes or edges can be added afterwards.
+     */
+    public void freeze() {
+        int nodeCount = nodeList.size();
+        int edgeCount = edgeIdList.size();
+        int[] order = calcTopologicalOrder(nodeCount, edgeCount);
+
+        int[] newIndex = new int[nodeCount];
+        nodes = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            newIndex[order[i]] = i;
+            nodes[i] = nodeList.get(order[i]);
+            node2Index.put(nodes[i], i);
+        }
+
+        edgeOffsets = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++)
+            edgeOffsets[newIndex[edgeFromList.get(e)] + 1]++;
+        for (int i = 0; i < nodeCount; i++)
+            edgeOffsets[i + 1] += edgeOffsets[i];
+
+        int[] next = new int[nodeCount];
+        System.arraycopy(edgeOffsets, 0, next, 0, nodeCount);
+        edgeIds = new int[edgeCount];
+        edgeAdjIndices = new int[edgeCount];
+        edgeWeights = new double[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int pos = next[newIndex[edgeFromList.get(e)]]++;
+            edgeIds[pos] = edgeIdList.get(e);
+            edgeAdjIndices[pos] = newIndex[edgeToList.get(e)];
+            edgeWeights[pos] = edgeWeightList.get(e);
+        }
+
+        nodeList.release();
+        edgeFromList.release();
+        edgeToList.release();
+        edgeIdList.release();
+        edgeWeightList.release();
+    }
+
+    /**
+     * Kahn's algorithm on the collected edges except those leaving virtual nodes. Should the remaining edges still
+     * contain a cycle, its nodes are appended in the order they were added.
+     */
+    private int[] calcTopologicalOrder(int nodeCount, int edgeCount) {
+        int[] inDegree = new int[nodeCount];
+        int[] offsets = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            if (isVirtualIndex(edgeFromList.get(e)))
+                continue;
+            inDegree[edgeToList.get(e)]++;
+            offsets[edgeFromList.get(e) + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++)
+            offsets[i + 1] += offsets[i];
+        int[] next = new int[nodeCount];
+        System.arraycopy(offsets, 0, next, 0, nodeCount);
+        int[] targets = new int[offsets[nodeCount]];
+        for (int e = 0; e < edgeCount; e++) {
+            if (!isVirtualIndex(edgeFromList.get(e)))
+                targets[next[edgeFromList.get(e)]++] = edgeToList.get(e);
+        }
+
+        int[] order = new int[nodeCount];
+        boolean[] ordered = new boolean[nodeCount];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (inDegree[i] == 0) {
+                order[tail++] = i;
+                ordered[i] = true;
+            }
+        }
+        while (head < tail) {
+            int index = order[head++];
+            for (int e = offsets[index]; e < offsets[index + 1]; e++) {
+                int adj = targets[e];
+                if (--inDegree[adj] == 0) {
+                    order[tail++] = adj;
+                    ordered[adj] = true;
+                }
+            }
+        }
+        for (int i = 0; tail < nodeCount; i++) {
+            if (!ordered[i])
+                order[tail++] = i;
+        }
+        return order;
+    }
+
+    private boolean isVirtualIndex(int index) {
+        return nodeList.get(index) >= maxNodes;
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * @return the node id at the given position of the topological order
+     */
+    public int getNode(int index) {
+        return nodes[index];
+    }
+
+    public int getEdgesStart(int index) {
+        return edgeOffsets[index];
+    }
+
+    public int getEdgesEnd(int index) {
+        return edgeOffsets[index + 1];
+    }
+
+    public int getEdge(int pos) {
+        return edgeIds[pos];
+    }
+
+    public int getAdjIndex(int pos) {
+        return edgeAdjIndices[pos];
+    }
+
+    public int getAdjNode(int pos) {
+        return nodes[edgeAdjIndices[pos]];
+    }
+
+    public double getWeight(int pos) {
+        return edgeWeights[pos];
+    }
+}
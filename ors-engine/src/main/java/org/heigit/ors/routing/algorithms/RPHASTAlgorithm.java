@@ -35,7 +35,7 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
     private IntObjectMap<MultiTreeSPEntry> bestWeightMap;
     private MultiTreeSPEntry currFrom;
     private PriorityQueue<MultiTreeSPEntry> prioQueue;
-    private SubGraph targetGraph;
+    private CompactSubGraph targetGraph;
     private boolean finishedFrom;
     private boolean finishedTo;
     private int visitedCountFrom;
@@ -80,7 +80,7 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
 
         // Phase I: build shortest path tree from all target nodes to the
         // highest node
-        targetGraph = new SubGraph(graph);
+        targetGraph = new CompactSubGraph(graph);
 
         addNodes(targetGraph, localPrioQueue, targets);
 
@@ -93,21 +93,19 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
                 if (!downwardEdgeFilter.accept(iter))
                     continue;
 
-                if (targetGraph.addEdge(node, iter, true))
+                if (targetGraph.addEdge(node, iter))
                     localPrioQueue.add(iter.getAdjNode());
 
             }
         }
+        targetGraph.freeze();
     }
 
-    private void addNodes(SubGraph graph, PriorityQueue<Integer> prioQueue, int[] nodes) {
+    private void addNodes(CompactSubGraph graph, PriorityQueue<Integer> prioQueue, int[] nodes) {
         for (int i = 0; i < nodes.length; i++) {
             int nodeId = nodes[i];
-            if (nodeId >= 0) {
-                if (graph != null)
-                    graph.addEdge(nodeId, null, true);
+            if (nodeId >= 0 && graph.addNode(nodeId))
                 prioQueue.add(nodeId);
-            }
         }
     }
 
@@ -117,10 +115,25 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
         }
     }
 
+    /**
+     * Phase II: scan the target graph in topological order, so that every node is final when its edges are relaxed.
+     * Only nodes improved over an edge leaving a virtual node after they have been scanned are scanned again.
+     */
     protected void runDownwardSearch() {
-        while (!isMaxVisitedNodesExceeded() && !finishedTo) {
-            finishedTo = !downwardSearch();
+        int nodeCount = targetGraph.getNodeCount();
+        int[] rescanStack = new int[nodeCount];
+        boolean[] onRescanStack = new boolean[nodeCount];
+        int rescanCount = 0;
+
+        for (int index = 0; index < nodeCount && !isMaxVisitedNodesExceeded(); index++) {
+            rescanCount = downwardSearch(index, index, rescanStack, onRescanStack, rescanCount);
+            while (rescanCount > 0 && !isMaxVisitedNodesExceeded()) {
+                int rescanIndex = rescanStack[--rescanCount];
+                onRescanStack[rescanIndex] = false;
+                rescanCount = downwardSearch(rescanIndex, index, rescanStack, onRescanStack, rescanCount);
+            }
         }
+        finishedTo = true;
     }
 
     @Override
@@ -140,15 +153,20 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
         return true;
     }
 
-    private boolean downwardSearch() {
-        if (prioQueue.isEmpty())
-            return false;
+    private int downwardSearch(int index, int scannedIndex, int[] rescanStack, boolean[] onRescanStack, int rescanCount) {
+        MultiTreeSPEntry currTo = bestWeightMap.get(targetGraph.getNode(index));
+        if (currTo == null)
+            return rescanCount;
 
-        MultiTreeSPEntry currTo = prioQueue.poll();
-        fillEdgesDownward(currTo, prioQueue, bestWeightMap, outEdgeExplorer);
         visitedCountTo++;
-
-        return true;
+        for (int pos = targetGraph.getEdgesStart(index); pos < targetGraph.getEdgesEnd(index); pos++) {
+            int adjIndex = targetGraph.getAdjIndex(pos);
+            if (fillEdgeDownward(currTo, pos) && adjIndex <= scannedIndex && !onRescanStack[adjIndex]) {
+                onRescanStack[adjIndex] = true;
+                rescanStack[rescanCount++] = adjIndex;
+            }
+        }
+        return rescanCount;
     }
 
     @Override
@@ -180,20 +198,7 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
         if (!upwardEdgeFilter.isHighestNodeFound())
             throw new IllegalStateException("First RPHAST phase was not successful.");
 
-        currFrom = bestWeightMap.get(upwardEdgeFilter.getHighestNode());
-        currFrom.setVisited(true);
-        currFrom.resetUpdate(true);
         prioQueue.clear();
-        prioQueue.add(currFrom);
-
-        for (int i = 0; i < from.length; i++) {
-            int sourceNode = from[i];
-            MultiTreeSPEntry mspTree = bestWeightMap.get(sourceNode);
-            mspTree.getItem(i).setUpdate(true);
-            prioQueue.add(mspTree);
-        }
-
-        outEdgeExplorer = targetGraph.createExplorer();
         runDownwardSearch();
 
         MultiTreeSPEntry[] targets = new MultiTreeSPEntry[to.length];
@@ -263,69 +268,49 @@ public class RPHASTAlgorithm extends AbstractManyToManyRoutingAlgorithm {
         if (!targetGraph.containsNode(currEdge.getAdjNode())) currEdge.resetUpdate(false);
     }
 
-    private void fillEdgesDownward(MultiTreeSPEntry currEdge, PriorityQueue<MultiTreeSPEntry> prioQueue,
-                                   IntObjectMap<MultiTreeSPEntry> bestWeightMap, RoutingCHEdgeExplorer explorer) {
-
-        RoutingCHEdgeIterator iter = explorer.setBaseNode(currEdge.getAdjNode());
+    /**
+     * Relaxes the edge at pos of the target graph from the entry currEdge.
+     *
+     * @return true if the weights of the adjacent node have been improved
+     */
+    private boolean fillEdgeDownward(MultiTreeSPEntry currEdge, int pos) {
+        edgeWeight = targetGraph.getWeight(pos);
+        if (Double.isInfinite(edgeWeight))
+            return false;
 
-        if (iter == null)
-            return;
+        int adjNode = targetGraph.getAdjNode(pos);
+        MultiTreeSPEntry ee = bestWeightMap.get(adjNode);
 
-        while (iter.next()) {
-//            edgeWeight = weighting.calcEdgeWeight(iter, false, 0);
-            edgeWeight = iter.getWeight(false);
-            if (!Double.isInfinite(edgeWeight)) {
-                MultiTreeSPEntry ee = bestWeightMap.get(iter.getAdjNode());
-
-                if (ee == null) {
-                    ee = new MultiTreeSPEntry(iter.getAdjNode(), iter.getEdge(), edgeWeight, true, currEdge, currEdge.getSize());
-                    ee.setVisited(true);
+        if (ee == null) {
+            ee = new MultiTreeSPEntry(adjNode, targetGraph.getEdge(pos), edgeWeight, true, currEdge, currEdge.getSize());
+            bestWeightMap.put(adjNode, ee);
+            return true;
+        }
 
-                    bestWeightMap.put(iter.getAdjNode(), ee);
-                    prioQueue.add(ee);
-                } else {
-                    addToQueue = false;
+        addToQueue = false;
 
-                    for (int i = 0; i < treeEntrySize; ++i) {
-                        msptItem = currEdge.getItem(i);
-                        entryWeight = msptItem.getWeight();
+        for (int i = 0; i < treeEntrySize; ++i) {
+            msptItem = currEdge.getItem(i);
+            entryWeight = msptItem.getWeight();
 
-                        if (entryWeight == Double.POSITIVE_INFINITY)
-                            continue;
-
-                        tmpWeight = edgeWeight + entryWeight;
+            if (entryWeight == Double.POSITIVE_INFINITY)
+                continue;
 
-                        MultiTreeSPEntryItem eeItem = ee.getItem(i);
+            tmpWeight = edgeWeight + entryWeight;
 
-                        if (eeItem.getWeight() > tmpWeight) {
-                            eeItem.setWeight(tmpWeight);
-                            eeItem.setEdge(iter.getEdge());
-                            eeItem.setParent(currEdge);
-                            eeItem.setUpdate(true);
-                            addToQueue = true;
-                        }
-                    }
+            MultiTreeSPEntryItem eeItem = ee.getItem(i);
 
-                    ee.updateWeights();
-
-                    if (!ee.isVisited()) {
-                        // // This is the case if the node has been assigned a
-                        // weight in
-                        // // the upwards pass (fillEdges). We need to use it in
-                        // the
-                        // // downwards pass to access lower level nodes, though
-                        // the
-                        // weight
-                        // // does not have to be reset necessarily //
-                        ee.setVisited(true);
-                        prioQueue.add(ee);
-                    } else if (addToQueue) {
-                        ee.setVisited(true);
-                        prioQueue.remove(ee);
-                        prioQueue.add(ee);
-                    }
-                }
+            if (eeItem.getWeight() > tmpWeight) {
+                eeItem.setWeight(tmpWeight);
+                eeItem.setEdge(targetGraph.getEdge(pos));
+                eeItem.setParent(currEdge);
+                eeItem.setUpdate(true);
+                addToQueue = true;
             }
         }
+
+        if (addToQueue)
+            ee.updateWeights();
+        return addToQueue;
     }
 }
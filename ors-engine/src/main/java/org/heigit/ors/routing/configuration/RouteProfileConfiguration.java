@@ -40,6 +40,8 @@ public class RouteProfileConfiguration {
     private int encoderFlagsSize = 4;
     private String encoderOptions = "";
     private String gtfsFile = "";
+    private String gtfsRealtimeFile = "";
+    private int gtfsRealtimeReloadInterval = 60;
     private Config isochronePreparationOpts;
     private Config preparationOpts;
     private Config executionOpts;
@@ -57,6 +59,8 @@ public class RouteProfileConfiguration {
 
     private int locationIndexResolution = 500;
     private int locationIndexSearchIterations = 4;
+    private int snappingCacheSize = 0;
+    private int resultCacheSize = 0;
 
     private double maximumSpeedLowerBound = 80;
 
@@ -329,6 +333,22 @@ public class RouteProfileConfiguration {
         this.locationIndexSearchIterations = locationIndexSearchIterations;
     }
 
+    public int getSnappingCacheSize() {
+        return snappingCacheSize;
+    }
+
+    public void setSnappingCacheSize(int snappingCacheSize) {
+        this.snappingCacheSize = snappingCacheSize;
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
     public void setMaximumSpeedLowerBound(double maximumSpeedLowerBound) {
         this.maximumSpeedLowerBound = maximumSpeedLowerBound;
     }
@@ -361,6 +381,22 @@ public class RouteProfileConfiguration {
         return this.gtfsFile;
     }
 
+    public void setGtfsRealtimeFile(String gtfsRealtimeFile) {
+        this.gtfsRealtimeFile = gtfsRealtimeFile;
+    }
+
+    public String getGtfsRealtimeFile() {
+        return gtfsRealtimeFile;
+    }
+
+    public void setGtfsRealtimeReloadInterval(int gtfsRealtimeReloadInterval) {
+        this.gtfsRealtimeReloadInterval = gtfsRealtimeReloadInterval;
+    }
+
+    public int getGtfsRealtimeReloadInterval() {
+        return gtfsRealtimeReloadInterval;
+    }
+
     public int getMaximumVisitedNodesPT() {
         return maximumVisitedNodesPT;
     }
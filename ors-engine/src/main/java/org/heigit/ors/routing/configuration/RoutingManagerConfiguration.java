@@ -166,23 +166,22 @@ public class RoutingManagerConfiguration {
                                 profile.getExtStorages().put(storageEntry.getKey(), storageParams);
                             }
                             break;
-// Not in use anymore
-//                        case "graph_processors":
-//                            @SuppressWarnings("unchecked")
-//                            Map<String, Object> storageList2 = (Map<String, Object>) paramItem.getValue();
-//
-//                            for (Map.Entry<String, Object> storageEntry : storageList2.entrySet()) {
-//                                @SuppressWarnings("unchecked")
-//                                Map<String, Object> entryValue = (Map<String, Object>) storageEntry.getValue();
-//                                Map<String, String> storageParams = new HashMap<>();
-//
-//                                for (Map.Entry<String, Object> entry : entryValue.entrySet()) {
-//                                    storageParams.put(entry.getKey(), StringUtility.trimQuotes(entry.getValue().toString()));
-//                                }
-//
-//                                profile.getGraphBuilders().put(storageEntry.getKey(), storageParams);
-//                            }
-//                            break;
+                        case "graph_processors":
+                            @SuppressWarnings("unchecked")
+                            Map<String, Object> storageList2 = (Map<String, Object>) paramItem.getValue();
+
+                            for (Map.Entry<String, Object> storageEntry : storageList2.entrySet()) {
+                                @SuppressWarnings("unchecked")
+                                Map<String, Object> entryValue = (Map<String, Object>) storageEntry.getValue();
+                                Map<String, String> storageParams = new HashMap<>();
+
+                                for (Map.Entry<String, Object> entry : entryValue.entrySet()) {
+                                    storageParams.put(entry.getKey(), StringUtility.trimQuotes(entry.getValue().toString()));
+                                }
+
+                                profile.getGraphBuilders().put(storageEntry.getKey(), storageParams);
+                            }
+                            break;
                         case "maximum_distance":
                             profile.setMaximumDistance(Double.parseDouble(paramItem.getValue().toString()));
                             break;
@@ -219,6 +218,12 @@ public class RoutingManagerConfiguration {
                         case "location_index_search_iterations":
                             profile.setLocationIndexSearchIterations(Integer.parseInt(paramItem.getValue().toString()));
                             break;
+                        case "snapping_cache_size":
+                            profile.setSnappingCacheSize(Integer.parseInt(paramItem.getValue().toString()));
+                            break;
+                        case "result_cache_size":
+                            profile.setResultCacheSize(Integer.parseInt(paramItem.getValue().toString()));
+                            break;
                         case "maximum_speed_lower_bound":
                             profile.setMaximumSpeedLowerBound(Double.parseDouble(paramItem.getValue().toString()));
                             break;
@@ -232,6 +237,12 @@ public class RoutingManagerConfiguration {
                         case "gtfs_file":
                             profile.setGtfsFile(StringUtility.trimQuotes(paramItem.getValue().toString()));
                             break;
+                        case "gtfs_realtime_file":
+                            profile.setGtfsRealtimeFile(StringUtility.trimQuotes(paramItem.getValue().toString()));
+                            break;
+                        case "gtfs_realtime_reload_interval":
+                            profile.setGtfsRealtimeReloadInterval(Integer.parseInt(paramItem.getValue().toString()));
+                            break;
                         case "maximum_visited_nodes":
                             profile.setMaximumVisitedNodesPT(Integer.parseInt(paramItem.getValue().toString()));
                             break;
@@ -13,10 +13,12 @@
  */
 package org.heigit.ors.routing.graphhopper.extensions;
 
+import com.carrotsearch.hppc.cursors.IntCursor;
 import com.graphhopper.routing.*;
 import com.graphhopper.routing.querygraph.QueryGraph;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.util.StopWatch;
+import org.heigit.ors.routing.graphhopper.extensions.core.AbstractCoreRoutingAlgorithm;
 
 import java.util.List;
 
@@ -37,16 +39,12 @@ public class CorePathCalculator implements PathCalculator {
 
     //@Override
     public List<Path> calcPaths(int from, int to, EdgeRestrictions edgeRestrictions) {
-        if (!edgeRestrictions.getUnfavoredEdges().isEmpty())
-            throw new IllegalArgumentException("Using unfavored edges is currently not supported for CH");
         RoutingAlgorithm algo = createAlgo();
         return calcPaths(from, to, -1, edgeRestrictions, algo);
     }
 
     @Override
     public List<Path> calcPaths(int from, int to, long at, EdgeRestrictions edgeRestrictions) {
-        if (!edgeRestrictions.getUnfavoredEdges().isEmpty())
-            throw new IllegalArgumentException("Using unfavored edges is currently not supported for CH");
         RoutingAlgorithm algo = createAlgo();
         return calcPaths(from, to, at, edgeRestrictions, algo);
     }
@@ -61,6 +59,14 @@ public class CorePathCalculator implements PathCalculator {
     private List<Path> calcPaths(int from, int to, long at, EdgeRestrictions edgeRestrictions, RoutingAlgorithm algo) {
         StopWatch sw = new StopWatch().start();
         List<Path> paths;
+        // headings are enforced by marking the unfavored virtual edges, which the weighting penalizes as in flexible mode
+        if (!edgeRestrictions.getUnfavoredEdges().isEmpty()) {
+            if (!(algo instanceof AbstractCoreRoutingAlgorithm))
+                throw new IllegalArgumentException("Using unfavored edges is not supported by " + algo.getName());
+            for (IntCursor c : edgeRestrictions.getUnfavoredEdges())
+                queryGraph.unfavorVirtualEdge(c.value);
+            ((AbstractCoreRoutingAlgorithm) algo).setUnfavoredEdges(edgeRestrictions.getUnfavoredEdges());
+        }
         /* FIXME
         if (edgeRestrictions.getSourceOutEdge() != ANY_EDGE || edgeRestrictions.getTargetInEdge() != ANY_EDGE) {
             paths = Collections.singletonList(algo.calcPath(from, to,
@@ -70,7 +76,12 @@ public class CorePathCalculator implements PathCalculator {
             paths = algo.calcPaths(from, to);
         }
         */
-        paths = (at > 0) ? algo.calcPaths(from, to, at) : algo.calcPaths(from, to);
+        try {
+            paths = (at > 0) ? algo.calcPaths(from, to, at) : algo.calcPaths(from, to);
+        } finally {
+            // reset the markings so that they do not affect the next leg
+            queryGraph.clearUnfavoredStatus();
+        }
         if (paths.isEmpty())
             throw new IllegalStateException("Path list was empty for " + from + " -> " + to);
         if (algo.getVisitedNodes() >= algoOpts.getMaxVisitedNodes())
@@ -21,6 +21,7 @@ import com.graphhopper.util.EdgeIteratorState;
 import org.heigit.ors.plugins.PluginManager;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
 import org.heigit.ors.routing.graphhopper.extensions.graphbuilders.GraphBuilder;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.WayTags;
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.GraphStorageBuilder;
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.HereTrafficGraphStorageBuilder;
 import org.locationtech.jts.geom.Coordinate;
@@ -85,6 +86,8 @@ public class GraphProcessContext {
     public void processWay(ReaderWay way) {
         try {
             if (arrStorageBuilders != null) {
+                // the tags may have been changed since the flag encoders have processed the way
+                WayTags.refresh(way);
                 for (GraphStorageBuilder builder : arrStorageBuilders) {
                     builder.processWay(way);
                 }
@@ -106,6 +109,7 @@ public class GraphProcessContext {
             if (arrStorageBuilders != null) {
                 int nStorages = arrStorageBuilders.length;
                 if (nStorages > 0) {
+                    WayTags.refresh(way);
                     for (int i = 0; i < nStorages; ++i) {
                         if (trafficArrStorageBuilderLocation == -1 && arrStorageBuilders[i].getName().equals(HereTrafficGraphStorageBuilder.BUILDER_NAME)) {
                             trafficArrStorageBuilderLocation = i;
@@ -154,6 +158,11 @@ public class GraphProcessContext {
                 builder.finish();
             }
         }
+        if (arrGraphBuilders != null) {
+            for (GraphBuilder builder : arrGraphBuilders) {
+                builder.finish();
+            }
+        }
     }
 
     public double getMaximumSpeedLowerBound() {
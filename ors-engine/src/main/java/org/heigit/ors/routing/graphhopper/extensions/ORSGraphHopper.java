@@ -33,6 +33,7 @@ import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.CHConfig;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.RoutingCHGraph;
+import com.graphhopper.storage.StorableProperties;
 import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.storage.index.Snap;
 import com.graphhopper.util.*;
@@ -61,8 +62,10 @@ import org.heigit.ors.routing.graphhopper.extensions.storages.TrafficGraphStorag
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.GraphStorageBuilder;
 import org.heigit.ors.routing.graphhopper.extensions.storages.builders.HereTrafficGraphStorageBuilder;
 import org.heigit.ors.routing.graphhopper.extensions.util.ORSParameters;
+import org.heigit.ors.routing.ResultCache;
 import org.heigit.ors.routing.graphhopper.extensions.weighting.HgvAccessWeighting;
 import org.heigit.ors.routing.pathprocessors.BordersExtractor;
+import org.heigit.ors.snapping.SnapCache;
 import org.heigit.ors.util.CoordTools;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -90,10 +93,13 @@ public class ORSGraphHopper extends GraphHopperGtfs {
 
     private int minNetworkSize = 200;
     private int minOneWayNetworkSize = 0;
+    private int preparationThreads = 1;
 
     private final CorePreparationHandler corePreparationHandler = new CorePreparationHandler();
     private final CoreLMPreparationHandler coreLMPreparationHandler = new CoreLMPreparationHandler();
     private final FastIsochroneFactory fastIsochroneFactory = new FastIsochroneFactory();
+    private SnapCache snapCache;
+    private ResultCache resultCache;
 
 
     public GraphHopperConfig getConfig() {
@@ -125,6 +131,7 @@ public class ORSGraphHopper extends GraphHopperGtfs {
 
         minNetworkSize = ghConfig.getInt("prepare.min_network_size", minNetworkSize);
         minOneWayNetworkSize = ghConfig.getInt("prepare.min_one_way_network_size", minOneWayNetworkSize);
+        preparationThreads = ghConfig.getInt("prepare.threads", preparationThreads);
         config = ghConfig;
         return ret;
     }
@@ -372,27 +379,42 @@ public class ORSGraphHopper extends GraphHopperGtfs {
     protected void postProcessing(boolean closeEarly) {
         super.postProcessing(closeEarly);
 
-        //Create the core
+        // The core chain and the fast isochrone chain only depend on the base graph, so they can run concurrently.
+        // Preparations write to the storage, which therefore needs to be frozen before any of them starts. Neither the
+        // directory nor the properties of the storage are thread-safe, so the stages create their data accesses while
+        // holding the lock of the directory and write properties while holding the lock of the properties.
+        PreparationScheduler scheduler = new PreparationScheduler(preparationThreads);
+        if (scheduler.getThreads() > 1 && (corePreparationHandler.isEnabled() || coreLMPreparationHandler.isEnabled() || fastIsochroneFactory.isEnabled())) {
+            ensureWriteAccess();
+            getGraphHopperStorage().freeze();
+        }
+
         GraphHopperStorage gs = getGraphHopperStorage();
-        if (corePreparationHandler.isEnabled())
-            corePreparationHandler.setProcessContext(processContext).createPreparations(gs);
-        if (isCorePrepared()) {
-            // check loaded profiles
-            for (CHProfile profile : corePreparationHandler.getCHProfiles()) {
-                if (!getProfileVersion(profile.getProfile()).isEmpty() && !getProfileVersion(profile.getProfile()).equals("" + profilesByName.get(profile.getProfile()).getVersion()))
-                    throw new IllegalArgumentException("Core preparation of " + profile.getProfile() + " already exists in storage and doesn't match configuration");
+        scheduler.addStage("core", () -> {
+            if (corePreparationHandler.isEnabled()) {
+                synchronized (gs.getDirectory()) {
+                    corePreparationHandler.setProcessContext(processContext).createPreparations(gs);
+                }
             }
-        } else {
-            prepareCore(closeEarly);
-        }
+            if (isCorePrepared()) {
+                // check loaded profiles
+                checkCoreProfileVersions();
+            } else {
+                prepareCore(closeEarly);
+            }
+        });
 
         //Create the landmarks in the core
-        if (coreLMPreparationHandler.isEnabled()) {
-            initCoreLMPreparationHandler();
-            coreLMPreparationHandler.createPreparations(gs, super.getLocationIndex());
-            addTrafficSpeedCalculator(coreLMPreparationHandler);
-        }
-        loadOrPrepareCoreLM();
+        scheduler.addStage("core_lm", () -> {
+            if (coreLMPreparationHandler.isEnabled()) {
+                synchronized (gs.getDirectory()) {
+                    initCoreLMPreparationHandler();
+                    coreLMPreparationHandler.createPreparations(gs, super.getLocationIndex());
+                }
+                addTrafficSpeedCalculator(coreLMPreparationHandler);
+            }
+            loadOrPrepareCoreLM();
+        }, "core");
 
         if (fastIsochroneFactory.isEnabled()) {
             EdgeFilterSequence partitioningEdgeFilter = new EdgeFilterSequence();
@@ -401,19 +423,28 @@ public class ORSGraphHopper extends GraphHopperGtfs {
             } catch (Exception e) {
                 LOGGER.debug(e.getLocalizedMessage());
             }
-            fastIsochroneFactory.createPreparation(gs, partitioningEdgeFilter);
-
-            if (!isPartitionPrepared())
-                preparePartition();
-            else {
-                fastIsochroneFactory.setExistingStorages();
-                fastIsochroneFactory.getCellStorage().loadExisting();
-                fastIsochroneFactory.getIsochroneNodeStorage().loadExisting();
-            }
+            scheduler.addStage("partition", () -> {
+                synchronized (gs.getDirectory()) {
+                    fastIsochroneFactory.createPreparation(gs, partitioningEdgeFilter);
+                }
+
+                if (!isPartitionPrepared())
+                    preparePartition();
+                else {
+                    fastIsochroneFactory.setExistingStorages();
+                    fastIsochroneFactory.getCellStorage().loadExisting();
+                    fastIsochroneFactory.getIsochroneNodeStorage().loadExisting();
+                }
+            });
             //No fast isochrones without partition
-            if (isPartitionPrepared()) {
-                // Initialize edge filter sequence for fast isochrones
-                calculateContours();
+            scheduler.addStage("contours", () -> {
+                if (isPartitionPrepared())
+                    calculateContours();
+            }, "partition");
+            // contours and cell properties both write to the cell storage
+            scheduler.addStage("cell_properties", () -> {
+                if (!isPartitionPrepared())
+                    return;
                 List<Profile> profiles = fastIsochroneFactory.getFastIsochroneProfiles();
                 for (Profile profile : profiles) {
                     Weighting weighting = ((ORSWeightingFactory) createWeightingFactory()).createIsochroneWeighting(profile, new PMap(profile.getName()).putObject("isochroneWeighting", "true"));
@@ -422,8 +453,9 @@ public class ORSGraphHopper extends GraphHopperGtfs {
                         calculateCellProperties(weighting, partitioningEdgeFilter, encoder, fastIsochroneFactory.getIsochroneNodeStorage(), fastIsochroneFactory.getCellStorage());
                     }
                 }
-            }
+            }, "contours");
         }
+        scheduler.run();
     }
 
     @Override
@@ -540,28 +572,39 @@ public class ORSGraphHopper extends GraphHopperGtfs {
     }
 
     protected void prepareCore(boolean closeEarly) {
-        for (CHProfile profile : corePreparationHandler.getCHProfiles()) {
-            if (!getProfileVersion(profile.getProfile()).isEmpty()
-                    && !getProfileVersion(profile.getProfile()).equals("" + profilesByName.get(profile.getProfile()).getVersion()))
-                throw new IllegalArgumentException("Core preparation of " + profile.getProfile() + " already exists in storage and doesn't match configuration");
-        }
+        checkCoreProfileVersions();
         if (isCoreEnabled()) {
             ensureWriteAccess();
             GraphHopperStorage ghStorage = getGraphHopperStorage();
             ghStorage.freeze();
             corePreparationHandler.prepare(ghStorage.getProperties(), closeEarly);
-            ghStorage.getProperties().put(ORSParameters.Core.PREPARE + "done", true);
+            synchronized (ghStorage.getProperties()) {
+                ghStorage.getProperties().put(ORSParameters.Core.PREPARE + "done", true);
+                for (CHProfile profile : corePreparationHandler.getCHProfiles()) {
+                    // potentially overwrite existing keys from CH/LM
+                    setProfileVersion(profile.getProfile(), profilesByName.get(profile.getProfile()).getVersion());
+                }
+            }
+        }
+    }
+
+    private void checkCoreProfileVersions() {
+        synchronized (getGraphHopperStorage().getProperties()) {
             for (CHProfile profile : corePreparationHandler.getCHProfiles()) {
-                // potentially overwrite existing keys from CH/LM
-                setProfileVersion(profile.getProfile(), profilesByName.get(profile.getProfile()).getVersion());
+                if (!getProfileVersion(profile.getProfile()).isEmpty()
+                        && !getProfileVersion(profile.getProfile()).equals("" + profilesByName.get(profile.getProfile()).getVersion()))
+                    throw new IllegalArgumentException("Core preparation of " + profile.getProfile() + " already exists in storage and doesn't match configuration");
             }
         }
     }
 
     private boolean isCorePrepared() {
-        return "true".equals(getGraphHopperStorage().getProperties().get(ORSParameters.Core.PREPARE + "done"))
-                // remove old property in >0.9
-                || "true".equals(getGraphHopperStorage().getProperties().get("prepare.done"));
+        StorableProperties properties = getGraphHopperStorage().getProperties();
+        synchronized (properties) {
+            return "true".equals(properties.get(ORSParameters.Core.PREPARE + "done"))
+                    // remove old property in >0.9
+                    || "true".equals(properties.get("prepare.done"));
+        }
     }
 
     public final boolean isCoreLMEnabled() {
@@ -576,8 +619,12 @@ public class ORSGraphHopper extends GraphHopperGtfs {
         if (tmpPrepare) {
             ensureWriteAccess();
             getGraphHopperStorage().freeze();
-            if (coreLMPreparationHandler.loadOrDoWork(getGraphHopperStorage().getProperties(), false))
-                getGraphHopperStorage().getProperties().put(ORSParameters.CoreLandmark.PREPARE + "done", true);
+            StorableProperties properties = getGraphHopperStorage().getProperties();
+            if (coreLMPreparationHandler.loadOrDoWork(properties, false)) {
+                synchronized (properties) {
+                    properties.put(ORSParameters.CoreLandmark.PREPARE + "done", true);
+                }
+            }
         }
     }
 
@@ -595,7 +642,11 @@ public class ORSGraphHopper extends GraphHopperGtfs {
     }
 
     public final boolean isFastIsochroneAvailable(RouteSearchContext searchContext, TravelRangeType travelRangeType) {
-        return eccentricity != null && eccentricity.isAvailable(ORSWeightingFactory.createIsochroneWeighting(searchContext, travelRangeType));
+        return isFastIsochroneAvailable(searchContext, travelRangeType, false);
+    }
+
+    public final boolean isFastIsochroneAvailable(RouteSearchContext searchContext, TravelRangeType travelRangeType, boolean reverseDirection) {
+        return eccentricity != null && eccentricity.isAvailable(ORSWeightingFactory.createIsochroneWeighting(searchContext, travelRangeType), reverseDirection);
     }
 
     /**
@@ -610,13 +661,19 @@ public class ORSGraphHopper extends GraphHopperGtfs {
             ensureWriteAccess();
 
             getGraphHopperStorage().freeze();
-            fastIsochroneFactory.prepare(getGraphHopperStorage().getProperties());
-            getGraphHopperStorage().getProperties().put(ORSParameters.FastIsochrone.PREPARE + "done", true);
+            StorableProperties properties = getGraphHopperStorage().getProperties();
+            fastIsochroneFactory.prepare(properties);
+            synchronized (properties) {
+                properties.put(ORSParameters.FastIsochrone.PREPARE + "done", true);
+            }
         }
     }
 
     private boolean isPartitionPrepared() {
-        return "true".equals(getGraphHopperStorage().getProperties().get(ORSParameters.FastIsochrone.PREPARE + "done"));
+        StorableProperties properties = getGraphHopperStorage().getProperties();
+        synchronized (properties) {
+            return "true".equals(properties.get(ORSParameters.FastIsochrone.PREPARE + "done"));
+        }
     }
 
     private void calculateContours() {
@@ -639,6 +696,28 @@ public class ORSGraphHopper extends GraphHopperGtfs {
         return eccentricity;
     }
 
+    /**
+     * @return the cache of location index lookups on this graph, or null if caching is disabled
+     */
+    public SnapCache getSnapCache() {
+        return snapCache;
+    }
+
+    public void setSnapCache(SnapCache snapCache) {
+        this.snapCache = snapCache;
+    }
+
+    /**
+     * @return the cache of route, matrix and isochrone results computed on this graph, or null if caching is disabled
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
 
     public boolean isTrafficEnabled() {
         return GraphStorageUtils.getGraphExtension(getGraphHopperStorage(), TrafficGraphStorage.class) != null;
@@ -16,6 +16,7 @@ import org.heigit.ors.routing.ProfileWeighting;
 import org.heigit.ors.routing.RouteRequestParameterNames;
 import org.heigit.ors.routing.RouteSearchContext;
 import org.heigit.ors.routing.graphhopper.extensions.storages.GraphStorageUtils;
+import org.heigit.ors.routing.graphhopper.extensions.storages.SoftWeightingAttributesGraphStorage;
 import org.heigit.ors.routing.graphhopper.extensions.storages.TrafficGraphStorage;
 import org.heigit.ors.routing.graphhopper.extensions.util.MaximumSpeedCalculator;
 import org.heigit.ors.routing.graphhopper.extensions.weighting.*;
@@ -209,7 +210,12 @@ public class ORSWeightingFactory implements WeightingFactory {
             }
 
             if (!softWeightings.isEmpty()) {
-                weighting = new AdditionWeighting(softWeightings, weighting);
+                SoftWeightingAttributesGraphStorage attributesStorage = GraphStorageUtils.getGraphExtension(ghStorage, SoftWeightingAttributesGraphStorage.class);
+                // the records are not built if the graph has none of the storages to pack
+                if (attributesStorage != null && !attributesStorage.isEmpty())
+                    weighting = new FusedSoftWeighting(softWeightings, weighting, attributesStorage);
+                else
+                    weighting = new AdditionWeighting(softWeightings, weighting);
             }
         }
         return weighting;
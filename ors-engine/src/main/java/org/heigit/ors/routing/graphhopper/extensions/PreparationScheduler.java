@@ -0,0 +1,169 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the preparation stages of a graph, starting every stage as soon as the stages it depends on are finished.
+ * <p>
+ * Stages are added in an order that satisfies their dependencies, which is also the order in which they run if the
+ * thread budget is a single thread. With a larger budget at most that many stages run at once. After a stage failed
+ * no further stages are started, and the failure of the first failed stage in the order they were added is thrown.
+ * The start, end and duration of every stage are logged as a timeline when all stages are done.
+ */
+public class PreparationScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PreparationScheduler.class);
+
+    private final int threads;
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private volatile boolean failed;
+
+    public PreparationScheduler(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param dependencies names of stages that have been added before and need to be finished before this stage starts
+     */
+    public PreparationScheduler addStage(String name, Runnable task, String... dependencies) {
+        if (stages.containsKey(name))
+            throw new IllegalArgumentException("Preparation stage '" + name + "' has already been added");
+        List<Stage> stageDependencies = new ArrayList<>(dependencies.length);
+        for (String dependency : dependencies) {
+            Stage stage = stages.get(dependency);
+            if (stage == null)
+                throw new IllegalArgumentException("Preparation stage '" + name + "' depends on unknown stage '" + dependency + "'");
+            stageDependencies.add(stage);
+        }
+        stages.put(name, new Stage(name, task, stageDependencies));
+        return this;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void run() {
+        long start = System.nanoTime();
+        if (threads == 1 || stages.size() < 2)
+            runSequentially();
+        else
+            runConcurrently();
+        logTimeline(start, System.nanoTime());
+
+        for (Stage stage : stages.values()) {
+            if (stage.failure instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (stage.failure instanceof Error error)
+                throw error;
+            if (stage.failure != null)
+                throw new IllegalStateException("Preparation stage '" + stage.name + "' failed", stage.failure);
+        }
+    }
+
+    private void runSequentially() {
+        for (Stage stage : stages.values())
+            runStage(stage);
+    }
+
+    private void runStage(Stage stage) {
+        if (failed) {
+            stage.skipped = true;
+            return;
+        }
+        stage.run();
+        if (stage.failure != null)
+            failed = true;
+    }
+
+    private void runConcurrently() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, stages.size()), runnable -> {
+            Thread thread = new Thread(runnable, "ors-preparation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<Stage, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        try {
+            for (Stage stage : stages.values()) {
+                CompletableFuture<?>[] dependencies = stage.dependencies.stream().map(futures::get).toArray(CompletableFuture[]::new);
+                // failures are kept by the stages themselves, so a dependency future always completes normally
+                futures.put(stage, CompletableFuture.allOf(dependencies).thenRunAsync(() -> runStage(stage), executor));
+            }
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void logTimeline(long start, long end) {
+        if (!LOGGER.isInfoEnabled())
+            return;
+        StringBuilder timeline = new StringBuilder("Preparation timeline (%d threads, %.1fs in total):".formatted(threads, seconds(end - start)));
+        for (Stage stage : stages.values()) {
+            timeline.append(System.lineSeparator()).append("  ").append(stage.name).append(": ");
+            if (stage.skipped) {
+                timeline.append("skipped after a failure");
+            } else {
+                timeline.append("%.1fs - %.1fs (%.1fs) on %s".formatted(seconds(stage.start - start), seconds(stage.end - start), seconds(stage.end - stage.start), stage.thread));
+                if (stage.failure != null)
+                    timeline.append(", failed");
+            }
+        }
+        LOGGER.info(timeline.toString());
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static class Stage {
+        private final String name;
+        private final Runnable task;
+        private final List<Stage> dependencies;
+        // written by the thread running the stage and read after all stages are done
+        private volatile long start;
+        private volatile long end;
+        private volatile String thread;
+        private volatile Throwable failure;
+        private volatile boolean skipped;
+
+        Stage(String name, Runnable task, List<Stage> dependencies) {
+            this.name = name;
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+
+        void run() {
+            thread = Thread.currentThread().getName();
+            start = System.nanoTime();
+            try {
+                task.run();
+            } catch (Exception | Error e) {
+                failure = e;
+            } finally {
+                end = System.nanoTime();
+            }
+        }
+    }
+}
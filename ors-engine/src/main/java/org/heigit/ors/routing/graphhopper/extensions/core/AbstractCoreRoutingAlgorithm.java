@@ -13,6 +13,8 @@
  */
 package org.heigit.ors.routing.graphhopper.extensions.core;
 
+import com.carrotsearch.hppc.IntContainer;
+import com.carrotsearch.hppc.IntHashSet;
 import com.graphhopper.routing.AbstractRoutingAlgorithm;
 import com.graphhopper.routing.Path;
 import com.graphhopper.routing.RoutingAlgorithm;
@@ -54,6 +56,8 @@ public abstract class AbstractCoreRoutingAlgorithm extends AbstractRoutingAlgori
     protected boolean hasTurnWeighting;
     protected boolean approximate = false;
 
+    private IntHashSet unfavoredEdges;
+
     protected AbstractCoreRoutingAlgorithm(RoutingCHGraph graph, Weighting weighting) {
         super(graph.getBaseGraph(), weighting, weighting.hasTurnCosts() ? TraversalMode.EDGE_BASED : TraversalMode.NODE_BASED);
 
@@ -240,12 +244,29 @@ public abstract class AbstractCoreRoutingAlgorithm extends AbstractRoutingAlgori
         return true;
     }
 
+    /**
+     * Set the virtual edges which are unfavored at the snapped start, via and destination points in order to enforce a
+     * heading. The caller marks them as unfavored on the query graph, so that the weighting adds the heading penalty
+     * exactly as in flexible mode. Their weight and time are therefore always taken from the weighting, never from the
+     * core graph, whose weights of virtual edges do not reflect the marking.
+     *
+     * @param edges ids of the unfavored virtual edges of the query graph
+     */
+    public void setUnfavoredEdges(IntContainer edges) {
+        unfavoredEdges = edges.isEmpty() ? null : new IntHashSet(edges);
+    }
+
+    private boolean isUnfavored(RoutingCHEdgeIteratorState edgeState) {
+        // virtual edges are never part of shortcuts, so their original edge identifies them
+        return unfavoredEdges != null && !edgeState.isShortcut() && unfavoredEdges.contains(edgeState.getOrigEdge());
+    }
+
     double calcEdgeWeight(RoutingCHEdgeIteratorState iter, SPTEntry currEdge, boolean reverse) {
         return calcWeight(iter, reverse, currEdge.originalEdge, currEdge.time) + currEdge.getWeightOfVisitedPath();
     }
 
     double calcWeight(RoutingCHEdgeIteratorState edgeState, boolean reverse, int prevOrNextEdgeId, long time) {
-        double edgeWeight = (edgeState.isShortcut() || !inCore) ?
+        double edgeWeight = (edgeState.isShortcut() || !inCore) && !isUnfavored(edgeState) ?
                 edgeState.getWeight(reverse) :
                 weighting.calcEdgeWeight(getEdgeIteratorState(edgeState), reverse, time);
         double turnCost = getTurnWeight(prevOrNextEdgeId, edgeState.getBaseNode(), edgeState.getOrigEdge(), reverse);
@@ -267,7 +288,7 @@ public abstract class AbstractCoreRoutingAlgorithm extends AbstractRoutingAlgori
     }
 
     long calcTime(RoutingCHEdgeIteratorState edgeState, boolean reverse, long time) {
-        return (edgeState.isShortcut() || !inCore) ?
+        return (edgeState.isShortcut() || !inCore) && !isUnfavored(edgeState) ?
                 edgeState.getTime(reverse) :
                 weighting.calcEdgeMillis(getEdgeIteratorState(edgeState), reverse, time);
     }
@@ -0,0 +1,250 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.core;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIndexedContainer;
+import com.carrotsearch.hppc.IntObjectMap;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.graphhopper.routing.Path;
+import com.graphhopper.routing.ch.CHEntry;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.RoutingCHGraph;
+import com.graphhopper.util.EdgeIterator;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.PMap;
+import com.graphhopper.util.Parameters;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Calculates the best path and alternative paths using the via-node approach on the core graph.
+ * <p>
+ * The forward and backward searches of {@link CoreDijkstra} are continued until their search spaces cover all nodes
+ * within max_weight_factor times the weight of the best path. Every node reached by both searches is a via-node
+ * candidate whose path consists of the forward path to the node and the backward path from it. Candidates are
+ * checked in the order of their weight and accepted if their unpacked path is free of loops and shares at most
+ * max_share_factor of the best path's distance with each of the previously accepted paths. Candidates on an accepted
+ * path are skipped without unpacking, since they lead to the same path.
+ * <p>
+ * In contrast to GraphHopper's {@code AlternativeRoute} on the base graph this only explores the CH search spaces
+ * outside the core and the small core graph, so computing alternatives costs about as much as a core route.
+ */
+public class CoreAlternativeRoute extends CoreDijkstra {
+    private static final int MAX_CHECKED_CANDIDATES_PER_PATH = 10;
+
+    private final int maxPaths;
+    private final double maxWeightFactor;
+    private final double maxShareFactor;
+
+    public CoreAlternativeRoute(RoutingCHGraph graph, Weighting weighting, PMap hints) {
+        super(graph, weighting);
+        maxPaths = hints.getInt(Parameters.Algorithms.AltRoute.MAX_PATHS, 2);
+        maxWeightFactor = hints.getDouble(Parameters.Algorithms.AltRoute.MAX_WEIGHT, 1.4);
+        maxShareFactor = hints.getDouble(Parameters.Algorithms.AltRoute.MAX_SHARE, 0.6);
+    }
+
+    /**
+     * @return the weight up to which the search spaces need to be explored, unbounded as long as no path is known
+     */
+    private double getWeightLimit() {
+        return bestWeight == Double.MAX_VALUE ? Double.MAX_VALUE : bestWeight * maxWeightFactor;
+    }
+
+    @Override
+    public boolean finishedPhase1() {
+        if (finishedFrom && finishedTo)
+            return true;
+
+        double fromWeight = currFrom.weight;
+        double toWeight = currTo.weight;
+
+        if (!fromPriorityQueueCore.isEmpty())
+            fromWeight = Math.min(fromPriorityQueueCore.peek().weight, fromWeight);
+        if (!toPriorityQueueCore.isEmpty())
+            toWeight = Math.min(toPriorityQueueCore.peek().weight, toWeight);
+
+        double weightLimit = getWeightLimit();
+        return fromWeight >= weightLimit && toWeight >= weightLimit;
+    }
+
+    @Override
+    void runPhase2() {
+        finishedFrom = isCoreSearchFinished(fromPriorityQueueCore.peek());
+        finishedTo = isCoreSearchFinished(toPriorityQueueCore.peek());
+
+        while (!finishedPhase2() && !isMaxVisitedNodesExceeded()) {
+            // unlike CoreDijkstra each direction runs on its own until its search space covers the weight limit
+            if (!finishedFrom)
+                finishedFrom = !fillEdgesFromCore() || isCoreSearchFinished(fromPriorityQueueCore.peek());
+            if (!finishedTo)
+                finishedTo = !fillEdgesToCore() || isCoreSearchFinished(toPriorityQueueCore.peek());
+        }
+    }
+
+    private boolean isCoreSearchFinished(CHEntry next) {
+        return next == null || next.weight >= getWeightLimit();
+    }
+
+    @Override
+    public boolean finishedPhase2() {
+        // without a path found so far, a single exhausted direction means that there is no path at all
+        if (bestWeight == Double.MAX_VALUE)
+            return finishedFrom || finishedTo;
+        return finishedFrom && finishedTo;
+    }
+
+    @Override
+    public List<Path> calcPaths(int from, int to) {
+        return calcPaths(from, to, 0);
+    }
+
+    @Override
+    public List<Path> calcPaths(int from, int to, long at) {
+        Path bestPath = calcPath(from, to, at);
+        List<Path> paths = new ArrayList<>(maxPaths);
+        paths.add(bestPath);
+        if (bestPath.isFound() && maxPaths > 1)
+            addAlternatives(paths);
+        return paths;
+    }
+
+    private void addAlternatives(List<Path> paths) {
+        Path bestPath = paths.get(0);
+        double maxSharedDistance = maxShareFactor * bestPath.getDistance();
+
+        IntHashSet acceptedNodes = new IntHashSet();
+        List<IntHashSet> acceptedEdges = new ArrayList<>(maxPaths);
+        acceptNodesAndEdges(bestPath, acceptedNodes, acceptedEdges);
+
+        List<ViaNode> candidates = collectViaNodes();
+        candidates.sort(Comparator.comparingDouble(c -> c.weight));
+
+        int maxCheckedCandidates = MAX_CHECKED_CANDIDATES_PER_PATH * maxPaths;
+        int checkedCandidates = 0;
+        for (ViaNode candidate : candidates) {
+            if (paths.size() >= maxPaths || checkedCandidates >= maxCheckedCandidates)
+                break;
+            if (acceptedNodes.contains(candidate.node))
+                continue;
+            checkedCandidates++;
+
+            Path path = CorePathExtractor.extractPath(chGraph, weighting, candidate.fwdEntry, candidate.bwdEntry, candidate.weight);
+            if (!path.isFound() || !isSimple(path) || sharesTooMuch(path, acceptedEdges, maxSharedDistance))
+                continue;
+
+            paths.add(path);
+            acceptNodesAndEdges(path, acceptedNodes, acceptedEdges);
+        }
+    }
+
+    /**
+     * Find the nodes settled by both searches together with the best combination of a forward and a backward entry
+     * within the weight limit.
+     */
+    private List<ViaNode> collectViaNodes() {
+        double weightLimit = getWeightLimit();
+        IntHashSet fwdNodes = new IntHashSet(bestWeightMapFromCH.size() + bestWeightMapFromCore.size());
+        fwdNodes.addAll(bestWeightMapFromCH.keys());
+        fwdNodes.addAll(bestWeightMapFromCore.keys());
+
+        List<ViaNode> candidates = new ArrayList<>();
+        for (IntCursor cursor : fwdNodes) {
+            int node = cursor.value;
+            ViaNode best = null;
+            for (CHEntry fwdEntry : getEntries(bestWeightMapFromCH, bestWeightMapFromCore, node)) {
+                for (CHEntry bwdEntry : getEntries(bestWeightMapToCH, bestWeightMapToCore, node)) {
+                    double weight = fwdEntry.weight + bwdEntry.weight;
+                    if (weight > weightLimit || best != null && weight >= best.weight || !isValidTurn(fwdEntry, bwdEntry, node))
+                        continue;
+                    best = new ViaNode(node, fwdEntry, bwdEntry, weight);
+                }
+            }
+            if (best != null)
+                candidates.add(best);
+        }
+        return candidates;
+    }
+
+    private static List<CHEntry> getEntries(IntObjectMap<CHEntry> chMap, IntObjectMap<List<CHEntry>> coreMap, int node) {
+        List<CHEntry> entries = new ArrayList<>(2);
+        CHEntry chEntry = chMap.get(node);
+        if (chEntry != null)
+            entries.add(chEntry);
+        List<CHEntry> coreEntries = coreMap.get(node);
+        if (coreEntries != null)
+            entries.addAll(coreEntries);
+        return entries;
+    }
+
+    private boolean isValidTurn(CHEntry fwdEntry, CHEntry bwdEntry, int node) {
+        // same u-turn check as in updateBestPathCore
+        if (fwdEntry.edge != EdgeIterator.NO_EDGE && fwdEntry.edge == bwdEntry.edge)
+            return false;
+        return !hasTurnWeighting || !Double.isInfinite(getTurnWeight(fwdEntry.originalEdge, node, bwdEntry.originalEdge, false));
+    }
+
+    private static boolean isSimple(Path path) {
+        IntIndexedContainer nodes = path.calcNodes();
+        IntHashSet visited = new IntHashSet(nodes.size());
+        for (IntCursor cursor : nodes) {
+            if (!visited.add(cursor.value))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean sharesTooMuch(Path path, List<IntHashSet> acceptedEdges, double maxSharedDistance) {
+        List<EdgeIteratorState> edges = path.calcEdges();
+        for (IntHashSet accepted : acceptedEdges) {
+            double sharedDistance = 0;
+            for (EdgeIteratorState edge : edges) {
+                if (accepted.contains(edge.getEdge()))
+                    sharedDistance += edge.getDistance();
+            }
+            if (sharedDistance > maxSharedDistance)
+                return true;
+        }
+        return false;
+    }
+
+    private static void acceptNodesAndEdges(Path path, IntHashSet acceptedNodes, List<IntHashSet> acceptedEdges) {
+        acceptedNodes.addAll(path.calcNodes());
+        IntHashSet edges = new IntHashSet();
+        for (EdgeIteratorState edge : path.calcEdges())
+            edges.add(edge.getEdge());
+        acceptedEdges.add(edges);
+    }
+
+    @Override
+    public String getName() {
+        return Parameters.Algorithms.ALT_ROUTE;
+    }
+
+    private static class ViaNode {
+        final int node;
+        final CHEntry fwdEntry;
+        final CHEntry bwdEntry;
+        final double weight;
+
+        ViaNode(int node, CHEntry fwdEntry, CHEntry bwdEntry, double weight) {
+            this.node = node;
+            this.fwdEntry = fwdEntry;
+            this.bwdEntry = bwdEntry;
+            this.weight = weight;
+        }
+    }
+}
@@ -73,6 +73,8 @@ public class CoreRoutingAlgorithmFactory implements RoutingAlgorithmFactory {
             algo = tmpAlgo;
         } else if (DIJKSTRA_BI.equals(algoStr)) {
             algo = new CoreDijkstra(routingCHGraph, weighting);
+        } else if (ALT_ROUTE.equals(algoStr)) {
+            algo = new CoreAlternativeRoute(routingCHGraph, weighting, opts.getHints());
         } else if (TD_DIJKSTRA.equals(algoStr)) {
             algo = new TDCoreDijkstra(routingCHGraph, weighting, opts.getHints().has(RouteRequestParameterNames.PARAM_ARRIVAL));
         } else if (TD_ASTAR.equals(algoStr)) {
@@ -24,6 +24,8 @@ import com.graphhopper.reader.osm.conditional.DateRangeParser;
 import com.graphhopper.routing.util.EncodingManager;
 import com.graphhopper.routing.util.TransportationMode;
 import com.graphhopper.util.PMap;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.TagMatcher;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.WayTags;
 
 import java.util.List;
 
@@ -37,6 +39,8 @@ import java.util.List;
 public class CarFlagEncoder extends VehicleFlagEncoder {
 
     private static final String KEY_IMPASSABLE = "impassable";
+    private static final TagMatcher IMPASSABLE = TagMatcher.tag(KEY_IMPASSABLE, "yes");
+    private static final TagMatcher STATUS_IMPASSABLE = TagMatcher.tag(List.of("status", "smoothness"), List.of(KEY_IMPASSABLE));
 
     // Mean speed for isochrone reach_factor
     private static final int MEAN_SPEED = 100;
@@ -102,7 +106,8 @@ public class CarFlagEncoder extends VehicleFlagEncoder {
         if (!speedLimitHandler.hasSpeedValue(highwayValue))
             return EncodingManager.Access.CAN_SKIP;
 
-        if (way.hasTag(KEY_IMPASSABLE, "yes") || way.hasTag("status", KEY_IMPASSABLE) || way.hasTag("smoothness", KEY_IMPASSABLE))
+        WayTags tags = WayTags.of(way);
+        if (IMPASSABLE.matches(tags) || STATUS_IMPASSABLE.matches(tags))
             return EncodingManager.Access.CAN_SKIP;
 
         // multiple restrictions needs special handling compared to foot and bike, see also motorcycle
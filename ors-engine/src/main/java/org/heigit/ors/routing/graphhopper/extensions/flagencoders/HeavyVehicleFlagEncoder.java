@@ -24,6 +24,8 @@ import com.graphhopper.routing.weighting.PriorityWeighting;
 import com.graphhopper.storage.IntsRef;
 import com.graphhopper.util.Helper;
 import com.graphhopper.util.PMap;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.TagMatcher;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.WayTags;
 import org.heigit.ors.routing.graphhopper.extensions.util.PriorityCode;
 
 import java.util.*;
@@ -38,6 +40,8 @@ public class HeavyVehicleFlagEncoder extends VehicleFlagEncoder {
     public static final String KEY_HIGHWAY = "highway";
     public static final String VAL_TRACK = "track";
     public static final String KEY_IMPASSABLE = "impassable";
+    private static final TagMatcher IMPASSABLE = TagMatcher.tag(KEY_IMPASSABLE, "yes");
+    private static final TagMatcher STATUS_IMPASSABLE = TagMatcher.tag(List.of("status", "smoothness"), List.of(KEY_IMPASSABLE));
     protected final HashSet<String> forwardKeys = new HashSet<>(5);
     protected final HashSet<String> backwardKeys = new HashSet<>(5);
     protected final List<String> hgvAccess = new ArrayList<>(5);
@@ -181,7 +185,8 @@ public class HeavyVehicleFlagEncoder extends VehicleFlagEncoder {
         if (!speedLimitHandler.hasSpeedValue(highwayValue))
             return EncodingManager.Access.CAN_SKIP;
 
-        if (way.hasTag(KEY_IMPASSABLE, "yes") || way.hasTag("status", KEY_IMPASSABLE) || way.hasTag("smoothness", KEY_IMPASSABLE))
+        WayTags tags = WayTags.of(way);
+        if (IMPASSABLE.matches(tags) || STATUS_IMPASSABLE.matches(tags))
             return EncodingManager.Access.CAN_SKIP;
 
         // multiple restrictions needs special handling compared to foot and bike, see also motorcycle
@@ -13,50 +13,40 @@
  */
 package org.heigit.ors.routing.graphhopper.extensions.graphbuilders;
 
-import com.carrotsearch.hppc.IntIndexedContainer;
 import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongHashSet;
 import com.graphhopper.GraphHopper;
 import com.graphhopper.coll.LongIntMap;
 import com.graphhopper.reader.ReaderWay;
-import com.graphhopper.routing.Dijkstra;
-import com.graphhopper.routing.Path;
-import com.graphhopper.routing.util.EncodingManager;
-import com.graphhopper.routing.util.FootFlagEncoder;
-import com.graphhopper.routing.util.TraversalMode;
-import com.graphhopper.routing.weighting.FastestWeighting;
-import com.graphhopper.routing.weighting.Weighting;
-import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.IntsRef;
-import com.graphhopper.storage.RAMDirectory;
-import com.graphhopper.util.DistanceCalc;
-import com.graphhopper.util.DistanceCalcEarth;
 import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.StopWatch;
+import org.apache.log4j.Logger;
 import org.heigit.ors.routing.graphhopper.extensions.DataReaderContext;
 import org.locationtech.jts.geom.*;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
 
 public class InFieldGraphBuilder extends AbstractGraphBuilder {
+    private static final Logger LOGGER = Logger.getLogger(InFieldGraphBuilder.class.getName());
+    private static final String PARAM_KEY_MAX_VERTICES = "max_vertices";
+    private static final int DEFAULT_MAX_VERTICES = 1000;
 
     private final GeometryFactory geometryFactory = new GeometryFactory();
-    private final Map<Integer, Integer> intId2idx = new HashMap<>();
-    private final Map<Integer, Integer> idx2intId = new HashMap<>();
-    private final Map<Integer, Long> intId2osmId = new HashMap<>();
-    private final ArrayList<Integer> internalTowerNodeIds = new ArrayList<>();
     private Coordinate[] coordinates;
-    private final Set<ArrayList<Integer>> edges = new HashSet<>();
-    private final ArrayList<Integer> tmpEdge = new ArrayList<>();
-    private List<Weighting> weightings;
-    private EncodingManager encodingManager;
+    private final LongHashSet createdNodePairs = new LongHashSet();
+    private int maxVertices = DEFAULT_MAX_VERTICES;
+    private int processedAreas;
+    private int skippedAreas;
+    private long totalMillis;
+    private long maxMillis;
+    private long maxMillisWayId;
 
     @Override
     public void init(GraphHopper graphhopper) throws Exception {
-        // create local network taken from
-        // https://github.com/graphhopper/graphhopper/blob/0.5/core/src/test/java/com/graphhopper/GraphHopperTest.java#L746
-        FootFlagEncoder footEncoder = new FootFlagEncoder();
-        encodingManager = EncodingManager.create(footEncoder);
-        weightings = new ArrayList<>(1);
-        weightings.add(new FastestWeighting(footEncoder));
+        if (parameters != null && parameters.containsKey(PARAM_KEY_MAX_VERTICES))
+            maxVertices = Integer.parseInt(parameters.get(PARAM_KEY_MAX_VERTICES));
     }
 
     @Override
@@ -64,149 +54,68 @@ public class InFieldGraphBuilder extends AbstractGraphBuilder {
         if (!hasOpenSpace(way, osmNodeIds))
             return false;
 
+        StopWatch sw = new StopWatch().start();
         LongIntMap nodeMap = readerCntx.getNodeMap();
-        Polygon openSpace = osmPolygon2JTS(readerCntx, osmNodeIds);
-
-        internalTowerNodeIds.clear();
-        intId2osmId.clear();
-        idx2intId.clear();
-        intId2idx.clear();
-
-        // fill list with tower nodes
-        // fill map "internal ID 2 OSM ID"
-        for (int j = 0; j < osmNodeIds.size() - 1; j++) {
-            long osmNodeId = osmNodeIds.get(j);
-            int internalOSMId = nodeMap.get(osmNodeId);
-            intId2osmId.put(internalOSMId, osmNodeId);
-            if (internalOSMId < -2) //towernode
-            {
-                internalTowerNodeIds.add(internalOSMId);
+        // the last node closes the ring and is the same as the first one
+        int numVertices = osmNodeIds.size() - 1;
+        int[] internalIds = new int[numVertices];
+        for (int i = 0; i < numVertices; i++)
+            internalIds[i] = nodeMap.get(osmNodeIds.get(i));
+
+        createdNodePairs.clear();
+        if (numVertices >= 3 && numVertices <= maxVertices) {
+            OpenSpaceVisibilityGraph visibilityGraph = new OpenSpaceVisibilityGraph(osmPolygon2JTS(readerCntx, osmNodeIds));
+            // connect every pair of tower nodes by their shortest path through the open space
+            for (int source = 0; source < numVertices; source++) {
+                if (!isTowerNode(internalIds[source]))
+                    continue;
+                int[] predecessors = visibilityGraph.calcShortestPathTree(source);
+                for (int target = source + 1; target < numVertices; target++) {
+                    if (!isTowerNode(internalIds[target]))
+                        continue;
+                    for (int node = target; predecessors[node] >= 0; node = predecessors[node])
+                        addNodePairAsEdgeToGraph(readerCntx, way.getId(), wayFlags, createdEdges, osmNodeIds, internalIds, predecessors[node], node);
+                }
             }
+        } else if (numVertices > maxVertices) {
+            skippedAreas++;
+            LOGGER.debug("Open space of way " + way.getId() + " has " + numVertices + " vertices, more than the maximum of " + maxVertices + ", only its boundary is added.");
         }
 
-        DistanceCalc distCalc = DistanceCalcEarth.DIST_EARTH;
-        try (GraphHopperStorage graphStorage = new GraphHopperStorage(new RAMDirectory(), encodingManager, false).create(20)) {
-            for (int idxMain = 0; idxMain < osmNodeIds.size() - 1; idxMain++) {
-                long mainOsmId = osmNodeIds.get(idxMain);
-                int internalMainId = nodeMap.get(mainOsmId);
-                // coordinates of the first nodes
-                double latMain = readerCntx.getNodeLatitude(internalMainId);
-                double lonMain = readerCntx.getNodeLongitude(internalMainId);
-                // connect the boundary of the open space
-                int idxNeighbor = idxMain + 1;
-                long neighborOsmId = osmNodeIds.get(idxNeighbor);
-                int internalNeighborId = nodeMap.get(neighborOsmId);
-                double latNeighbor = readerCntx.getNodeLatitude(internalNeighborId);
-                double lonNeighbor = readerCntx.getNodeLongitude(internalNeighborId);
-                double distance = distCalc.calcDist(latMain, lonMain, latNeighbor, lonNeighbor);
-                graphStorage.edge(idxMain, idxNeighbor).setDistance(distance);
-                // iterate through remaining nodes,
-                // but not through the direct neighbors
-                for (int idxPartner = idxMain + 2; idxPartner < osmNodeIds.size() - 1; idxPartner++) {
-                    long partnerOsmId = osmNodeIds.get(idxPartner);
-                    int internalPartnerId = nodeMap.get(partnerOsmId);
-                    // coordinates of second nodes
-                    double latPartner = readerCntx.getNodeLatitude(internalPartnerId);
-                    double lonPartner = readerCntx.getNodeLongitude(internalPartnerId);
-                    // connect nodes
-                    LineString ls = geometryFactory.createLineString(new Coordinate[]{new Coordinate(lonMain, latMain), new Coordinate(lonPartner, latPartner)});
-                    // check if new edge is within open space
-                    if (ls.within(openSpace)) {
-                        // compute distance between nodes
-                        distance = distCalc.calcDist(latMain, lonMain, latPartner, lonPartner);
-                        // the index number of the nodes in the local network
-                        // necessary, because it does not accept big values
-                        // fill
-                        intId2idx.put(internalMainId, idxMain);
-                        intId2idx.put(internalPartnerId, idxPartner);
-                        // fill
-                        idx2intId.put(idxMain, internalMainId);
-                        idx2intId.put(idxPartner, internalPartnerId);
-                        // add edge to local graph
-                        graphStorage.edge(idxMain, idxPartner).setDistance(distance);
-                    }
-                }
-            }
+        // add boundary of open space
+        for (int i = 0; i < numVertices; i++)
+            addNodePairAsEdgeToGraph(readerCntx, way.getId(), wayFlags, createdEdges, osmNodeIds, internalIds, i, (i + 1) % numVertices);
 
-            // a set with all created edges.
-            // the nodes which create the edge are stored in a ArrayList.
-            // it is important that the first node is smaller than the second node.
-            // TODO maybe a treeset would make the code more elegant
-            edges.clear();
+        sw.stop();
+        recordTime(way.getId(), numVertices, sw.getMillis());
+        return true;
+    }
 
-            // compute routes between all tower nodes using the local graph
-            for (int i = 0; i < internalTowerNodeIds.size(); i++) {
-                int internalIdTowerStart = internalTowerNodeIds.get(i);
-                // check if tower node is in map
-                // it can miss if no edge is starting from here
-                if (!intId2idx.containsKey(internalIdTowerStart)) {
-                    continue;
-                }
-                int idxTowerStart = intId2idx.get(internalIdTowerStart);
-                for (int j = i + 1; j < internalTowerNodeIds.size(); j++) {
-                    int internalIdTowerDestination = internalTowerNodeIds.get(j);
-                    // check if tower node is in map
-                    // it can miss if no edge is starting from here
-                    if (!intId2idx.containsKey(internalIdTowerDestination)) {
-                        continue;
-                    }
-                    int idxTowerDest = intId2idx.get(internalIdTowerDestination);
-                    // compute route between tower nodes
-                    try {
-                        Dijkstra dijkstra = new Dijkstra(graphStorage, weightings.get(0), TraversalMode.EDGE_BASED);
-                        Path path = dijkstra.calcPath(idxTowerStart, idxTowerDest);
-                        IntIndexedContainer pathNodes = path.calcNodes();
-                        // iterate through nodes of routing result
-                        for (int k = 0; k < pathNodes.size() - 1; k++) {
-                            // local index
-                            int idxNodeA = pathNodes.get(k);
-                            int idxNodeB = pathNodes.get(k + 1);
-                            // internal Node IDs
-                            int nodeA = idx2intId.get(idxNodeA);
-                            int nodeB = idx2intId.get(idxNodeB);
-                            // add to nodes to array sorted
-                            int minNode = Integer.min(nodeA, nodeB);
-                            int maxNode = Integer.max(nodeA, nodeB);
-                            tmpEdge.clear();
-                            tmpEdge.add(minNode);
-                            tmpEdge.add(maxNode);
-                            boolean edgeIsNew = edges.add(tmpEdge);
-                            if (edgeIsNew) {
-                                // it is necessary to get the long node OSM IDs...
-                                long osmNodeA = intId2osmId.get(minNode);
-                                long osmNodeB = intId2osmId.get(maxNode);
-                                addNodePairAsEdgeToGraph(readerCntx, way.getId(), wayFlags, createdEdges, osmNodeA, osmNodeB);
-                            }
-                        }
-                    } catch (Exception ex) {
-                        // do nothing
-                    }
-                }
-            }
+    private static boolean isTowerNode(int internalId) {
+        return internalId < -2;
+    }
 
-            // TODO this loop can maybe be integrated at the part where the boundary edges are handled alread<
-            // add boundary of open space
-            for (int i = 0; i < osmNodeIds.size() - 1; i++) {
-                long osmIdA = osmNodeIds.get(i);
-                long osmIdB = osmNodeIds.get(i + 1);
-                int internalIdA = nodeMap.get(osmIdA);
-                int internalIdB = nodeMap.get(osmIdB);
-                // add to nodes to array sorted
-                int minIntId = Integer.min(internalIdA, internalIdB);
-                int maxIndId = Integer.max(internalIdA, internalIdB);
-                // create a boundary edge
-                tmpEdge.clear();
-                tmpEdge.add(minIntId);
-                tmpEdge.add(maxIndId);
-                // test if already exists
-                boolean edgeIsNew = edges.add(tmpEdge);
-                if (edgeIsNew) {
-                    // edge is added to global GraphHopper graph
-                    addNodePairAsEdgeToGraph(readerCntx, way.getId(), wayFlags, createdEdges, osmIdA, osmIdB);
-                }
-            }
+    private void recordTime(long wayId, int numVertices, long millis) {
+        processedAreas++;
+        totalMillis += millis;
+        if (millis > maxMillis) {
+            maxMillis = millis;
+            maxMillisWayId = wayId;
         }
-        return true;
+        if (LOGGER.isDebugEnabled())
+            LOGGER.debug("Open space of way " + wayId + " with " + numVertices + " vertices processed in " + millis + " ms.");
+    }
+
+    /**
+     * Adds an edge between the nodes at the given positions of the way unless the same pair of nodes has been
+     * connected for this open space already.
+     */
+    private void addNodePairAsEdgeToGraph(DataReaderContext readerCntx, long wayOsmId, IntsRef wayFlags, List<EdgeIteratorState> createdEdges,
+                                          LongArrayList osmNodeIds, int[] internalIds, int idxA, int idxB) {
+        int minId = Integer.min(internalIds[idxA], internalIds[idxB]);
+        int maxId = Integer.max(internalIds[idxA], internalIds[idxB]);
+        if (createdNodePairs.add(((long) minId << 32) | (maxId & 0xFFFFFFFFL)))
+            addNodePairAsEdgeToGraph(readerCntx, wayOsmId, wayFlags, createdEdges, osmNodeIds.get(idxA), osmNodeIds.get(idxB));
     }
 
     private void addNodePairAsEdgeToGraph(DataReaderContext readerCntx, long wayOsmId, IntsRef wayFlags, List<EdgeIteratorState> createdEdges, long node1, long node2) {
@@ -236,7 +145,9 @@ public class InFieldGraphBuilder extends AbstractGraphBuilder {
 
     @Override
     public void finish() {
-        // do nothing
+        if (processedAreas > 0)
+            LOGGER.info("Processed " + processedAreas + " open spaces in " + totalMillis + " ms, the slowest one (way " + maxMillisWayId + ") took "
+                    + maxMillis + " ms, " + skippedAreas + " exceeded the maximum of " + maxVertices + " vertices.");
     }
 
     /* * checks if the OSM way is an open space      *
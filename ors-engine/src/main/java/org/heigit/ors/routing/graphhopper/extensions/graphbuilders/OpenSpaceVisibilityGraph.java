@@ -0,0 +1,181 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.graphbuilders;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.graphhopper.util.DistanceCalc;
+import com.graphhopper.util.DistanceCalcEarth;
+import org.locationtech.jts.algorithm.Orientation;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.geom.*;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Visibility graph of the boundary vertices of an open space polygon. Two vertices are connected if the straight line
+ * between them lies within the polygon, and consecutive vertices are always connected along the boundary.
+ * <p>
+ * Visibility is decided without a topological predicate per vertex pair: the polygon segments close to the line are
+ * looked up in a spatial index, a proper crossing with any of them rules the line out, and otherwise the pieces
+ * between the boundary vertices touched by the line are classified with an indexed point-in-polygon locator.
+ * The graph is kept as a dense distance matrix, which suits the many edges of a visibility graph.
+ */
+class OpenSpaceVisibilityGraph {
+    private final Coordinate[] vertices;
+    private final int size;
+    private final STRtree segmentIndex = new STRtree();
+    private final IndexedPointInAreaLocator locator;
+    private final double[] distances;
+    private final DoubleArrayList touches = new DoubleArrayList();
+    private final Coordinate testPoint = new Coordinate();
+
+    OpenSpaceVisibilityGraph(Polygon openSpace) {
+        // the ring is closed, so its last coordinate repeats the first one
+        vertices = openSpace.getExteriorRing().getCoordinates();
+        size = vertices.length - 1;
+        locator = new IndexedPointInAreaLocator(openSpace);
+
+        for (int i = 0; i < size; i++)
+            segmentIndex.insert(new Envelope(vertices[i], vertices[i + 1]), new LineSegment(vertices[i], vertices[i + 1]));
+        segmentIndex.build();
+
+        distances = new double[size * size];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        for (int a = 0; a < size; a++) {
+            setDistance(a, (a + 1) % size);
+            // direct neighbours are connected along the boundary already
+            for (int b = a + 2; b < size; b++) {
+                if ((b + 1) % size != a && isVisible(a, b))
+                    setDistance(a, b);
+            }
+        }
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    private void setDistance(int a, int b) {
+        DistanceCalc distCalc = DistanceCalcEarth.DIST_EARTH;
+        double distance = distCalc.calcDist(vertices[a].y, vertices[a].x, vertices[b].y, vertices[b].x);
+        distances[a * size + b] = distance;
+        distances[b * size + a] = distance;
+    }
+
+    boolean isConnected(int a, int b) {
+        return distances[a * size + b] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks whether the straight line between two vertices lies within the open space, i.e. no part of it is outside
+     * the polygon and some part of it is in the interior rather than on the boundary.
+     */
+    boolean isVisible(int a, int b) {
+        Coordinate pa = vertices[a];
+        Coordinate pb = vertices[b];
+        if (pa.equals2D(pb))
+            return false;
+
+        // fractions along the line at which it touches a vertex of the boundary
+        touches.clear();
+        touches.add(0);
+        touches.add(1);
+        List<?> segments = segmentIndex.query(new Envelope(pa, pb));
+        for (Object item : segments) {
+            LineSegment segment = (LineSegment) item;
+            if (crossesProperly(pa, pb, segment.p0, segment.p1))
+                return false;
+            // every vertex is the start of exactly one segment
+            double fraction = calcFractionOnLine(pa, pb, segment.p0);
+            if (fraction > 0 && fraction < 1)
+                touches.add(fraction);
+        }
+        Arrays.sort(touches.buffer, 0, touches.size());
+
+        // without proper crossings each piece between two touches is entirely inside, outside or on the boundary
+        boolean hasInteriorPiece = false;
+        for (int i = 1; i < touches.size(); i++) {
+            double from = touches.get(i - 1);
+            double to = touches.get(i);
+            if (to <= from)
+                continue;
+            double mid = (from + to) / 2;
+            testPoint.x = pa.x + mid * (pb.x - pa.x);
+            testPoint.y = pa.y + mid * (pb.y - pa.y);
+            int location = locator.locate(testPoint);
+            if (location == Location.EXTERIOR)
+                return false;
+            if (location == Location.INTERIOR)
+                hasInteriorPiece = true;
+        }
+        return hasInteriorPiece;
+    }
+
+    private static boolean crossesProperly(Coordinate pa, Coordinate pb, Coordinate p0, Coordinate p1) {
+        return Orientation.index(pa, pb, p0) * Orientation.index(pa, pb, p1) < 0
+                && Orientation.index(p0, p1, pa) * Orientation.index(p0, p1, pb) < 0;
+    }
+
+    /**
+     * @return the position of p on the line from pa to pb as a fraction of its length, or -1 if p is not on the line
+     */
+    private static double calcFractionOnLine(Coordinate pa, Coordinate pb, Coordinate p) {
+        if (Orientation.index(pa, pb, p) != Orientation.COLLINEAR)
+            return -1;
+        double dx = pb.x - pa.x;
+        double dy = pb.y - pa.y;
+        return ((p.x - pa.x) * dx + (p.y - pa.y) * dy) / (dx * dx + dy * dy);
+    }
+
+    /**
+     * Computes the shortest paths from a vertex to all other vertices. As the graph is dense, the next node to settle
+     * is found by a linear scan instead of a priority queue.
+     *
+     * @return the predecessor of every vertex on its shortest path from source, or -1 for source and unreachable vertices
+     */
+    int[] calcShortestPathTree(int source) {
+        double[] weights = new double[size];
+        int[] predecessors = new int[size];
+        boolean[] settled = new boolean[size];
+        Arrays.fill(weights, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessors, -1);
+        weights[source] = 0;
+
+        for (int i = 0; i < size; i++) {
+            int node = -1;
+            double nodeWeight = Double.POSITIVE_INFINITY;
+            for (int v = 0; v < size; v++) {
+                if (!settled[v] && weights[v] < nodeWeight) {
+                    node = v;
+                    nodeWeight = weights[v];
+                }
+            }
+            if (node < 0)
+                break;
+            settled[node] = true;
+
+            int row = node * size;
+            for (int v = 0; v < size; v++) {
+                double weight = nodeWeight + distances[row + v];
+                if (!settled[v] && weight < weights[v]) {
+                    weights[v] = weight;
+                    predecessors[v] = node;
+                }
+            }
+        }
+        return predecessors;
+    }
+}
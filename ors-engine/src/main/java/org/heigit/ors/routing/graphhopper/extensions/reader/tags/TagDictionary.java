@@ -0,0 +1,74 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.reader.tags;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary of OSM tag keys and values interned to integer ids.
+ * <p>
+ * Keys are interned as they are encountered on ways, as their number is limited. Values are only interned when a
+ * {@link TagMatcher} is compiled for them, so that free-text values such as names do not fill the dictionary; all
+ * other values are looked up as {@link #UNKNOWN}. Lookups are lock-free and safe to use from concurrent imports.
+ */
+public final class TagDictionary {
+    public static final int UNKNOWN = -1;
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] strings = new String[1024];
+
+    private TagDictionary() {
+    }
+
+    /**
+     * @return the id of the string, interning it if it is not yet known
+     */
+    public static int getId(String value) {
+        Integer id = IDS.get(value);
+        return id != null ? id : intern(value);
+    }
+
+    /**
+     * @return the id of the string or {@link #UNKNOWN} if it has not been interned
+     */
+    public static int lookup(String value) {
+        Integer id = IDS.get(value);
+        return id != null ? id : UNKNOWN;
+    }
+
+    public static String getString(int id) {
+        return strings[id];
+    }
+
+    /**
+     * @return the number of interned strings, which changes whenever a new string is interned
+     */
+    public static int size() {
+        return IDS.size();
+    }
+
+    private static synchronized int intern(String value) {
+        Integer id = IDS.get(value);
+        if (id != null)
+            return id;
+        int newId = IDS.size();
+        if (newId == strings.length)
+            strings = Arrays.copyOf(strings, newId * 2);
+        // the string has to be stored before its id is published
+        strings[newId] = value;
+        IDS.put(value, newId);
+        return newId;
+    }
+}
@@ -0,0 +1,110 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.reader.tags;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.cursors.IntIntCursor;
+import com.graphhopper.reader.ReaderWay;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Condition on the tags of a way which is compiled to dictionary ids once, so that matching a way only compares
+ * integers instead of strings.
+ * <p>
+ * Matchers are immutable and can be shared between threads, e.g. as constants of flag encoders and graph storage
+ * builders. They correspond to the {@code hasTag} methods of {@link ReaderWay}:
+ * <pre>
+ *     TagMatcher.key("highway")                     way.hasTag("highway")
+ *     TagMatcher.tag("route", "ferry", "train")     way.hasTag("route", "ferry", "train")
+ *     TagMatcher.tag(keys, values)                  way.hasTag(keys, values)
+ * </pre>
+ */
+public final class TagMatcher {
+    private final int[] keyIds;
+    // null if any value matches
+    private final IntHashSet valueIds;
+    // only set for matchers of key prefixes
+    private final String keyPrefix;
+
+    private TagMatcher(int[] keyIds, IntHashSet valueIds, String keyPrefix) {
+        this.keyIds = keyIds;
+        this.valueIds = valueIds;
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * @return a matcher of ways having any of the keys, regardless of the value
+     */
+    public static TagMatcher key(String... keys) {
+        return new TagMatcher(toIds(Arrays.asList(keys)), null, null);
+    }
+
+    /**
+     * @return a matcher of ways having the key with one of the values
+     */
+    public static TagMatcher tag(String key, String... values) {
+        return tag(List.of(key), Arrays.asList(values));
+    }
+
+    /**
+     * @return a matcher of ways having any of the keys with one of the values
+     */
+    public static TagMatcher tag(Collection<String> keys, Collection<String> values) {
+        return new TagMatcher(toIds(keys), toIdSet(values), null);
+    }
+
+    /**
+     * @return a matcher of ways having a key starting with the prefix with one of the values
+     */
+    public static TagMatcher keyPrefix(String prefix, String... values) {
+        return new TagMatcher(new int[0], toIdSet(Arrays.asList(values)), prefix);
+    }
+
+    public boolean matches(ReaderWay way) {
+        return matches(WayTags.of(way));
+    }
+
+    public boolean matches(WayTags tags) {
+        if (keyPrefix != null)
+            return matchesPrefix(tags);
+        for (int keyId : keyIds) {
+            if (valueIds == null ? tags.hasKey(keyId) : valueIds.contains(tags.getValueId(keyId)))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean matchesPrefix(WayTags tags) {
+        // the values are more selective than the prefix, so the keys are only compared for matching values
+        for (IntIntCursor tag : tags.entries()) {
+            if (valueIds.contains(tag.value) && TagDictionary.getString(tag.key).startsWith(keyPrefix))
+                return true;
+        }
+        return false;
+    }
+
+    private static int[] toIds(Collection<String> keys) {
+        return keys.stream().mapToInt(TagDictionary::getId).toArray();
+    }
+
+    private static IntHashSet toIdSet(Collection<String> values) {
+        IntHashSet ids = new IntHashSet(values.size());
+        for (String value : values)
+            ids.add(TagDictionary.getId(value));
+        return ids;
+    }
+}
@@ -0,0 +1,88 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.reader.tags;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.cursors.IntIntCursor;
+import com.graphhopper.reader.ReaderWay;
+
+import java.util.Map;
+
+/**
+ * The tags of a way with keys and values replaced by their ids in the {@link TagDictionary}.
+ * <p>
+ * Each thread keeps the tags of the way it has interned last, so that all flag encoders and graph storage builders
+ * processing the same way share a single interning. The tags are interned again if another way is passed, if the
+ * number of tags of the way or the dictionary have changed, or explicitly through {@link #refresh(ReaderWay)} after
+ * values of existing tags have been overwritten.
+ */
+public final class WayTags {
+    private static final ThreadLocal<WayTags> CURRENT = ThreadLocal.withInitial(WayTags::new);
+
+    private final IntIntHashMap values = new IntIntHashMap();
+    private ReaderWay way;
+    private int tagCount;
+    private int dictionarySize;
+
+    private WayTags() {
+    }
+
+    /**
+     * @return the interned tags of the way, valid until the next call on the same thread
+     */
+    public static WayTags of(ReaderWay way) {
+        WayTags tags = CURRENT.get();
+        if (tags.way != way || tags.tagCount != way.getTags().size() || tags.dictionarySize != TagDictionary.size())
+            tags.intern(way);
+        return tags;
+    }
+
+    /**
+     * Intern the tags of the way regardless of whether they have been interned before.
+     */
+    public static WayTags refresh(ReaderWay way) {
+        WayTags tags = CURRENT.get();
+        tags.intern(way);
+        return tags;
+    }
+
+    private void intern(ReaderWay way) {
+        values.clear();
+        Map<String, Object> tags = way.getTags();
+        for (Map.Entry<String, Object> tag : tags.entrySet()) {
+            Object value = tag.getValue();
+            values.put(TagDictionary.getId(tag.getKey()), value instanceof String s ? TagDictionary.lookup(s) : TagDictionary.UNKNOWN);
+        }
+        this.way = way;
+        tagCount = tags.size();
+        // read after interning, as new keys change the size
+        dictionarySize = TagDictionary.size();
+    }
+
+    public boolean hasKey(int keyId) {
+        return values.containsKey(keyId);
+    }
+
+    /**
+     * @return the id of the value of the key, or {@link TagDictionary#UNKNOWN} if the way does not have the key or
+     * its value has not been interned
+     */
+    public int getValueId(int keyId) {
+        return values.getOrDefault(keyId, TagDictionary.UNKNOWN);
+    }
+
+    Iterable<IntIntCursor> entries() {
+        return values;
+    }
+}
@@ -13,29 +13,31 @@
  */
 package org.heigit.ors.routing.graphhopper.extensions.reader.traffic;
 
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.IntObjectHashMap;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
 import com.graphhopper.util.DistanceCalcEarth;
 import org.apache.log4j.Logger;
 import org.geotools.data.FileDataStore;
 import org.geotools.data.FileDataStoreFinder;
-import org.geotools.data.simple.SimpleFeatureCollection;
 import org.geotools.data.simple.SimpleFeatureIterator;
-import org.geotools.data.simple.SimpleFeatureSource;
-import org.geotools.feature.DefaultFeatureCollection;
-import org.heigit.ors.util.CSVUtility;
-import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.MultiLineString;
-import org.locationtech.jts.io.ParseException;
-import org.locationtech.jts.io.WKTReader;
-import org.opengis.feature.Property;
 import org.opengis.feature.simple.SimpleFeature;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InvalidObjectException;
-import java.util.*;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class HereTrafficReader {
     private static final Logger LOGGER = Logger.getLogger(HereTrafficReader.class);
+    static final int NO_PATTERN = -1;
 
     private boolean isInitialized;
     private final String streetGeometriesFile;
@@ -76,18 +78,27 @@ public class HereTrafficReader {
         if (streetGeometriesFile.equals("") || patternsFile.equals("") || patternsReferenceFile.equals(""))
             return;
         try {
-            SimpleFeatureCollection rawGeometries = readHereGeometries();
-            createHereGeometries(rawGeometries);
-            LOGGER.info("Here link geometries pre-processed");
-
-            HashMap<Integer, EnumMap<TrafficEnums.TravelDirection, Integer[]>> referencePatterns = readRefPatterns();
+            IntObjectHashMap<int[]> referencePatterns = readRefPatterns(patternsReferenceFile);
             LOGGER.info("Here reference patterns pre-processed");
 
-            Map<Integer, TrafficPattern> patterns = readPatterns();
+            IntHashSet referencedPatternIds = new IntHashSet();
+            for (ObjectCursor<int[]> references : referencePatterns.values()) {
+                for (int patternId : references.value) {
+                    if (patternId != NO_PATTERN)
+                        referencedPatternIds.add(patternId);
+                }
+            }
+            IntObjectHashMap<TrafficPattern> patterns = new IntObjectHashMap<>();
+            IntIntHashMap patternAliases = readPatterns(patternsFile, referencedPatternIds, patterns);
             LOGGER.info("Here patterns pre-processed");
 
+            IntHashSet usedPatternIds = readHereGeometries(referencePatterns, patterns, patternAliases);
+            LOGGER.info("Here link geometries pre-processed");
 
-            generatePatterns(referencePatterns, patterns);
+            for (ObjectCursor<TrafficPattern> pattern : patterns.values()) {
+                if (usedPatternIds.contains(pattern.value.getPatternId()))
+                    hereTrafficData.setPattern(pattern.value);
+            }
             LOGGER.info("Here input data processed successfully");
 
             isInitialized = true;
@@ -103,136 +114,127 @@ public class HereTrafficReader {
         return this.isInitialized;
     }
 
-    private void generatePatterns(HashMap<Integer, EnumMap<TrafficEnums.TravelDirection, Integer[]>> referencePatterns, Map<Integer, TrafficPattern> patterns) {
-        for (Map.Entry<Integer, EnumMap<TrafficEnums.TravelDirection, Integer[]>> linkIdEntry : referencePatterns.entrySet()) {
-            Integer linkId = linkIdEntry.getKey();
-            if (hereTrafficData.hasLink(linkId)) {
-                TrafficLink link = hereTrafficData.getLink(linkId);
-                EnumMap<TrafficEnums.TravelDirection, Integer[]> travelDirectionPatterns = referencePatterns.get(linkId);
-                if (travelDirectionPatterns.containsKey(TrafficEnums.TravelDirection.TO)) {
-                    Integer[] travelPatternReferences = travelDirectionPatterns.get(TrafficEnums.TravelDirection.TO);
-                    for (int i = 0; i < travelPatternReferences.length; i++) {
-                        Integer patternReference = travelPatternReferences[i];
-                        if (patterns.containsKey(patternReference)) {
-                            hereTrafficData.setPattern(patterns.get(patternReference));
-                            link.setTrafficPatternId(TrafficEnums.TravelDirection.TO, TrafficEnums.WeekDay.values()[i], patternReference);
-                        }
-                    }
-                } else if (travelDirectionPatterns.containsKey(TrafficEnums.TravelDirection.FROM)) {
-                    Integer[] travelPatternReferences = travelDirectionPatterns.get(TrafficEnums.TravelDirection.FROM);
-                    for (int i = 0; i < travelPatternReferences.length; i++) {
-                        Integer patternReference = travelPatternReferences[i];
-                        if (patterns.containsKey(patternReference)) {
-                            hereTrafficData.setPattern(patterns.get(patternReference));
-                            link.setTrafficPatternId(TrafficEnums.TravelDirection.FROM, TrafficEnums.WeekDay.values()[i], patternReference);
-                        }
-                    }
+    /**
+     * Read the pattern references of the links line by line. Links with rows for both travel directions get the
+     * references of both.
+     *
+     * @return The pattern ids of each link, indexed by travel direction and week day, {@link #NO_PATTERN} if missing
+     */
+    static IntObjectHashMap<int[]> readRefPatterns(String file) throws IOException {
+        IntObjectHashMap<int[]> referencePatterns = new IntObjectHashMap<>();
+        int weekDays = TrafficEnums.WeekDay.values().length;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file))) {
+            // skip the header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",");
+                if (values.length != weekDays + 2)
+                    // Skip this entry as its not a complete week pattern.
+                    continue;
+                TrafficEnums.TravelDirection travelDirection = TrafficEnums.TravelDirection.forValue(values[1]);
+                if (travelDirection == null)
+                    continue;
+                int linkId = Integer.parseInt(values[0].trim());
+                int[] references = referencePatterns.get(linkId);
+                if (references == null) {
+                    references = new int[2 * weekDays];
+                    Arrays.fill(references, NO_PATTERN);
+                    referencePatterns.put(linkId, references);
                 }
-
-                hereTrafficData.setLink(link);
+                for (int i = 0; i < weekDays; i++)
+                    references[travelDirection.ordinal() * weekDays + i] = Integer.parseInt(values[i + 2].trim());
             }
         }
+        return referencePatterns;
     }
 
-    private HashMap<Integer, EnumMap<TrafficEnums.TravelDirection, Integer[]>> readRefPatterns() {
-        List<List<String>> rawPatternReferenceList = CSVUtility.readFile(patternsReferenceFile);
-        HashMap<Integer, EnumMap<TrafficEnums.TravelDirection, Integer[]>> processedPatternReferenceList = new HashMap<>();
-        for (List<String> rawPatternReference : rawPatternReferenceList) {
-            EnumMap<TrafficEnums.TravelDirection, Integer[]> patternMap = new EnumMap<>(TrafficEnums.TravelDirection.class);
-            Integer linkId = Integer.parseInt(rawPatternReference.get(0));
-            TrafficEnums.TravelDirection travelDirection = TrafficEnums.TravelDirection.forValue(rawPatternReference.get(1));
-            if (travelDirection == null || rawPatternReference.size() != 9) {
-                // Skip this entry as its not a complete week pattern.
-                continue;
-            }
-            Integer[] patternList = new Integer[rawPatternReference.size() - 2];
-            for (int i = 2; i < rawPatternReference.size(); i++) {
-                patternList[i - 2] = Integer.parseInt(rawPatternReference.get(i));
-            }
-            patternMap.put(travelDirection, patternList);
-            processedPatternReferenceList.put(linkId, patternMap);
-        }
-        return processedPatternReferenceList;
-    }
-
-    private Map<Integer, TrafficPattern> readPatterns() {
-        List<List<String>> patterns = CSVUtility.readFile(patternsFile);
-        Map<Integer, TrafficPattern> hereTrafficPatterns = new HashMap<>();
-        for (List<String> pattern : patterns) {
-            int patternID = Integer.parseInt(pattern.get(0));
-            short[] patternValues = new short[pattern.size() - 1];
-            for (int i = 1; i < pattern.size(); i++) {
-                patternValues[i - 1] = Short.parseShort(pattern.get(i));
-            }
-            TrafficPattern hereTrafficPattern = new TrafficPattern(patternID, TrafficEnums.PatternResolution.MINUTES_15, patternValues);
-            hereTrafficPatterns.put(patternID, hereTrafficPattern);
-        }
-        return hereTrafficPatterns;
-    }
-
-
     /**
-     * Method to read the geometries from a GeoJSON file that represent the boundaries of different countries. Ideally
-     * it should be written using many small objects split into hierarchies.
-     * <p>
-     * If the file is a .tar.gz format, it will decompress it and then store the reulting data to be read into the
-     * JSON object.
+     * Read the referenced speed patterns line by line. Patterns with the same values as a pattern read before are not
+     * kept, their id is mapped to the id of that pattern instead.
      *
-     * @return A (Geo)JSON object representing the contents of the file
+     * @param referencedPatternIds ids of the patterns to read, all others are skipped
+     * @param patterns             map to put the distinct patterns into
+     * @return the ids of identical patterns mapped to the id of the pattern that is kept
      */
-    private SimpleFeatureCollection readHereGeometries() throws IOException {
-        SimpleFeatureCollection collection = new DefaultFeatureCollection();
-        try {
-            File file = new File(streetGeometriesFile);
-            FileDataStore store = FileDataStoreFinder.getDataStore(file);
-            SimpleFeatureSource featureSource = store.getFeatureSource();
-            collection = featureSource.getFeatures();
-        } catch (IOException e) {
-            LOGGER.error("Error reading here shape file with error: " + e);
-            throw e;
-        } catch (Exception e) {
-            LOGGER.error("Unknown error while reading here shape file with error: " + e);
-            throw e;
+    static IntIntHashMap readPatterns(String file, IntHashSet referencedPatternIds, IntObjectHashMap<TrafficPattern> patterns) throws IOException {
+        IntIntHashMap patternAliases = new IntIntHashMap();
+        Map<ShortBuffer, Integer> distinctPatterns = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file))) {
+            // skip the header
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(',');
+                if (separator < 0)
+                    continue;
+                int patternId = Integer.parseInt(line.substring(0, separator).trim());
+                if (!referencedPatternIds.contains(patternId))
+                    continue;
+                String[] values = line.substring(separator + 1).split(",");
+                short[] patternValues = new short[values.length];
+                for (int i = 0; i < values.length; i++)
+                    patternValues[i] = Short.parseShort(values[i].trim());
+                Integer existingId = distinctPatterns.putIfAbsent(ShortBuffer.wrap(patternValues), patternId);
+                if (existingId == null)
+                    patterns.put(patternId, new TrafficPattern(patternId, TrafficEnums.PatternResolution.MINUTES_15, patternValues));
+                else
+                    patternAliases.put(patternId, existingId);
+            }
         }
-        return collection;
+        if (!patternAliases.isEmpty())
+            LOGGER.info(patternAliases.size() + " identical Here patterns merged");
+        return patternAliases;
     }
 
     /**
-     * Construct the Here Links from the raw featureCollection
+     * Read the link geometries feature by feature from the shape file and create the links which have pattern
+     * references.
      *
-     * @param featureCollection Raw featureCollection.
+     * @param referencePatterns pattern references of the links
+     * @param patterns          the distinct patterns
+     * @param patternAliases    ids of identical patterns mapped to the id of the pattern that is kept
+     * @return the ids of the patterns referenced by the created links
      */
-    private void createHereGeometries(SimpleFeatureCollection featureCollection) throws InvalidObjectException {
-        if (featureCollection == null || featureCollection.isEmpty()) {
-            return;
-        }
+    private IntHashSet readHereGeometries(IntObjectHashMap<int[]> referencePatterns, IntObjectHashMap<TrafficPattern> patterns, IntIntHashMap patternAliases) throws IOException {
+        IntHashSet usedPatternIds = new IntHashSet();
+        FileDataStore store = FileDataStoreFinder.getDataStore(new File(streetGeometriesFile));
+        if (store == null)
+            throw new IOException("Unsupported here shape file " + streetGeometriesFile);
         int linkCounter = 0;
-        SimpleFeatureIterator iterator = featureCollection.features();
-        GeometryFactory gf = new GeometryFactory();
-        WKTReader reader = new WKTReader(gf);
-        try {
+        int weekDays = TrafficEnums.WeekDay.values().length;
+        try (SimpleFeatureIterator iterator = store.getFeatureSource().getFeatures().features()) {
             while (iterator.hasNext()) {
                 SimpleFeature feature = iterator.next();
+                linkCounter += 1;
                 int linkId = Integer.parseInt(String.valueOf(feature.getAttribute("LINK_ID")));
+                int[] references = referencePatterns.get(linkId);
+                // links without traffic patterns are never matched
+                if (references == null)
+                    continue;
                 MultiLineString defaultGeometry = (MultiLineString) feature.getDefaultGeometry();
-                Collection<Property> properties = feature.getProperties();
-                if (defaultGeometry.getNumGeometries() == 1) {
-                    String geometryString = defaultGeometry.getGeometryN(0).toText();
-                    try {
-                        hereTrafficData.setLink(new TrafficLink(linkId, reader.read(geometryString), properties, distCalc));
-                    } catch (ParseException e) {
-                        LOGGER.info("Couldn't parse here geometry for Link_ID: " + linkId);
-                    }
-                } else {
+                if (defaultGeometry.getNumGeometries() != 1) {
                     LOGGER.debug("Geometry malformed. Skip parsing here geometry for Link_ID: " + linkId);
+                    continue;
                 }
-                // process feature
-                linkCounter += 1;
+                TrafficLink link = new TrafficLink(linkId, defaultGeometry.getGeometryN(0), feature.getProperties(), distCalc);
+                for (int i = 0; i < references.length; i++) {
+                    if (references[i] == NO_PATTERN)
+                        continue;
+                    int patternId = patternAliases.getOrDefault(references[i], references[i]);
+                    if (!patterns.containsKey(patternId))
+                        continue;
+                    usedPatternIds.add(patternId);
+                    link.setTrafficPatternId(TrafficEnums.TravelDirection.values()[i / weekDays], TrafficEnums.WeekDay.values()[i % weekDays], patternId);
+                }
+                hereTrafficData.setLink(link);
             }
+        } catch (IOException e) {
+            LOGGER.error("Error reading here shape file with error: " + e);
+            throw e;
         } finally {
-            iterator.close();
+            store.dispose();
         }
         LOGGER.info(linkCounter + " Here links found");
+        return usedPatternIds;
     }
 
     public TrafficData getHereTrafficData() {
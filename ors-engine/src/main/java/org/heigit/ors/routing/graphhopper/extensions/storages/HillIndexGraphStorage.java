@@ -74,6 +74,10 @@ public class HillIndexGraphStorage implements GraphExtension {
         return edgesCount;
     }
 
+    public int getEdgeEntryBytes() {
+        return edgeEntryBytes;
+    }
+
     public boolean loadExisting() {
         if (!orsEdges.loadExisting())
             throw new IllegalStateException("Unable to load storage 'ext_hillindex'. corrupt file or directory?");
@@ -0,0 +1,170 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import com.graphhopper.storage.*;
+
+/**
+ * Packs the edge attributes used by the soft weightings into a single int per edge, so that all of them are read
+ * with one storage access. The record is filled from the individual storages when the graph is built.
+ * <pre>
+ * bits  0 -  5: green level [0, 63]
+ * bits  6 -  7: noise level [0, 3]
+ * bits  8 - 14: shadow index [0, 100]
+ * bits 15 - 20: hill index
+ * bits 21 - 26: reverse hill index
+ * </pre>
+ */
+public class SoftWeightingAttributesGraphStorage implements GraphExtension {
+    public static final int GREEN = 1;
+    public static final int NOISE = 2;
+    public static final int SHADOW = 4;
+    public static final int HILL = 8;
+
+    public static final int GREEN_LEVELS = 64;
+    public static final int NOISE_LEVELS = 4;
+    public static final int SHADOW_LEVELS = 128;
+    public static final int HILL_LEVELS = 64;
+
+    private static final int NOISE_SHIFT = 6;
+    private static final int SHADOW_SHIFT = 8;
+    private static final int HILL_SHIFT = 15;
+    private static final int REVERSE_HILL_SHIFT = 21;
+
+    private DataAccess orsEdges;
+    private final int edgeEntryBytes;
+    private int edgesCount;
+    private int attributes;
+
+    public SoftWeightingAttributesGraphStorage() {
+        edgeEntryBytes = 4;
+        edgesCount = 0;
+    }
+
+    @Override
+    public void init(Graph graph, Directory dir) {
+        if (edgesCount > 0)
+            throw new AssertionError("The ORS storage must be initialized only once.");
+
+        this.orsEdges = dir.find("ext_softweighting");
+    }
+
+    /**
+     * initializes the extended storage to be empty - required for testing purposes as the ext_storage aren't created
+     * at the time tests are run
+     */
+    public void init() {
+        if (edgesCount > 0)
+            throw new AssertionError("The ORS storage must be initialized only once.");
+        Directory d = new RAMDirectory();
+        this.orsEdges = d.find("");
+    }
+
+    /**
+     * @param attributes the attributes contained in the records as a combination of {@link #GREEN}, {@link #NOISE},
+     *                   {@link #SHADOW} and {@link #HILL}
+     */
+    public void setAttributes(int attributes) {
+        this.attributes = attributes;
+    }
+
+    public boolean hasAttribute(int attribute) {
+        return (attributes & attribute) != 0;
+    }
+
+    /**
+     * @return true if no records have been built, e.g. because none of the storages to pack is configured
+     */
+    public boolean isEmpty() {
+        return attributes == 0 || edgesCount == 0;
+    }
+
+    public void setEdgeValue(int edgeId, int greenLevel, int noiseLevel, int shadowIndex, int hillIndex, int reverseHillIndex) {
+        edgesCount++;
+        orsEdges.ensureCapacity(((long) edgeId + 1) * edgeEntryBytes);
+
+        int row = clamp(greenLevel, GREEN_LEVELS)
+                | clamp(noiseLevel, NOISE_LEVELS) << NOISE_SHIFT
+                | clamp(shadowIndex, SHADOW_LEVELS) << SHADOW_SHIFT
+                | clamp(hillIndex, HILL_LEVELS) << HILL_SHIFT
+                | clamp(reverseHillIndex, HILL_LEVELS) << REVERSE_HILL_SHIFT;
+        orsEdges.setInt((long) edgeId * edgeEntryBytes, row);
+    }
+
+    private static int clamp(int value, int levels) {
+        return Math.max(0, Math.min(value, levels - 1));
+    }
+
+    /**
+     * @return the packed record of the edge, to be decoded with the static getters of this class
+     */
+    public int getEdgeValue(int edgeId) {
+        return orsEdges.getInt((long) edgeId * edgeEntryBytes);
+    }
+
+    public static int getGreenLevel(int row) {
+        return row & (GREEN_LEVELS - 1);
+    }
+
+    public static int getNoiseLevel(int row) {
+        return (row >>> NOISE_SHIFT) & (NOISE_LEVELS - 1);
+    }
+
+    public static int getShadowIndex(int row) {
+        return (row >>> SHADOW_SHIFT) & (SHADOW_LEVELS - 1);
+    }
+
+    public static int getHillIndex(int row, boolean reverse) {
+        return (row >>> (reverse ? REVERSE_HILL_SHIFT : HILL_SHIFT)) & (HILL_LEVELS - 1);
+    }
+
+    @Override
+    public boolean loadExisting() {
+        if (!orsEdges.loadExisting())
+            throw new IllegalStateException("Unable to load storage 'ext_softweighting'. corrupt file or directory?");
+
+        edgesCount = orsEdges.getHeader(4);
+        attributes = orsEdges.getHeader(8);
+        return true;
+    }
+
+    @Override
+    public SoftWeightingAttributesGraphStorage create(long initBytes) {
+        orsEdges.create(initBytes * edgeEntryBytes);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        orsEdges.setHeader(0, edgeEntryBytes);
+        orsEdges.setHeader(4, edgesCount);
+        orsEdges.setHeader(8, attributes);
+        orsEdges.flush();
+    }
+
+    @Override
+    public void close() {
+        orsEdges.close();
+    }
+
+    @Override
+    public long getCapacity() {
+        return orsEdges.getCapacity();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return false;
+    }
+}
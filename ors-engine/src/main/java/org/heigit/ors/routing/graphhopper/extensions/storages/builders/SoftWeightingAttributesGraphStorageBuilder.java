@@ -0,0 +1,99 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.storages.builders;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.reader.ReaderWay;
+import com.graphhopper.storage.GraphExtension;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.util.EdgeIteratorState;
+import org.apache.log4j.Logger;
+import org.heigit.ors.routing.graphhopper.extensions.storages.*;
+
+/**
+ * Builds the packed soft weighting record of every edge from the green, noise, shadow and hill index storages once
+ * all edges have been imported. The storages to pack need to be configured for the profile as well.
+ */
+public class SoftWeightingAttributesGraphStorageBuilder extends AbstractGraphStorageBuilder {
+    private static final Logger LOGGER = Logger.getLogger(SoftWeightingAttributesGraphStorageBuilder.class.getName());
+
+    private GraphHopper graphhopper;
+    private SoftWeightingAttributesGraphStorage storage;
+
+    @Override
+    public GraphExtension init(GraphHopper graphhopper) throws Exception {
+        if (storage != null)
+            throw new Exception("GraphStorageBuilder has been already initialized.");
+
+        this.graphhopper = graphhopper;
+        storage = new SoftWeightingAttributesGraphStorage();
+        return storage;
+    }
+
+    @Override
+    public void processWay(ReaderWay way) {
+        // do nothing
+    }
+
+    @Override
+    public void processEdge(ReaderWay way, EdgeIteratorState edge) {
+        // the record is built from the other storages once all edges are known
+    }
+
+    @Override
+    public void finish() {
+        GraphHopperStorage graphStorage = graphhopper.getGraphHopperStorage();
+        GreenIndexGraphStorage greenStorage = GraphStorageUtils.getGraphExtension(graphStorage, GreenIndexGraphStorage.class);
+        NoiseIndexGraphStorage noiseStorage = GraphStorageUtils.getGraphExtension(graphStorage, NoiseIndexGraphStorage.class);
+        ShadowIndexGraphStorage shadowStorage = GraphStorageUtils.getGraphExtension(graphStorage, ShadowIndexGraphStorage.class);
+        HillIndexGraphStorage hillStorage = GraphStorageUtils.getGraphExtension(graphStorage, HillIndexGraphStorage.class);
+
+        int attributes = 0;
+        if (greenStorage != null)
+            attributes |= SoftWeightingAttributesGraphStorage.GREEN;
+        if (noiseStorage != null)
+            attributes |= SoftWeightingAttributesGraphStorage.NOISE;
+        if (shadowStorage != null)
+            attributes |= SoftWeightingAttributesGraphStorage.SHADOW;
+        if (hillStorage != null)
+            attributes |= SoftWeightingAttributesGraphStorage.HILL;
+        storage.setAttributes(attributes);
+        if (attributes == 0) {
+            LOGGER.warn("No green, noise, shadow or hill index storage found, soft weightings are evaluated without packed records.");
+            return;
+        }
+
+        byte[] buffer = new byte[2];
+        int edges = graphStorage.getEdges();
+        for (int edge = 0; edge < edges; edge++) {
+            // edges which none of the builders has processed lie beyond the capacity of the storages and keep level 0
+            int greenLevel = greenStorage != null && edge < greenStorage.getCapacity() ? greenStorage.getEdgeValue(edge, buffer) : 0;
+            int noiseLevel = noiseStorage != null && edge < noiseStorage.getCapacity() ? noiseStorage.getEdgeValue(edge, buffer) : 0;
+            int shadowIndex = shadowStorage != null && edge < shadowStorage.getCapacity() ? shadowStorage.getEdgeValue(edge, buffer) : 0;
+            int hillIndex = 0;
+            int reverseHillIndex = 0;
+            if (hillStorage != null && (long) (edge + 1) * hillStorage.getEdgeEntryBytes() <= hillStorage.getCapacity()) {
+                hillIndex = hillStorage.getEdgeValue(edge, false, buffer);
+                reverseHillIndex = hillStorage.getEdgeValue(edge, true, buffer);
+            }
+            storage.setEdgeValue(edge, greenLevel, noiseLevel, shadowIndex, hillIndex, reverseHillIndex);
+        }
+        LOGGER.info("Packed soft weighting attributes of " + edges + " edges.");
+    }
+
+    @Override
+    public String getName() {
+        return "SoftWeightingAttributes";
+    }
+}
@@ -18,21 +18,20 @@ import com.graphhopper.reader.ReaderWay;
 import com.graphhopper.storage.GraphExtension;
 import com.graphhopper.util.EdgeIteratorState;
 import org.heigit.ors.routing.graphhopper.extensions.TollwayType;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.TagMatcher;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.WayTags;
 import org.heigit.ors.routing.graphhopper.extensions.storages.TollwaysGraphStorage;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 public class TollwaysGraphStorageBuilder extends AbstractGraphStorageBuilder {
+    // Currently consider only toll tags relevant to cars or hgvs, N1 is currently not used in OSM
+    private static final String[] TOLL_TAGS = {"toll", "toll:hgv", "toll:N1", "toll:N2", "toll:N3", "toll:motorcar"};
+    private static final int[] TOLL_FLAGS = {TollwayType.GENERAL, TollwayType.HGV, TollwayType.N1, TollwayType.N2, TollwayType.N3, TollwayType.MOTORCAR};
+    private static final TagMatcher[] TOLL_YES = Arrays.stream(TOLL_TAGS).map(key -> TagMatcher.tag(key, "yes")).toArray(TagMatcher[]::new);
+    private static final TagMatcher[] TOLL_NO = Arrays.stream(TOLL_TAGS).map(key -> TagMatcher.tag(key, "no")).toArray(TagMatcher[]::new);
     private TollwaysGraphStorage storage;
     private int tollways;
-    private final List<String> tollTags = new ArrayList<>(6);
-
-    public TollwaysGraphStorageBuilder() {
-        // Currently consider only toll tags relevant to cars or hgvs:
-        tollTags.addAll(Arrays.asList("toll", "toll:hgv", "toll:N1", "toll:N2", "toll:N3", "toll:motorcar"));
-    }
 
     public GraphExtension init(GraphHopper graphhopper) throws Exception {
         if (storage != null)
@@ -46,34 +45,12 @@ public class TollwaysGraphStorageBuilder extends AbstractGraphStorageBuilder {
     public void processWay(ReaderWay way) {
         tollways = TollwayType.NONE;
 
-        for (String key : tollTags) {
-            if (way.hasTag(key)) {
-                String value = way.getTag(key);
-
-                if (value != null) {
-                    switch (key) {
-                        case "toll" -> setFlag(TollwayType.GENERAL, value);
-                        case "toll:hgv" -> setFlag(TollwayType.HGV, value);
-                        case "toll:N1" -> //currently not used in OSM
-                                setFlag(TollwayType.N1, value);
-                        case "toll:N2" -> setFlag(TollwayType.N2, value);
-                        case "toll:N3" -> setFlag(TollwayType.N3, value);
-                        case "toll:motorcar" -> setFlag(TollwayType.MOTORCAR, value);
-                        default -> {
-                        }
-                    }
-                }
-            }
-        }
-
-    }
-
-    private void setFlag(int flag, String value) {
-        switch (value) {
-            case "yes" -> tollways |= flag;
-            case "no" -> tollways &= ~flag;
-            default -> {
-            }
+        WayTags tags = WayTags.of(way);
+        for (int i = 0; i < TOLL_TAGS.length; i++) {
+            if (TOLL_YES[i].matches(tags))
+                tollways |= TOLL_FLAGS[i];
+            else if (TOLL_NO[i].matches(tags))
+                tollways &= ~TOLL_FLAGS[i];
         }
     }
 
@@ -18,21 +18,29 @@ import com.graphhopper.reader.ReaderWay;
 import com.graphhopper.storage.GraphExtension;
 import com.graphhopper.util.EdgeIteratorState;
 import org.heigit.ors.routing.AvoidFeatureFlags;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.TagMatcher;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.WayTags;
 import org.heigit.ors.routing.graphhopper.extensions.storages.WayCategoryGraphStorage;
 
 import java.util.HashSet;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.List;
 
 public class WayCategoryGraphStorageBuilder extends AbstractGraphStorageBuilder {
+    private static final TagMatcher HIGHWAY = TagMatcher.key("highway");
+    private static final TagMatcher MOTORWAY = TagMatcher.tag("highway", "motorway", "motorway_link");
+    private static final TagMatcher STEPS = TagMatcher.tag("highway", "steps");
+    private static final TagMatcher TOLL = TagMatcher.keyPrefix("toll", "yes");
+    private static final TagMatcher FORD = TagMatcher.tag("ford", "yes");
     private WayCategoryGraphStorage storage;
     protected final HashSet<String> ferries;
+    private final TagMatcher ferry;
     private int wayType = 0;
 
     public WayCategoryGraphStorageBuilder() {
         ferries = new HashSet<>(5);
         ferries.add("shuttle_train");
         ferries.add("ferry");
+        ferry = TagMatcher.tag(List.of("route"), ferries);
     }
 
     public GraphExtension init(GraphHopper graphhopper) throws Exception {
@@ -47,32 +55,22 @@ public class WayCategoryGraphStorageBuilder extends AbstractGraphStorageBuilder
     public void processWay(ReaderWay way) {
         wayType = 0;
 
-        boolean hasHighway = way.hasTag("highway");
-        boolean isFerryRoute = way.hasTag("route", ferries);
-
-        if (hasHighway || isFerryRoute) {
-            java.util.Iterator<Entry<String, Object>> it = way.getProperties();
-
-            while (it.hasNext()) {
-                Map.Entry<String, Object> pairs = it.next();
-                String key = pairs.getKey();
-                String value = pairs.getValue().toString();
-
-                if (key.equals("highway")) {
-                    if (value.equals("motorway") || value.equals("motorway_link")) {
-                        wayType |= AvoidFeatureFlags.HIGHWAYS;
-                    } else if (value.equals("steps")) {
-                        wayType |= AvoidFeatureFlags.STEPS;
-                    }
-                } else if (value.equals("yes") && key.startsWith("toll")) {
-                    wayType |= AvoidFeatureFlags.TOLLWAYS;
-                } else if (key.equals("route") && isFerryRoute) {
-                    wayType |= AvoidFeatureFlags.FERRIES;
-                } else if (("ford".equals(key) && value.equals("yes"))) {
-                    wayType |= AvoidFeatureFlags.FORDS;
-                }
+        WayTags tags = WayTags.of(way);
+        if (HIGHWAY.matches(tags)) {
+            if (MOTORWAY.matches(tags)) {
+                wayType |= AvoidFeatureFlags.HIGHWAYS;
+            } else if (STEPS.matches(tags)) {
+                wayType |= AvoidFeatureFlags.STEPS;
             }
+        } else if (!ferry.matches(tags)) {
+            return;
         }
+        if (TOLL.matches(tags))
+            wayType |= AvoidFeatureFlags.TOLLWAYS;
+        if (ferry.matches(tags))
+            wayType |= AvoidFeatureFlags.FERRIES;
+        if (FORD.matches(tags))
+            wayType |= AvoidFeatureFlags.FORDS;
     }
 
     public void processEdge(ReaderWay way, EdgeIteratorState edge) {
@@ -19,23 +19,29 @@ import com.graphhopper.storage.GraphExtension;
 import com.graphhopper.util.EdgeIteratorState;
 import org.heigit.ors.routing.graphhopper.extensions.SurfaceType;
 import org.heigit.ors.routing.graphhopper.extensions.WayType;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.TagMatcher;
+import org.heigit.ors.routing.graphhopper.extensions.reader.tags.WayTags;
 import org.heigit.ors.routing.graphhopper.extensions.storages.WaySurfaceTypeGraphStorage;
 import org.heigit.ors.routing.util.WaySurfaceDescription;
 
 import java.util.HashSet;
+import java.util.List;
 
 public class WaySurfaceTypeGraphStorageBuilder extends AbstractGraphStorageBuilder {
     public static final String TAG_HIGHWAY = "highway";
     public static final String TAG_SURFACE = "surface";
     public static final String TAG_ROUTE = "route";
+    private static final TagMatcher HIGHWAY = TagMatcher.key(TAG_HIGHWAY);
     private WaySurfaceTypeGraphStorage storage;
     private final WaySurfaceDescription waySurfaceDesc = new WaySurfaceDescription();
     protected final HashSet<String> ferries;
+    private final TagMatcher ferry;
 
     public WaySurfaceTypeGraphStorageBuilder() {
         ferries = new HashSet<>(5);
         ferries.add("shuttle_train");
         ferries.add("ferry");
+        ferry = TagMatcher.tag(List.of(TAG_ROUTE), ferries);
     }
 
     public GraphExtension init(GraphHopper graphhopper) throws Exception {
@@ -50,9 +56,10 @@ public class WaySurfaceTypeGraphStorageBuilder extends AbstractGraphStorageBuild
         waySurfaceDesc.reset();
 
         int wayType;
-        if (way.hasTag(TAG_ROUTE, ferries)) {
+        WayTags tags = WayTags.of(way);
+        if (ferry.matches(tags)) {
             wayType = WayType.FERRY;
-        } else if (way.hasTag(TAG_HIGHWAY)) {
+        } else if (HIGHWAY.matches(tags)) {
             wayType = WayType.getFromString(way.getTag(TAG_HIGHWAY));
         } else {
             return;
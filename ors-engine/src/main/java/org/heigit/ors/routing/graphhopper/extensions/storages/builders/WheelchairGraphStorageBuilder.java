@@ -162,9 +162,20 @@ public class WheelchairGraphStorageBuilder extends AbstractGraphStorageBuilder {
      * Go through tags and attempt to remove any invalid keys (i.e. when compound keys have been entered using a '.' rather than ':'
      *
      * @param dirtyTags The OSM tag collection that needs to be cleaned
-     * @return A cleaned version of the tags on the way (. replaced with : in tag names)
+     * @return A cleaned version of the tags on the way (. replaced with : in tag names), or the tags themselves if
+     * there is nothing to clean
      */
-    private HashMap<String, Object> cleanTags(Map<String, Object> dirtyTags) {
+    private Map<String, Object> cleanTags(Map<String, Object> dirtyTags) {
+        boolean dirty = false;
+        for (String key : dirtyTags.keySet()) {
+            if (key.indexOf('.') >= 0) {
+                dirty = true;
+                break;
+            }
+        }
+        if (!dirty)
+            return dirtyTags;
+
         HashMap<String, Object> cleanedTagsMap = new HashMap<>();
         for (Map.Entry<String, Object> entry : dirtyTags.entrySet()) {
             String cleanKey = entry.getKey().replace(".", ":");
@@ -0,0 +1,103 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.routing.graphhopper.extensions.weighting;
+
+import com.graphhopper.routing.querygraph.EdgeIteratorStateHelper;
+import com.graphhopper.routing.weighting.AbstractAdjustedWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.util.EdgeIteratorState;
+import org.heigit.ors.routing.graphhopper.extensions.storages.SoftWeightingAttributesGraphStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.heigit.ors.routing.graphhopper.extensions.storages.SoftWeightingAttributesGraphStorage.*;
+
+/**
+ * Computes the same weight as {@link AdditionWeighting} with a single read of the packed soft weighting record per
+ * edge. The green, quiet, shadow and steepness difficulty weightings are replaced by tables of their factors for all
+ * attribute values, created once per request. Attributes which are not part of the record, as well as all other soft
+ * weightings, are evaluated by their weightings as before.
+ */
+public class FusedSoftWeighting extends AbstractAdjustedWeighting {
+    private final SoftWeightingAttributesGraphStorage storage;
+    // tables of absent factors are all zeros, so that every edge can be evaluated without branches
+    private final double[] greenFactors = new double[GREEN_LEVELS];
+    private final double[] noiseFactors = new double[NOISE_LEVELS];
+    private final double[] shadowFactors = new double[SHADOW_LEVELS];
+    private final double[] hillFactors = new double[HILL_LEVELS];
+    private final Weighting[] weightings;
+
+    public FusedSoftWeighting(Collection<Weighting> softWeightings, Weighting superWeighting, SoftWeightingAttributesGraphStorage storage) {
+        super(superWeighting);
+        this.storage = storage;
+
+        List<Weighting> remaining = new ArrayList<>();
+        for (Weighting weighting : softWeightings) {
+            if (weighting instanceof GreenWeighting greenWeighting && storage.hasAttribute(GREEN))
+                add(greenFactors, greenWeighting.calcFactorTable(GREEN_LEVELS));
+            else if (weighting instanceof QuietWeighting quietWeighting && storage.hasAttribute(NOISE))
+                add(noiseFactors, quietWeighting.calcFactorTable(NOISE_LEVELS));
+            else if (weighting instanceof ShadowWeighting shadowWeighting && storage.hasAttribute(SHADOW))
+                add(shadowFactors, shadowWeighting.calcFactorTable(SHADOW_LEVELS));
+            else if (weighting instanceof SteepnessDifficultyWeighting steepnessWeighting && storage.hasAttribute(HILL))
+                add(hillFactors, steepnessWeighting.calcFactorTable(HILL_LEVELS));
+            else
+                remaining.add(weighting);
+        }
+        weightings = remaining.toArray(new Weighting[0]);
+    }
+
+    private static void add(double[] factors, double[] weightingFactors) {
+        for (int i = 0; i < factors.length; i++)
+            factors[i] += weightingFactors[i];
+    }
+
+    @Override
+    public double calcEdgeWeight(EdgeIteratorState edgeState, boolean reverse, long edgeEnterTime) {
+        int row = storage.getEdgeValue(EdgeIteratorStateHelper.getOriginalEdge(edgeState));
+        // same direction convention as in SteepnessDifficultyWeighting
+        boolean revert = edgeState.getBaseNode() < edgeState.getAdjNode();
+        double sumOfWeights = greenFactors[getGreenLevel(row)]
+                + noiseFactors[getNoiseLevel(row)]
+                + shadowFactors[getShadowIndex(row)]
+                + hillFactors[getHillIndex(row, revert)];
+        for (Weighting weighting : weightings) {
+            sumOfWeights += weighting.calcEdgeWeight(edgeState, reverse);
+        }
+        return superWeighting.calcEdgeWeight(edgeState, reverse, edgeEnterTime) * sumOfWeights;
+    }
+
+    @Override
+    public String getName() {
+        // replaces AdditionWeighting transparently
+        return "addition";
+    }
+
+    @Override
+    public int hashCode() {
+        return ("FusedSoftWeighting" + this).hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        final FusedSoftWeighting other = (FusedSoftWeighting) obj;
+        return toString().equals(other.toString());
+    }
+}
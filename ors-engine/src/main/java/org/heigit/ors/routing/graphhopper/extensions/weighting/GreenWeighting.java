@@ -55,6 +55,16 @@ public class GreenWeighting extends FastestWeighting {
         return 1.0 - (1.0 - wf) * factor;
     }
 
+    /**
+     * @return the factors of this weighting for the attribute values 0 to size - 1, as used by {@link FusedSoftWeighting}
+     */
+    public double[] calcFactorTable(int size) {
+        double[] table = new double[size];
+        for (int i = 0; i < size; i++)
+            table[i] = factors[Math.min(i, TOTAL_LEVEL - 1)];
+        return table;
+    }
+
     @Override
     public double calcEdgeWeight(EdgeIteratorState edgeState, boolean reverse) {
         if (gsGreenIndex != null) {
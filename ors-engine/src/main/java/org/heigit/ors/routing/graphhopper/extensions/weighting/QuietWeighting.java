@@ -47,6 +47,16 @@ public class QuietWeighting extends FastestWeighting {
             throw new AssertionError("The noise level " + level + " is not supported!");
     }
 
+    /**
+     * @return the factors of this weighting for the attribute values 0 to size - 1, as used by {@link FusedSoftWeighting}
+     */
+    public double[] calcFactorTable(int size) {
+        double[] table = new double[size];
+        for (int i = 0; i < size; i++)
+            table[i] = calcNoiseWeightFactor(Math.min(i, 3));
+        return table;
+    }
+
     @Override
     public double calcEdgeWeight(EdgeIteratorState edgeState, boolean reverse) {
         if (gsNoiseIndex != null) {
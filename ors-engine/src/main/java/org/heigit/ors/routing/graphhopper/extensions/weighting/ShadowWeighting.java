@@ -44,6 +44,16 @@ public class ShadowWeighting extends FastestWeighting {
         return shadowIndexValue * 0.01 * _amplifyer * _userWeighting;
     }
 
+    /**
+     * @return the factors of this weighting for the attribute values 0 to size - 1, as used by {@link FusedSoftWeighting}
+     */
+    public double[] calcFactorTable(int size) {
+        double[] table = new double[size];
+        for (int i = 0; i < size; i++)
+            table[i] = calShadowWeighting(i);
+        return table;
+    }
+
     @Override
     public double calcEdgeWeight(EdgeIteratorState edgeState, boolean reverse) {
         int shadowValue = _shadowIndexStorage
@@ -47,6 +47,16 @@ public class SteepnessDifficultyWeighting extends FastestWeighting {
         }
     }
 
+    /**
+     * @return the factors of this weighting for the attribute values 0 to size - 1, as used by {@link FusedSoftWeighting}
+     */
+    public double[] calcFactorTable(int size) {
+        double[] table = new double[size];
+        for (int i = 0; i < size; i++)
+            table[i] = difficultyWeights != null ? difficultyWeights[Math.min(i, difficultyWeights.length - 1)] : 1.0;
+        return table;
+    }
+
     @Override
     public double calcEdgeWeight(EdgeIteratorState edgeState, boolean reverse) {
         if (gsHillIndex != null) {
@@ -37,6 +37,7 @@ import org.heigit.ors.routing.util.extrainfobuilders.AppendableRouteExtraInfoBui
 import org.heigit.ors.routing.util.extrainfobuilders.AppendableSteepnessExtraInfoBuilder;
 import org.heigit.ors.routing.util.extrainfobuilders.RouteExtraInfoBuilder;
 import org.heigit.ors.routing.util.extrainfobuilders.SteepnessExtraInfoBuilder;
+import org.heigit.ors.util.MetricsUtility;
 import org.locationtech.jts.geom.Coordinate;
 
 import java.util.ArrayList;
@@ -117,6 +118,8 @@ public class ExtraInfoProcessor implements PathProcessor {
 
     private CountryBordersReader countryBordersReader;
 
+    private long processingTime;
+
     ExtraInfoProcessor(PMap opts, GraphHopperStorage graphHopperStorage, FlagEncoder enc, CountryBordersReader cbReader) throws Exception {
         this(opts, graphHopperStorage, enc);
         this.countryBordersReader = cbReader;
@@ -379,6 +382,7 @@ public class ExtraInfoProcessor implements PathProcessor {
     }
 
     public void appendData(ExtraInfoProcessor more) {
+        processingTime += more.processingTime;
         if (surfaceInfo != null)
             ((AppendableRouteExtraInfoBuilder) surfaceInfoBuilder).append((AppendableRouteExtraInfoBuilder) more.surfaceInfoBuilder);
         if (wayTypeInfo != null)
@@ -413,6 +417,16 @@ public class ExtraInfoProcessor implements PathProcessor {
 
     @Override
     public void processPathEdge(EdgeIteratorState edge, PointList geom) {
+        if (!MetricsUtility.isEnabled()) {
+            processEdge(edge, geom);
+            return;
+        }
+        long startTime = System.nanoTime();
+        processEdge(edge, geom);
+        processingTime += System.nanoTime() - startTime;
+    }
+
+    private void processEdge(EdgeIteratorState edge, PointList geom) {
         double dist = edge.getDistance();
 
         // TODO Add extra info for crossed countries
@@ -545,6 +559,13 @@ public class ExtraInfoProcessor implements PathProcessor {
         return result;
     }
 
+    /**
+     * @return the time in nanoseconds spent on processing path edges, only measured if metrics are enabled
+     */
+    public long getProcessingTime() {
+        return processingTime;
+    }
+
     public String getSkippedExtraInfo() {
         return skippedExtraInfo;
     }
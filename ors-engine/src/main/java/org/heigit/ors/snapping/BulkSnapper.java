@@ -0,0 +1,77 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.snapping;
+
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.storage.index.LocationIndex;
+import com.graphhopper.storage.index.Snap;
+import com.graphhopper.util.shapes.GHPoint3D;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.heigit.ors.util.BoundedWorkerPool;
+import org.locationtech.jts.geom.Coordinate;
+
+/**
+ * Snaps large batches of coordinates to the graph.
+ * <p>
+ * The coordinates of a batch are sorted along a Hilbert curve and split into contiguous chunks of that order, which
+ * are snapped concurrently on a {@link BoundedWorkerPool}. Each chunk thereby covers a compact area and its lookups stay in neighbouring parts of the
+ * location index. The results are returned in input order. Bulk lookups bypass the {@link SnapCache}, so that a large
+ * batch of mostly distinct coordinates does not evict the locations reused by interactive requests.
+ */
+public class BulkSnapper {
+    // chunks per thread, so that threads finishing early take over work of threads in denser areas
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private final LocationIndex locationIndex;
+    private final EdgeFilter snapFilter;
+    private final double maximumSearchRadius;
+
+    public BulkSnapper(LocationIndex locationIndex, EdgeFilter snapFilter, double maximumSearchRadius) {
+        this.locationIndex = locationIndex;
+        this.snapFilter = snapFilter;
+        this.maximumSearchRadius = maximumSearchRadius;
+    }
+
+    /**
+     * Snap a batch of coordinates.
+     *
+     * @param coords     the coordinates
+     * @param workerPool pool on which the chunks are snapped in addition to the calling thread
+     * @return the snapped locations in the order of the coordinates, null for coordinates without an edge within the
+     * maximum search radius
+     */
+    public ResolvedLocation[] snap(Coordinate[] coords, BoundedWorkerPool workerPool) throws Exception {
+        ResolvedLocation[] results = new ResolvedLocation[coords.length];
+        int[] order = SpatialOrder.hilbertOrder(coords);
+        int nThreads = Math.max(1, Math.min(workerPool.getMaxParallelism(), coords.length / MIN_CHUNK_SIZE));
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (coords.length + nThreads * CHUNKS_PER_THREAD - 1) / (nThreads * CHUNKS_PER_THREAD));
+        int nChunks = (coords.length + chunkSize - 1) / chunkSize;
+
+        workerPool.run(nChunks, nThreads, () -> null, (state, chunk) -> {
+            int end = Math.min(coords.length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++)
+                results[order[i]] = snap(coords[order[i]]);
+        });
+        return results;
+    }
+
+    private ResolvedLocation snap(Coordinate coord) {
+        Snap snap = locationIndex.findClosest(coord.y, coord.x, snapFilter);
+        if (!snap.isValid() || snap.getQueryDistance() >= maximumSearchRadius)
+            return null;
+        GHPoint3D point = snap.getSnappedPoint();
+        return new ResolvedLocation(new Coordinate(point.getLon(), point.getLat()), null, snap.getQueryDistance());
+    }
+}
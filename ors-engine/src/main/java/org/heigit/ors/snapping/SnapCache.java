@@ -0,0 +1,232 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.snapping;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.storage.index.LocationIndex;
+import com.graphhopper.storage.index.Snap;
+import com.graphhopper.util.DistancePlaneProjection;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.PMap;
+import com.graphhopper.util.shapes.GHPoint3D;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of location index lookups for a single loaded graph.
+ * <p>
+ * Entries are keyed by the queried coordinate quantised to roughly 10cm and by an identifier of the snap filter that
+ * was used for the lookup. Only the graph related parts of a {@link Snap} are cached; every hit creates a new
+ * {@link Snap} for the actual query coordinate, because snaps are modified when a {@link com.graphhopper.routing.querygraph.QueryGraph}
+ * is created from them.
+ * <p>
+ * The cache is split into segments with their own LRU order to keep lock contention low. Since it is bound to the
+ * {@link ORSGraphHopper} instance of a profile, loading a new graph automatically starts with an empty cache.
+ */
+public class SnapCache {
+    private static final double QUANTISATION_FACTOR = 1e6;
+    private static final int SEGMENT_COUNT = 16;
+    // Request parameters which add request specific edge filters to the snap filter
+    private static final String[] FILTER_OPTIONS = {"avoid_areas", "avoid_features", "avoid_borders", "edgefilter_hgv", "edgefilter_wheelchair"};
+
+    private final int maximumSize;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SnapCache(int maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("Maximum size of the snap cache must be positive");
+        this.maximumSize = maximumSize;
+        int segmentSize = Math.max(1, maximumSize / SEGMENT_COUNT);
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++)
+            segments[i] = new Segment(segmentSize);
+    }
+
+    /**
+     * Look up the closest edge of a graph using the snap cache of the given GraphHopper instance if it has one.
+     *
+     * @param gh        the GraphHopper instance whose location index should be queried
+     * @param lat       latitude of the query point
+     * @param lon       longitude of the query point
+     * @param filter    the snap filter
+     * @param filterKey identifier of the snap filter, or null if the lookup must not be cached
+     * @return the snap of the query point
+     */
+    public static Snap findClosest(GraphHopper gh, double lat, double lon, EdgeFilter filter, String filterKey) {
+        SnapCache snapCache = gh instanceof ORSGraphHopper orsGraphHopper ? orsGraphHopper.getSnapCache() : null;
+        if (snapCache == null || filterKey == null)
+            return gh.getLocationIndex().findClosest(lat, lon, filter);
+        return snapCache.findClosest(gh.getLocationIndex(), lat, lon, filter, filterKey);
+    }
+
+    /**
+     * Create the identifier of a snap filter built for the given profile, weighting and edge filter options.
+     *
+     * @param profileName        name of the profile used to restrict snapping to its subnetwork
+     * @param weightingName      name of the weighting used to discard inaccessible edges
+     * @param edgeFilterOptions  request parameters from which further edge filters are created
+     * @return the identifier or null if the request specific edge filters do not allow to reuse snaps across requests
+     */
+    public static String createFilterKey(String profileName, String weightingName, PMap edgeFilterOptions) {
+        if (edgeFilterOptions != null) {
+            for (String option : FILTER_OPTIONS) {
+                if (edgeFilterOptions.has(option))
+                    return null;
+            }
+        }
+        return profileName + "|" + weightingName;
+    }
+
+    /**
+     * Look up the closest edge to the query point, either from the cache or from the location index.
+     *
+     * @param index     the location index to query on a cache miss
+     * @param lat       latitude of the query point
+     * @param lon       longitude of the query point
+     * @param filter    the snap filter
+     * @param filterKey identifier of the snap filter
+     * @return a new snap of the query point
+     */
+    public Snap findClosest(LocationIndex index, double lat, double lon, EdgeFilter filter, String filterKey) {
+        Key key = new Key(lat, lon, filterKey);
+        Segment segment = segments[(key.hashCode() & Integer.MAX_VALUE) % SEGMENT_COUNT];
+        CachedSnap cached = segment.getEntry(key);
+        if (cached != null) {
+            hits.increment();
+            return cached.toSnap(lat, lon);
+        }
+        misses.increment();
+        Snap snap = index.findClosest(lat, lon, filter);
+        segment.putEntry(key, new CachedSnap(snap));
+        return snap;
+    }
+
+    public void clear() {
+        for (Segment segment : segments)
+            segment.clearEntries();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.getSize();
+        return size;
+    }
+
+    private static class Key {
+        private final long lat;
+        private final long lon;
+        private final String filterKey;
+
+        Key(double lat, double lon, String filterKey) {
+            this.lat = Math.round(lat * QUANTISATION_FACTOR);
+            this.lon = Math.round(lon * QUANTISATION_FACTOR);
+            this.filterKey = filterKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key other))
+                return false;
+            return lat == other.lat && lon == other.lon && filterKey.equals(other.filterKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lat, lon, filterKey);
+        }
+    }
+
+    /**
+     * The parts of a snap which only depend on the graph, captured before the snap is used for a query graph.
+     */
+    private static class CachedSnap {
+        private final int closestNode;
+        private final EdgeIteratorState closestEdge;
+        private final int wayIndex;
+        private final Snap.Position position;
+
+        CachedSnap(Snap snap) {
+            closestNode = snap.getClosestNode();
+            closestEdge = snap.getClosestEdge();
+            wayIndex = snap.getWayIndex();
+            position = snap.getSnappedPosition();
+        }
+
+        Snap toSnap(double lat, double lon) {
+            Snap snap = new Snap(lat, lon);
+            if (closestNode < 0)
+                return snap;
+            snap.setClosestNode(closestNode);
+            snap.setClosestEdge(closestEdge);
+            snap.setWayIndex(wayIndex);
+            snap.setSnappedPosition(position);
+            snap.calcSnappedPoint(DistancePlaneProjection.DIST_PLANE);
+            GHPoint3D snappedPoint = snap.getSnappedPoint();
+            snap.setQueryDistance(DistancePlaneProjection.DIST_PLANE.calcDist(lat, lon, snappedPoint.lat, snappedPoint.lon));
+            return snap;
+        }
+    }
+
+    private static class Segment extends LinkedHashMap<Key, CachedSnap> {
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedSnap> eldest) {
+            return size() > maximumSize;
+        }
+
+        synchronized CachedSnap getEntry(Key key) {
+            return get(key);
+        }
+
+        synchronized void putEntry(Key key, CachedSnap value) {
+            put(key, value);
+        }
+
+        synchronized void clearEntries() {
+            clear();
+        }
+
+        synchronized int getSize() {
+            return size();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.snapping;
+
+import org.locationtech.jts.geom.Coordinate;
+
+import java.util.Arrays;
+
+/**
+ * Orders coordinates along a Hilbert curve, so that subsequent location index lookups of a batch of coordinates touch
+ * neighbouring parts of the index instead of jumping across it.
+ */
+public final class SpatialOrder {
+    private static final int HILBERT_ORDER = 15;
+    private static final int GRID_SIZE = 1 << HILBERT_ORDER;
+
+    private SpatialOrder() {
+    }
+
+    /**
+     * Compute the order in which the coordinates should be processed.
+     *
+     * @param coords the coordinates
+     * @return indices into coords, sorted along a Hilbert curve spanning the bounding box of all coordinates
+     */
+    public static int[] hilbertOrder(Coordinate[] coords) {
+        int n = coords.length;
+        int[] order = new int[n];
+        if (n < 3) {
+            for (int i = 0; i < n; i++)
+                order[i] = i;
+            return order;
+        }
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Coordinate c : coords) {
+            minX = Math.min(minX, c.x);
+            minY = Math.min(minY, c.y);
+            maxX = Math.max(maxX, c.x);
+            maxY = Math.max(maxY, c.y);
+        }
+        double scaleX = maxX > minX ? (GRID_SIZE - 1) / (maxX - minX) : 0;
+        double scaleY = maxY > minY ? (GRID_SIZE - 1) / (maxY - minY) : 0;
+
+        // Sort by packing the curve index into the upper and the position into the lower bits of a long
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            int x = (int) ((coords[i].x - minX) * scaleX);
+            int y = (int) ((coords[i].y - minY) * scaleY);
+            keys[i] = hilbertIndex(x, y) << 31 | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < n; i++)
+            order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        return order;
+    }
+
+    /**
+     * Compute the distance along the Hilbert curve of the given grid cell.
+     *
+     * @param x column of the cell, in the range [0, 2^15)
+     * @param y row of the cell, in the range [0, 2^15)
+     * @return the distance along the curve, in the range [0, 2^30)
+     */
+    static long hilbertIndex(int x, int y) {
+        long d = 0;
+        for (int s = GRID_SIZE / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // rotate the quadrant
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = GRID_SIZE - 1 - x;
+                    y = GRID_SIZE - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+}
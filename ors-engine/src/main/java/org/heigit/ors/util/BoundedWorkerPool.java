@@ -0,0 +1,134 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Shared, bounded thread pool on which the independent tasks of a single request are processed concurrently.
+ * <p>
+ * A request never occupies more than {@code maxParallelism} threads: it submits at most {@code maxParallelism - 1}
+ * workers to the pool and works on its tasks in the calling thread as well, so it also progresses when the pool is
+ * busy with other requests. Workers take the tasks in ascending order and every worker creates its own state once and
+ * reuses it for all tasks it takes. Once the calling thread has run out of tasks, workers which have not been started
+ * by the pool yet are cancelled instead of awaited. After a task failed no further tasks are started and the failure
+ * of the lowest task is thrown, which is the failure a sequential computation would have run into first.
+ */
+public class BoundedWorkerPool {
+    @FunctionalInterface
+    public interface Task<S> {
+        void compute(S state, int index) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final int maxParallelism;
+
+    /**
+     * @param threadName     prefix of the names of the pool threads
+     * @param threads        number of pool threads shared by all requests
+     * @param maxParallelism maximum number of threads working on a single request, including the calling thread
+     */
+    public BoundedWorkerPool(String threadName, int threads, int maxParallelism) {
+        this.maxParallelism = Math.max(1, maxParallelism);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    /**
+     * Runs the task for the indices 0 to nTasks - 1 with up to {@link #getMaxParallelism()} threads.
+     *
+     * @param nTasks       number of tasks
+     * @param stateFactory creates the state of a worker
+     * @param task         processes a single index
+     */
+    public <S> void run(int nTasks, Supplier<S> stateFactory, Task<S> task) throws Exception {
+        run(nTasks, maxParallelism, stateFactory, task);
+    }
+
+    /**
+     * Runs the task for the indices 0 to nTasks - 1.
+     *
+     * @param nTasks       number of tasks
+     * @param parallelism  maximum number of threads used, limited by {@link #getMaxParallelism()}
+     * @param stateFactory creates the state of a worker
+     * @param task         processes a single index
+     */
+    public <S> void run(int nTasks, int parallelism, Supplier<S> stateFactory, Task<S> task) throws Exception {
+        Exception[] failures = new Exception[nTasks];
+        AtomicInteger nextTask = new AtomicInteger();
+        AtomicInteger failedTask = new AtomicInteger(Integer.MAX_VALUE);
+        Runnable worker = () -> {
+            S state = null;
+            int index;
+            while ((index = nextTask.getAndIncrement()) < nTasks && index < failedTask.get()) {
+                try {
+                    if (state == null)
+                        state = stateFactory.get();
+                    task.compute(state, index);
+                } catch (Exception e) {
+                    failures[index] = e;
+                    failedTask.accumulateAndGet(index, Math::min);
+                }
+            }
+        };
+
+        int nWorkers = Math.min(Math.min(maxParallelism, parallelism), nTasks) - 1;
+        List<Future<?>> futures = new ArrayList<>(Math.max(0, nWorkers));
+        try {
+            for (int i = 0; i < nWorkers; i++)
+                futures.add(executor.submit(worker));
+        } catch (RejectedExecutionException e) {
+            // the remaining tasks are processed by the calling thread and the workers submitted so far
+        }
+        worker.run();
+        // all tasks are taken once the calling thread is done, workers still queued behind other requests are not
+        // needed any more and only the running ones have to be awaited
+        for (Future<?> future : futures) {
+            if (!future.cancel(false))
+                awaitWorker(future);
+        }
+
+        for (Exception failure : failures) {
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    private static void awaitWorker(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (CancellationException e) {
+            // cancelled before it was started
+        } catch (ExecutionException e) {
+            // failures of tasks are caught by the worker itself
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,101 @@
+/*  This file is part of Openrouteservice.
+ *
+ *  Openrouteservice is free software; you can redistribute it and/or modify it under the terms of the
+ *  GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1
+ *  of the License, or (at your option) any later version.
+
+ *  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *  See the GNU Lesser General Public License for more details.
+
+ *  You should have received a copy of the GNU Lesser General Public License along with this library;
+ *  if not, see <https://www.gnu.org/licenses/>.
+ */
+package org.heigit.ors.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records timers and distribution summaries of the engine in a Micrometer registry.
+ * <p>
+ * As long as no registry has been set, all methods return immediately without reading the clock or looking up
+ * meters, so instrumented code paths do not pay for disabled metrics.
+ */
+public class MetricsUtility {
+    public static final String TAG_PROFILE = "profile";
+    public static final String TAG_ALGORITHM = "algorithm";
+
+    public static final String ALGORITHM_CH = "ch";
+    public static final String ALGORITHM_CORE = "core";
+    public static final String ALGORITHM_TD_CORE = "td_core";
+    public static final String ALGORITHM_ALT = "alt";
+    public static final String ALGORITHM_RPHAST = "rphast";
+    public static final String ALGORITHM_DIJKSTRA = "dijkstra";
+
+    private static volatile MeterRegistry registry;
+
+    private MetricsUtility() {
+    }
+
+    public static void setRegistry(MeterRegistry meterRegistry) {
+        registry = meterRegistry;
+    }
+
+    public static boolean isEnabled() {
+        return registry != null;
+    }
+
+    /**
+     * @return the start time to be passed to {@link #recordTime}, or 0 if metrics are disabled
+     */
+    public static long startTime() {
+        return registry == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Record the time elapsed since startTime in a timer.
+     *
+     * @param name      name of the timer
+     * @param startTime value returned by {@link #startTime()}
+     * @param tags      alternating tag keys and values
+     */
+    public static void recordTime(String name, long startTime, String... tags) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null)
+            meterRegistry.timer(name, tags).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a duration which has been measured elsewhere in a timer.
+     *
+     * @param name     name of the timer
+     * @param duration the duration in nanoseconds
+     * @param tags     alternating tag keys and values
+     */
+    public static void recordDuration(String name, long duration, String... tags) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null)
+            meterRegistry.timer(name, tags).record(duration, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a value such as a result size in a distribution summary.
+     *
+     * @param name  name of the summary
+     * @param value the value to record
+     * @param tags  alternating tag keys and values
+     */
+    public static void recordValue(String name, double value, String... tags) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null)
+            meterRegistry.summary(name, tags).record(value);
+    }
+
+    public static void increment(String name, String... tags) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null)
+            meterRegistry.counter(name, tags).increment();
+    }
+}
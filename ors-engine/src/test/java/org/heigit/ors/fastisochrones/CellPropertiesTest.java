@@ -64,6 +64,11 @@ class CellPropertiesTest {
         assertEquals(4, ecc.getEccentricityStorage(shortestWeighting).getEccentricity(2));
         assertEquals(2, ecc.getEccentricityStorage(shortestWeighting).getEccentricity(3));
         assertEquals(2, ecc.getEccentricityStorage(shortestWeighting).getEccentricity(4));
+        // all edges are bidirectional, so the eccentricities of the reverse direction are the same
+        assertEquals(3, ecc.getEccentricityStorage(shortestWeighting, true).getEccentricity(0));
+        assertEquals(4, ecc.getEccentricityStorage(shortestWeighting, true).getEccentricity(2));
+        assertEquals(2, ecc.getEccentricityStorage(shortestWeighting, true).getEccentricity(3));
+        assertEquals(2, ecc.getEccentricityStorage(shortestWeighting, true).getEccentricity(4));
     }
 
     @Test
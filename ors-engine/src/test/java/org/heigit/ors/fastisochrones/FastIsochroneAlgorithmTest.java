@@ -8,6 +8,7 @@ import com.graphhopper.routing.util.TraversalMode;
 import com.graphhopper.routing.weighting.ShortestWeighting;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.util.GHUtility;
 import org.heigit.ors.fastisochrones.partitioning.storage.CellStorage;
 import org.heigit.ors.fastisochrones.partitioning.storage.IsochroneNodeStorage;
 import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSequence;
@@ -215,4 +216,55 @@ class FastIsochroneAlgorithmTest {
         expectedCellIds.add(3);
         assertEquals(expectedCellIds, cellIds);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReverseDirectionWithOneWayEdge() {
+        GraphHopperStorage graphHopperStorage = ToyGraphCreationUtil.createMediumGraphWithAdditionalEdge(encodingManager);
+        // edge 7-8 can only be traversed from 7 to 8
+        GHUtility.setSpeed(60, true, false, carEncoder, graphHopperStorage.getEdgeIteratorState(13, 8));
+        Weighting shortestWeighting = new ShortestWeighting(carEncoder);
+        createMockStorages(graphHopperStorage);
+        Eccentricity ecc = new Eccentricity(graphHopperStorage, null, ins, cs);
+
+        ecc.loadExisting(shortestWeighting);
+        ecc.calcEccentricities(shortestWeighting, new EdgeFilterSequence(), carEncoder);
+        ecc.calcBorderNodeDistances(shortestWeighting, new EdgeFilterSequence(), carEncoder);
+
+        FastIsochroneAlgorithm fastIsochroneAlgorithm = new FastIsochroneAlgorithm(
+                graphHopperStorage.getBaseGraph(),
+                shortestWeighting,
+                TraversalMode.NODE_BASED,
+                cs,
+                ins,
+                ecc.getEccentricityStorage(shortestWeighting),
+                ecc.getBorderNodeDistanceStorage(shortestWeighting),
+                null);
+        fastIsochroneAlgorithm.calcIsochroneNodes(1, 5.0);
+
+        Set<Integer> nodeIds = new HashSet<>();
+        for (IntObjectCursor<SPTEntry> entry : fastIsochroneAlgorithm.getActiveCellMaps().get(3)) {
+            nodeIds.add(entry.value.adjNode);
+        }
+        assertEquals(Set.of(4), nodeIds);
+
+        fastIsochroneAlgorithm = new FastIsochroneAlgorithm(
+                graphHopperStorage.getBaseGraph(),
+                shortestWeighting,
+                TraversalMode.NODE_BASED,
+                cs,
+                ins,
+                ecc.getEccentricityStorage(shortestWeighting, true),
+                ecc.getBorderNodeDistanceStorage(shortestWeighting, true),
+                null);
+        fastIsochroneAlgorithm.setReverseDirection(true);
+        fastIsochroneAlgorithm.calcIsochroneNodes(1, 5.0);
+
+        nodeIds = new HashSet<>();
+        for (IntObjectCursor<SPTEntry> entry : fastIsochroneAlgorithm.getActiveCellMaps().get(3)) {
+            nodeIds.add(entry.value.adjNode);
+        }
+        assertEquals(Set.of(4, 7), nodeIds);
+        assertEquals(5.0, fastIsochroneAlgorithm.getActiveCellMaps().get(3).get(4).weight, 1e-10);
+        assertEquals(5.0, fastIsochroneAlgorithm.getActiveCellMaps().get(3).get(7).weight, 1e-10);
+    }
+}
@@ -9,6 +9,8 @@ import org.heigit.ors.fastisochrones.partitioning.storage.CellStorage;
 import org.heigit.ors.fastisochrones.partitioning.storage.IsochroneNodeStorage;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CellAndIsochroneNodeStorageTest {
@@ -112,4 +114,19 @@ class CellAndIsochroneNodeStorageTest {
         assertEquals(nodesCell2, cs.getNodesOfCell(2));
         assertEquals(nodesCell3, cs.getNodesOfCell(3));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReservedCellContours() {
+        GraphHopperStorage ghStorage = createGHStorage();
+        IsochroneNodeStorage isochroneNodeStorage = initIsochroneNodeStorage(ghStorage);
+        CellStorage cs = new CellStorage(5, ghStorage.getDirectory(), isochroneNodeStorage);
+        cs.init();
+        cs.calcCellNodesMap();
+        long[] pointers = cs.reserveCellContours(new int[]{2, 3}, new int[]{2, 1});
+        //Write in reverse order to make sure the layout does not depend on the order of writes
+        cs.setCellContourOrder(pointers[1], new double[]{3.0}, new double[]{4.0});
+        cs.setCellContourOrder(pointers[0], new double[]{1.0, 2.0}, new double[]{1.5, 2.5});
+        assertEquals(List.of(1.0, 1.5, 2.0, 2.5), cs.getCellContourOrder(2));
+        assertEquals(List.of(3.0, 4.0), cs.getCellContourOrder(3));
+    }
+}
@@ -0,0 +1,74 @@
+package org.heigit.ors.isochrones;
+
+import org.heigit.ors.common.Pair;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsochronesIntersectorTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    void testPairwiseIntersections() {
+        IsochroneMapCollection isoMaps = new IsochroneMapCollection();
+        isoMaps.add(createMap(0, new Envelope(0, 2, 0, 2), new Envelope(0, 4, 0, 4)));
+        isoMaps.add(createMap(1, new Envelope(3, 5, 3, 5)));
+        isoMaps.add(createMap(2, new Envelope(10, 11, 10, 11)));
+
+        List<IsochronesIntersection> intersections = new IsochronesIntersector(isoMaps).computePairwise();
+
+        assertEquals(1, intersections.size());
+        assertEquals(1.0, intersections.get(0).getGeometry().getArea(), 1e-9);
+        assertEquals(List.of(List.of(0, 1), List.of(1, 0)), toRefs(intersections.get(0)));
+    }
+
+    @Test
+    void testOverlayReferencesAllCoveringIsochrones() {
+        IsochroneMapCollection isoMaps = new IsochroneMapCollection();
+        isoMaps.add(createMap(0, new Envelope(0, 2, 0, 2), new Envelope(0, 4, 0, 4)));
+        isoMaps.add(createMap(1, new Envelope(1, 5, 1, 5)));
+
+        List<IsochronesIntersection> intersections = new IsochronesIntersector(isoMaps).computeOverlay();
+
+        assertEquals(2, intersections.size());
+        for (IsochronesIntersection intersection : intersections) {
+            List<List<Integer>> refs = toRefs(intersection);
+            if (refs.size() == 3) {
+                assertEquals(List.of(List.of(0, 0), List.of(0, 1), List.of(1, 0)), refs);
+                assertEquals(1.0, intersection.getGeometry().getArea(), 1e-9);
+            } else {
+                assertEquals(List.of(List.of(0, 1), List.of(1, 0)), refs);
+                assertEquals(8.0, intersection.getGeometry().getArea(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testSingleLocationHasNoIntersections() {
+        IsochroneMapCollection isoMaps = new IsochroneMapCollection();
+        isoMaps.add(createMap(0, new Envelope(0, 2, 0, 2), new Envelope(0, 4, 0, 4)));
+
+        assertTrue(IsochroneUtility.computeIntersections(isoMaps, true).isEmpty());
+        assertTrue(IsochroneUtility.computeIntersections(isoMaps, false).isEmpty());
+    }
+
+    private IsochroneMap createMap(int travellerId, Envelope... ranges) {
+        IsochroneMap isoMap = new IsochroneMap(travellerId, new Coordinate(ranges[0].getMinX(), ranges[0].getMinY()));
+        for (Envelope range : ranges)
+            isoMap.addIsochrone(new Isochrone(geometryFactory.toGeometry(range), range.getWidth(), range.getWidth() / 2));
+        return isoMap;
+    }
+
+    private static List<List<Integer>> toRefs(IsochronesIntersection intersection) {
+        List<List<Integer>> refs = new ArrayList<>();
+        for (Pair<Integer, Integer> ref : intersection.getContourRefs())
+            refs.add(List.of(ref.first, ref.second));
+        return refs;
+    }
+}
@@ -0,0 +1,116 @@
+package org.heigit.ors.isochrones.statistics.grid;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PopulationGridTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private PopulationGrid grid;
+
+    // cells of 1 degree from 10,50 to 14,54, the value of a cell is 10 * row + col with a no data cell in row 1
+    @BeforeEach
+    void setUp(@TempDir Path dir) throws IOException {
+        Path source = dir.resolve("pop.asc");
+        Files.writeString(source, """
+                ncols 4
+                nrows 4
+                xllcorner 10
+                yllcorner 50
+                cellsize 1
+                NODATA_value -9999
+                0 1 2 3
+                10 -9999 12 13
+                20 21 22 23
+                30 31 32 3.3e1
+                """);
+        Path target = dir.resolve("pop.sat");
+        PopulationGrid.convertAsciiGrid(source, target);
+        grid = PopulationGrid.open(target);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        grid.close();
+    }
+
+    private Polygon createPolygon(double... coords) {
+        Coordinate[] coordinates = new Coordinate[coords.length / 2];
+        for (int i = 0; i < coordinates.length; i++)
+            coordinates[i] = new Coordinate(coords[2 * i], coords[2 * i + 1]);
+        return geometryFactory.createPolygon(coordinates);
+    }
+
+    @Test
+    void testRectangles() {
+        assertEquals(4, grid.getRows());
+        assertEquals(4, grid.getCols());
+        assertEquals(253, grid.sumRectangle(0, 4, 0, 4), 1e-9);
+        assertEquals(12 + 13 + 22 + 23, grid.sumRectangle(1, 3, 2, 4), 1e-9);
+    }
+
+    @Test
+    void testWholeGrid() {
+        assertEquals(253, grid.sum(createPolygon(9, 49, 15, 49, 15, 55, 9, 55, 9, 49)), 1e-9);
+    }
+
+    @Test
+    void testCellCentres() {
+        // covers the centres of the cells 10, 20, 21, 30, 31 and 32 only
+        Polygon triangle = createPolygon(10.2, 53, 10.2, 50.2, 12.9, 50.2, 10.2, 53);
+        assertEquals(10 + 20 + 21 + 30 + 31 + 32, grid.sum(triangle), 1e-9);
+    }
+
+    @Test
+    void testHole() {
+        Coordinate[] shell = createPolygon(10, 50, 14, 50, 14, 54, 10, 54, 10, 50).getCoordinates();
+        Coordinate[] hole = createPolygon(11, 51, 13, 51, 13, 53, 11, 53, 11, 51).getCoordinates();
+        Polygon polygon = geometryFactory.createPolygon(geometryFactory.createLinearRing(shell), new LinearRing[]{geometryFactory.createLinearRing(hole)});
+        // the no data cell lies in the hole
+        assertEquals(253 - 12 - 21 - 22, grid.sum(polygon), 1e-9);
+    }
+
+    @Test
+    void testCornerAndCentreHeaders(@TempDir Path dir) throws IOException {
+        // the same grid as in setUp with the latitude given for the centre of the lower left cell
+        Path source = dir.resolve("pop-centre.asc");
+        Files.writeString(source, """
+                ncols 4
+                nrows 4
+                xllcorner 10
+                yllcenter 50.5
+                cellsize 1
+                0 1 2 3
+                10 11 12 13
+                20 21 22 23
+                30 31 32 33
+                """);
+        Path target = dir.resolve("pop-centre.sat");
+        PopulationGrid.convertAsciiGrid(source, target);
+        try (PopulationGrid centreGrid = PopulationGrid.open(target)) {
+            assertEquals(1, centreGrid.sum(createPolygon(11.2, 53.2, 11.8, 53.2, 11.8, 53.8, 11.2, 53.8, 11.2, 53.2)), 1e-9);
+            assertEquals(30, centreGrid.sum(createPolygon(10.2, 50.2, 10.8, 50.2, 10.8, 50.8, 10.2, 50.8, 10.2, 50.2)), 1e-9);
+        }
+    }
+
+    @Test
+    void testMultiPolygonOutsideOfGrid() {
+        Geometry multiPolygon = geometryFactory.createMultiPolygon(new Polygon[]{
+                createPolygon(0, 0, 1, 0, 1, 1, 0, 0),
+                createPolygon(13.1, 53.1, 15, 53.1, 15, 55, 13.1, 55, 13.1, 53.1)
+        });
+        assertEquals(3, grid.sum(multiPolygon), 1e-9);
+    }
+}
@@ -0,0 +1,202 @@
+package org.heigit.ors.matrix.core;
+
+import com.graphhopper.routing.AlgorithmOptions;
+import com.graphhopper.routing.Path;
+import com.graphhopper.routing.ev.EncodedValueLookup;
+import com.graphhopper.routing.ev.TurnCost;
+import com.graphhopper.routing.util.*;
+import com.graphhopper.routing.weighting.DefaultTurnCostProvider;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHConfig;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RoutingCHGraph;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.PMap;
+import com.graphhopper.util.Parameters;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.algorithms.core.CoreMatrixAlgorithm;
+import org.heigit.ors.matrix.algorithms.core.TDCoreMatrixAlgorithm;
+import org.heigit.ors.routing.graphhopper.extensions.core.CoreRoutingAlgorithmFactory;
+import org.heigit.ors.routing.graphhopper.extensions.core.CoreTestEdgeFilter;
+import org.heigit.ors.routing.graphhopper.extensions.core.PrepareCore;
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.EdgeFilterSequence;
+import org.heigit.ors.routing.graphhopper.extensions.edgefilters.core.TurnRestrictionsCoreEdgeFilter;
+import org.heigit.ors.routing.graphhopper.extensions.weighting.ORSFastestWeighting;
+import org.heigit.ors.util.ToyGraphCreationUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static com.graphhopper.routing.weighting.Weighting.INFINITE_U_TURN_COSTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TDCoreMatrixTest {
+    private static final int METRICS = MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT;
+    private static final long HOUR = 3600 * 1000L;
+    private static final long DAY = Instant.parse("2023-10-19T00:00:00Z").toEpochMilli();
+    private static final long FREE_FLOW = DAY + 12 * HOUR;
+    private static final long RUSH_HOUR = DAY + 8 * HOUR;
+    // before the rush hour, which starts while the longer routes are still on their way
+    private static final long[] DEPARTURES = {DAY + 6 * HOUR, DAY + 7 * HOUR - 5 * 60 * 1000, RUSH_HOUR, FREE_FLOW};
+    private static final int NODES = 9;
+
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder(5, 5, 3);
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private GraphHopperStorage g;
+    private CHConfig chConfig;
+    private MatrixRequest matrixRequest;
+
+    /**
+     * Slows down the edges 3-4 and 4-6 to a quarter of their speed from 7 to 9 o'clock UTC.
+     */
+    private static class RushHourSpeedCalculator extends AbstractAdjustedSpeedCalculator {
+        private static final Set<Integer> SLOW_EDGES = Set.of(7, 9);
+
+        RushHourSpeedCalculator(SpeedCalculator superSpeedCalculator) {
+            super(superSpeedCalculator);
+        }
+
+        @Override
+        public double getSpeed(EdgeIteratorState edge, boolean reverse, long time) {
+            double speed = superSpeedCalculator.getSpeed(edge, reverse, time);
+            long hour = (time / HOUR) % 24;
+            if (hour >= 7 && hour < 9 && SLOW_EDGES.contains(edge.getEdge()))
+                speed /= 4;
+            return speed;
+        }
+
+        @Override
+        public boolean isTimeDependent() {
+            return true;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        g = new GraphBuilder(encodingManager).withTurnCosts(true).build();
+        chConfig = new CHConfig("c", createWeighting(false), true, CHConfig.TYPE_CORE);
+        g.addCHGraph(chConfig).create(1000);
+        ToyGraphCreationUtil.createMediumGraph(g, encodingManager);
+        // kilometres instead of metres, so that the routes take minutes and cross the start of the rush hour
+        AllEdgesIterator edges = g.getAllEdges();
+        while (edges.next())
+            edges.setDistance(edges.getDistance() * 1000);
+        matrixRequest = new MatrixRequest(2000, 50000, INFINITE_U_TURN_COSTS);
+        matrixRequest.setMetrics(METRICS);
+    }
+
+    private Weighting createWeighting(boolean timeDependent) {
+        Weighting weighting = new ORSFastestWeighting(carEncoder, new PMap(), new DefaultTurnCostProvider(carEncoder, g.getTurnCostStorage()));
+        if (timeDependent)
+            weighting.setSpeedCalculator(new RushHourSpeedCalculator(new DefaultSpeedCalculator(carEncoder)));
+        return weighting;
+    }
+
+    /**
+     * Contract the graph with the core around the nodes 3 to 7, which contains the slowed down edges.
+     */
+    private RoutingCHGraph prepareCore(boolean turnRestrictions) {
+        EdgeFilterSequence coreEdgeFilter = new EdgeFilterSequence();
+        if (turnRestrictions)
+            coreEdgeFilter.add(new TurnRestrictionsCoreEdgeFilter(carEncoder, g));
+        CoreTestEdgeFilter restrictedEdges = new CoreTestEdgeFilter();
+        for (int edge = 7; edge <= 11; edge++)
+            restrictedEdges.add(edge);
+        coreEdgeFilter.add(restrictedEdges);
+
+        g.freeze();
+        new PrepareCore(g, chConfig, coreEdgeFilter).doWork();
+        return g.getRoutingCHGraph();
+    }
+
+    private MatrixLocations createLocations() {
+        MatrixLocations locations = new MatrixLocations(NODES);
+        for (int node = 0; node < NODES; node++)
+            locations.setData(node, node, null);
+        return locations;
+    }
+
+    private MatrixResult computeTDMatrix(RoutingCHGraph chGraph, long departure) throws Exception {
+        TDCoreMatrixAlgorithm algorithm = new TDCoreMatrixAlgorithm(null, () -> createWeighting(true), () -> null, departure);
+        algorithm.init(matrixRequest, null, chGraph, carEncoder, createWeighting(true));
+        return algorithm.compute(createLocations(), createLocations(), METRICS);
+    }
+
+    private Path calcRoute(RoutingCHGraph chGraph, int from, int to, long departure) {
+        AlgorithmOptions opts = new AlgorithmOptions().setAlgorithm(Parameters.Algorithms.TD_DIJKSTRA);
+        return new CoreRoutingAlgorithmFactory(chGraph).createAlgo(g, createWeighting(true), opts).calcPath(from, to, departure);
+    }
+
+    private void assertMatrixMatchesRoutes(RoutingCHGraph chGraph) throws Exception {
+        for (long departure : DEPARTURES) {
+            MatrixResult result = computeTDMatrix(chGraph, departure);
+            float[] times = result.getTable(MatrixMetricsType.DURATION);
+            float[] distances = result.getTable(MatrixMetricsType.DISTANCE);
+            float[] weights = result.getTable(MatrixMetricsType.WEIGHT);
+            for (int from = 0; from < NODES; from++) {
+                for (int to = 0; to < NODES; to++) {
+                    if (from == to)
+                        continue;
+                    int index = from * NODES + to;
+                    String pair = "%d -> %d departing at %s".formatted(from, to, Instant.ofEpochMilli(departure));
+                    Path route = calcRoute(chGraph, from, to, departure);
+                    if (!route.isFound()) {
+                        assertEquals(-1, times[index], pair);
+                        continue;
+                    }
+                    assertEquals(route.getTime() / 1000.0, times[index], 1e-2, pair);
+                    assertEquals(route.getDistance(), distances[index], 1e-1, pair);
+                    assertEquals(route.getWeight(), weights[index], 1e-2, pair);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMatchesTimeDependentRoutes() throws Exception {
+        RoutingCHGraph chGraph = prepareCore(false);
+
+        assertMatrixMatchesRoutes(chGraph);
+
+        // 3-4-5 is slowed down, but still faster than the detour 3-0-8-7-5
+        int index = 3 * NODES + 5;
+        assertEquals(180, computeTDMatrix(chGraph, FREE_FLOW).getTable(MatrixMetricsType.DURATION)[index], 1e-2);
+        assertEquals(540, computeTDMatrix(chGraph, RUSH_HOUR).getTable(MatrixMetricsType.DURATION)[index], 1e-2);
+    }
+
+    @Test
+    void testMatchesTimeDependentRoutesWithTurnRestrictions() throws Exception {
+        // no turn from 3-4 onto 4-5
+        g.getTurnCostStorage().set(((EncodedValueLookup) encodingManager).getDecimalEncodedValue(TurnCost.key(carEncoder.toString())),
+                7, 4, 8, Double.POSITIVE_INFINITY);
+        RoutingCHGraph chGraph = prepareCore(true);
+
+        assertMatrixMatchesRoutes(chGraph);
+
+        // 3-4-6-7-5 instead of 3-4-5, with 3-4 and 4-6 slowed down in the rush hour
+        int index = 3 * NODES + 5;
+        assertEquals(6000, computeTDMatrix(chGraph, FREE_FLOW).getTable(MatrixMetricsType.DISTANCE)[index], 1e-1);
+        assertEquals(360, computeTDMatrix(chGraph, FREE_FLOW).getTable(MatrixMetricsType.DURATION)[index], 1e-2);
+        assertTrue(computeTDMatrix(chGraph, RUSH_HOUR).getTable(MatrixMetricsType.DURATION)[index] > 360);
+    }
+
+    @Test
+    void testMatchesCoreMatrixAtFreeFlow() throws Exception {
+        RoutingCHGraph chGraph = prepareCore(false);
+        CoreMatrixAlgorithm algorithm = new CoreMatrixAlgorithm();
+        algorithm.init(matrixRequest, chGraph, carEncoder, createWeighting(false), new CoreTestEdgeFilter());
+
+        MatrixResult expected = algorithm.compute(createLocations(), createLocations(), METRICS);
+        MatrixResult result = computeTDMatrix(chGraph, FREE_FLOW);
+
+        assertArrayEquals(expected.getTable(MatrixMetricsType.DURATION), result.getTable(MatrixMetricsType.DURATION), 1e-2f);
+        assertArrayEquals(expected.getTable(MatrixMetricsType.DISTANCE), result.getTable(MatrixMetricsType.DISTANCE), 1e-1f);
+        assertArrayEquals(expected.getTable(MatrixMetricsType.WEIGHT), result.getTable(MatrixMetricsType.WEIGHT), 1e-2f);
+    }
+}
@@ -0,0 +1,97 @@
+package org.heigit.ors.matrix.dijkstra;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.ShortestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import org.heigit.ors.exceptions.MaxVisitedNodesExceededException;
+import org.heigit.ors.matrix.MatrixLocations;
+import org.heigit.ors.matrix.MatrixMetricsType;
+import org.heigit.ors.matrix.MatrixRequest;
+import org.heigit.ors.matrix.MatrixResult;
+import org.heigit.ors.matrix.algorithms.dijkstra.DijkstraMatrixAlgorithm;
+import org.heigit.ors.matrix.algorithms.dijkstra.ParallelDijkstraMatrixAlgorithm;
+import org.heigit.ors.util.BoundedWorkerPool;
+import org.heigit.ors.util.ToyGraphCreationUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.graphhopper.routing.weighting.Weighting.INFINITE_U_TURN_COSTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelDijkstraMatrixTest {
+    private static final int ALL_METRICS = MatrixMetricsType.DURATION | MatrixMetricsType.DISTANCE | MatrixMetricsType.WEIGHT;
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder();
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private final Weighting weighting = new ShortestWeighting(carEncoder);
+    private GraphHopperStorage g;
+    private BoundedWorkerPool workerPool;
+
+    @BeforeEach
+    void setUp() {
+        g = new GraphBuilder(encodingManager).create();
+        ToyGraphCreationUtil.createMediumGraph(g, encodingManager);
+        workerPool = new BoundedWorkerPool("ors-matrix-worker", 3, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerPool.shutdown();
+    }
+
+    @Test
+    void testManyToManyMatchesSequentialAlgorithm() throws Exception {
+        MatrixLocations sources = createLocations(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        MatrixLocations destinations = createLocations(8, 7, 6, 5, 4, 3, 2, 1, 0, 4);
+
+        DijkstraMatrixAlgorithm sequential = new DijkstraMatrixAlgorithm();
+        sequential.init(createRequest(50000), null, g, carEncoder, weighting);
+        MatrixResult expected = sequential.compute(sources, destinations, ALL_METRICS);
+
+        ParallelDijkstraMatrixAlgorithm parallel = new ParallelDijkstraMatrixAlgorithm(workerPool, () -> new ShortestWeighting(carEncoder));
+        parallel.init(createRequest(50000), null, g, carEncoder, weighting);
+        MatrixResult result = parallel.compute(sources, destinations, ALL_METRICS);
+
+        for (int metric : new int[]{MatrixMetricsType.DURATION, MatrixMetricsType.DISTANCE, MatrixMetricsType.WEIGHT})
+            assertArrayEquals(expected.getTable(metric), result.getTable(metric), 1e-4f);
+        assertEquals(6.0, result.getTable(MatrixMetricsType.DISTANCE)[1 * 10 + 2], 1e-6);
+        assertEquals(0.0, result.getTable(MatrixMetricsType.DISTANCE)[4 * 10 + 4], 1e-6);
+    }
+
+    @Test
+    void testUnresolvedSourceHasEmptyValues() throws Exception {
+        MatrixLocations sources = createLocations(1, -1);
+        MatrixLocations destinations = createLocations(4, 5);
+
+        ParallelDijkstraMatrixAlgorithm parallel = new ParallelDijkstraMatrixAlgorithm(workerPool, () -> new ShortestWeighting(carEncoder));
+        parallel.init(createRequest(50000), null, g, carEncoder, weighting);
+        float[] distances = parallel.compute(sources, destinations, MatrixMetricsType.DISTANCE).getTable(MatrixMetricsType.DISTANCE);
+
+        assertArrayEquals(new float[]{5, 6, -1, -1}, distances, 1e-6f);
+    }
+
+    @Test
+    void testMaxVisitedNodesAppliesToWholeMatrix() {
+        MatrixLocations sources = createLocations(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        MatrixLocations destinations = createLocations(0, 1, 2, 3, 4, 5, 6, 7, 8);
+
+        ParallelDijkstraMatrixAlgorithm parallel = new ParallelDijkstraMatrixAlgorithm(workerPool, () -> new ShortestWeighting(carEncoder));
+        parallel.init(createRequest(20), null, g, carEncoder, weighting);
+
+        assertThrows(MaxVisitedNodesExceededException.class, () -> parallel.compute(sources, destinations, MatrixMetricsType.DISTANCE));
+    }
+
+    private static MatrixRequest createRequest(int maximumVisitedNodes) {
+        return new MatrixRequest(2000, maximumVisitedNodes, INFINITE_U_TURN_COSTS);
+    }
+
+    private static MatrixLocations createLocations(int... nodes) {
+        MatrixLocations locations = new MatrixLocations(nodes.length);
+        for (int i = 0; i < nodes.length; i++)
+            locations.setData(i, nodes[i], null);
+        return locations;
+    }
+}
@@ -152,7 +152,7 @@ class RPHASTMatrixTest {
         int[] srcIds = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8};
         int[] dstIds = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8};
         algorithm.prepare(srcIds, dstIds);
-        algorithm.setMaxVisitedNodes(33);
+        algorithm.setMaxVisitedNodes(15);
         assertThrows(MaxVisitedNodesExceededException.class, () -> algorithm.calcPaths(srcIds, dstIds));
     }
 
@@ -0,0 +1,115 @@
+package org.heigit.ors.routing;
+
+import com.graphhopper.GHResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSegmentRouterTest {
+    private ParallelSegmentRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new ParallelSegmentRouter(8, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+    }
+
+    private static GHResponse createResponse(int segment) {
+        GHResponse response = new GHResponse();
+        response.getHints().putObject("segment", segment);
+        return response;
+    }
+
+    @Test
+    void testResponsesInSegmentOrder() throws Exception {
+        GHResponse[] responses = router.route(20, segment -> {
+            Thread.sleep((20 - segment) % 4);
+            return createResponse(segment);
+        });
+
+        assertEquals(20, responses.length);
+        for (int i = 0; i < responses.length; i++)
+            assertEquals(i + 1, responses[i].getHints().getInt("segment", -1));
+    }
+
+    @Test
+    void testParallelismIsLimitedPerRequest() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        router.route(30, segment -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            return createResponse(segment);
+        });
+
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    void testFailureOfLowestSegmentIsThrown() {
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> router.route(10, segment -> {
+            if (segment == 7) {
+                throw new IllegalArgumentException("segment 7");
+            } else if (segment == 4) {
+                Thread.sleep(20);
+                throw new IllegalArgumentException("segment 4");
+            }
+            return createResponse(segment);
+        }));
+
+        assertEquals("segment 4", exception.getMessage());
+    }
+
+    @Test
+    void testSingleSegmentRunsInCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        GHResponse[] responses = router.route(1, segment -> {
+            assertSame(caller, Thread.currentThread());
+            return createResponse(segment);
+        });
+
+        assertEquals(1, responses.length);
+    }
+
+    @Test
+    void testQueuedWorkersAreNotAwaited() throws Exception {
+        ParallelSegmentRouter busyRouter = new ParallelSegmentRouter(1, 2);
+        ExecutorService otherRequest = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(2);
+        try {
+            // occupies the only pool thread until released
+            Future<GHResponse[]> blocking = otherRequest.submit(() -> busyRouter.route(2, segment -> {
+                blocked.countDown();
+                release.await();
+                return createResponse(segment);
+            }));
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+            GHResponse[] responses = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> busyRouter.route(3, ParallelSegmentRouterTest::createResponse));
+            assertEquals(3, responses.length);
+
+            release.countDown();
+            assertEquals(2, blocking.get(5, TimeUnit.SECONDS).length);
+        } finally {
+            release.countDown();
+            otherRequest.shutdownNow();
+            busyRouter.shutdown();
+        }
+    }
+}
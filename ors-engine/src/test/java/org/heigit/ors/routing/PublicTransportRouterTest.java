@@ -0,0 +1,108 @@
+package org.heigit.ors.routing;
+
+import com.google.transit.realtime.GtfsRealtime;
+import com.graphhopper.GHResponse;
+import com.graphhopper.gtfs.PtRouter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicTransportRouterTest {
+    @TempDir
+    Path tempDir;
+
+    private final List<GtfsRealtime.FeedMessage> feeds = new ArrayList<>();
+
+    private PtRouter createRouter(GtfsRealtime.FeedMessage feed) {
+        feeds.add(feed);
+        return request -> new GHResponse();
+    }
+
+    private void writeFeed(Path file, String id, long modified) throws IOException {
+        GtfsRealtime.FeedMessage feed = GtfsRealtime.FeedMessage.newBuilder()
+                .setHeader(GtfsRealtime.FeedHeader.newBuilder().setGtfsRealtimeVersion("2.0"))
+                .addEntity(GtfsRealtime.FeedEntity.newBuilder().setId(id))
+                .build();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            feed.writeTo(out);
+        }
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+    }
+
+    @Test
+    void testReloadReplacesRouterAndClearsResultCache() throws Exception {
+        Path file = tempDir.resolve("realtime.pb");
+        writeFeed(file, "a", 1000000);
+        ResultCache cache = new ResultCache(16);
+        PublicTransportRouter ptRouter = new PublicTransportRouter(this::createRouter, file, 3600, cache);
+        try {
+            PtRouter initial = ptRouter.getRouter();
+            String initialVersion = ptRouter.getRealtimeFeedVersion();
+            assertEquals(2, feeds.size());
+            assertNull(feeds.get(0));
+            assertEquals("a", feeds.get(1).getEntity(0).getId());
+            assertNotNull(initialVersion);
+            cache.get("route", initialVersion, String.class, () -> "schedule a");
+
+            // unmodified file
+            ptRouter.reloadRealtimeFeed();
+            assertSame(initial, ptRouter.getRouter());
+            assertEquals(1, cache.size());
+
+            writeFeed(file, "b", 2000000);
+            ptRouter.reloadRealtimeFeed();
+
+            assertNotSame(initial, ptRouter.getRouter());
+            assertEquals("b", feeds.get(2).getEntity(0).getId());
+            assertNotEquals(initialVersion, ptRouter.getRealtimeFeedVersion());
+            assertEquals(0, cache.size());
+            // a result of a request still running on the previous feed is not returned for the new one
+            cache.get("route", initialVersion, String.class, () -> "schedule a");
+            assertEquals("schedule b", cache.get("route", ptRouter.getRealtimeFeedVersion(), String.class, () -> "schedule b"));
+        } finally {
+            ptRouter.close();
+        }
+    }
+
+    @Test
+    void testUnreadableFeedKeepsRouter() throws Exception {
+        Path file = tempDir.resolve("realtime.pb");
+        writeFeed(file, "a", 1000000);
+        ResultCache cache = new ResultCache(16);
+        PublicTransportRouter ptRouter = new PublicTransportRouter(this::createRouter, file, 3600, cache);
+        try {
+            PtRouter initial = ptRouter.getRouter();
+            String initialVersion = ptRouter.getRealtimeFeedVersion();
+            cache.get("route", initialVersion, String.class, () -> "schedule a");
+
+            Files.write(file, new byte[]{(byte) 0xff, 0x01});
+            Files.setLastModifiedTime(file, FileTime.fromMillis(2000000));
+            ptRouter.reloadRealtimeFeed();
+
+            assertSame(initial, ptRouter.getRouter());
+            assertEquals(initialVersion, ptRouter.getRealtimeFeedVersion());
+            assertEquals(1, cache.size());
+        } finally {
+            ptRouter.close();
+        }
+    }
+
+    @Test
+    void testWithoutRealtimeFile() {
+        PublicTransportRouter ptRouter = new PublicTransportRouter(this::createRouter, null, 60, null);
+
+        assertNotNull(ptRouter.getRouter());
+        assertNull(ptRouter.getRealtimeFeedVersion());
+        assertEquals(1, feeds.size());
+        ptRouter.close();
+    }
+}
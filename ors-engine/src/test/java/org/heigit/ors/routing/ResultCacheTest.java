@@ -0,0 +1,58 @@
+package org.heigit.ors.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    @Test
+    void testRepeatedRequestIsComputedOnce() throws Exception {
+        ResultCache cache = new ResultCache(100);
+        AtomicInteger computations = new AtomicInteger();
+        String first = cache.get("routes|a", "2023-01-01", String.class, () -> "result" + computations.incrementAndGet());
+        String second = cache.get("routes|a", "2023-01-01", String.class, () -> "result" + computations.incrementAndGet());
+
+        assertEquals(1, computations.get());
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testNewGraphDateInvalidatesEntry() throws Exception {
+        ResultCache cache = new ResultCache(100);
+        cache.get("routes|a", "2023-01-01", String.class, () -> "old");
+        String result = cache.get("routes|a", "2023-02-01", String.class, () -> "new");
+
+        assertEquals("new", result);
+        assertEquals(2, cache.getMisses());
+        assertEquals("new", cache.get("routes|a", "2023-02-01", String.class, () -> "other"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testFailedComputationIsNotCached() throws Exception {
+        ResultCache cache = new ResultCache(100);
+        assertThrows(IllegalStateException.class, () -> cache.get("matrix|a", "2023-01-01", String.class, () -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(0, cache.size());
+        assertEquals("result", cache.get("matrix|a", "2023-01-01", String.class, () -> "result"));
+    }
+
+    @Test
+    void testSizeIsBounded() throws Exception {
+        ResultCache cache = new ResultCache(32);
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            cache.get("isochrones|" + i, "2023-01-01", Integer.class, () -> value);
+        }
+        assertTrue(cache.size() <= 32);
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,103 @@
+package org.heigit.ors.routing;
+
+import org.heigit.ors.config.EngineConfig;
+import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingProfileManagerTest {
+    @TempDir
+    Path tempDir;
+
+    private RouteProfileConfiguration rpc;
+    private EngineConfig config;
+
+    @BeforeEach
+    void setUp() {
+        Path graphsRoot = tempDir.resolve("graphs");
+        rpc = new RouteProfileConfiguration();
+        rpc.setName("car");
+        rpc.setProfiles("driving-car");
+        rpc.setGraphPath(graphsRoot.resolve("car").toString());
+        config = EngineConfig.EngineConfigBuilder.init()
+                .setSourceFile("src/test/files/preprocessed_osm_data.pbf")
+                .setGraphsRootPath(graphsRoot.toString())
+                .setProfiles(new RouteProfileConfiguration[]{rpc})
+                .build();
+    }
+
+    @Test
+    void testIncompleteVersionIsRejected() throws Exception {
+        RoutingProfilesCollection active = new RoutingProfilesCollection();
+        RoutingProfileManager manager = new RoutingProfileManager(config, active);
+        String configuredGraphPath = rpc.getGraphPath();
+        // the profile folder exists, but does not contain a graph
+        Path version = tempDir.resolve("versions").resolve("2023-10-08");
+        Files.createDirectories(version.resolve("car"));
+
+        assertFalse(manager.reload(version));
+
+        assertSame(active, manager.getProfiles());
+        assertNull(manager.getGraphVersion());
+        assertEquals(configuredGraphPath, rpc.getGraphPath());
+        assertFalse(Files.exists(version.resolve("car").resolve("properties")));
+        assertTrue(active.acquire());
+    }
+
+    @Test
+    void testLeasedProfilesOutliveReload() throws Exception {
+        RoutingProfilesCollection previous = new RoutingProfilesCollection();
+        RoutingProfileManager manager = new RoutingProfileManager(config, previous);
+        Path version = tempDir.resolve("versions").resolve("2023-10-08");
+        buildGraph(version.resolve("car"));
+
+        assertSame(previous, manager.acquireProfiles());
+        assertTrue(manager.reload(version));
+
+        // the request which leased the previous profiles keeps using them
+        assertSame(previous, manager.getProfiles());
+        assertFalse(previous.isClosed());
+        RoutingProfilesCollection activated = CompletableFuture.supplyAsync(manager::getProfiles).get();
+        assertNotSame(previous, activated);
+        assertNotNull(activated.getRouteProfile(RoutingProfileType.DRIVING_CAR));
+        assertEquals(version, manager.getGraphVersion());
+
+        manager.releaseProfiles();
+        assertTrue(previous.isClosed());
+        assertSame(activated, manager.getProfiles());
+        assertSame(activated, manager.acquireProfiles());
+        manager.releaseProfiles();
+        assertEquals(0, activated.getLeases());
+        activated.destroy();
+    }
+
+    @Test
+    void testNestedLeaseKeepsOuterProfiles() {
+        RoutingProfilesCollection profiles = new RoutingProfilesCollection();
+        RoutingProfileManager manager = new RoutingProfileManager(config, profiles);
+
+        assertSame(profiles, manager.acquireProfiles());
+        assertSame(profiles, manager.acquireProfiles());
+        assertEquals(1, profiles.getLeases());
+
+        manager.releaseProfiles();
+        assertEquals(1, profiles.getLeases());
+        manager.releaseProfiles();
+        assertEquals(0, profiles.getLeases());
+        assertThrows(IllegalStateException.class, manager::releaseProfiles);
+    }
+
+    private void buildGraph(Path graphPath) throws Exception {
+        String configuredGraphPath = rpc.getGraphPath();
+        rpc.setGraphPath(graphPath.toString());
+        new RoutingProfile(config, rpc, new RoutingProfileLoadContext()).close();
+        rpc.setGraphPath(configuredGraphPath);
+    }
+}
@@ -0,0 +1,43 @@
+package org.heigit.ors.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingProfileReloaderTest {
+    @TempDir
+    Path reloadPath;
+
+    @Test
+    void testLatestCompleteVersionIsFound() throws IOException {
+        assertNull(RoutingProfileReloader.findLatestVersion(reloadPath));
+
+        Path older = Files.createDirectory(reloadPath.resolve("2023-10-01"));
+        Files.createFile(older.resolve(RoutingProfileReloader.READY_FILE));
+        Path newer = Files.createDirectory(reloadPath.resolve("2023-10-08"));
+        Files.createFile(newer.resolve(RoutingProfileReloader.READY_FILE));
+        // still being built
+        Files.createDirectories(reloadPath.resolve("2023-10-15").resolve("car"));
+
+        assertEquals(newer, RoutingProfileReloader.findLatestVersion(reloadPath));
+    }
+
+    @Test
+    void testMissingReloadPath() {
+        assertNull(RoutingProfileReloader.findLatestVersion(reloadPath.resolve("missing")));
+    }
+
+    @Test
+    void testVersionsAreOrderedByName() {
+        Path active = reloadPath.resolve("2023-10-08");
+        assertTrue(RoutingProfileReloader.isNewer(reloadPath.resolve("2023-10-15"), active));
+        assertFalse(RoutingProfileReloader.isNewer(active, active));
+        assertFalse(RoutingProfileReloader.isNewer(reloadPath.resolve("2023-10-01"), active));
+        assertTrue(RoutingProfileReloader.isNewer(active, null));
+    }
+}
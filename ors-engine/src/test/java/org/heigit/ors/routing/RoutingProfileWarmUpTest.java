@@ -0,0 +1,39 @@
+package org.heigit.ors.routing;
+
+import org.heigit.ors.config.EngineConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingProfileWarmUpTest {
+    @TempDir
+    Path graphPath;
+
+    @Test
+    void testDisabledByDefault() {
+        assertFalse(new RoutingProfileWarmUp(EngineConfig.EngineConfigBuilder.init().build()).isEnabled());
+        assertTrue(new RoutingProfileWarmUp(EngineConfig.EngineConfigBuilder.init().setWarmUpPrefetch(true).build()).isEnabled());
+        assertTrue(new RoutingProfileWarmUp(EngineConfig.EngineConfigBuilder.init().setWarmUpMatrices(1).build()).isEnabled());
+    }
+
+    @Test
+    void testPrefetchFiles() throws IOException {
+        Files.write(graphPath.resolve("nodes"), new byte[4096]);
+        Files.write(graphPath.resolve("edges"), new byte[1000]);
+        Files.createFile(graphPath.resolve("properties"));
+        Path subfolder = Files.createDirectory(graphPath.resolve("gtfs"));
+        Files.write(subfolder.resolve("stops"), new byte[10]);
+
+        assertEquals(5106, RoutingProfileWarmUp.prefetchFiles(graphPath));
+    }
+
+    @Test
+    void testPrefetchMissingFolder() {
+        assertEquals(0, RoutingProfileWarmUp.prefetchFiles(graphPath.resolve("missing")));
+    }
+}
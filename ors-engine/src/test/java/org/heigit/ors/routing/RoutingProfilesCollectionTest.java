@@ -0,0 +1,37 @@
+package org.heigit.ors.routing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingProfilesCollectionTest {
+
+    @Test
+    void testRetiredProfilesAreClosedAfterLastLease() {
+        RoutingProfilesCollection profiles = new RoutingProfilesCollection();
+        assertTrue(profiles.acquire());
+        assertTrue(profiles.acquire());
+
+        profiles.retire();
+        assertFalse(profiles.isClosed());
+        assertFalse(profiles.acquire());
+        assertEquals(2, profiles.getLeases());
+
+        profiles.release();
+        assertFalse(profiles.isClosed());
+        profiles.release();
+        assertTrue(profiles.isClosed());
+    }
+
+    @Test
+    void testUnusedProfilesAreClosedWhenRetired() {
+        RoutingProfilesCollection profiles = new RoutingProfilesCollection();
+        assertTrue(profiles.acquire());
+        profiles.release();
+        assertFalse(profiles.isClosed());
+
+        profiles.retire();
+        assertTrue(profiles.isClosed());
+        assertEquals(0, profiles.getLeases());
+    }
+}
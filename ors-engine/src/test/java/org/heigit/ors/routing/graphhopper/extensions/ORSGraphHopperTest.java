@@ -3,11 +3,17 @@ package org.heigit.ors.routing.graphhopper.extensions;
 import com.graphhopper.GHRequest;
 import com.graphhopper.GHResponse;
 import com.graphhopper.ResponsePath;
+import com.graphhopper.config.CHProfile;
 import com.graphhopper.config.Profile;
+import com.graphhopper.storage.StorableProperties;
 import com.graphhopper.util.Instruction;
 import com.graphhopper.util.InstructionList;
+import com.graphhopper.util.Parameters;
 import com.graphhopper.util.PointList;
+import com.graphhopper.util.shapes.GHPoint;
 import org.heigit.ors.routing.configuration.RouteProfileConfiguration;
+import org.heigit.ors.routing.graphhopper.extensions.util.ORSParameters;
+import org.heigit.ors.util.ProfileTools;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
@@ -91,6 +97,92 @@ class ORSGraphHopperTest {
         assertEquals(419, storage.getNodes());
     }
 
+    @Test
+    void buildGraphWithConcurrentPreparations() {
+        RouteProfileConfiguration rpc = new RouteProfileConfiguration();
+        rpc.setName("whocares");
+        rpc.setEnabled(true);
+        rpc.setProfiles("driving-car");
+        GraphProcessContext gpc = new GraphProcessContext(rpc);
+        ORSGraphHopper gh = new ORSGraphHopper(gpc);
+        ORSGraphHopperConfig ghConfig = new ORSGraphHopperConfig();
+        ghConfig.putObject("graph.dataaccess", "RAM");
+        ghConfig.putObject("graph.location", "unittest.testgraph-concurrent");
+        ghConfig.putObject("datareader.file", "src/test/files/preprocessed_osm_data.pbf");
+        // the core and the fast isochrone preparations run at the same time
+        ghConfig.putObject("prepare.threads", 2);
+        Profile profile = new Profile("car_fastest").setVehicle("car").setWeighting("fastest");
+        ghConfig.setProfiles(List.of(profile));
+        ghConfig.setCoreProfiles(List.of(new CHProfile("car_fastest")));
+        ghConfig.setFastisochroneProfiles(List.of(profile));
+        gh.init(ghConfig);
+        gh.setGraphStorageFactory(new ORSGraphStorageFactory(gpc.getStorageBuilders()));
+        gh.importOrLoad();
+
+        StorableProperties properties = gh.getGraphHopperStorage().getProperties();
+        assertEquals("true", properties.get(ORSParameters.Core.PREPARE + "done"));
+        assertEquals("true", properties.get(ORSParameters.FastIsochrone.PREPARE + "done"));
+        assertFalse(properties.get(ORSParameters.FastIsochrone.PREPARE + "date.PreparePartition").isEmpty());
+        assertTrue(gh.isCoreAvailable("car_fastest"));
+        assertNotNull(gh.getFastIsochroneFactory().getCellStorage());
+        assertNotNull(gh.getEccentricity());
+        gh.close();
+    }
+
+    @Test
+    void headingsOnCoreMatchFlexibleMode() {
+        RouteProfileConfiguration rpc = new RouteProfileConfiguration();
+        rpc.setName("whocares");
+        rpc.setEnabled(true);
+        rpc.setProfiles("driving-car");
+        GraphProcessContext gpc = new GraphProcessContext(rpc);
+        ORSGraphHopper gh = new ORSGraphHopper(gpc);
+        ORSGraphHopperConfig ghConfig = new ORSGraphHopperConfig();
+        ghConfig.putObject("graph.dataaccess", "RAM");
+        ghConfig.putObject("graph.location", "unittest.testgraph-headings");
+        ghConfig.putObject("datareader.file", "src/test/files/preprocessed_osm_data.pbf");
+        ghConfig.setProfiles(List.of(new Profile("car_fastest").setVehicle("car").setWeighting("fastest")));
+        ghConfig.setCoreProfiles(List.of(new CHProfile("car_fastest")));
+        gh.init(ghConfig);
+        gh.setGraphStorageFactory(new ORSGraphStorageFactory(gpc.getStorageBuilders()));
+        gh.importOrLoad();
+        assertTrue(gh.isCoreAvailable("car_fastest"));
+
+        double unrestrictedWeight = routeWithHeadings(gh, List.of(Double.NaN, Double.NaN, Double.NaN), true).getRouteWeight();
+        boolean penalized = false;
+        // the headings unfavor the virtual edges at the start and via points in all directions
+        for (double heading = 0; heading < 360; heading += 45) {
+            List<Double> headings = List.of(heading, (heading + 90) % 360, Double.NaN);
+            ResponsePath flexible = routeWithHeadings(gh, headings, false);
+            ResponsePath core = routeWithHeadings(gh, headings, true);
+
+            String message = "headings " + headings;
+            assertEquals(flexible.getPoints(), core.getPoints(), message);
+            assertEquals(flexible.getDistance(), core.getDistance(), 1e-3, message);
+            assertEquals(flexible.getRouteWeight(), core.getRouteWeight(), 1e-3, message);
+            penalized |= core.getRouteWeight() > unrestrictedWeight + 1e-3;
+        }
+        assertTrue(penalized);
+        gh.close();
+    }
+
+    private ResponsePath routeWithHeadings(ORSGraphHopper gh, List<Double> headings, boolean useCore) {
+        // between the junctions of Gaiberger Weg, Hauptstraße and Bammentaler Straße, so that they snap onto virtual edges
+        GHRequest request = new GHRequest(List.of(
+                new GHPoint(49.36527, 8.74181),
+                new GHPoint(49.36463, 8.74876),
+                new GHPoint(49.36563, 8.75156)));
+        request.setHeadings(headings);
+        request.setProfile("car_fastest");
+        request.setAlgorithm(Parameters.Algorithms.DIJKSTRA_BI);
+        request.getHints().putObject(ProfileTools.KEY_CH_DISABLE, true);
+        request.getHints().putObject(ProfileTools.KEY_CORE_DISABLE, !useCore);
+        request.getHints().putObject(ProfileTools.KEY_LM_DISABLE, true);
+        GHResponse response = gh.route(request);
+        assertFalse(response.hasErrors(), response.getErrors().toString());
+        return response.getBest();
+    }
+
     private void checkInstructions(InstructionList instructions) {
         for (Instruction instruction : instructions) {
             PointList points = instruction.getPoints();
@@ -0,0 +1,93 @@
+package org.heigit.ors.routing.graphhopper.extensions;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparationSchedulerTest {
+
+    @Test
+    void testSingleThreadRunsStagesInOrder() {
+        List<String> order = new ArrayList<>();
+        new PreparationScheduler(1)
+                .addStage("a", () -> order.add("a"))
+                .addStage("b", () -> order.add("b"), "a")
+                .addStage("c", () -> order.add("c"))
+                .run();
+
+        assertEquals(List.of("a", "b", "c"), order);
+    }
+
+    @Test
+    void testIndependentStagesRunConcurrently() {
+        // both stages can only finish if they run at the same time
+        CountDownLatch latch = new CountDownLatch(2);
+        Runnable task = () -> {
+            latch.countDown();
+            try {
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        new PreparationScheduler(2)
+                .addStage("a", task)
+                .addStage("b", task)
+                .run();
+
+        assertEquals(0, latch.getCount());
+    }
+
+    @Test
+    void testDependenciesFinishFirst() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        new PreparationScheduler(4)
+                .addStage("core", () -> sleepAndAdd(order, "core", 20))
+                .addStage("core_lm", () -> order.add("core_lm"), "core")
+                .addStage("partition", () -> sleepAndAdd(order, "partition", 5))
+                .addStage("contours", () -> order.add("contours"), "partition")
+                .addStage("cell_properties", () -> order.add("cell_properties"), "contours")
+                .run();
+
+        assertEquals(5, order.size());
+        assertTrue(order.indexOf("core") < order.indexOf("core_lm"));
+        assertTrue(order.indexOf("partition") < order.indexOf("contours"));
+        assertTrue(order.indexOf("contours") < order.indexOf("cell_properties"));
+    }
+
+    @Test
+    void testFailureStopsDependentStages() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        PreparationScheduler scheduler = new PreparationScheduler(2)
+                .addStage("a", () -> {
+                    throw new IllegalArgumentException("stage a");
+                })
+                .addStage("b", () -> order.add("b"), "a");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, scheduler::run);
+        assertEquals("stage a", exception.getMessage());
+        assertTrue(order.isEmpty());
+    }
+
+    @Test
+    void testUnknownDependency() {
+        PreparationScheduler scheduler = new PreparationScheduler(1);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.addStage("b", () -> {
+        }, "a"));
+    }
+
+    private static void sleepAndAdd(List<String> order, String stage, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        order.add(stage);
+    }
+}
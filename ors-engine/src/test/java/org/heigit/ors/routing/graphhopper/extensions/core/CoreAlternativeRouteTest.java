@@ -0,0 +1,104 @@
+package org.heigit.ors.routing.graphhopper.extensions.core;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.graphhopper.routing.AlgorithmOptions;
+import com.graphhopper.routing.Path;
+import com.graphhopper.routing.RoutingAlgorithm;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.weighting.ShortestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHConfig;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.RoutingCHGraph;
+import com.graphhopper.util.GHUtility;
+import com.graphhopper.util.PMap;
+import com.graphhopper.util.Parameters;
+import org.heigit.ors.routing.graphhopper.extensions.ORSGraphHopperStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoreAlternativeRouteTest {
+    private final EncodingManager encodingManager = EncodingManager.create("car");
+    private final FlagEncoder carEncoder = encodingManager.getEncoder("car");
+    private final Weighting weighting = new ShortestWeighting(carEncoder);
+    private final CHConfig chConfig = new CHConfig(weighting.getName(), weighting, false, CHConfig.TYPE_CORE);
+    private RoutingCHGraph chGraph;
+    private ORSGraphHopperStorage ghStorage;
+
+    //   1
+    //  / \
+    // 0   3-4
+    //  \ /
+    //   2
+    private static void initDiamond(Graph graph, FlagEncoder enc) {
+        GHUtility.setSpeed(60, true, true, enc, graph.edge(0, 1).setDistance(100));
+        GHUtility.setSpeed(60, true, true, enc, graph.edge(1, 3).setDistance(100));
+        GHUtility.setSpeed(60, true, true, enc, graph.edge(0, 2).setDistance(110));
+        GHUtility.setSpeed(60, true, true, enc, graph.edge(2, 3).setDistance(110));
+        GHUtility.setSpeed(60, true, true, enc, graph.edge(3, 4).setDistance(50));
+    }
+
+    @BeforeEach
+    void setUp() {
+        ghStorage = new ORSGraphHopperStorage(new RAMDirectory(), encodingManager, false, false, -1);
+        ghStorage.addCoreGraph(chConfig);
+        ghStorage.create(1000);
+        initDiamond(ghStorage, carEncoder);
+
+        CoreTestEdgeFilter restrictedEdges = new CoreTestEdgeFilter();
+        for (int edge = 0; edge < ghStorage.getEdges(); edge++)
+            restrictedEdges.add(edge);
+
+        ghStorage.freeze();
+        new PrepareCore(ghStorage, chConfig, restrictedEdges).doWork();
+        chGraph = ghStorage.getCoreGraph(chConfig.getName());
+    }
+
+    private List<Path> calcPaths(int from, int to, PMap hints) {
+        AlgorithmOptions opts = new AlgorithmOptions().setAlgorithm(Parameters.Algorithms.ALT_ROUTE).setHints(hints);
+        RoutingAlgorithm algo = new CoreRoutingAlgorithmFactory(chGraph).createAlgo(ghStorage, weighting, opts);
+        assertTrue(algo instanceof CoreAlternativeRoute);
+        return algo.calcPaths(from, to);
+    }
+
+    @Test
+    void testAlternative() {
+        List<Path> paths = calcPaths(0, 4, new PMap());
+
+        assertEquals(2, paths.size());
+        assertEquals(IntArrayList.from(0, 1, 3, 4), paths.get(0).calcNodes());
+        assertEquals(250, paths.get(0).getDistance(), 1e-6);
+        assertEquals(IntArrayList.from(0, 2, 3, 4), paths.get(1).calcNodes());
+        assertEquals(270, paths.get(1).getDistance(), 1e-6);
+    }
+
+    @Test
+    void testMaxPaths() {
+        List<Path> paths = calcPaths(0, 4, new PMap().putObject(Parameters.Algorithms.AltRoute.MAX_PATHS, 1));
+
+        assertEquals(1, paths.size());
+        assertEquals(IntArrayList.from(0, 1, 3, 4), paths.get(0).calcNodes());
+    }
+
+    @Test
+    void testMaxWeightFactor() {
+        List<Path> paths = calcPaths(0, 4, new PMap().putObject(Parameters.Algorithms.AltRoute.MAX_WEIGHT, 1.05));
+
+        assertEquals(1, paths.size());
+    }
+
+    @Test
+    void testMaxShareFactor() {
+        // the alternative shares the 50m of edge 3-4 with the best path, which is 20% of its distance
+        List<Path> paths = calcPaths(0, 4, new PMap().putObject(Parameters.Algorithms.AltRoute.MAX_SHARE, 0.1));
+
+        assertEquals(1, paths.size());
+    }
+}
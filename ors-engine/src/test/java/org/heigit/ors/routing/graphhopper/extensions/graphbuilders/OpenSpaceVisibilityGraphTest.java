@@ -0,0 +1,64 @@
+package org.heigit.ors.routing.graphhopper.extensions.graphbuilders;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenSpaceVisibilityGraphTest {
+    private OpenSpaceVisibilityGraph graph;
+
+    // 5--4
+    // |  |
+    // |  3--2
+    // |     |
+    // 0-----1
+    @BeforeEach
+    void setUp() {
+        Coordinate[] ring = new Coordinate[]{
+                new Coordinate(0, 0), new Coordinate(0.002, 0), new Coordinate(0.002, 0.001),
+                new Coordinate(0.001, 0.001), new Coordinate(0.001, 0.002), new Coordinate(0, 0.002), new Coordinate(0, 0)
+        };
+        graph = new OpenSpaceVisibilityGraph(new GeometryFactory().createPolygon(ring));
+    }
+
+    @Test
+    void testVisibility() {
+        assertEquals(6, graph.getSize());
+        assertTrue(graph.isVisible(0, 3));
+        assertTrue(graph.isVisible(0, 2));
+        // crosses the boundary between 2 and 3
+        assertFalse(graph.isVisible(1, 4));
+        // runs outside of the polygon without crossing its boundary
+        assertFalse(graph.isVisible(2, 4));
+        // lies on the boundary only
+        assertFalse(graph.isVisible(0, 1));
+    }
+
+    @Test
+    void testVisibilityTouchingReflexVertex() {
+        // the line from 1 to 5 touches the boundary at 3 but stays inside the polygon
+        assertTrue(graph.isVisible(1, 5));
+        assertTrue(graph.isConnected(1, 5));
+    }
+
+    @Test
+    void testBoundaryIsConnected() {
+        assertTrue(graph.isConnected(0, 1));
+        assertTrue(graph.isConnected(5, 0));
+        assertFalse(graph.isConnected(2, 4));
+    }
+
+    @Test
+    void testShortestPathTree() {
+        int[] predecessors = graph.calcShortestPathTree(1);
+
+        assertEquals(-1, predecessors[1]);
+        // the shortest path to 4 goes around the reflex vertex 3
+        assertEquals(3, predecessors[4]);
+        assertEquals(1, predecessors[3]);
+        assertEquals(1, predecessors[2]);
+    }
+}
@@ -0,0 +1,62 @@
+package org.heigit.ors.routing.graphhopper.extensions.reader.tags;
+
+import com.graphhopper.reader.ReaderWay;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagMatcherTest {
+
+    @Test
+    void testKeyAndValueMatchers() {
+        ReaderWay way = new ReaderWay(1);
+        way.setTag("highway", "motorway_link");
+        way.setTag("name", "A 5");
+
+        assertTrue(TagMatcher.key("highway").matches(way));
+        assertFalse(TagMatcher.key("route").matches(way));
+        assertTrue(TagMatcher.tag("highway", "motorway", "motorway_link").matches(way));
+        assertFalse(TagMatcher.tag("highway", "steps").matches(way));
+        assertTrue(TagMatcher.tag(List.of("route", "highway"), List.of("motorway_link")).matches(way));
+        assertFalse(TagMatcher.tag("name", "A 6").matches(way));
+    }
+
+    @Test
+    void testKeyPrefixMatcher() {
+        TagMatcher toll = TagMatcher.keyPrefix("toll", "yes");
+        ReaderWay way = new ReaderWay(2);
+        way.setTag("toll:hgv", "yes");
+        assertTrue(toll.matches(way));
+
+        ReaderWay otherWay = new ReaderWay(3);
+        otherWay.setTag("toll", "no");
+        otherWay.setTag("oneway", "yes");
+        assertFalse(toll.matches(otherWay));
+    }
+
+    @Test
+    void testNonStringValuesOnlyMatchKeys() {
+        ReaderWay way = new ReaderWay(4);
+        way.setTag("wheelchair_accessible", true);
+
+        assertTrue(TagMatcher.key("wheelchair_accessible").matches(way));
+        assertFalse(TagMatcher.tag("wheelchair_accessible", "true").matches(way));
+    }
+
+    @Test
+    void testTagsAreInternedAgainAfterChanges() {
+        TagMatcher ford = TagMatcher.tag("ford", "yes");
+        ReaderWay way = new ReaderWay(5);
+        way.setTag("highway", "track");
+        assertFalse(ford.matches(way));
+
+        way.setTag("ford", "yes");
+        assertTrue(ford.matches(way));
+
+        // overwriting a value does not change the number of tags, so the tags have to be refreshed
+        way.setTag("ford", "no");
+        assertFalse(ford.matches(WayTags.refresh(way)));
+    }
+}
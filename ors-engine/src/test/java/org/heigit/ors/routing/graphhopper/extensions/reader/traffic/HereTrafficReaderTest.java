@@ -0,0 +1,64 @@
+package org.heigit.ors.routing.graphhopper.extensions.reader.traffic;
+
+import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.IntObjectHashMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HereTrafficReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReadRefPatternsOfBothDirections() throws IOException {
+        Path file = tempDir.resolve("ref_pattern.csv");
+        Files.writeString(file, """
+                link_id,travel_direction,u,m,t,w,r,f,s
+                12422,F,26,4,4,4,4,4,15
+                12422,T,1,2,3,4,5,6,7
+                14300,X,26,4,4,4,4,4,15
+                31007,T,26,4,4
+                """);
+
+        IntObjectHashMap<int[]> references = HereTrafficReader.readRefPatterns(file.toString());
+
+        assertEquals(1, references.size());
+        int[] linkReferences = references.get(12422);
+        int weekDays = TrafficEnums.WeekDay.values().length;
+        assertEquals(1, linkReferences[TrafficEnums.TravelDirection.TO.ordinal() * weekDays]);
+        assertEquals(7, linkReferences[TrafficEnums.TravelDirection.TO.ordinal() * weekDays + 6]);
+        assertEquals(26, linkReferences[TrafficEnums.TravelDirection.FROM.ordinal() * weekDays]);
+        assertEquals(15, linkReferences[TrafficEnums.TravelDirection.FROM.ordinal() * weekDays + 6]);
+    }
+
+    @Test
+    void testReadPatternsMergesIdenticalPatterns() throws IOException {
+        Path file = tempDir.resolve("pattern_kph_15min.csv");
+        Files.writeString(file, """
+                pattern_id,h00_00,h00_15,h00_30,h00_45
+                4,50,50,45,40
+                15,50,50,45,40
+                26,30,30,30,30
+                27,10,10,10,10
+                """);
+        IntHashSet referenced = new IntHashSet();
+        referenced.addAll(4, 15, 26);
+        IntObjectHashMap<TrafficPattern> patterns = new IntObjectHashMap<>();
+
+        IntIntHashMap aliases = HereTrafficReader.readPatterns(file.toString(), referenced, patterns);
+
+        assertEquals(2, patterns.size());
+        assertArrayEquals(new short[]{50, 50, 45, 40}, patterns.get(4).getValues());
+        assertArrayEquals(new short[]{30, 30, 30, 30}, patterns.get(26).getValues());
+        assertFalse(patterns.containsKey(27));
+        assertEquals(1, aliases.size());
+        assertEquals(4, aliases.get(15));
+    }
+}
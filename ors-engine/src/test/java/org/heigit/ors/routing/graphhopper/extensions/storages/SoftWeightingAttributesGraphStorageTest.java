@@ -0,0 +1,67 @@
+package org.heigit.ors.routing.graphhopper.extensions.storages;
+
+import org.junit.jupiter.api.Test;
+
+import static org.heigit.ors.routing.graphhopper.extensions.storages.SoftWeightingAttributesGraphStorage.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoftWeightingAttributesGraphStorageTest {
+    private final SoftWeightingAttributesGraphStorage storage;
+
+    public SoftWeightingAttributesGraphStorageTest() {
+        storage = new SoftWeightingAttributesGraphStorage();
+        storage.init();
+        storage.create(1);
+    }
+
+    @Test
+    void testPackedValues() {
+        storage.setEdgeValue(3, 63, 3, 100, 12, 7);
+        storage.setEdgeValue(4, 0, 1, 0, 0, 19);
+
+        int row = storage.getEdgeValue(3);
+        assertEquals(63, getGreenLevel(row));
+        assertEquals(3, getNoiseLevel(row));
+        assertEquals(100, getShadowIndex(row));
+        assertEquals(12, getHillIndex(row, false));
+        assertEquals(7, getHillIndex(row, true));
+
+        row = storage.getEdgeValue(4);
+        assertEquals(0, getGreenLevel(row));
+        assertEquals(1, getNoiseLevel(row));
+        assertEquals(0, getShadowIndex(row));
+        assertEquals(0, getHillIndex(row, false));
+        assertEquals(19, getHillIndex(row, true));
+    }
+
+    @Test
+    void testValuesAreClampedToTheirFields() {
+        storage.setEdgeValue(1, 70, 5, 200, -1, 64);
+
+        int row = storage.getEdgeValue(1);
+        assertEquals(GREEN_LEVELS - 1, getGreenLevel(row));
+        assertEquals(NOISE_LEVELS - 1, getNoiseLevel(row));
+        assertEquals(SHADOW_LEVELS - 1, getShadowIndex(row));
+        assertEquals(0, getHillIndex(row, false));
+        assertEquals(HILL_LEVELS - 1, getHillIndex(row, true));
+    }
+
+    @Test
+    void testAttributes() {
+        storage.setAttributes(GREEN | HILL);
+
+        assertTrue(storage.hasAttribute(GREEN));
+        assertTrue(storage.hasAttribute(HILL));
+        assertFalse(storage.hasAttribute(NOISE));
+        assertFalse(storage.hasAttribute(SHADOW));
+    }
+
+    @Test
+    void testIsEmpty() {
+        assertTrue(storage.isEmpty());
+        storage.setAttributes(GREEN);
+        assertTrue(storage.isEmpty());
+        storage.setEdgeValue(0, 10, 0, 0, 0, 0);
+        assertFalse(storage.isEmpty());
+    }
+}
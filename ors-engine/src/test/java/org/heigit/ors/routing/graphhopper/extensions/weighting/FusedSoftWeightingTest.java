@@ -0,0 +1,67 @@
+package org.heigit.ors.routing.graphhopper.extensions.weighting;
+
+import com.graphhopper.routing.util.AllEdgesIterator;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.weighting.FastestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.ExtendedStorageSequence;
+import com.graphhopper.storage.GraphExtension;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.util.PMap;
+import org.heigit.ors.routing.graphhopper.extensions.storages.GreenIndexGraphStorage;
+import org.heigit.ors.routing.graphhopper.extensions.storages.NoiseIndexGraphStorage;
+import org.heigit.ors.routing.graphhopper.extensions.storages.SoftWeightingAttributesGraphStorage;
+import org.heigit.ors.util.ToyGraphCreationUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FusedSoftWeightingTest {
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder();
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private GraphHopperStorage graph;
+    private SoftWeightingAttributesGraphStorage attributesStorage;
+
+    @BeforeEach
+    void setUp() {
+        graph = ToyGraphCreationUtil.createMediumGraph(encodingManager);
+        GreenIndexGraphStorage greenStorage = new GreenIndexGraphStorage();
+        NoiseIndexGraphStorage noiseStorage = new NoiseIndexGraphStorage();
+        attributesStorage = new SoftWeightingAttributesGraphStorage();
+        ArrayList<GraphExtension> extensions = new ArrayList<>(List.of(greenStorage, noiseStorage, attributesStorage));
+        ExtendedStorageSequence extendedStorages = new ExtendedStorageSequence(extensions);
+        extendedStorages.init(graph.getBaseGraph(), new RAMDirectory());
+        for (GraphExtension extension : extensions)
+            extension.create(graph.getEdges());
+        graph.setExtendedStorages(extendedStorages);
+
+        byte[] buffer = new byte[1];
+        attributesStorage.setAttributes(SoftWeightingAttributesGraphStorage.GREEN | SoftWeightingAttributesGraphStorage.NOISE);
+        for (int edge = 0; edge < graph.getEdges(); edge++) {
+            greenStorage.setEdgeValue(edge, (byte) (edge * 7 % 64));
+            noiseStorage.setEdgeValue(edge, (byte) (edge % 4));
+            attributesStorage.setEdgeValue(edge, greenStorage.getEdgeValue(edge, buffer), noiseStorage.getEdgeValue(edge, buffer), 0, 0, 0);
+        }
+    }
+
+    @Test
+    void testWeightsEqualAdditionWeighting() {
+        List<Weighting> softWeightings = List.of(
+                new GreenWeighting(carEncoder, new PMap().putObject("factor", 0.8), graph),
+                new QuietWeighting(carEncoder, new PMap().putObject("factor", 1.0), graph));
+        Weighting addition = new AdditionWeighting(softWeightings, new FastestWeighting(carEncoder));
+        Weighting fused = new FusedSoftWeighting(softWeightings, new FastestWeighting(carEncoder), attributesStorage);
+
+        AllEdgesIterator edges = graph.getAllEdges();
+        while (edges.next()) {
+            assertEquals(addition.calcEdgeWeight(edges, false, 0), fused.calcEdgeWeight(edges, false, 0), 1e-9);
+            assertEquals(addition.calcEdgeWeight(edges, true, 0), fused.calcEdgeWeight(edges, true, 0), 1e-9);
+        }
+    }
+}
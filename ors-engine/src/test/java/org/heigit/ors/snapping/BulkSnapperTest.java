@@ -0,0 +1,74 @@
+package org.heigit.ors.snapping;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.storage.index.Snap;
+import org.heigit.ors.matrix.ResolvedLocation;
+import org.heigit.ors.util.BoundedWorkerPool;
+import org.heigit.ors.util.ToyGraphCreationUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkSnapperTest {
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder();
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private LocationIndexTree locationIndex;
+    private BoundedWorkerPool workerPool;
+
+    @BeforeEach
+    void setUp() {
+        GraphHopperStorage graph = ToyGraphCreationUtil.createMediumGraph(encodingManager);
+        locationIndex = new LocationIndexTree(graph, new RAMDirectory());
+        locationIndex.prepareIndex();
+        workerPool = new BoundedWorkerPool("test-snap-worker", 3, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workerPool.shutdown();
+    }
+
+    @Test
+    void testResultsAreInInputOrder() throws Exception {
+        Random random = new Random(42);
+        Coordinate[] coords = new Coordinate[5000];
+        for (int i = 0; i < coords.length; i++)
+            coords[i] = new Coordinate(1 + random.nextDouble() * 3, 1 + random.nextDouble() * 3);
+
+        ResolvedLocation[] locations = new BulkSnapper(locationIndex, EdgeFilter.ALL_EDGES, Double.MAX_VALUE).snap(coords, workerPool);
+
+        assertEquals(coords.length, locations.length);
+        for (int i = 0; i < coords.length; i++) {
+            Snap expected = locationIndex.findClosest(coords[i].y, coords[i].x, EdgeFilter.ALL_EDGES);
+            if (!expected.isValid()) {
+                assertNull(locations[i]);
+                continue;
+            }
+            assertNotNull(locations[i]);
+            assertEquals(expected.getSnappedPoint().lon, locations[i].getCoordinate().x, 1e-9);
+            assertEquals(expected.getSnappedPoint().lat, locations[i].getCoordinate().y, 1e-9);
+            assertEquals(expected.getQueryDistance(), locations[i].getSnappedDistance(), 1e-3);
+        }
+    }
+
+    @Test
+    void testLocationsOutsideSearchRadiusAreNull() throws Exception {
+        Coordinate[] coords = new Coordinate[]{new Coordinate(3, 3), new Coordinate(2, 2.5)};
+
+        ResolvedLocation[] locations = new BulkSnapper(locationIndex, EdgeFilter.ALL_EDGES, 1).snap(coords, workerPool);
+
+        assertNotNull(locations[0]);
+        assertEquals(0, locations[0].getSnappedDistance(), 1e-3);
+        assertNull(locations[1]);
+    }
+}
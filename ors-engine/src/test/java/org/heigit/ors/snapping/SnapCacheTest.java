@@ -0,0 +1,99 @@
+package org.heigit.ors.snapping;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.LocationIndexTree;
+import com.graphhopper.storage.index.Snap;
+import com.graphhopper.util.PMap;
+import org.heigit.ors.util.ToyGraphCreationUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapCacheTest {
+    private final CarFlagEncoder carEncoder = new CarFlagEncoder();
+    private final EncodingManager encodingManager = EncodingManager.create(carEncoder);
+    private LocationIndexTree locationIndex;
+
+    @BeforeEach
+    void setUp() {
+        GraphHopperStorage graph = ToyGraphCreationUtil.createMediumGraph(encodingManager);
+        locationIndex = new LocationIndexTree(graph, new RAMDirectory());
+        locationIndex.prepareIndex();
+    }
+
+    @Test
+    void testCachedSnapEqualsIndexLookup() {
+        SnapCache snapCache = new SnapCache(100);
+        Snap expected = locationIndex.findClosest(3.5, 2.1, EdgeFilter.ALL_EDGES);
+        Snap first = snapCache.findClosest(locationIndex, 3.5, 2.1, EdgeFilter.ALL_EDGES, "car");
+        Snap second = snapCache.findClosest(locationIndex, 3.5, 2.1, EdgeFilter.ALL_EDGES, "car");
+
+        assertEquals(1, snapCache.getMisses());
+        assertEquals(1, snapCache.getHits());
+        assertNotSame(first, second);
+        assertEquals(expected.getClosestNode(), second.getClosestNode());
+        assertEquals(expected.getClosestEdge().getEdge(), second.getClosestEdge().getEdge());
+        assertEquals(expected.getSnappedPosition(), second.getSnappedPosition());
+        assertEquals(expected.getSnappedPoint().lat, second.getSnappedPoint().lat, 1e-9);
+        assertEquals(expected.getSnappedPoint().lon, second.getSnappedPoint().lon, 1e-9);
+        assertEquals(expected.getQueryDistance(), second.getQueryDistance(), 1e-3);
+    }
+
+    @Test
+    void testDifferentFiltersAreCachedSeparately() {
+        SnapCache snapCache = new SnapCache(100);
+        snapCache.findClosest(locationIndex, 3.5, 2.1, EdgeFilter.ALL_EDGES, "car|fastest");
+        snapCache.findClosest(locationIndex, 3.5, 2.1, EdgeFilter.ALL_EDGES, "car|shortest");
+        assertEquals(2, snapCache.getMisses());
+        assertEquals(0, snapCache.getHits());
+        assertEquals(2, snapCache.size());
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        SnapCache snapCache = new SnapCache(16);
+        for (int i = 0; i < 100; i++)
+            snapCache.findClosest(locationIndex, 1 + i * 0.01, 1 + i * 0.01, EdgeFilter.ALL_EDGES, "car");
+        assertTrue(snapCache.size() <= 16);
+        snapCache.clear();
+        assertEquals(0, snapCache.size());
+    }
+
+    @Test
+    void testRequestSpecificFiltersAreNotCached() {
+        assertEquals("car_fastest|fastest", SnapCache.createFilterKey("car_fastest", "fastest", new PMap()));
+        assertNull(SnapCache.createFilterKey("car_fastest", "fastest", new PMap().putObject("avoid_features", "ferries")));
+    }
+
+    @Test
+    void testHilbertOrder() {
+        Coordinate[] coords = new Coordinate[]{
+                new Coordinate(0, 0),
+                new Coordinate(10, 10),
+                new Coordinate(0.1, 0.1),
+                new Coordinate(10.1, 10.1)
+        };
+        int[] order = SpatialOrder.hilbertOrder(coords);
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(new int[]{0, 1, 2, 3}, sorted);
+        // Neighbouring coordinates end up next to each other
+        assertEquals(1, Math.abs(indexOf(order, 0) - indexOf(order, 2)));
+        assertEquals(1, Math.abs(indexOf(order, 1) - indexOf(order, 3)));
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++)
+            if (values[i] == value)
+                return i;
+        return -1;
+    }
+}
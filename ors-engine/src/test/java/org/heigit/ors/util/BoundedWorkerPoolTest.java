@@ -0,0 +1,69 @@
+package org.heigit.ors.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedWorkerPoolTest {
+    private BoundedWorkerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new BoundedWorkerPool("test-worker", 8, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testEveryTaskIsProcessedOnce() throws Exception {
+        int[] counts = new int[100];
+        pool.run(counts.length, () -> null, (state, index) -> counts[index]++);
+
+        for (int count : counts)
+            assertEquals(1, count);
+    }
+
+    @Test
+    void testStateIsCreatedOncePerWorker() throws Exception {
+        AtomicInteger states = new AtomicInteger();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        pool.run(50, states::incrementAndGet, (state, index) -> {
+            threads.add(Thread.currentThread());
+            Thread.sleep(1);
+        });
+
+        assertEquals(threads.size(), states.get());
+        assertTrue(states.get() <= 3);
+    }
+
+    @Test
+    void testParallelismOfRequestIsLimited() throws Exception {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        pool.run(20, 1, () -> null, (state, index) -> threads.add(Thread.currentThread()));
+
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+
+    @Test
+    void testFailureOfLowestTaskIsThrown() {
+        Exception exception = assertThrows(IllegalStateException.class, () -> pool.run(10, () -> null, (state, index) -> {
+            if (index == 6) {
+                throw new IllegalStateException("task 6");
+            } else if (index == 3) {
+                Thread.sleep(20);
+                throw new IllegalStateException("task 3");
+            }
+        }));
+
+        assertEquals("task 3", exception.getMessage());
+    }
+}
@@ -0,0 +1,36 @@
+package org.heigit.ors.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsUtilityTest {
+    @AfterEach
+    void tearDown() {
+        MetricsUtility.setRegistry(null);
+    }
+
+    @Test
+    void testDisabledMetricsAreNotRecorded() {
+        assertFalse(MetricsUtility.isEnabled());
+        assertEquals(0, MetricsUtility.startTime());
+        assertDoesNotThrow(() -> MetricsUtility.recordTime("ors.test", 0, MetricsUtility.TAG_PROFILE, "driving-car"));
+    }
+
+    @Test
+    void testRecordMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MetricsUtility.setRegistry(registry);
+        assertTrue(MetricsUtility.isEnabled());
+
+        long startTime = MetricsUtility.startTime();
+        MetricsUtility.recordTime("ors.test.time", startTime, MetricsUtility.TAG_PROFILE, "driving-car", MetricsUtility.TAG_ALGORITHM, MetricsUtility.ALGORITHM_CH);
+        MetricsUtility.recordValue("ors.test.size", 25, MetricsUtility.TAG_PROFILE, "driving-car");
+        MetricsUtility.recordValue("ors.test.size", 75, MetricsUtility.TAG_PROFILE, "driving-car");
+
+        assertEquals(1, registry.get("ors.test.time").tag(MetricsUtility.TAG_ALGORITHM, MetricsUtility.ALGORITHM_CH).timer().count());
+        assertEquals(100, registry.get("ors.test.size").summary().totalAmount(), 1e-9);
+    }
+}